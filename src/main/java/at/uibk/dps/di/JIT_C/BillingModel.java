@@ -0,0 +1,68 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceBilling;
+import net.sf.opendse.model.Resource;
+
+/**
+ * Billing model of a resource type. All times are given in the
+ * time unit of the scheduler.
+ */
+public interface BillingModel {
+
+    /**
+     * Get the charging limit of an instance, i.e. the lease time
+     * which is already paid when the instance was leased for the given time.
+     *
+     * @param leased time the instance is leased.
+     *
+     * @return the paid lease time.
+     */
+    double getChargingLimit(double leased);
+
+    /**
+     * Estimate the cost of executing a task.
+     *
+     * @param executionTime of the task.
+     *
+     * @return the estimated cost.
+     */
+    double estimate(double executionTime);
+
+    /**
+     * Get the cost of an instance.
+     *
+     * @param leased time the instance was leased.
+     * @param busy time the instance was executing tasks.
+     *
+     * @return the cost of the instance.
+     */
+    double cost(double leased, double busy);
+
+    /**
+     * Create the billing model of a resource from its
+     * {@link PropertyServiceBilling} attributes.
+     *
+     * @param resource to create the billing model for.
+     * @param defaultInterval billing interval if none is specified.
+     * @param secondsPerTimeUnit seconds per time unit of the scheduler.
+     *
+     * @return the billing model of the resource.
+     */
+    static BillingModel of(Resource resource, double defaultInterval, double secondsPerTimeUnit) {
+        if(!PropertyServiceBilling.isBillingTypeSet(resource)) {
+            throw new IllegalArgumentException("No billing type specified for resource " + resource.getId());
+        }
+        double price = PropertyServiceBilling.getPrice(resource);
+        switch (PropertyServiceBilling.getBillingType(resource)) {
+            case Interval:
+                return new IntervalBilling(price, PropertyServiceBilling.isBillingIntervalSet(resource) ?
+                    PropertyServiceBilling.getBillingInterval(resource) : defaultInterval);
+            case Second:
+                return new SecondBilling(price, secondsPerTimeUnit);
+            case Serverless:
+                return new ServerlessBilling(price, PropertyServiceBilling.getMemory(resource), secondsPerTimeUnit);
+            default:
+                throw new IllegalArgumentException("Unknown billing type of resource " + resource.getId());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package at.uibk.dps.di.JIT_C;
+
+/**
+ * Policy deciding when an idle VM is deprovisioned.
+ */
+public interface DeprovisionPolicy {
+
+    /**
+     * Get the time at which an idle VM is released.
+     *
+     * @param entry the idle VM.
+     * @param billing model of the VM.
+     *
+     * @return the release time of the VM.
+     */
+    double getReleaseTime(VMPoolEntry entry, BillingModel billing);
+}
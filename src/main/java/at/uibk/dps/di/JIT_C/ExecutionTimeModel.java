@@ -0,0 +1,109 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Execution times of task nodes on resources for the JIT-C scheduler.
+ *
+ * The execution times are read once from the mapping durations. The
+ * execution times of merged tasks are the sums of the execution times of
+ * the merged tasks and are calculated when the tasks are merged.
+ */
+public class ExecutionTimeModel {
+
+    /**
+     * Index of the resources.
+     */
+    private final Map<String, Integer> resourceIndex = new HashMap<>();
+
+    /**
+     * Execution times by task and resource index.
+     */
+    private final Map<Task, double[]> executionTimes = new HashMap<>();
+
+    /**
+     * Minimum execution times by task.
+     */
+    private final Map<Task, Double> minimumExecutionTimes = new HashMap<>();
+
+    /**
+     * Create the execution time model of a specification.
+     *
+     * @param specification containing the mappings.
+     */
+    public ExecutionTimeModel(EnactmentSpecification specification) {
+        for(Resource r: specification.getResourceGraph().getVertices()) {
+            resourceIndex.put(r.getId(), resourceIndex.size());
+        }
+        for(Task t: specification.getEnactmentGraph().getVertices()) {
+            if(t instanceof Communication) {
+                continue;
+            }
+            double[] et = new double[resourceIndex.size()];
+            double min = Double.MAX_VALUE;
+            for(Mapping<Task, Resource> map: specification.getMappings().getMappings(t)) {
+                double duration = PropertyServiceScheduler.getDuration(map);
+                Integer r = resourceIndex.get(map.getTarget().getId());
+                if(r != null) {
+                    et[r] += duration;
+                }
+                if(duration < min) {
+                    min = duration;
+                }
+            }
+            executionTimes.put(t, et);
+            minimumExecutionTimes.put(t, min);
+        }
+    }
+
+    /**
+     * Get execution time of a task on a specific resource.
+     *
+     * @param t task.
+     * @param r resource.
+     *
+     * @return execution time of task t on resource r (0 if there is no mapping).
+     */
+    public double get(Task t, Resource r) {
+        double[] et = executionTimes.get(t);
+        Integer i = resourceIndex.get(r.getId());
+        return et == null || i == null ? 0.0 : et[i];
+    }
+
+    /**
+     * Get the minimum execution time of a task.
+     *
+     * @param t task.
+     *
+     * @return minimum execution time over all mappings of task t.
+     */
+    public double getMinimum(Task t) {
+        return minimumExecutionTimes.getOrDefault(t, Double.MAX_VALUE);
+    }
+
+    /**
+     * Register the task merged out of the tasks tp and tc.
+     *
+     * @param merged the merged task.
+     * @param tp parent task.
+     * @param tc child task.
+     */
+    public void merge(Task merged, Task tp, Task tc) {
+        double[] etp = executionTimes.get(tp);
+        double[] etc = executionTimes.get(tc);
+        double[] et = new double[resourceIndex.size()];
+        for(int i = 0; i < et.length; i++) {
+            et[i] = etp[i] + etc[i];
+        }
+        executionTimes.put(merged, et);
+        minimumExecutionTimes.put(merged, getMinimum(tp) + getMinimum(tc));
+    }
+}
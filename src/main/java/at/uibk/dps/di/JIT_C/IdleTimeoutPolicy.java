@@ -0,0 +1,38 @@
+package at.uibk.dps.di.JIT_C;
+
+/**
+ * Deprovision VMs which are idle for a given timeout. The release time is
+ * rounded up to the charging limit of the billing model: the rest of the
+ * interval in which the timeout expires is paid anyway, so the VM stays
+ * available for reuse until then. Resources without charging limit
+ * (serverless) are released when the timeout expires.
+ */
+public class IdleTimeoutPolicy implements DeprovisionPolicy {
+
+    private final double timeout;
+
+    /**
+     * Constructor.
+     *
+     * @param timeout idle time after which a VM is released
+     * ({@link Double#POSITIVE_INFINITY} to never release VMs).
+     */
+    public IdleTimeoutPolicy(double timeout) {
+        if(timeout < 0) {
+            throw new IllegalArgumentException("Idle timeout must not be negative.");
+        }
+        this.timeout = timeout;
+    }
+
+    @Override
+    public double getReleaseTime(VMPoolEntry entry, BillingModel billing) {
+        double expiry = entry.getExpecteddIdleStartTime() + timeout;
+        if(Double.isInfinite(expiry) || entry.getStartTime() == null) {
+            return expiry;
+        }
+        // A lease ending exactly on a boundary starts the next interval, so
+        // take the charging limit just before the expiry
+        double chargingLimit = billing.getChargingLimit(Math.nextDown(expiry - entry.getStartTime()));
+        return chargingLimit == Double.MAX_VALUE ? expiry : entry.getStartTime() + chargingLimit;
+    }
+}
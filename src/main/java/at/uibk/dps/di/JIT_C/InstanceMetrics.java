@@ -0,0 +1,70 @@
+package at.uibk.dps.di.JIT_C;
+
+/**
+ * Cost and utilisation of a VM instance.
+ */
+public class InstanceMetrics {
+
+    private final String instance;
+    private final String type;
+    private final double startTime;
+    private final double endTime;
+    private final double busyTime;
+    private final int tasks;
+    private final double cost;
+
+    public InstanceMetrics(String instance, String type, double startTime, double endTime, double busyTime,
+        int tasks, double cost) {
+        this.instance = instance;
+        this.type = type;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.busyTime = busyTime;
+        this.tasks = tasks;
+        this.cost = cost;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public double getEndTime() {
+        return endTime;
+    }
+
+    public double getBusyTime() {
+        return busyTime;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Get the utilisation of the instance.
+     *
+     * @return busy time relative to the lease time.
+     */
+    public double getUtilisation() {
+        double leased = endTime - startTime;
+        return leased > 0 ? Math.min(1.0, busyTime / leased) : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return instance + " | " + type + " | " + startTime + " - " + endTime + " | tasks=" + tasks
+            + " | utilisation=" + getUtilisation() + " | cost=$" + cost;
+    }
+}
@@ -0,0 +1,39 @@
+package at.uibk.dps.di.JIT_C;
+
+/**
+ * Billing per started interval (e.g. a VM billed per started hour).
+ */
+public class IntervalBilling implements BillingModel {
+
+    private final double price;
+    private final double interval;
+
+    /**
+     * Constructor.
+     *
+     * @param price per interval.
+     * @param interval length of an interval.
+     */
+    public IntervalBilling(double price, double interval) {
+        if(interval <= 0) {
+            throw new IllegalArgumentException("Billing interval must be positive.");
+        }
+        this.price = price;
+        this.interval = interval;
+    }
+
+    @Override
+    public double getChargingLimit(double leased) {
+        return ((int) (leased / interval) * interval) + interval;
+    }
+
+    @Override
+    public double estimate(double executionTime) {
+        return executionTime / interval * price;
+    }
+
+    @Override
+    public double cost(double leased, double busy) {
+        return Math.ceil(leased / interval) * price;
+    }
+}
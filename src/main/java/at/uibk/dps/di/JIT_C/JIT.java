@@ -1,6 +1,9 @@
 package at.uibk.dps.di.JIT_C;
 
+import at.uibk.dps.di.metrics.Histogram;
+import at.uibk.dps.di.metrics.MetricsRegistry;
 import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.properties.ResourceKind;
 import at.uibk.dps.di.schedulerV2.GraphUtility;
 import at.uibk.dps.ee.model.graph.EnactmentGraph;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
@@ -13,7 +16,14 @@ import java.util.*;
 
 public class JIT {
 
-    private Map<Task, Map<Task, Double>> TT;
+    /**
+     * Time spent in a planning round (Planandschedule).
+     */
+    private static final Histogram PLANNING_TIME = MetricsRegistry.getDefault().histogram("jit_planning_nanos");
+
+    private TransferTimeModel TT;
+
+    private ExecutionTimeModel executionTimes;
 
     /**
      * ----> Configuration
@@ -32,71 +42,42 @@ public class JIT {
     private static final double interval = 10.0;
 
     /**
-     * The transfer times between different tasks.
+     * Seconds per time unit of the scheduler (minutes).
      */
-    private void setupTransferTime(EnactmentSpecification specification){
-
-        TT = new HashMap<>();
-
-        String prefix = "taskNode";
-
-        Map<Task, Double> tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "2"), 6.0);
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "3"), 6.0);
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "4"), 6.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "1"), tmp);
-
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "5"), 4.0);
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "6"), 4.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "2"), tmp);
-
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "6"), 5.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "3"), tmp);
+    private static final double secondsPerTimeUnit = 60.0;
 
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "7"), 4.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "4"), tmp);
-
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "8"), 3.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "5"), tmp);
-
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "8"), 2.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "6"), tmp);
-
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "8"), 4.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "7"), tmp);
+    /**
+     * Bandwidth (bytes per minute) used to derive transfer
+     * times from data sizes.
+     */
+    private final double bandwidth;
 
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "9"), 8.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "8"), tmp);
+    /**
+     * Default constructor, transfer times are only taken
+     * from the transfer times of the dependencies.
+     */
+    public JIT() {
+        this(0.0);
+    }
 
-        tmp = new HashMap<>();
-        tmp.put(specification.getEnactmentGraph().getVertex(prefix + "9"), 0.0);
-        TT.put(specification.getEnactmentGraph().getVertex(prefix + "9"), tmp);
+    /**
+     * Constructor.
+     *
+     * @param bandwidth used to derive transfer times from data sizes.
+     */
+    public JIT(double bandwidth) {
+        this(bandwidth, new IdleTimeoutPolicy(Double.POSITIVE_INFINITY));
     }
 
     /**
-     * Get the cost of a resource.
+     * Constructor.
      *
-     * @param resource resource to get cost from.
-     * @return Cost of resource.
+     * @param bandwidth used to derive transfer times from data sizes.
+     * @param deprovisionPolicy policy to deprovision idle VMs.
      */
-    private Double Cost(Resource resource) {
-        switch (resource.getId()) {
-            case "Vl":
-                return 0.04;
-            case "Vm":
-                return 0.02;
-            case "Vs":
-                return 0.01;
-        }
-        System.err.println("Could not find cost for resource " + resource.getId());
-        return null;
+    public JIT(double bandwidth, DeprovisionPolicy deprovisionPolicy) {
+        this.bandwidth = bandwidth;
+        this.lifecycle = new VMLifecycleManager(VMPoolStatus, deprovisionPolicy, interval, secondsPerTimeUnit);
     }
 
     /**
@@ -123,10 +104,26 @@ public class JIT {
     private Map<Task, Double> LFT = new HashMap<>();
     private Map<Task, Double> MET = new HashMap<>();
     private Map<Task, Double> EST = new HashMap<>();
-    private List<Schedule> scheduled = new ArrayList<>();
-    private List<Schedule> scheduledPrint = new ArrayList<>();
+    private Map<String, Schedule> scheduled = new HashMap<>();
+    private Deque<Schedule> scheduledPrint = new ArrayDeque<>();
     private Map<Task, Resource> scheduledMapping = new HashMap<>();
-    private List<VMPoolEntry> VMPoolStatus = new ArrayList<>();
+    private VMPool VMPoolStatus = new VMPool();
+    private final VMLifecycleManager lifecycle;
+
+    /**
+     * State of the scheduling run: the specification, the deadline, the
+     * preprocessed graph, entry and exit tasks, expected execution times,
+     * uncompleted tasks and their number of uncompleted parents.
+     */
+    private EnactmentSpecification specification;
+    private double D;
+    private EnactmentGraph adaptedGraph;
+    private Collection<Task> entryTasks;
+    private Collection<Task> exitTasks;
+    private Map<Resource, Map<Task, Double>> XET;
+    private Set<Task> T;
+    private Map<Task, Integer> remainingParents;
+    private double now = 0.0;
 
     /**
      * Preprocess the workflow by merging possible tasks.
@@ -163,26 +160,10 @@ public class JIT {
                 // 4.7 Replace tp and tc with tp+c
                 Task tc = Sc.iterator().next();
                 Task merged = PropertyServiceFunctionUser.createUserTask(tp.getId() + "+" + tc.getId(), tc.getType());
-                for(Task t: GraphUtility.getPredecessorTaskNodes(eGraph, tp)) {
-                    Map<Task, Double> tmp = new HashMap<>();
-                    tmp.put(merged, getTTIgnoreDirection(t, tc) + getTTIgnoreDirection(t, tp));
-                    if(TT.containsKey(t)) {
-                        tmp.putAll(TT.get(t));
-                        TT.put(t, tmp);
-                    } else {
-                        TT.put(t, tmp);
-                    }
-                }
-                for(Task t: GraphUtility.getSuccessorTaskNodes(eGraph, tc)) {
-                    Map<Task, Double> tmp = new HashMap<>();
-                    tmp.put(merged, getTTIgnoreDirection(t, tc) + getTTIgnoreDirection(t, tp));
-                    if(TT.containsKey(t)) {
-                        tmp.putAll(TT.get(t));
-                        TT.put(t, tmp);
-                    } else {
-                        TT.put(t, tmp);
-                    }
-                }
+                Collection<Task> neighbours = new ArrayList<>(GraphUtility.getPredecessorTaskNodes(eGraph, tp));
+                neighbours.addAll(GraphUtility.getSuccessorTaskNodes(eGraph, tc));
+                TT.merge(merged, tp, tc, neighbours);
+                executionTimes.merge(merged, tp, tc);
 
 
                 // 4.8 Set tp+c as the parent of t
@@ -216,7 +197,7 @@ public class JIT {
      * Print vm-pool status
      */
     private void printVMPoolStatus() {
-        for(VMPoolEntry entry: VMPoolStatus) {
+        for(VMPoolEntry entry: VMPoolStatus.getEntries()) {
             System.out.println("VMPOOLSTATUS:\t " + entry.getId() + " | " + entry.getType().getId() + " | " + entry.getStartTime() +
                 " | " + entry.getExpecteddIdleStartTime() + " | " + entry.getEndTime());
         }
@@ -242,19 +223,7 @@ public class JIT {
      * @return transfer time between two tasks.
      */
     private double getTTIgnoreDirection(Task t1, Task t2){
-        if(TT.containsKey(t1)) {
-            Map<Task, Double> tmp = TT.get(t1);
-            if(tmp.containsKey(t2)) {
-                return tmp.get(t2);
-            }
-        }
-        if (TT.containsKey(t2)) {
-            Map<Task, Double> tmp = TT.get(t2);
-            if(tmp.containsKey(t1)) {
-                return tmp.get(t1);
-            }
-        }
-        return 0.0;
+        return TT.get(t1, t2);
     }
 
     /**
@@ -273,38 +242,40 @@ public class JIT {
     }
 
     /**
-     * Get the last task running on a specific instance.
+     * Get a VMPoolEntry by instance.
      *
      * @param instance to look for.
      *
-     * @return last task running on a specific instance.
+     * @return VMPoolEntry.
      */
-    private Task getLastTaskOnInstance(String instance) {
-        double max = 0.0;
-        Task task = null;
-        for(Schedule schedule: scheduled) {
-            if(schedule.getInstance().equals(instance) && max < schedule.getXft()) {
-                max = schedule.getXft();
-                task = schedule.getTask();
-            }
-        }
-        return task;
+    private VMPoolEntry getEntryByInstance(String instance) {
+        return VMPoolStatus.get(instance);
     }
 
     /**
-     * Get a VMPoolEntry by instance.
+     * Check if a task is scheduled on a specific instance.
      *
-     * @param instance to look for.
+     * @param t task.
+     * @param entry VMPoolEntry of the instance.
      *
-     * @return VMPoolEntry.
+     * @return true if t is scheduled on the instance.
      */
-    private VMPoolEntry getEntryByInstance(String instance) {
-        for(VMPoolEntry entry: VMPoolStatus) {
-            if(entry.getId().equals(instance)) {
-                return entry;
-            }
-        }
-        return null;
+    private boolean isScheduledOn(Task t, VMPoolEntry entry) {
+        Schedule s = scheduled.get(t.getId());
+        return s != null && s.getInstance().equals(entry.getId());
+    }
+
+    /**
+     * Schedule a task on an instance with its current XST and XFT.
+     *
+     * @param t task to schedule.
+     * @param vm resource type of the instance.
+     * @param instance to schedule the task on.
+     */
+    private void addSchedule(Task t, Resource vm, String instance) {
+        scheduled.put(t.getId(), new Schedule(t, vm, instance, XST.get(t), XFT.get(t)));
+        scheduledPrint.add(new Schedule(t, vm, instance, XST.get(t), XFT.get(t)));
+        lifecycle.assign(instance, t, XFT.get(t), getET(t, vm));
     }
 
     /**
@@ -319,17 +290,13 @@ public class JIT {
         Collection<Task> parents = GraphUtility.getPredecessorTaskNodes(eGraph, t);
         for(Task parent: parents) {
             double delay = getTT(parent, t);
-            if(entry != null) {
-                for (Schedule s : scheduled) {
-                    if (s.getTask().getId().equals(parent.getId()) && s.getInstance().equals(entry.getId())) {
-                        if(entry.getExpecteddIdleStartTime() > XFT.get(parent)) {
-                            delay = entry.getExpecteddIdleStartTime();
-                            XST.put(t, delay);
-                            return;
-                        } else {
-                            delay = 0.0;
-                        }
-                    }
+            if(entry != null && isScheduledOn(parent, entry)) {
+                if(entry.getExpecteddIdleStartTime() > XFT.get(parent)) {
+                    delay = entry.getExpecteddIdleStartTime();
+                    XST.put(t, delay);
+                    return;
+                } else {
+                    delay = 0.0;
                 }
             }
             if(max < XFT.get(parent) + delay) {
@@ -355,52 +322,30 @@ public class JIT {
                 calcXFT(parent, specification, eGraph, entry);
             }
             double delay = getTT(t, parent);
-            for (Schedule s : scheduled) {
-                if (s.getTask().getId().equals(parent.getId()) && s.getInstance().equals(entry.getId())) {
-                    if(entry.getExpecteddIdleStartTime() <= XFT.get(parent)) {
-                        delay = 0.0;
-                    } else {
-                        delay = entry.getExpecteddIdleStartTime() - XFT.get(parent);
-                    }
+            if (isScheduledOn(parent, entry)) {
+                if(entry.getExpecteddIdleStartTime() <= XFT.get(parent)) {
+                    delay = 0.0;
+                } else {
+                    delay = entry.getExpecteddIdleStartTime() - XFT.get(parent);
                 }
             }
             if (max < XFT.get(parent) + delay) {
                 max = XFT.get(parent) + delay;
             }
         }
-        double ET = getET(specification, t, entry.getType());
+        double ET = getET(t, entry.getType());
         XFT.put(t, max + ET);
     }
 
     /**
      * Get execution time of a task on a specific resource.
      *
-     * @param specification of the workflow.
      * @param t task.
      * @param r resource.
      * @return execution time of task t on resource r.
      */
-    private double getET(EnactmentSpecification specification, Task t, Resource r){
-        double ET = 0.0;
-        if(t.getId().contains("+")) {
-            String[] tasks = t.getId().split("\\+");
-            for(String task: tasks) {
-                Set<Mapping<Task, Resource>> mappings = specification.getMappings().getMappings(specification.getEnactmentGraph().getVertex("taskNode" + task.replaceAll("[^0-9]", "")));
-                for(Mapping<Task, Resource> map: mappings) {
-                    if(map.getTarget().getId().equals(r.getId())) {
-                        ET += PropertyServiceScheduler.getDuration(map);
-                    }
-                }
-            }
-        } else {
-            Set<Mapping<Task, Resource>> mappings = specification.getMappings().getMappings(t);
-            for(Mapping<Task, Resource> map: mappings) {
-                if(map.getTarget().getId().equals(r.getId())) {
-                    ET += PropertyServiceScheduler.getDuration(map);
-                }
-            }
-        }
-        return ET;
+    private double getET(Task t, Resource r){
+        return executionTimes.get(t, r);
     }
 
     /**
@@ -421,14 +366,114 @@ public class JIT {
     }
 
     /**
-     * The actual scheduler.
+     * The actual scheduler. Simulates the execution, i.e. each
+     * dispatched task finishes at its expected finish time.
      *
      * @param specification of the enactment.
      * @param D deadline.
      */
     public void schedule(EnactmentSpecification specification, double D){
 
-        setupTransferTime(specification);
+        if(init(specification, D)) {
+
+            // 13. While all tasks in T are not completed do
+            while(!T.isEmpty()){
+
+                System.out.println("---------------- iteration " + (iteration++) + " ----------------");
+
+                // 14. Send the scheduled tasks for execution to the execution manager
+                List<Schedule> dispatched = dispatch();
+                if(dispatched.isEmpty()) {
+                    System.err.println("Could not schedule the remaining tasks " + T);
+                    break;
+                }
+
+                // 16. to_be_scheduled
+                List<Task> to_be_scheduled = new ArrayList<>();
+                for(Schedule scheuledTask : dispatched) {
+                    System.out.println("[[[ SIMULATED: " + scheuledTask.getTask().getId() + " finished ]]]");
+                    to_be_scheduled.addAll(markFinished(scheuledTask.getTask(), scheuledTask.getXft()));
+                }
+
+                // 17. Planandschedule(to_be_scheduled)
+                planAndSchedule(to_be_scheduled);
+            }
+            // 18. End while
+        }
+        // 22. End
+
+        printSummary();
+    }
+
+    /**
+     * Start the event-driven scheduling mode. The returned tasks have to be
+     * executed and their completion reported via {@link #onTaskFinished(Task, double)}.
+     *
+     * @param specification of the enactment.
+     * @param D deadline.
+     *
+     * @return the schedules of the entry tasks (empty if the deadline is below MET W).
+     */
+    public List<Schedule> start(EnactmentSpecification specification, double D) {
+        if(!init(specification, D)) {
+            return new ArrayList<>();
+        }
+        return dispatch();
+    }
+
+    /**
+     * Report the completion of a task in the event-driven scheduling mode.
+     * The actual finish time replaces the expected finish time of the task,
+     * the children which became ready are planned and scheduled.
+     *
+     * @param task completed task (as contained in the returned schedules).
+     * @param actualFinishTime of the task.
+     *
+     * @return the newly scheduled tasks which have to be executed.
+     */
+    public List<Schedule> onTaskFinished(Task task, double actualFinishTime) {
+        if(T == null || !T.contains(task)) {
+            return new ArrayList<>();
+        }
+        now = Math.max(now, actualFinishTime);
+        Schedule schedule = scheduled.get(task.getId());
+        if(schedule != null) {
+            VMPoolEntry entry = VMPoolStatus.get(schedule.getInstance());
+            if(entry != null && entry.getLastTask() == task) {
+                VMPoolStatus.setExpectedIdleStartTime(entry, actualFinishTime);
+            }
+        }
+        planAndSchedule(markFinished(task, actualFinishTime));
+        List<Schedule> dispatched = dispatch();
+        if(T.isEmpty()) {
+            printSummary();
+        }
+        return dispatched;
+    }
+
+    /**
+     * Check if all tasks are completed.
+     *
+     * @return true if all tasks are completed.
+     */
+    public boolean isFinished() {
+        return T != null && T.isEmpty();
+    }
+
+    /**
+     * Initialize the scheduler and schedule the entry tasks (steps 1 - 12).
+     *
+     * @param specification of the enactment.
+     * @param D deadline.
+     *
+     * @return false if the deadline is below MET W.
+     */
+    private boolean init(EnactmentSpecification specification, double D){
+
+        this.specification = specification;
+        this.D = D;
+        TT = new TransferTimeModel(specification.getEnactmentGraph(), bandwidth);
+        executionTimes = new ExecutionTimeModel(specification);
 
         EnactmentGraph eGraph = specification.getEnactmentGraph();
         Collection<Task> entryTasksTmp = new ArrayList<>();
@@ -442,15 +487,7 @@ public class JIT {
             Map<Task, Double> MET_tmp = new HashMap<>();
             for(Task t: eGraph.getVertices()) {
                 if(!(t instanceof Communication)){
-                    Set<Mapping<Task, Resource>> mappings = specification.getMappings().getMappings(t);
-                    double min = Double.MAX_VALUE;
-                    for(Mapping<Task, Resource> map: mappings) {
-                        double duration = PropertyServiceScheduler.getDuration(map);
-                        if(duration < min) {
-                            min = duration;
-                        }
-                    }
-                    MET_tmp.put(t, min);
+                    MET_tmp.put(t, executionTimes.getMinimum(t));
                 }
             }
 
@@ -506,45 +543,20 @@ public class JIT {
         if(D >= MET_W) {
 
             // 4. Call Pre-processing(W)
-            EnactmentGraph adaptedGraph = preprocessing(specification);
+            adaptedGraph = preprocessing(specification);
             //EnactmentGraphViewer.view(adaptedGraph);
 
             // 5. Compute MET, LFT and XET matrices using Equations (2), (8) and (10) respectively
                 // Eq. 2: Minimum execution time of task t_i
                 for(Task t: adaptedGraph.getVertices()) {
                     if(!(t instanceof Communication)){
-                        if(t.getId().contains("+")) {
-                            String[] tasks = t.getId().split("\\+");
-                            double total = 0.0;
-                            for(String task: tasks) {
-                                Set<Mapping<Task, Resource>> mappings = specification.getMappings().getMappings(specification.getEnactmentGraph().getVertex("taskNode" + task.replaceAll("[^0-9]", "")));
-                                double min = Double.MAX_VALUE;
-                                for (Mapping<Task, Resource> map : mappings) {
-                                    double dur = PropertyServiceScheduler.getDuration(map);
-                                    if (dur < min) {
-                                        min = dur;
-                                    }
-                                }
-                                total += min;
-                            }
-                            MET.put(t, total);
-                        }else {
-                            Set<Mapping<Task, Resource>> mappings = specification.getMappings().getMappings(t);
-                            double min = Double.MAX_VALUE;
-                            for (Mapping<Task, Resource> map : mappings) {
-                                double dur = PropertyServiceScheduler.getDuration(map);
-                                if (dur < min) {
-                                    min = dur;
-                                }
-                            }
-                            MET.put(t, min);
-                        }
+                        MET.put(t, executionTimes.getMinimum(t));
                     }
                 }
 
                 // Eq. 8: Latest finish time of task t_i
                 Stack<Task> stack = new Stack<>();
-                Collection<Task> exitTasks = new ArrayList<>();
+                exitTasks = new ArrayList<>();
                 for(Task t : GraphUtility.getLeafNodes(adaptedGraph)) {
                     exitTasks.addAll(GraphUtility.getPredecessorTaskNodes(adaptedGraph, t));
                 }
@@ -575,33 +587,13 @@ public class JIT {
                 }
 
                 // Eq. 10: Expected execution time
-                Map<Resource, Map<Task, Double>> XET = new HashMap<>();
+                XET = new HashMap<>();
                 Stack<Task> stackXET = new Stack<>();
                 for(Resource r : specification.getResourceGraph().getVertices()) {
-                    if(!r.getId().contains("Local")) {
+                    if(!ResourceKind.of(r).isLocal()) {
                         Map<Task, Double> tmp = new HashMap<>();
                         for(Task t: exitTasks) {
-                            if(t.getId().contains("+")) {
-                                String[] tasks = t.getId().split("\\+");
-                                double total = 0.0;
-                                for(String task: tasks) {
-                                    Set<Mapping<Task, Resource>> maps = specification.getMappings().getMappings(
-                                        specification.getEnactmentGraph().getVertex("taskNode"+ task.replaceAll("[^0-9]", "")));
-                                    for (Mapping<Task, Resource> map : maps) {
-                                        if (map.getTarget().getId().equals(r.getId())) {
-                                            total += PropertyServiceScheduler.getDuration(map);
-                                        }
-                                    }
-                                }
-                                tmp.put(t, total);
-                            } else {
-                                Set<Mapping<Task, Resource>> maps = specification.getMappings().getMappings(t);
-                                for (Mapping<Task, Resource> map : maps) {
-                                    if (map.getTarget().getId().equals(r.getId())) {
-                                        tmp.put(t, PropertyServiceScheduler.getDuration(map));
-                                    }
-                                }
-                            }
+                            tmp.put(t, getET(t, r));
                             stackXET.push(t);
                         }
                         while (!stackXET.isEmpty()) {
@@ -620,26 +612,7 @@ public class JIT {
                                         }
                                     }
                                 }
-                                double et = 0.0;
-                                if(predecessor.getId().contains("+")) {
-                                    String[] tasks = predecessor.getId().split("\\+");
-                                    for(String task: tasks) {
-                                        Set<Mapping<Task, Resource>> maps = specification.getMappings().getMappings(
-                                            specification.getEnactmentGraph().getVertex("taskNode"+ task.replaceAll("[^0-9]", "")));
-                                        for (Mapping<Task, Resource> map : maps) {
-                                            if (map.getTarget().getId().equals(r.getId())) {
-                                                et += PropertyServiceScheduler.getDuration(map);
-                                            }
-                                        }
-                                    }
-                                } else {
-                                    Set<Mapping<Task, Resource>> maps = specification.getMappings().getMappings(predecessor);
-                                    for (Mapping<Task, Resource> map : maps) {
-                                        if (map.getTarget().getId().equals(r.getId())) {
-                                            et = PropertyServiceScheduler.getDuration(map);
-                                        }
-                                    }
-                                }
+                                double et = getET(predecessor, r);
                                 tmp.put(predecessor, et + max);
                                 stackXET.push(predecessor);
                             }
@@ -649,11 +622,10 @@ public class JIT {
                 }
 
             // 6. {t_entry} Root nodes of the workflow graph W
-            Collection<Task> entryTasks = new ArrayList<>();
+            entryTasks = new ArrayList<>();
             for(Task t : GraphUtility.getRootNodes(eGraph)) {
                 entryTasks.addAll(GraphUtility.getSuccessorTaskNodes(eGraph, t));
             }
-            Map<Task, Resource> taskvmmap;
 
 
             // 7. For each te 2 {t_entry}
@@ -661,7 +633,7 @@ public class JIT {
                 // 8. to_provision CheapesttaskVMMap(t_e)
                     // 8.1. Begin
                     // 8.2. taskvmmap = 0
-                    taskvmmap = new HashMap<>();
+                    Map<Task, Resource> taskvmmap = new HashMap<>();
                     // 8.3. If t is not an entry task then
                     if(!entryTasks.contains(t_e)) {
                         // This will never happen
@@ -684,7 +656,7 @@ public class JIT {
                     double min = Double.MAX_VALUE;
                     for(Resource r: resources) {
                         // TODO check paper there is arg(...)
-                        double tmp = XET.get(r).get(t_e)/interval * Cost(r);
+                        double tmp = lifecycle.estimate(r, XET.get(r).get(t_e));
                         if(min > tmp){
                             min = tmp;
                             VM_j = r;
@@ -702,27 +674,26 @@ public class JIT {
                 // LATER
 
                 // 11. Update VM Pool Status
-                double ET = getET(specification, t_e, to_provision.get(t_e));
+                double ET = getET(t_e, to_provision.get(t_e));
                 VMPoolEntry e = new VMPoolEntry(instance, to_provision.get(t_e), 0.0, XST.get(t_e) + ET, null);
-                VMPoolStatus.add(e);
+                lifecycle.provision(e);
                 //printVMPoolStatus();
 
                 // 10. Schedule t_e on v_e at XST(t_e)
                 calcXFT(t_e, specification, adaptedGraph, e);
                 XFT.replace(t_e, XFT.get(t_e) + XST.get(t_e));
-                scheduled.add(new Schedule(t_e, to_provision.get(t_e), instance, XST.get(t_e), XFT.get(t_e)));
-                scheduledPrint.add(new Schedule(t_e, to_provision.get(t_e), instance, XST.get(t_e), XFT.get(t_e)));
+                addSchedule(t_e, to_provision.get(t_e), instance);
                 //printSchedule();
 
             } // 12. End for
 
-
-
-            // 13. While all tasks in T are not completed do
-            Map<Task, Boolean> T = new HashMap<>();
+            // 13. T: tasks which are not completed, remaining parents of each task
+            T = new HashSet<>();
+            remainingParents = new HashMap<>();
             for(Task t: adaptedGraph.getVertices()) {
                 if(!(t instanceof Communication)) {
-                    T.put(t, false);
+                    T.add(t);
+                    remainingParents.put(t, new HashSet<>(GraphUtility.getPredecessorTaskNodes(adaptedGraph, t)).size());
                 }
             }
 
@@ -730,372 +701,371 @@ public class JIT {
             printVMPoolStatus();
             printSchedule();
             //System.out.println("<------");
+            return true;
+        }
 
-            while(!T.isEmpty()){
-
-                System.out.println("---------------- iteration " + (iteration++) + " ----------------");
-
-                // 14. Send the scheduled tasks for execution to the execution manager
-                while (!scheduledPrint.isEmpty()) {
-
-                    Schedule scheuledTask = scheduledPrint.get(0);
-                    System.out.println("\tSend scheduled task " + scheuledTask.getTask().getId() + " to execution manager.");
-                    scheduledMapping.put(scheuledTask.getTask(), scheuledTask.getVm());
-
-                    // 15. Update AST (Actual start time), XFT of scheduled tasks
-                    AST.put(scheuledTask.getTask(), XST.get(scheuledTask.getTask()));
-                    double ET = getET(specification, scheuledTask.getTask(), scheuledTask.getVm());
-                    VMPoolEntry entry = getEntryByInstance(scheuledTask.getInstance ());
-                    if(entry == null) {
-                        XFT.put(scheuledTask.getTask(), AST.get(scheuledTask.getTask()) + ET);
-                    }
-                    scheuledTask.setXst(XST.get(scheuledTask.getTask()));
-                    scheuledTask.setXft(XFT.get(scheuledTask.getTask()));
+        // 19. Else
+        else {
+            // 20. Prompt user to specify a deadline above MET W
+            System.out.println("Specify a deadline above MET W!");
+            return false;
+        }
+        // 21. End If
+    }
 
+    /**
+     * Send the scheduled tasks for execution to the execution manager
+     * (steps 14 and 15).
+     *
+     * @return the dispatched schedules.
+     */
+    private List<Schedule> dispatch() {
+        List<Schedule> dispatched = new ArrayList<>();
+        while (!scheduledPrint.isEmpty()) {
+
+            Schedule scheuledTask = scheduledPrint.poll();
+            System.out.println("\tSend scheduled task " + scheuledTask.getTask().getId() + " to execution manager.");
+            scheduledMapping.put(scheuledTask.getTask(), scheuledTask.getVm());
+
+            // 15. Update AST (Actual start time), XFT of scheduled tasks
+            AST.put(scheuledTask.getTask(), XST.get(scheuledTask.getTask()));
+            now = Math.max(now, AST.get(scheuledTask.getTask()));
+            double ET = getET(scheuledTask.getTask(), scheuledTask.getVm());
+            VMPoolEntry entry = getEntryByInstance(scheuledTask.getInstance ());
+            if(entry == null) {
+                XFT.put(scheuledTask.getTask(), AST.get(scheuledTask.getTask()) + ET);
+            }
+            scheuledTask.setXst(XST.get(scheuledTask.getTask()));
+            scheuledTask.setXft(XFT.get(scheuledTask.getTask()));
+            dispatched.add(scheuledTask);
+        }
+        return dispatched;
+    }
 
-                    System.out.println("[[[ SIMULATED: " + scheuledTask.getTask().getId() + " finished ]]]");
-                    T.remove(scheuledTask.getTask());
-                    scheduledPrint.remove(scheuledTask);
-                }
+    /**
+     * Mark a task as completed and update the remaining parents of its children.
+     *
+     * @param task completed task.
+     * @param finishTime of the task.
+     *
+     * @return the children which became ready.
+     */
+    private List<Task> markFinished(Task task, double finishTime) {
+        List<Task> ready = new ArrayList<>();
+        if(!T.remove(task)) {
+            return ready;
+        }
+        XFT.put(task, finishTime);
+        for(Task child: new LinkedHashSet<>(GraphUtility.getSuccessorTaskNodes(adaptedGraph, task))) {
+            if(remainingParents.merge(child, -1, Integer::sum) == 0 && T.contains(child)) {
+                ready.add(child);
+            }
+        }
+        return ready;
+    }
 
-                // 16. to_be_scheduled
-                List<Task> to_be_scheduled_tmp = new ArrayList<>();
-                for (Task t : adaptedGraph.getVertices()) {
-                    if(!(t instanceof Communication) && !to_be_scheduled_tmp.contains(t)) {
-                        Collection<Task> parents = GraphUtility.getPredecessorTaskNodes(adaptedGraph, t);
-                        boolean allParentsSafe = !parents.isEmpty();
-                        for (Task parent : parents) {
-                            if(!(!T.containsKey(parent) && T.containsKey(t))) {
-                                allParentsSafe = false;
-                            }
-                        }
-                        if(allParentsSafe) {
-                            to_be_scheduled_tmp.add(t);
-                        }
+    /**
+     * Plan and schedule the tasks which became ready (step 17).
+     *
+     * @param to_be_scheduled tasks whose parents are all completed.
+     */
+    private void planAndSchedule(List<Task> to_be_scheduled) {
+        long start = MetricsRegistry.getDefault().start();
+
+        // 17.1 active_VMs List of active VMs in the VM pool
+        Set<VMPoolEntry> active_VMs = new HashSet<>(VMPoolStatus.getEntries());
+
+        // 17.2. For each t_i e task_list do
+        for(Task ti : to_be_scheduled) {
+
+            boolean exit = false;
+            Resource vp = null;
+            Task lastParent = null;
+            double max;
+
+            // 17.3 vmmap = CheapesttaskVM(t_i)
+            // 17.3.1. Begin
+            // 17.3.2. taskvmmap = 0
+            Map<Task, Resource> taskvmmap = new HashMap<>();
+            // 17.3.3. If t is not an entry task then
+            if(!entryTasks.contains(ti)) {
+                // 17.3.4. lastParent arg(max tp ts parent XFT(tp)
+                Collection<Task> parents = GraphUtility.getPredecessorTaskNodes(adaptedGraph, ti);
+
+                max = 0.0;
+                for(Task parent : parents) {
+                    if(XFT.get(parent) > max) {
+                        max = XFT.get(parent);
+                        lastParent = parent;
                     }
-
                 }
-                List<Task> to_be_scheduled = new ArrayList<>();
-                for (Task t : to_be_scheduled_tmp) {
-                    to_be_scheduled.add(0, t);
+                // 17.3.5. vp VM on which lastParent is running
+                vp = scheduledMapping.get(lastParent);
+
+                // 17.3.6 temp ...
+                max = 0.0;
+                for(Task parent : parents) {
+                    if(parent != lastParent && XFT.get(parent) + getTT(parent, ti) > max) {
+                        max = XFT.get(parent) + getTT(parent, ti);
+                    }
                 }
+                double temp = Math.max(XFT.get(lastParent), max);
 
-                // 17. Planandschedule(to_be_scheduled)
+                // 17.3.7 If temp >= XIST ...
+                double ET = getET(ti, vp);
 
-                    // 17.1 active_VMs List of active VMs in the VM pool
-                    List<VMPoolEntry> active_VMs = new ArrayList<>(VMPoolStatus);
-
-                    // 17.2. For each t_i e task_list do
-                    for(Task ti : to_be_scheduled) {
-
-                        boolean exit = false;
-                        Resource vp = null;
-                        Task lastParent = null;
-
-                        // 17.3 vmmap = CheapesttaskVM(t_i)
-                        // 17.3.1. Begin
-                        // 17.3.2. taskvmmap = 0
-                        taskvmmap = new HashMap<>();
-                        // 17.3.3. If t is not an entry task then
-                        if(!entryTasks.contains(ti)) {
-                            // 17.3.4. lastParent arg(max tp ts parent XFT(tp)
-                            Collection<Task> parents = GraphUtility.getPredecessorTaskNodes(adaptedGraph, ti);
-
-                            max = 0.0;
-                            for(Task parent : parents) {
-                                if(XFT.get(parent) > max) {
-                                    max = XFT.get(parent);
-                                    lastParent = parent;
-                                }
-                            }
-                            // 17.3.5. vp VM on which lastParent is running
-                            vp = scheduledMapping.get(lastParent);
-
-                            // 17.3.6 temp ...
-                            max = 0.0;
-                            for(Task parent : parents) {
-                                if(parent != lastParent && XFT.get(parent) + getTT(parent, ti) > max) {
-                                    max = XFT.get(parent) + getTT(parent, ti);
-                                }
-                            }
-                            double temp = Math.max(XFT.get(lastParent), max);
-
-                            // 17.3.7 If temp >= XIST ...
-                            double ET = getET(specification, ti, vp);
+                if(temp >= (XST.get(lastParent) + ET) && (temp + XET.get(vp).get(ti)) <= D) {
 
-                            if(temp >= (XST.get(lastParent) + ET) && (temp + XET.get(vp).get(ti)) <= D) {
+                    // 17.3.8  XST(t) =  temp
+                    XST.replace(ti, temp);
 
-                                // 17.3.8  XST(t) =  temp
-                                XST.replace(ti, temp);
+                    // 17.3.9. taskvmmap =  type(vp)
+                    taskvmmap.put(ti, vp);
 
-                                // 17.3.9. taskvmmap =  type(vp)
-                                taskvmmap.put(ti, vp);
+                    // 17.3.10 return taskvmmap
+                    exit = true;
+                }
+                // 17.3.11 Else
+                else {
+
+                    // 17.3.12 XST(t) = ...
+                    max = 0.0;
+                    for(Task parent : parents) {
+                        if(XFT.get(parent) + getTT(ti, parent) > max) {
+                            max = XFT.get(parent) + getTT(ti, parent);
+                        }
+                    }
+                    if(XST.containsKey(ti)) {
+                        XST.replace(ti, max);
+                    }else {
+                        XST.put(ti, max);
+                    }
 
-                                // 17.3.10 return taskvmmap
-                                exit = true;
-                            }
-                            // 17.3.11 Else
-                            else {
+                } // 17.3.13 End if
+            }
+            // 17.3.14. Else
+            else {
+                // 15. XST = acquisitionDelay
+                XST.put(ti, acquisitionDelay);
+            }
 
-                                // 17.3.12 XST(t) = ...
-                                max = 0.0;
-                                for(Task parent : parents) {
-                                    if(XFT.get(parent) + getTT(ti, parent) > max) {
-                                        max = XFT.get(parent) + getTT(ti, parent);
-                                    }
-                                }
-                                if(XST.containsKey(ti)) {
-                                    XST.replace(ti, max);
-                                }else {
-                                    XST.put(ti, max);
-                                }
+            if(!exit) {
+                // 17.3.16. End if
+                // 17.3.17. Find {VM_k} e VM_set for which XST(t) + XET(t, VM_k) <= D
+                List<Resource> resources = new ArrayList<>();
+                for (Resource res : XET.keySet()) {
+                    double subtract = 0.0;
+                    if(vp != null && lastParent != null && vp.getId().equals(res.getId())) {
+                        subtract = getTT(ti, lastParent);
+                    }
+                    if (XST.get(ti) - subtract + XET.get(res).get(ti) <= D) {
+                        resources.add(res);
+                    }
+                }
+                // 17.3.18. VM_j = arg(min_VM_k(XET(t,VM_k)/interval * Cost(VM_K)
+                Resource VM_j = null;
+                double min = Double.MAX_VALUE;
+                for (Resource r : resources) {
+                    // TODO check paper there is arg(...)
+                    double tmp = lifecycle.estimate(r, XET.get(r).get(ti));
+                    if (min > tmp) {
+                        min = tmp;
+                        VM_j = r;
+                    }
+                }
+                // 17.3.19. taskvmmap = VMj
+                taskvmmap.put(ti, VM_j);
+            }
 
-                            } // 17.3.13 End if
-                        }
-                        // 17.3.14. Else
-                        else {
-                            // 15. XST = acquisitionDelay
-                            XST.put(ti, acquisitionDelay);
-                        }
+            // LFT does not depend on the VM, only active VMs of type vmmap are candidates
+            if(!active_VMs.isEmpty()) {
+                calcLFT(ti, adaptedGraph);
+            }
 
-                        if(!exit) {
-                            // 17.3.16. End if
-                            // 17.3.17. Find {VM_k} e VM_set for which XST(t) + XET(t, VM_k) <= D
-                            List<Resource> resources = new ArrayList<>();
-                            for (Resource res : XET.keySet()) {
-                                double subtract = 0.0;
-                                if(vp != null && lastParent != null && vp.getId().equals(res.getId())) {
-                                    subtract = getTT(ti, lastParent);
-                                }
-                                if (XST.get(ti) - subtract + XET.get(res).get(ti) <= D) {
-                                    resources.add(res);
-                                }
-                            }
-                            // 17.3.18. VM_j = arg(min_VM_k(XET(t,VM_k)/interval * Cost(VM_K)
-                            Resource VM_j = null;
-                            double min = Double.MAX_VALUE;
-                            for (Resource r : resources) {
-                                // TODO check paper there is arg(...)
-                                double tmp = XET.get(r).get(ti) / interval * Cost(r);
-                                if (min > tmp) {
-                                    min = tmp;
-                                    VM_j = r;
-                                }
-                            }
-                            // 17.3.19. taskvmmap = VMj
-                            taskvmmap.put(ti, VM_j);
-                        }
+            // 17.4 Find vk e active VMs
+            List<VMPoolEntry> vk = new ArrayList<>();
+            for(VMPoolEntry entry: VMPoolStatus.getEntries(taskvmmap.get(ti))) {
+                if(!active_VMs.contains(entry)) {
+                    continue;
+                }
 
-                        // 17.4 Find vk e active VMs
-                        List<VMPoolEntry> vk = new ArrayList<>();
-                        for(VMPoolEntry entry: active_VMs) {
-
-                            Resource r = entry.getType();
-                            calcXFT(ti, specification, adaptedGraph, entry);
-                            calcXST(ti, adaptedGraph, entry);
-                            calcLFT(ti, adaptedGraph);
-                            double CLI = ((int)((entry.getExpecteddIdleStartTime() - entry.getStartTime()) / interval) * interval) + interval;
-                            /*if((entry.getExpecteddIdleStartTime() - entry.getStartTime()) % interval != 0) {
-                                CLI += interval;
-                            }*/
-
-                            if(r.getId().equals(taskvmmap.get(ti).getId())
-                                && XST.get(ti) <= CLI
-                                && XFT.get(ti) <= LFT.get(ti)) {
-                                Collection<Task> children = GraphUtility.getSuccessorTaskNodes(adaptedGraph, ti);
-                                boolean safe = true;
-                                for(Task child: children) {
-                                    double LST = LFT.get(child) - MET.get(child);
-                                    calcXFT(child, specification, adaptedGraph, entry);
-                                    calcXST(child, adaptedGraph, entry);
-                                    if(XST.get(child) > LST) {
-                                        safe = false;
-                                    }
-                                }
-                                if(safe) {
-                                    vk.add(entry);
-                                }
-                            }
+                Resource r = entry.getType();
+                calcXFT(ti, specification, adaptedGraph, entry);
+                calcXST(ti, adaptedGraph, entry);
+                double CLI = lifecycle.getChargingLimit(entry);
+
+                if(r.getId().equals(taskvmmap.get(ti).getId())
+                    && XST.get(ti) <= CLI
+                    && XFT.get(ti) <= LFT.get(ti)) {
+                    Collection<Task> children = GraphUtility.getSuccessorTaskNodes(adaptedGraph, ti);
+                    boolean safe = true;
+                    for(Task child: children) {
+                        double LST = LFT.get(child) - MET.get(child);
+                        calcXFT(child, specification, adaptedGraph, entry);
+                        calcXST(child, adaptedGraph, entry);
+                        if(XST.get(child) > LST) {
+                            safe = false;
                         }
+                    }
+                    if(safe) {
+                        vk.add(entry);
+                    }
+                }
+            }
 
-                        // 17.5 if vk exists
-                        if(!vk.isEmpty()) {
-
-                            // 17.6 Find the VM vk, such that the difference between XIST(vk) and XST(ti) is minimum
-                            VMPoolEntry minDiff = null;
-                            double min = Double.MAX_VALUE;
-                            for(VMPoolEntry v: vk) {
-                                double ET = getET(specification, ti, v.getType());
-                                double XIST = XST.get(ti) + ET;
-                                if(Math.abs(XST.get(ti) - XIST) < min) {
-                                    min = Math.abs(XST.get(ti) - XIST);
-                                    minDiff = v;
-                                }
-                            }
+            // 17.5 if vk exists
+            if(!vk.isEmpty()) {
+
+                // 17.6 Find the VM vk, such that the difference between XIST(vk) and XST(ti) is minimum
+                VMPoolEntry minDiff = null;
+                double min = Double.MAX_VALUE;
+                for(VMPoolEntry v: vk) {
+                    double ET = getET(ti, v.getType());
+                    double XIST = XST.get(ti) + ET;
+                    if(Math.abs(XST.get(ti) - XIST) < min) {
+                        min = Math.abs(XST.get(ti) - XIST);
+                        minDiff = v;
+                    }
+                }
 
-                            // 17.7 Schedule ti on vk and update XST(ti)
-                            calcXFT(ti, specification, adaptedGraph, minDiff);
-                            calcXST(ti, adaptedGraph, minDiff);
-                            scheduledMapping.put(ti, minDiff.getType());
-                            //System.out.println("Schedule " + ti.getId() + " on " + minDiff.getId());
-                            scheduled.add(new Schedule(ti, minDiff.getType(), minDiff.getId(), XST.get(ti), XFT.get(ti)));
-                            scheduledPrint.add(new Schedule(ti, minDiff.getType(), minDiff.getId(), XST.get(ti), XFT.get(ti)));
-                            //printSchedule();
-
-                            // 17.8 Update VM Pool Status
-                            for(VMPoolEntry entry : VMPoolStatus) {
-                                if(entry.getId().equals(minDiff.getId())) {
-                                    double ET = getET(specification, ti, entry.getType());
-                                    calcXST(ti, adaptedGraph, entry);
-                                    entry.setExpecteddIdleStartTime(XST.get(ti) + ET);
-                                }
-                            }
-                            //printVMPoolStatus();
-                        }
-                        // 17.9 Else
-                        else {
-
-                            // 17.10 Find(vj) e active_VMs ...
-                            List<VMPoolEntry> vj = new ArrayList<>();
-                            for(VMPoolEntry entry: active_VMs) {
-                                Resource r = entry.getType();
-                                calcXFT(ti, specification, adaptedGraph, entry);
-                                calcXST(ti, adaptedGraph, entry);
-                                calcLFT(ti, adaptedGraph);
-                                double CLI = ((int)((entry.getExpecteddIdleStartTime() - entry.getStartTime()) / interval) * interval) + interval;
-                                /*if((entry.getExpecteddIdleStartTime() - entry.getStartTime()) % interval != 0) {
-                                    CLI += interval;
-                                }*/
-                                if(r.getId().equals(taskvmmap.get(ti).getId())
-                                    && XFT.get(ti) <= CLI
-                                    && XFT.get(ti) <= LFT.get(ti)) {
-                                    Collection<Task> children = GraphUtility.getSuccessorTaskNodes(adaptedGraph, ti);
-                                    boolean safe = true;
-                                    for(Task child: children) {
-                                        double LST = LFT.get(child) - MET.get(child);
-                                        calcXFT(child, specification, adaptedGraph, entry);
-                                        calcXST(child, adaptedGraph, entry);
-                                        if(XST.get(child) > LST) {
-                                            safe = false;
-                                        }
-                                    }
-                                    if(safe) {
-                                        vj.add(entry);
-                                    }
-                                }
-                            }
+                // 17.7 Schedule ti on vk and update XST(ti)
+                calcXFT(ti, specification, adaptedGraph, minDiff);
+                calcXST(ti, adaptedGraph, minDiff);
+                scheduledMapping.put(ti, minDiff.getType());
+                //System.out.println("Schedule " + ti.getId() + " on " + minDiff.getId());
+                addSchedule(ti, minDiff.getType(), minDiff.getId());
+                //printSchedule();
 
-                            // 17.11 If (vj) exists
-                            if(!vj.isEmpty()) {
-
-                                // 17.12 Find the VM ...
-                                VMPoolEntry minDiff = null;
-                                double min = Double.MAX_VALUE;
-                                for(VMPoolEntry v: vj) {
-                                    double ET = getET(specification, ti, v.getType());
-                                    double XIST = XST.get(ti) + ET;
-                                    if(Math.abs(XST.get(ti) - XIST) < min) {
-                                        min = Math.abs(XST.get(ti) - XIST);
-                                        minDiff = v;
-                                    }
-                                }
+                // 17.8 Update VM Pool Status
+                double ET = getET(ti, minDiff.getType());
+                calcXST(ti, adaptedGraph, minDiff);
+                VMPoolStatus.setExpectedIdleStartTime(minDiff, XST.get(ti) + ET);
+                //printVMPoolStatus();
+            }
+            // 17.9 Else
+            else {
 
-                                // 17.13 Schedule ti on vj; update XST(ti)
-                                calcXFT(ti, specification, adaptedGraph, minDiff);
-                                calcXST(ti, adaptedGraph, minDiff);
-                                scheduledMapping.put(ti, minDiff.getType());
-                                //System.out.println("Schedule " + ti.getId() + " on " + minDiff.getId());
-                                scheduled.add(new Schedule(ti, minDiff.getType(), minDiff.getId(), XST.get(ti), XFT.get(ti)));
-                                scheduledPrint.add(new Schedule(ti, minDiff.getType(), minDiff.getId(), XST.get(ti), XFT.get(ti)));
-                                //printSchedule();
-
-                                // 17.14 Update VM Pool Status
-                                for(VMPoolEntry entry : VMPoolStatus) {
-                                    if(entry.getId().equals(minDiff.getId())) {
-                                        double ET = getET(specification, ti, entry.getType());
-                                        entry.setExpecteddIdleStartTime(XST.get(ti) + ET);
-                                    }
-                                }
-                                //printVMPoolStatus();
-                            }
-                            // 17.15 Else
-                            else {
-
-                                // 17.16 Procure a new VMv of type vmmap from the cloud at XST(ti) - acquistiondelay
-                                String instance = "v" + (id++);
-                                VMPoolEntry entry_tmp = new VMPoolEntry(instance, taskvmmap.get(ti), null, null, null);
-                                VMPoolStatus.add(entry_tmp);
-                                //printVMPoolStatus();
-
-                                // 17.17 Schedule ti on v at XST(ti)
-                                calcXFT(ti, specification, adaptedGraph, entry_tmp);
-                                calcXST(ti, adaptedGraph, entry_tmp);
-                                entry_tmp.setStartTime(XST.get(ti) - acquisitionDelay);
-                                entry_tmp.setExpecteddIdleStartTime(XST.get(ti) + getET(specification, ti, entry_tmp.getType()));
-                                scheduledMapping.put(ti, taskvmmap.get(ti));
-                                //System.out.println("Schedule " + ti.getId() + " on " + instance);
-                                scheduled.add(new Schedule(ti, taskvmmap.get(ti), instance, XST.get(ti), XFT.get(ti)));
-                                scheduledPrint.add(new Schedule(ti, taskvmmap.get(ti), instance, XST.get(ti), XFT.get(ti)));
-                                //printSchedule();
-
-                                // 17.18 Update VM Pool Status
-                                for(VMPoolEntry entry : VMPoolStatus) {
-                                    if(entry.getId().equals(taskvmmap.get(ti).getId())) {
-                                        double ET = getET(specification, ti, entry.getType());
-                                        entry.setExpecteddIdleStartTime(XST.get(ti) + ET);
-                                    }
-                                }
-                            } // 17.19 End if
-                        } // 17.20 End if
-
-                        // Update end time of VM Pool Status
-                        for(Task texit: exitTasks) {
-                            if(ti.getId().equals(texit.getId())) {
-                                for(VMPoolEntry entry : VMPoolStatus) {
-                                    Task lastTask = getLastTaskOnInstance(entry.getId());
-                                    entry.setEndTime(entry.getExpecteddIdleStartTime() +
-                                        getTT(lastTask, ti)
-                                    );
-                                }
+                // 17.10 Find(vj) e active_VMs ...
+                List<VMPoolEntry> vj = new ArrayList<>();
+                for(VMPoolEntry entry: VMPoolStatus.getEntries(taskvmmap.get(ti))) {
+                    if(!active_VMs.contains(entry)) {
+                        continue;
+                    }
+                    Resource r = entry.getType();
+                    calcXFT(ti, specification, adaptedGraph, entry);
+                    calcXST(ti, adaptedGraph, entry);
+                    double CLI = lifecycle.getChargingLimit(entry);
+                    if(r.getId().equals(taskvmmap.get(ti).getId())
+                        && XFT.get(ti) <= CLI
+                        && XFT.get(ti) <= LFT.get(ti)) {
+                        Collection<Task> children = GraphUtility.getSuccessorTaskNodes(adaptedGraph, ti);
+                        boolean safe = true;
+                        for(Task child: children) {
+                            double LST = LFT.get(child) - MET.get(child);
+                            calcXFT(child, specification, adaptedGraph, entry);
+                            calcXST(child, adaptedGraph, entry);
+                            if(XST.get(child) > LST) {
+                                safe = false;
                             }
                         }
+                        if(safe) {
+                            vj.add(entry);
+                        }
+                    }
+                }
 
-                    } // 17.21 End for
+                // 17.11 If (vj) exists
+                if(!vj.isEmpty()) {
 
-                if(!to_be_scheduled.isEmpty()) {
-                    // 17.22 Deprovision the idle VMs
-                    System.out.println("Deprovision idle VM");
+                    // 17.12 Find the VM ...
+                    VMPoolEntry minDiff = null;
+                    double min = Double.MAX_VALUE;
+                    for(VMPoolEntry v: vj) {
+                        double ET = getET(ti, v.getType());
+                        double XIST = XST.get(ti) + ET;
+                        if(Math.abs(XST.get(ti) - XIST) < min) {
+                            min = Math.abs(XST.get(ti) - XIST);
+                            minDiff = v;
+                        }
+                    }
 
-                    //System.out.println("------->");
-                    printVMPoolStatus();
-                    printSchedule();
-                    //System.out.println("<------");
+                    // 17.13 Schedule ti on vj; update XST(ti)
+                    calcXFT(ti, specification, adaptedGraph, minDiff);
+                    calcXST(ti, adaptedGraph, minDiff);
+                    scheduledMapping.put(ti, minDiff.getType());
+                    //System.out.println("Schedule " + ti.getId() + " on " + minDiff.getId());
+                    addSchedule(ti, minDiff.getType(), minDiff.getId());
+                    //printSchedule();
+
+                    // 17.14 Update VM Pool Status
+                    double ET = getET(ti, minDiff.getType());
+                    VMPoolStatus.setExpectedIdleStartTime(minDiff, XST.get(ti) + ET);
+                    //printVMPoolStatus();
+                }
+                // 17.15 Else
+                else {
+
+                    // 17.16 Procure a new VMv of type vmmap from the cloud at XST(ti) - acquistiondelay
+                    String instance = "v" + (id++);
+                    VMPoolEntry entry_tmp = new VMPoolEntry(instance, taskvmmap.get(ti), null, null, null);
+
+                    // 17.17 Schedule ti on v at XST(ti)
+                    calcXFT(ti, specification, adaptedGraph, entry_tmp);
+                    calcXST(ti, adaptedGraph, entry_tmp);
+                    entry_tmp.setStartTime(XST.get(ti) - acquisitionDelay);
+                    entry_tmp.setExpecteddIdleStartTime(XST.get(ti) + getET(ti, entry_tmp.getType()));
+
+                    // 17.18 Update VM Pool Status
+                    lifecycle.provision(entry_tmp);
+                    //printVMPoolStatus();
+                    scheduledMapping.put(ti, taskvmmap.get(ti));
+                    //System.out.println("Schedule " + ti.getId() + " on " + instance);
+                    addSchedule(ti, taskvmmap.get(ti), instance);
+                    //printSchedule();
+                } // 17.19 End if
+            } // 17.20 End if
+
+            // Update end time of VM Pool Status
+            for(Task texit: exitTasks) {
+                if(ti.getId().equals(texit.getId())) {
+                    for(VMPoolEntry entry : VMPoolStatus.getEntries()) {
+                        Task lastTask = entry.getLastTask();
+                        entry.setEndTime(entry.getExpecteddIdleStartTime() +
+                            getTT(lastTask, ti)
+                        );
+                    }
                 }
-
             }
 
-            // 18. End while
+        } // 17.21 End for
+
+        if(!to_be_scheduled.isEmpty()) {
+            // 17.22 Deprovision the idle VMs
+            System.out.println("Deprovision idle VM");
+            for(VMPoolEntry released : lifecycle.deprovisionIdle(now)) {
+                System.out.println("\tDeprovisioned " + released.getId() + " at " + released.getEndTime());
             }
 
-        // 19. Else
-        else {
-            // 20. Prompt user to specify a deadline above MET W
-            System.out.println("Specify a deadline above MET W!");
+            //System.out.println("------->");
+            printVMPoolStatus();
+            printSchedule();
+            //System.out.println("<------");
         }
-        // 21. End If
-        // 22. End
+        PLANNING_TIME.recordSince(start);
+    }
 
+    /**
+     * Print cost and utilisation of the VM instances, total execution time and cost.
+     */
+    private void printSummary() {
         double totalExecution = 0.0;
         double totalCost = 0.0;
 
-        for(VMPoolEntry entry: VMPoolStatus) {
-            double diff = (entry.getEndTime() - entry.getStartTime());
-            if(diff % interval != 0) {
-                diff = ((int) (diff/interval)) * interval + interval;
-            }
-            totalCost += diff/interval * Cost(entry.getType());
-            if(totalExecution < entry.getEndTime()) {
-                totalExecution = entry.getEndTime();
+        for(InstanceMetrics metrics: lifecycle.getMetrics()) {
+            System.out.println("INSTANCE:\t\t" + metrics);
+            totalCost += metrics.getCost();
+            if(totalExecution < metrics.getEndTime()) {
+                totalExecution = metrics.getEndTime();
             }
         }
 
@@ -1104,4 +1074,13 @@ public class JIT {
         System.out.println("Total Cost = $" + totalCost);
         System.out.println("------------------------------------");
     }
+
+    /**
+     * Get cost and utilisation of all provisioned VM instances.
+     *
+     * @return the metrics per instance.
+     */
+    public List<InstanceMetrics> getInstanceMetrics() {
+        return lifecycle.getMetrics();
+    }
 }
@@ -0,0 +1,36 @@
+package at.uibk.dps.di.JIT_C;
+
+/**
+ * Billing per started second of the lease.
+ */
+public class SecondBilling implements BillingModel {
+
+    private final double price;
+    private final double secondsPerTimeUnit;
+
+    /**
+     * Constructor.
+     *
+     * @param price per second.
+     * @param secondsPerTimeUnit seconds per time unit of the scheduler.
+     */
+    public SecondBilling(double price, double secondsPerTimeUnit) {
+        this.price = price;
+        this.secondsPerTimeUnit = secondsPerTimeUnit;
+    }
+
+    @Override
+    public double getChargingLimit(double leased) {
+        return (Math.floor(leased * secondsPerTimeUnit) + 1) / secondsPerTimeUnit;
+    }
+
+    @Override
+    public double estimate(double executionTime) {
+        return executionTime * secondsPerTimeUnit * price;
+    }
+
+    @Override
+    public double cost(double leased, double busy) {
+        return Math.ceil(leased * secondsPerTimeUnit) * price;
+    }
+}
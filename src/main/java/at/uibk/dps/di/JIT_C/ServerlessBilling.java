@@ -0,0 +1,40 @@
+package at.uibk.dps.di.JIT_C;
+
+/**
+ * Billing per GB-second of execution (serverless functions). There is
+ * no lease, an instance only costs while it executes tasks.
+ */
+public class ServerlessBilling implements BillingModel {
+
+    private final double pricePerGbSecond;
+    private final double memory;
+    private final double secondsPerTimeUnit;
+
+    /**
+     * Constructor.
+     *
+     * @param pricePerGbSecond price per GB-second.
+     * @param memory of the function in GB.
+     * @param secondsPerTimeUnit seconds per time unit of the scheduler.
+     */
+    public ServerlessBilling(double pricePerGbSecond, double memory, double secondsPerTimeUnit) {
+        this.pricePerGbSecond = pricePerGbSecond;
+        this.memory = memory;
+        this.secondsPerTimeUnit = secondsPerTimeUnit;
+    }
+
+    @Override
+    public double getChargingLimit(double leased) {
+        return Double.MAX_VALUE;
+    }
+
+    @Override
+    public double estimate(double executionTime) {
+        return executionTime * secondsPerTimeUnit * memory * pricePerGbSecond;
+    }
+
+    @Override
+    public double cost(double leased, double busy) {
+        return estimate(busy);
+    }
+}
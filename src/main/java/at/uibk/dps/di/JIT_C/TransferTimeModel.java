@@ -0,0 +1,135 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Dependency;
+import net.sf.opendse.model.Task;
+
+import java.util.*;
+
+/**
+ * Transfer times between pairs of task nodes of the JIT-C scheduler.
+ *
+ * The transfer time between a producer and a consumer is taken from the
+ * {@link PropertyServiceScheduler} attributes of the connecting data flow:
+ * the transfer time of the incoming or outgoing dependency of the
+ * communication node or, if none is set, the data size of the communication
+ * node divided by the bandwidth. Pairs without data flow have no transfer
+ * time.
+ *
+ * Tasks are numbered on registration and the transfer times are kept by
+ * the (unordered) pair of task numbers, so lookups and updates take
+ * constant time regardless of the number of partners of a task.
+ */
+public class TransferTimeModel {
+
+    /**
+     * Index of the registered tasks.
+     */
+    private final Map<Task, Integer> index = new HashMap<>();
+
+    /**
+     * Transfer times by pair of task indices (see {@link #key(int, int)}).
+     */
+    private final Map<Long, Double> times = new HashMap<>();
+
+    /**
+     * Create the transfer time model of an enactment graph.
+     *
+     * @param eGraph the graph to derive the transfer times from.
+     * @param bandwidth the bandwidth (bytes per time unit) used for data sizes,
+     * data sizes are ignored if it is not positive.
+     */
+    public TransferTimeModel(EnactmentGraph eGraph, double bandwidth) {
+        for(Task comm: eGraph.getVertices()) {
+            if(!(comm instanceof Communication)) {
+                continue;
+            }
+            for(Dependency in: eGraph.getInEdges(comm)) {
+                Task producer = eGraph.getSource(in);
+                for(Dependency out: eGraph.getOutEdges(comm)) {
+                    Task consumer = eGraph.getDest(out);
+                    double tt = transferTime(comm, in, out, bandwidth);
+                    if(tt > get(producer, consumer)) {
+                        set(producer, consumer, tt);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the transfer time of the data flow producer -> comm -> consumer.
+     */
+    private static double transferTime(Task comm, Dependency in, Dependency out, double bandwidth) {
+        if(PropertyServiceScheduler.isTransferTimeSet(out)) {
+            return PropertyServiceScheduler.getTransferTime(out);
+        }
+        if(PropertyServiceScheduler.isTransferTimeSet(in)) {
+            return PropertyServiceScheduler.getTransferTime(in);
+        }
+        if(bandwidth > 0 && PropertyServiceScheduler.isDataSizeSet(comm)) {
+            return PropertyServiceScheduler.getDataSize(comm) / bandwidth;
+        }
+        return 0.0;
+    }
+
+    /**
+     * Get the index of a task and register it if necessary.
+     */
+    private int indexOf(Task t) {
+        return index.computeIfAbsent(t, task -> index.size());
+    }
+
+    /**
+     * Get the key of the unordered pair of task indices i1 and i2.
+     */
+    private static long key(int i1, int i2) {
+        return ((long) Math.min(i1, i2) << 32) | Math.max(i1, i2);
+    }
+
+    /**
+     * Set the transfer time between two tasks (in both directions).
+     *
+     * @param t1 task 1
+     * @param t2 task 2
+     * @param time transfer time between the tasks.
+     */
+    public void set(Task t1, Task t2, double time) {
+        times.put(key(indexOf(t1), indexOf(t2)), time);
+    }
+
+    /**
+     * Get transfer time between two tasks, ignoring the task ordering.
+     *
+     * @param t1 task 1
+     * @param t2 task 2
+     *
+     * @return transfer time between the tasks or 0 if there is none.
+     */
+    public double get(Task t1, Task t2) {
+        Integer i1 = index.get(t1);
+        Integer i2 = index.get(t2);
+        if(i1 == null || i2 == null) {
+            return 0.0;
+        }
+        return times.getOrDefault(key(i1, i2), 0.0);
+    }
+
+    /**
+     * Register the task merged out of parent tp and child tc. The transfer
+     * time between the merged task and a neighbour is the sum of the transfer
+     * times of the neighbour to tp and tc.
+     *
+     * @param merged the merged task.
+     * @param tp parent task.
+     * @param tc child task.
+     * @param neighbours predecessors of tp and successors of tc.
+     */
+    public void merge(Task merged, Task tp, Task tc, Collection<Task> neighbours) {
+        for(Task t: neighbours) {
+            set(t, merged, get(t, tc) + get(t, tp));
+        }
+    }
+}
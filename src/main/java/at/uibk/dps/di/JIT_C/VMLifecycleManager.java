@@ -0,0 +1,173 @@
+package at.uibk.dps.di.JIT_C;
+
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.*;
+
+/**
+ * Manages the lifecycle of the VMs of the JIT-C scheduler: provisioning,
+ * task assignment, billing and deprovisioning of idle VMs.
+ */
+public class VMLifecycleManager {
+
+    /**
+     * The active VMs.
+     */
+    private final VMPool pool;
+
+    /**
+     * The policy to deprovision idle VMs.
+     */
+    private final DeprovisionPolicy policy;
+
+    /**
+     * Billing interval of resources without explicit interval.
+     */
+    private final double defaultInterval;
+
+    /**
+     * Seconds per time unit of the scheduler.
+     */
+    private final double secondsPerTimeUnit;
+
+    /**
+     * Billing models by resource id.
+     */
+    private final Map<String, BillingModel> billing = new HashMap<>();
+
+    /**
+     * Deprovisioned VMs.
+     */
+    private final List<VMPoolEntry> released = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param pool of active VMs.
+     * @param policy to deprovision idle VMs.
+     * @param defaultInterval billing interval of resources without explicit interval.
+     * @param secondsPerTimeUnit seconds per time unit of the scheduler.
+     */
+    public VMLifecycleManager(VMPool pool, DeprovisionPolicy policy, double defaultInterval,
+        double secondsPerTimeUnit) {
+        this.pool = pool;
+        this.policy = policy;
+        this.defaultInterval = defaultInterval;
+        this.secondsPerTimeUnit = secondsPerTimeUnit;
+    }
+
+    /**
+     * Get the billing model of a resource type.
+     *
+     * @param type resource type.
+     *
+     * @return the billing model.
+     */
+    public BillingModel getBilling(Resource type) {
+        return billing.computeIfAbsent(type.getId(),
+            k -> BillingModel.of(type, defaultInterval, secondsPerTimeUnit));
+    }
+
+    /**
+     * Add a provisioned VM to the pool.
+     *
+     * @param entry the provisioned VM.
+     */
+    public void provision(VMPoolEntry entry) {
+        pool.add(entry);
+    }
+
+    /**
+     * Assign a task to an instance.
+     *
+     * @param instance the task is scheduled on.
+     * @param task scheduled task.
+     * @param xft expected finish time of the task.
+     * @param executionTime of the task.
+     */
+    public void assign(String instance, Task task, double xft, double executionTime) {
+        pool.assign(instance, task, xft);
+        VMPoolEntry entry = pool.get(instance);
+        if(entry != null) {
+            entry.setBusyTime(entry.getBusyTime() + executionTime);
+            entry.setTasks(entry.getTasks() + 1);
+        }
+    }
+
+    /**
+     * Get the charging limit (CLI) of a VM.
+     *
+     * @param entry the VM.
+     *
+     * @return the paid lease time of the VM.
+     */
+    public double getChargingLimit(VMPoolEntry entry) {
+        return getBilling(entry.getType())
+            .getChargingLimit(entry.getExpecteddIdleStartTime() - entry.getStartTime());
+    }
+
+    /**
+     * Estimate the cost of executing a task on a resource type.
+     *
+     * @param type resource type.
+     * @param executionTime of the task.
+     *
+     * @return the estimated cost.
+     */
+    public double estimate(Resource type, double executionTime) {
+        return getBilling(type).estimate(executionTime);
+    }
+
+    /**
+     * Deprovision the VMs which the policy releases until the given time.
+     *
+     * @param now current time.
+     *
+     * @return the deprovisioned VMs.
+     */
+    public List<VMPoolEntry> deprovisionIdle(double now) {
+        List<VMPoolEntry> deprovisioned = new ArrayList<>();
+        for(VMPoolEntry entry: pool.getIdleEntries(now)) {
+            double releaseTime = policy.getReleaseTime(entry, getBilling(entry.getType()));
+            if(releaseTime <= now) {
+                entry.setEndTime(releaseTime);
+                deprovisioned.add(entry);
+            }
+        }
+        for(VMPoolEntry entry: deprovisioned) {
+            pool.remove(entry);
+            released.add(entry);
+        }
+        return deprovisioned;
+    }
+
+    /**
+     * Get all VMs ever provisioned.
+     *
+     * @return deprovisioned and active VMs.
+     */
+    public List<VMPoolEntry> getAllEntries() {
+        List<VMPoolEntry> all = new ArrayList<>(released);
+        all.addAll(pool.getEntries());
+        return all;
+    }
+
+    /**
+     * Get cost and utilisation of all VMs ever provisioned.
+     *
+     * @return the metrics per instance.
+     */
+    public List<InstanceMetrics> getMetrics() {
+        List<InstanceMetrics> metrics = new ArrayList<>();
+        for(VMPoolEntry entry: getAllEntries()) {
+            double start = entry.getStartTime() != null ? entry.getStartTime() : 0.0;
+            double end = entry.getEndTime() != null ? entry.getEndTime() :
+                entry.getExpecteddIdleStartTime() != null ? entry.getExpecteddIdleStartTime() : start;
+            double cost = getBilling(entry.getType()).cost(end - start, entry.getBusyTime());
+            metrics.add(new InstanceMetrics(entry.getId(), entry.getType().getId(), start, end,
+                entry.getBusyTime(), entry.getTasks(), cost));
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,146 @@
+package at.uibk.dps.di.JIT_C;
+
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.*;
+
+/**
+ * The VM pool of the JIT-C scheduler. The entries are indexed by
+ * instance id, by resource type and ordered by their expected idle
+ * start time, so that lookups do not need to scan the whole pool.
+ *
+ * The expected idle start time of a pooled entry must only be changed
+ * via {@link #setExpectedIdleStartTime(VMPoolEntry, Double)}.
+ */
+public class VMPool {
+
+    /**
+     * Entries by instance id (in provisioning order).
+     */
+    private final Map<String, VMPoolEntry> byInstance = new LinkedHashMap<>();
+
+    /**
+     * Entries by the id of their resource type (in provisioning order).
+     */
+    private final Map<String, List<VMPoolEntry>> byType = new HashMap<>();
+
+    /**
+     * Entries ordered by expected idle start time (unknown first).
+     */
+    private final TreeSet<VMPoolEntry> byIdleTime = new TreeSet<>(
+        Comparator.comparing(VMPoolEntry::getExpecteddIdleStartTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(VMPoolEntry::getId));
+
+    /**
+     * Add an entry to the pool.
+     *
+     * @param entry to add.
+     */
+    public void add(VMPoolEntry entry) {
+        byInstance.put(entry.getId(), entry);
+        byType.computeIfAbsent(entry.getType().getId(), k -> new ArrayList<>()).add(entry);
+        byIdleTime.add(entry);
+    }
+
+    /**
+     * Remove an entry from the pool.
+     *
+     * @param entry to remove.
+     */
+    public void remove(VMPoolEntry entry) {
+        byInstance.remove(entry.getId());
+        byType.getOrDefault(entry.getType().getId(), new ArrayList<>()).remove(entry);
+        byIdleTime.remove(entry);
+    }
+
+    /**
+     * Get a VMPoolEntry by instance.
+     *
+     * @param instance to look for.
+     *
+     * @return VMPoolEntry or null if there is no such instance.
+     */
+    public VMPoolEntry get(String instance) {
+        return byInstance.get(instance);
+    }
+
+    /**
+     * Get all entries in provisioning order.
+     *
+     * @return unmodifiable view of all entries.
+     */
+    public Collection<VMPoolEntry> getEntries() {
+        return Collections.unmodifiableCollection(byInstance.values());
+    }
+
+    /**
+     * Get the entries of a resource type in provisioning order.
+     *
+     * @param type resource type.
+     *
+     * @return unmodifiable view of the entries of the given type.
+     */
+    public List<VMPoolEntry> getEntries(Resource type) {
+        return Collections.unmodifiableList(byType.getOrDefault(type.getId(), Collections.emptyList()));
+    }
+
+    /**
+     * Get the entries which are expected to be idle at the given time.
+     *
+     * @param time point in time.
+     *
+     * @return entries with an expected idle start time up to the given time,
+     * ordered by expected idle start time.
+     */
+    public List<VMPoolEntry> getIdleEntries(double time) {
+        List<VMPoolEntry> idle = new ArrayList<>();
+        for(VMPoolEntry entry: byIdleTime) {
+            if(entry.getExpecteddIdleStartTime() == null) {
+                continue;
+            }
+            if(entry.getExpecteddIdleStartTime() > time) {
+                break;
+            }
+            idle.add(entry);
+        }
+        return idle;
+    }
+
+    /**
+     * Update the expected idle start time of a pooled entry.
+     *
+     * @param entry to update.
+     * @param expectedIdleStartTime new expected idle start time.
+     */
+    public void setExpectedIdleStartTime(VMPoolEntry entry, Double expectedIdleStartTime) {
+        byIdleTime.remove(entry);
+        entry.setExpecteddIdleStartTime(expectedIdleStartTime);
+        byIdleTime.add(entry);
+    }
+
+    /**
+     * Register a task scheduled on an instance. The task becomes the last
+     * task of the instance if it finishes after the current last task.
+     *
+     * @param instance the task is scheduled on.
+     * @param task scheduled task.
+     * @param xft expected finish time of the task.
+     */
+    public void assign(String instance, Task task, double xft) {
+        VMPoolEntry entry = byInstance.get(instance);
+        if(entry != null && entry.getLastTaskFinishTime() < xft) {
+            entry.setLastTask(task);
+            entry.setLastTaskFinishTime(xft);
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return number of entries.
+     */
+    public int size() {
+        return byInstance.size();
+    }
+}
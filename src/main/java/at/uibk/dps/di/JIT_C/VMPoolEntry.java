@@ -2,6 +2,7 @@ package at.uibk.dps.di.JIT_C;
 
 
 import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
 
 public class VMPoolEntry {
 
@@ -10,6 +11,10 @@ public class VMPoolEntry {
     private Double startTime;
     private Double expecteddIdleStartTime;
     private Double endTime;
+    private Task lastTask;
+    private double lastTaskFinishTime = 0.0;
+    private double busyTime = 0.0;
+    private int tasks = 0;
 
     public VMPoolEntry(String id, Resource type, Double startTime, Double expecteddIdleStartTime,
         Double endTime) {
@@ -59,4 +64,36 @@ public class VMPoolEntry {
     public void setEndTime(Double endTime) {
         this.endTime = endTime;
     }
+
+    public Task getLastTask() {
+        return lastTask;
+    }
+
+    public void setLastTask(Task lastTask) {
+        this.lastTask = lastTask;
+    }
+
+    public double getLastTaskFinishTime() {
+        return lastTaskFinishTime;
+    }
+
+    public void setLastTaskFinishTime(double lastTaskFinishTime) {
+        this.lastTaskFinishTime = lastTaskFinishTime;
+    }
+
+    public double getBusyTime() {
+        return busyTime;
+    }
+
+    public void setBusyTime(double busyTime) {
+        this.busyTime = busyTime;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(int tasks) {
+        this.tasks = tasks;
+    }
 }
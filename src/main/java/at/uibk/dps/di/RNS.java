@@ -1,24 +1,18 @@
 package at.uibk.dps.di;
 
 import at.uibk.dps.di.incision.Incision;
+import at.uibk.dps.di.incision.LoopDetector;
 import at.uibk.dps.di.incision.Utility;
 import at.uibk.dps.di.properties.PropertyServiceScheduler;
 import at.uibk.dps.di.scheduler.Cut;
 import at.uibk.dps.ee.deploy.run.ImplementationRunBare;
 import at.uibk.dps.ee.io.afcl.AfclReader;
-import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
-import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
-import at.uibk.dps.ee.model.graph.EnactmentGraphProvider;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
 import at.uibk.dps.ee.model.graph.MappingsConcurrent;
-import at.uibk.dps.ee.model.graph.ResourceGraphProvider;
 import net.sf.opendse.model.Resource;
-import net.sf.opendse.model.Task;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 public class RNS {
 
@@ -28,10 +22,8 @@ public class RNS {
     private EnactmentSpecification setupSpecification(String eGraphPath, String mappingsPath) {
 
         // Generate the specification
-        final EnactmentGraphProvider eGraphProvider = () -> new AfclReader(eGraphPath).getEnactmentGraph();
-        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
-        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
-        final EnactmentSpecification specification = specProv.getSpecification();
+        final EnactmentSpecification specification =
+                Utility.specification(new AfclReader(eGraphPath).getEnactmentGraph(), mappingsPath);
 
 
         // Set up resource instances and latencies
@@ -57,12 +49,13 @@ public class RNS {
         EnactmentSpecification specification = setupSpecification(afclPath, mappingsPath);
 
 
+        // Offload the whole loop
         List<Cut> cuts = new ArrayList<>();
-        Set<Task> topCut = new HashSet<>();
-        topCut.add(specification.getEnactmentGraph().getVertex("[while/counter, longSeq/input, while, while--stopCondition/3]"));
-        Set<Task> bottomCut = new HashSet<>();
-        bottomCut.add(specification.getEnactmentGraph().getVertex("while/whileIt"));
-        cuts.add(new Cut(topCut, bottomCut));
+        Cut loopCut = new LoopDetector().propose(specification.getEnactmentGraph(), "while");
+        if (loopCut == null) {
+            throw new IllegalStateException("No valid cut enclosing the loop 'while' of " + afclPath);
+        }
+        cuts.add(loopCut);
 
         //EnactmentGraphViewer.view(specification.getEnactmentGraph());
 
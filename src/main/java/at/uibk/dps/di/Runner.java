@@ -11,13 +11,9 @@ import at.uibk.dps.di.scheduler.Cut;
 import at.uibk.dps.di.scheduler.Scheduler;
 import at.uibk.dps.ee.deploy.run.ImplementationRunBare;
 import at.uibk.dps.ee.deploy.spec.SpecFromString;
-import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
-import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
 import at.uibk.dps.ee.model.graph.EnactmentGraph;
-import at.uibk.dps.ee.model.graph.EnactmentGraphProvider;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
 import at.uibk.dps.ee.model.graph.MappingsConcurrent;
-import at.uibk.dps.ee.model.graph.ResourceGraphProvider;
 import at.uibk.dps.ee.model.properties.PropertyServiceData;
 import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
 import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
@@ -117,10 +113,7 @@ public class Runner {
     private EnactmentSpecification setupSpecification(EnactmentGraph eGraph, String mappingsPath) {
 
         // Generate the specification
-        final EnactmentGraphProvider eGraphProvider = () -> eGraph;
-        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
-        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
-        final EnactmentSpecification specification = specProv.getSpecification();
+        final EnactmentSpecification specification = Utility.specification(eGraph, mappingsPath);
 
         // Set up resource instances and latencies
         Resource local = specification.getResourceGraph().getVertex(localResourceName);
@@ -0,0 +1,55 @@
+package at.uibk.dps.di.analytics;
+
+/**
+ * Running statistics of durations. Mean and variance are updated with
+ * Welford's algorithm, so the statistics use constant memory independent of
+ * the number of recorded durations.
+ *
+ * @author Stefan Pedratscher
+ */
+public class DurationStatistics {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Record a duration.
+     *
+     * @param duration the duration to record.
+     */
+    public void add(final double duration) {
+        count++;
+        final double delta = duration - mean;
+        mean += delta / count;
+        m2 += delta * (duration - mean);
+        min = Math.min(min, duration);
+        max = Math.max(max, duration);
+    }
+
+    /**
+     * Getter
+     */
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return count < 2 ? 0.0 : Math.sqrt(m2 / (count - 1));
+    }
+
+    public double getMin() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? 0.0 : max;
+    }
+}
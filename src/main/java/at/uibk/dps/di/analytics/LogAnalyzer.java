@@ -0,0 +1,255 @@
+package at.uibk.dps.di.analytics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming analyzer of enactment logs. The log is read line by line and
+ * matched against a single precompiled pattern for scheduled tasks, finished
+ * tasks and the elapsed time reported by serverless functions. Only running
+ * statistics per function type and task (and the tasks currently in flight)
+ * are kept, so the memory does not grow with the size of the log.
+ *
+ * <p>All durations are in milliseconds.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class LogAnalyzer {
+
+    /**
+     * Listener for the individual function durations of a log.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called for each elapsed time reported by a function.
+         *
+         * @param functionType the function type (or the URI if it is unknown).
+         * @param uri the URI of the function.
+         * @param duration the duration in milliseconds.
+         */
+        void functionDuration(String functionType, String uri, double duration);
+    }
+
+    /**
+     * Matches the relevant log lines. Groups: 1-4 time stamp, 5 scheduled task,
+     * 6 finished task, 7 function URI, 8 elapsed time in seconds.
+     */
+    private static final Pattern LINE = Pattern.compile(
+        "(?:(\\d{2}):(\\d{2}):(\\d{2})\\.(\\d{3}) .*?(?:Task (\\S+) scheduled|Enactment finished for task (\\S+))\\.)"
+            + "|(?:Output of \\S+ function (\\S+) is \\{.*\"elapsed_time\": ([-+0-9.eE]+))");
+
+    /**
+     * Milliseconds of a day (time stamps wrap around at midnight).
+     */
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * The function type of each function URI.
+     */
+    private final Map<String, String> functionTypes;
+
+    /**
+     * The matcher reused for all lines.
+     */
+    private final Matcher matcher;
+
+    /**
+     * The time stamps of the scheduled but not yet finished tasks.
+     */
+    private final Map<String, Long> scheduled;
+
+    /**
+     * Notified about each function duration.
+     */
+    private final Listener listener;
+
+    private final Map<String, DurationStatistics> functionStatistics;
+    private final Map<String, DurationStatistics> taskStatistics;
+
+    /**
+     * Default constructor.
+     *
+     * @param functionTypes the function type of each function URI (see
+     *                      {@link #indexTypeMappings(Path)}).
+     */
+    public LogAnalyzer(final Map<String, String> functionTypes) {
+        this(functionTypes, (functionType, uri, duration) -> { });
+    }
+
+    /**
+     * Constructor notifying a listener about each function duration.
+     *
+     * @param functionTypes the function type of each function URI.
+     * @param listener notified about each function duration.
+     */
+    public LogAnalyzer(final Map<String, String> functionTypes, final Listener listener) {
+        this.functionTypes = functionTypes;
+        this.listener = listener;
+        this.matcher = LINE.matcher("");
+        this.scheduled = new HashMap<>();
+        this.functionStatistics = new TreeMap<>();
+        this.taskStatistics = new TreeMap<>();
+    }
+
+    /**
+     * Create the index from function URI to function type of a type mappings
+     * file.
+     *
+     * @param typeMappings the path to the type mappings file.
+     *
+     * @return the function type of each function URI.
+     *
+     * @throws IOException if the file can not be read.
+     */
+    public static Map<String, String> indexTypeMappings(final Path typeMappings) throws IOException {
+        final Map<String, String> index = new HashMap<>();
+        try (Reader reader = Files.newBufferedReader(typeMappings, StandardCharsets.UTF_8)) {
+            final JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                final JsonObject typeMapping = element.getAsJsonObject();
+                final String functionType = typeMapping.get("functionType").getAsString();
+                for (JsonElement resource : typeMapping.get("resources").getAsJsonArray()) {
+                    final JsonObject properties = resource.getAsJsonObject().getAsJsonObject("properties");
+                    if (properties != null && properties.has("Uri")) {
+                        index.put(properties.get("Uri").getAsString(), functionType);
+                    }
+                }
+            }
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Invalid type mappings " + typeMappings, e);
+        }
+        return index;
+    }
+
+    /**
+     * Analyze the log of the given reader.
+     *
+     * @param reader the reader of the log.
+     *
+     * @throws IOException if the log can not be read.
+     */
+    public void analyze(final BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            accept(line);
+        }
+    }
+
+    /**
+     * Analyze the log file at the given path.
+     *
+     * @param log the path to the log file.
+     *
+     * @throws IOException if the log can not be read.
+     */
+    public void analyze(final Path log) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            analyze(reader);
+        }
+    }
+
+    /**
+     * Analyze a single log line.
+     *
+     * @param line the log line.
+     */
+    public void accept(final String line) {
+        if (!matcher.reset(line).lookingAt()) {
+            return;
+        }
+        if (matcher.start(7) >= 0) {
+            final String uri = matcher.group(7);
+            final String functionType = functionTypes.getOrDefault(uri, uri);
+            final double duration = Double.parseDouble(matcher.group(8)) * 1000.0;
+            functionStatistics.computeIfAbsent(functionType, k -> new DurationStatistics()).add(duration);
+            listener.functionDuration(functionType, uri, duration);
+        } else if (matcher.start(5) >= 0) {
+            scheduled.put(matcher.group(5), timeStamp());
+        } else {
+            final Long start = scheduled.remove(matcher.group(6));
+            if (start != null) {
+                final long duration = Math.floorMod(timeStamp() - start, DAY);
+                taskStatistics.computeIfAbsent(matcher.group(6), k -> new DurationStatistics()).add(duration);
+            }
+        }
+    }
+
+    /**
+     * Get the time stamp of the current match.
+     *
+     * @return the milliseconds since midnight.
+     */
+    private long timeStamp() {
+        return ((Long.parseLong(matcher.group(1)) * 60 + Long.parseLong(matcher.group(2))) * 60
+            + Long.parseLong(matcher.group(3))) * 1000 + Long.parseLong(matcher.group(4));
+    }
+
+    /**
+     * Create a CSV report of the statistics.
+     *
+     * @return the report with one line per function type and task.
+     */
+    public String toCsv() {
+        final StringBuilder builder = new StringBuilder("kind,name,count,mean,stddev,min,max\n");
+        functionStatistics.forEach((name, statistics) -> appendCsv(builder, "function", name, statistics));
+        taskStatistics.forEach((name, statistics) -> appendCsv(builder, "task", name, statistics));
+        return builder.toString();
+    }
+
+    private static void appendCsv(final StringBuilder builder, final String kind, final String name,
+                                  final DurationStatistics statistics) {
+        builder.append(kind).append(',').append(name).append(',').append(statistics.getCount())
+            .append(',').append(statistics.getMean()).append(',').append(statistics.getStandardDeviation())
+            .append(',').append(statistics.getMin()).append(',').append(statistics.getMax()).append('\n');
+    }
+
+    /**
+     * Print the statistics of a log.
+     *
+     * @param args the path to the log and optionally the path to the type
+     *             mappings file.
+     *
+     * @throws IOException if a file can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LogAnalyzer <log> [typemappings.json]");
+            return;
+        }
+        final Map<String, String> functionTypes = args.length > 1
+            ? indexTypeMappings(Paths.get(args[1])) : Collections.emptyMap();
+        final LogAnalyzer analyzer = new LogAnalyzer(functionTypes);
+        analyzer.analyze(Paths.get(args[0]));
+        System.out.print(analyzer.toCsv());
+    }
+
+    /**
+     * Getter
+     */
+
+    public Map<String, DurationStatistics> getFunctionStatistics() {
+        return Collections.unmodifiableMap(functionStatistics);
+    }
+
+    public Map<String, DurationStatistics> getTaskStatistics() {
+        return Collections.unmodifiableMap(taskStatistics);
+    }
+}
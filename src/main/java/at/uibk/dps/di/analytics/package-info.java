@@ -0,0 +1,4 @@
+/**
+ * Package for the analysis of enactment logs.
+ */
+package at.uibk.dps.di.analytics;
@@ -0,0 +1,127 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.metrics.Counter;
+import at.uibk.dps.di.metrics.MetricsRegistry;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping.EnactmentMode;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache for the configurations of the distributed engines.
+ *
+ * <p>The configuration of a cut contains the modules of
+ * {@link Utility#DE_CONFIGURATION_NO_DOCKER} the distributed engine needs to
+ * enact the cut out graph: the enactment and scheduling modules, the core
+ * functions and the output printer. The input file and specification file
+ * modules are omitted, since the distributed engine receives the
+ * specification and the input with the request (their demo files do not
+ * exist on the engine), and the viewer module is omitted, since the engine
+ * runs without display. The docker module is only added for engines running
+ * on a machine with docker (not for the remote serverless engines) if a task
+ * of the cut is mapped to a local (docker) implementation. The configuration
+ * only depends on these enactment modes of the cut (its shape), so it is
+ * generated once per shape.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class ConfigurationCache {
+
+    /**
+     * Metrics of the configuration cache.
+     */
+    private static final Counter HITS = MetricsRegistry.getDefault().counter("configuration_cache_hits_total");
+    private static final Counter MISSES = MetricsRegistry.getDefault().counter("configuration_cache_misses_total");
+
+    /**
+     * The generated configurations by shape.
+     */
+    private final Map<Set<EnactmentMode>, String> configurations;
+
+    /**
+     * Default constructor.
+     */
+    public ConfigurationCache() {
+        this.configurations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the configuration of the distributed engine enacting a cut.
+     *
+     * @param mappings the mappings of the cut out graph.
+     * @param remote true if the engine runs remotely (e.g. as serverless
+     *        function) and cannot enact local (docker) mappings.
+     *
+     * @return the configuration.
+     */
+    public String getConfiguration(final MappingsConcurrent mappings, final boolean remote) {
+        final Set<EnactmentMode> shape = shapeOf(mappings);
+        if (remote) {
+            shape.remove(EnactmentMode.Local);
+        }
+        final String configuration = configurations.get(shape);
+        if (configuration != null) {
+            HITS.increment();
+            return configuration;
+        }
+        MISSES.increment();
+        return configurations.computeIfAbsent(shape, ConfigurationCache::generate);
+    }
+
+    /**
+     * Get the shape of a cut (the enactment modes of its mappings).
+     *
+     * @param mappings the mappings of the cut out graph.
+     *
+     * @return the enactment modes of the cut.
+     */
+    public static Set<EnactmentMode> shapeOf(final MappingsConcurrent mappings) {
+        final Set<EnactmentMode> shape = EnumSet.noneOf(EnactmentMode.class);
+        for (Mapping<Task, Resource> mapping : mappings) {
+            shape.add(PropertyServiceMapping.getEnactmentMode(mapping));
+        }
+        return shape;
+    }
+
+    /**
+     * Generate the configuration of a shape.
+     *
+     * @param shape the enactment modes of the cut (local only for engines
+     *        with docker).
+     *
+     * @return the configuration.
+     */
+    public static String generate(final Set<EnactmentMode> shape) {
+        final StringBuilder configuration = new StringBuilder("<configuration>\n")
+            .append("  <module class=\"at.uibk.dps.ee.control.modules.EnactmentVerticleModule\">\n")
+            .append("    <property name=\"pauseOnStart\">false</property>\n")
+            .append("  </module>\n")
+            .append("  <module class=\"at.uibk.dps.ee.enactables.modules.CoreFunctionsModule\"/>\n");
+        if (shape.contains(EnactmentMode.Local)) {
+            configuration.append("  <module class=\"at.uibk.dps.ee.docker.modules.LocalDockerModule\">\n")
+                .append("    <property name=\"usedOs\">Unix</property>\n")
+                .append("  </module>\n");
+        }
+        return configuration.append("  <module class=\"at.uibk.dps.ee.io.modules.OutputPrinterModule\"/>\n")
+            .append("  <module class=\"at.uibk.dps.sc.core.modules.SchedulerModule\">\n")
+            .append("    <property name=\"schedulingMode\">SingleOption</property>\n")
+            .append("    <property name=\"mappingsToPick\">1</property>\n")
+            .append("  </module>\n")
+            .append("</configuration>\n")
+            .toString();
+    }
+
+    /**
+     * Getter
+     */
+    public int size() {
+        return configurations.size();
+    }
+}
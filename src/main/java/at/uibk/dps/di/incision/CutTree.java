@@ -0,0 +1,99 @@
+package at.uibk.dps.di.incision;
+
+import net.sf.opendse.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tree of nested cuts. Each node is a cut (top and bottom cut) whose children
+ * are cuts within its region, which are delegated further by the distributed
+ * engine enacting the cut.
+ *
+ * @author Stefan Pedratscher
+ */
+public class CutTree {
+
+    /**
+     * Communication nodes representing the top cut.
+     */
+    private final Set<Task> topCut;
+
+    /**
+     * Communication nodes representing the bottom cut.
+     */
+    private final Set<Task> bottomCut;
+
+    /**
+     * The cuts within the region of this cut.
+     */
+    private final List<CutTree> children;
+
+    /**
+     * Default constructor (cut without nested cuts).
+     *
+     * @param topCut communication nodes representing the top cut.
+     * @param bottomCut communication nodes representing the bottom cut.
+     */
+    public CutTree(final Set<Task> topCut, final Set<Task> bottomCut) {
+        this.topCut = topCut;
+        this.bottomCut = bottomCut;
+        this.children = new ArrayList<>();
+    }
+
+    /**
+     * Add a cut within the region of this cut.
+     *
+     * @param child the nested cut.
+     *
+     * @return this cut tree.
+     */
+    public CutTree addChild(final CutTree child) {
+        children.add(child);
+        return this;
+    }
+
+    /**
+     * Get the cuts of the tree in post-order (nested cuts before the cut
+     * containing them).
+     *
+     * @return the cuts in post-order.
+     */
+    public List<CutTree> postOrder() {
+        final List<CutTree> order = new ArrayList<>();
+        collectPostOrder(order);
+        return order;
+    }
+
+    /**
+     * Collect the cuts of the tree in post-order.
+     *
+     * @param order the list to add the cuts to.
+     */
+    private void collectPostOrder(final List<CutTree> order) {
+        children.forEach(child -> child.collectPostOrder(order));
+        order.add(this);
+    }
+
+    @Override
+    public String toString() {
+        return topCut.toString() + bottomCut.toString();
+    }
+
+    /**
+     * Getter
+     */
+    public Set<Task> getTopCut() {
+        return topCut;
+    }
+
+    public Set<Task> getBottomCut() {
+        return bottomCut;
+    }
+
+    public List<CutTree> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+}
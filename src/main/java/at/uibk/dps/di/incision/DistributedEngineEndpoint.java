@@ -0,0 +1,120 @@
+package at.uibk.dps.di.incision;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Endpoint of a distributed enactment engine with its region, latency profile
+ * and concurrency limit.
+ *
+ * @author Stefan Pedratscher
+ */
+public class DistributedEngineEndpoint {
+
+    /**
+     * Pattern of cloud regions in uris and resource ids (e.g. us-east-1).
+     */
+    private static final Pattern REGION = Pattern.compile("(?<![a-z])([a-z]{2}(?:-gov)?-[a-z]+-\\d)(?![0-9])");
+
+    /**
+     * The uri of the distributed engine.
+     */
+    private final String uri;
+
+    /**
+     * The region of the distributed engine.
+     */
+    private final String region;
+
+    /**
+     * The latency (in ms) of a cold start.
+     */
+    private final double coldStartLatency;
+
+    /**
+     * The latency (in ms) of a warm invocation.
+     */
+    private final double latency;
+
+    /**
+     * The maximal number of concurrent cuts.
+     */
+    private final int concurrencyLimit;
+
+    /**
+     * Constructor deriving the region from the uri.
+     *
+     * @param uri the uri of the distributed engine.
+     * @param coldStartLatency the latency (in ms) of a cold start.
+     * @param latency the latency (in ms) of a warm invocation.
+     * @param concurrencyLimit the maximal number of concurrent cuts.
+     */
+    public DistributedEngineEndpoint(final String uri, final double coldStartLatency, final double latency,
+        final int concurrencyLimit) {
+        this(uri, regionOf(uri), coldStartLatency, latency, concurrencyLimit);
+    }
+
+    /**
+     * Default constructor.
+     *
+     * @param uri the uri of the distributed engine.
+     * @param region the region of the distributed engine (null if unknown).
+     * @param coldStartLatency the latency (in ms) of a cold start.
+     * @param latency the latency (in ms) of a warm invocation.
+     * @param concurrencyLimit the maximal number of concurrent cuts.
+     */
+    public DistributedEngineEndpoint(final String uri, final String region, final double coldStartLatency,
+        final double latency, final int concurrencyLimit) {
+        if (uri == null || uri.isEmpty()) {
+            throw new IllegalArgumentException("Distributed engine endpoint requires an uri!");
+        }
+        if (concurrencyLimit < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be positive!");
+        }
+        this.uri = uri;
+        this.region = region;
+        this.coldStartLatency = coldStartLatency;
+        this.latency = latency;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * Derive the region from an uri or resource id.
+     *
+     * @param uri the uri or resource id.
+     *
+     * @return the region or null if the uri contains no region.
+     */
+    public static String regionOf(final String uri) {
+        final Matcher matcher = REGION.matcher(uri);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @Override
+    public String toString() {
+        return uri;
+    }
+
+    /**
+     * Getter
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public double getColdStartLatency() {
+        return coldStartLatency;
+    }
+
+    public double getLatency() {
+        return latency;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+}
@@ -0,0 +1,242 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.properties.ResourceKind;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.sf.opendse.model.Resource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the distributed engine endpoints a cut can be placed on.
+ *
+ * <p>The endpoint of a cut is selected by its expected latency: the warm
+ * latency of the endpoint, a penalty for each task of the cut mapped to a
+ * resource in another region and the cold start latency weighted by the
+ * utilization of the endpoint. The assignments count the cuts of the current
+ * planning pass, which are enacted concurrently, so the cuts of a plan are
+ * spread across the endpoints. A cut is released once its enactment finished
+ * ({@link #release}); a registry shared between plans has to be reset before
+ * the next planning pass ({@link #reset}), otherwise the cuts of earlier plans
+ * keep counting towards the concurrency limits.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class DistributedEngineRegistry {
+
+    /**
+     * Default penalty (in ms) of a task running in another region than the
+     * distributed engine.
+     */
+    public static final double DEFAULT_CROSS_REGION_LATENCY = 100.0;
+
+    /**
+     * Penalty (in ms) per cut queued on an endpoint beyond its concurrency
+     * limit.
+     */
+    private static final double QUEUE_PENALTY = 10000.0;
+
+    /**
+     * The endpoints by uri.
+     */
+    private final Map<String, DistributedEngineEndpoint> endpoints;
+
+    /**
+     * The number of assigned cuts per endpoint uri.
+     */
+    private final Map<String, Integer> assigned;
+
+    /**
+     * The penalty (in ms) of a task running in another region.
+     */
+    private final double crossRegionLatency;
+
+    /**
+     * Default constructor (only the default distributed engine
+     * {@link Utility#DE_AWS_US_EAST_1}).
+     */
+    public DistributedEngineRegistry() {
+        this(Collections.singletonList(new DistributedEngineEndpoint(Utility.DE_AWS_US_EAST_1,
+            ResourceKind.DISTRIBUTED_ENGINE.getEntryLatency(), 0.0, Integer.MAX_VALUE)), DEFAULT_CROSS_REGION_LATENCY);
+    }
+
+    /**
+     * Constructor for the given endpoints.
+     *
+     * @param endpoints the endpoints of the distributed engines.
+     * @param crossRegionLatency the penalty (in ms) of a task running in
+     *        another region than the distributed engine.
+     */
+    public DistributedEngineRegistry(final List<DistributedEngineEndpoint> endpoints, final double crossRegionLatency) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Registry requires at least one distributed engine!");
+        }
+        this.endpoints = new LinkedHashMap<>();
+        this.assigned = new HashMap<>();
+        this.crossRegionLatency = crossRegionLatency;
+        endpoints.forEach(this::register);
+    }
+
+    /**
+     * Read the endpoints from a json configuration file of the form
+     * {@code {"crossRegionLatency": 100, "endpoints": [{"uri": "...",
+     * "region": "...", "coldStartLatency": 500, "latency": 20,
+     * "concurrencyLimit": 10}]}}. All members except the uri are optional.
+     *
+     * @param path the path of the configuration file.
+     *
+     * @return the registry.
+     *
+     * @throws IOException on io failure.
+     */
+    public static DistributedEngineRegistry load(final Path path) throws IOException {
+        final JsonObject config;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            config = JsonParser.parseReader(reader).getAsJsonObject();
+        }
+        final List<DistributedEngineEndpoint> endpoints = new ArrayList<>();
+        for (JsonElement element : config.getAsJsonArray("endpoints")) {
+            final JsonObject endpoint = element.getAsJsonObject();
+            final String uri = endpoint.get("uri").getAsString();
+            endpoints.add(new DistributedEngineEndpoint(uri,
+                endpoint.has("region") ? endpoint.get("region").getAsString() : DistributedEngineEndpoint.regionOf(uri),
+                endpoint.has("coldStartLatency") ? endpoint.get("coldStartLatency").getAsDouble()
+                    : ResourceKind.DISTRIBUTED_ENGINE.getEntryLatency(),
+                endpoint.has("latency") ? endpoint.get("latency").getAsDouble() : 0.0,
+                endpoint.has("concurrencyLimit") ? endpoint.get("concurrencyLimit").getAsInt() : Integer.MAX_VALUE));
+        }
+        return new DistributedEngineRegistry(endpoints, config.has("crossRegionLatency")
+            ? config.get("crossRegionLatency").getAsDouble() : DEFAULT_CROSS_REGION_LATENCY);
+    }
+
+    /**
+     * Read the endpoints from the distributed engine resources of a resource
+     * graph (resources of kind {@link ResourceKind#DISTRIBUTED_ENGINE}). The
+     * latency profile is taken from the scheduler properties of the resources.
+     *
+     * @param rGraph the resource graph.
+     *
+     * @return the registry or the default registry if the resource graph
+     *         contains no distributed engine.
+     */
+    public static DistributedEngineRegistry fromResourceGraph(final ResourceGraph rGraph) {
+        final List<DistributedEngineEndpoint> endpoints = new ArrayList<>();
+        for (Resource resource : rGraph.getVertices()) {
+            if (ResourceKind.of(resource) == ResourceKind.DISTRIBUTED_ENGINE) {
+                endpoints.add(new DistributedEngineEndpoint(resource.getId(),
+                    PropertyServiceScheduler.isLatencyGlobalSet(resource)
+                        ? PropertyServiceScheduler.getLatencyGlobal(resource)
+                        : ResourceKind.DISTRIBUTED_ENGINE.getEntryLatency(),
+                    PropertyServiceScheduler.isLatencyLocalSet(resource)
+                        ? PropertyServiceScheduler.getLatencyLocal(resource) : 0.0,
+                    PropertyServiceScheduler.isInstancesSet(resource)
+                        ? PropertyServiceScheduler.getInstances(resource) : Integer.MAX_VALUE));
+            }
+        }
+        return endpoints.isEmpty() ? new DistributedEngineRegistry()
+            : new DistributedEngineRegistry(endpoints, DEFAULT_CROSS_REGION_LATENCY);
+    }
+
+    /**
+     * Register an endpoint (replacing an endpoint with the same uri).
+     *
+     * @param endpoint the endpoint to register.
+     */
+    public synchronized void register(final DistributedEngineEndpoint endpoint) {
+        endpoints.put(endpoint.getUri(), endpoint);
+    }
+
+    /**
+     * Select the endpoint for a cut and assign the cut to it.
+     *
+     * @param regions the number of tasks of the cut per region of the
+     *        resources they are mapped to (tasks on resources without a
+     *        region are not penalized).
+     *
+     * @return the selected endpoint.
+     */
+    public synchronized DistributedEngineEndpoint select(final Map<String, Integer> regions) {
+        DistributedEngineEndpoint best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (DistributedEngineEndpoint endpoint : endpoints.values()) {
+            final double cost = cost(endpoint, regions);
+            if (cost < bestCost) {
+                best = endpoint;
+                bestCost = cost;
+            }
+        }
+        assigned.merge(best.getUri(), 1, Integer::sum);
+        return best;
+    }
+
+    /**
+     * Release a cut assigned to an endpoint after its enactment finished (or
+     * if the cut is reverted).
+     *
+     * @param endpoint the endpoint of the cut.
+     */
+    public synchronized void release(final DistributedEngineEndpoint endpoint) {
+        assigned.computeIfPresent(endpoint.getUri(), (uri, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Release all assigned cuts to start a new planning pass.
+     */
+    public synchronized void reset() {
+        assigned.clear();
+    }
+
+    /**
+     * Get the expected latency of a cut on an endpoint.
+     *
+     * @param endpoint the endpoint.
+     * @param regions the number of tasks of the cut per region.
+     *
+     * @return the expected latency (in ms).
+     */
+    private double cost(final DistributedEngineEndpoint endpoint, final Map<String, Integer> regions) {
+        int remoteTasks = 0;
+        for (Map.Entry<String, Integer> region : regions.entrySet()) {
+            if (region.getKey() != null && !region.getKey().equals(endpoint.getRegion())) {
+                remoteTasks += region.getValue();
+            }
+        }
+        final int load = assigned.getOrDefault(endpoint.getUri(), 0);
+        final double utilization = (double) load / endpoint.getConcurrencyLimit();
+        return endpoint.getLatency() + remoteTasks * crossRegionLatency
+            + Math.min(utilization, 1.0) * endpoint.getColdStartLatency()
+            + (load >= endpoint.getConcurrencyLimit() ? (load - endpoint.getConcurrencyLimit() + 1) * QUEUE_PENALTY : 0.0);
+    }
+
+    /**
+     * Getter
+     */
+    public synchronized List<DistributedEngineEndpoint> getEndpoints() {
+        return new ArrayList<>(endpoints.values());
+    }
+
+    public synchronized DistributedEngineEndpoint getEndpoint(final String uri) {
+        return endpoints.get(uri);
+    }
+
+    public synchronized int getAssigned(final DistributedEngineEndpoint endpoint) {
+        return assigned.getOrDefault(endpoint.getUri(), 0);
+    }
+
+    public double getCrossRegionLatency() {
+        return crossRegionLatency;
+    }
+}
@@ -0,0 +1,173 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import net.sf.opendse.model.Task;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class to cut the {@link EnactmentGraph} at a tree of nested cuts.
+ *
+ * <p>The whole tree is validated before the graph is changed: each cut has
+ * to be valid, nested cuts have to lie within the region of their parent and
+ * the regions of sibling cuts have to be disjoint. The cuts are then applied
+ * bottom-up (post-order), so the region of a parent cut already contains the
+ * distributed engine nodes (and their specification constants) of its
+ * nested cuts and the sub-specification of the parent embeds the ones of its
+ * children. If a cut fails while it is applied, the cuts already applied are
+ * reverted, so the specification is either cut at the whole forest or left
+ * unchanged.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class HierarchicalIncision {
+
+    /**
+     * The incision applying the single cuts.
+     */
+    private final Incision incision;
+
+    /**
+     * Default constructor.
+     */
+    public HierarchicalIncision() {
+        this(new Incision());
+    }
+
+    /**
+     * Constructor applying the single cuts with the given incision.
+     *
+     * @param incision the incision applying the single cuts.
+     */
+    public HierarchicalIncision(final Incision incision) {
+        this.incision = incision;
+    }
+
+    /**
+     * Cut the {@link EnactmentGraph} at a single tree of nested cuts.
+     *
+     * @param enactmentSpecification the specification to cut (adapted in
+     *        place).
+     * @param cutTree the tree of nested cuts.
+     *
+     * @return the sub-specification of each cut in post-order.
+     *
+     * @throws IllegalArgumentException if the cut tree is invalid.
+     */
+    public Map<CutTree, EnactmentSpecification> cut(final EnactmentSpecification enactmentSpecification,
+        final CutTree cutTree) {
+        return cut(enactmentSpecification, Collections.singletonList(cutTree));
+    }
+
+    /**
+     * Cut the {@link EnactmentGraph} at several disjoint trees of nested cuts.
+     *
+     * @param enactmentSpecification the specification to cut (adapted in
+     *        place).
+     * @param cutTrees the disjoint trees of nested cuts.
+     *
+     * @return the sub-specification of each cut in post-order.
+     *
+     * @throws IllegalArgumentException if a cut tree is invalid (the
+     *         specification is left unchanged).
+     */
+    public Map<CutTree, EnactmentSpecification> cut(final EnactmentSpecification enactmentSpecification,
+        final List<CutTree> cutTrees) {
+        final EnactmentGraph eGraph = enactmentSpecification.getEnactmentGraph();
+
+        // Validate the whole forest before the graph is changed
+        final Map<CutTree, Set<Task>> regions = new HashMap<>();
+        validate(eGraph, cutTrees, null, regions);
+
+        // Cut bottom-up, reverting the whole forest if a cut fails
+        final IncisionJournal journal = new IncisionJournal();
+        final Map<CutTree, EnactmentSpecification> result = new LinkedHashMap<>();
+        try {
+            for (CutTree cutTree : cutTrees) {
+                for (CutTree cut : cutTree.postOrder()) {
+                    result.put(cut, incision.cut(enactmentSpecification, cut.getTopCut(), cut.getBottomCut(), journal));
+                }
+            }
+        } catch (RuntimeException e) {
+            journal.rollback();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Validate sibling cuts and their nested cuts.
+     *
+     * @param eGraph the uncut enactment graph.
+     * @param siblings the sibling cuts.
+     * @param parent the region of the parent cut (null for top level cuts).
+     * @param regions the regions of the validated cuts.
+     */
+    private void validate(final EnactmentGraph eGraph, final List<CutTree> siblings, final Set<Task> parent,
+        final Map<CutTree, Set<Task>> regions) {
+        final Set<Task> coveredInner = new HashSet<>();
+        final Set<Task> coveredCuts = new HashSet<>();
+        for (CutTree cut : siblings) {
+            if (regions.containsKey(cut)) {
+                throw new IllegalArgumentException("Cut " + cut + " occurs twice in the cut tree!");
+            }
+            if (cut.getTopCut() == null || cut.getTopCut().isEmpty() || cut.getBottomCut() == null
+                || cut.getBottomCut().isEmpty() || !incision.isCutValid(eGraph, cut.getTopCut(), cut.getBottomCut())) {
+                throw new IllegalArgumentException("The cut " + cut + " is invalid!");
+            }
+            final Set<Task> region = region(eGraph, cut);
+            regions.put(cut, region);
+
+            // Check the containment in the parent cut
+            if (parent != null && (!parent.containsAll(region) || region.size() == parent.size())) {
+                throw new IllegalArgumentException("The cut " + cut + " is not nested in its parent cut!");
+            }
+
+            // Check the disjointness of the siblings (sibling cuts may share
+            // cut nodes, but no inner nodes)
+            final Set<Task> cutNodes = new HashSet<>(cut.getTopCut());
+            cutNodes.addAll(cut.getBottomCut());
+            final Set<Task> inner = new HashSet<>(region);
+            inner.removeAll(cutNodes);
+            if (inner.stream().anyMatch(task -> coveredInner.contains(task) || coveredCuts.contains(task))
+                || cutNodes.stream().anyMatch(coveredInner::contains)) {
+                throw new IllegalArgumentException("The cut " + cut + " overlaps with a sibling cut!");
+            }
+            coveredInner.addAll(inner);
+            coveredCuts.addAll(cutNodes);
+            validate(eGraph, cut.getChildren(), region, regions);
+        }
+    }
+
+    /**
+     * Get the region of a cut: the nodes between the top and the bottom cut
+     * including the cut nodes.
+     *
+     * @param eGraph the enactment graph.
+     * @param cut the cut.
+     *
+     * @return the region of the cut.
+     */
+    private Set<Task> region(final EnactmentGraph eGraph, final CutTree cut) {
+        final Set<Task> region = new HashSet<>(cut.getTopCut());
+        region.addAll(cut.getBottomCut());
+        final Deque<Task> stack = new ArrayDeque<>(cut.getTopCut());
+        while (!stack.isEmpty()) {
+            for (Task successor : eGraph.getSuccessors(stack.pop())) {
+                if (region.add(successor)) {
+                    stack.push(successor);
+                }
+            }
+        }
+        return region;
+    }
+}
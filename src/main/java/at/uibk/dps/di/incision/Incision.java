@@ -1,13 +1,19 @@
 package at.uibk.dps.di.incision;
 
+import at.uibk.dps.di.metrics.Histogram;
+import at.uibk.dps.di.metrics.MetricsRegistry;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.properties.ResourceKind;
+import at.uibk.dps.di.storage.BlobStore;
+import at.uibk.dps.di.storage.PayloadCodec;
 import at.uibk.dps.ee.model.graph.*;
 import at.uibk.dps.ee.model.properties.*;
 import at.uibk.dps.ee.model.utils.UtilsCopy;
 import com.google.gson.JsonPrimitive;
-import edu.uci.ics.jung.graph.util.EdgeType;
 import net.sf.opendse.model.*;
 import net.sf.opendse.model.properties.TaskPropertyService;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,6 +24,104 @@ import java.util.stream.Collectors;
  */
 public class Incision {
 
+  /**
+   * Time spent for a single cut.
+   */
+  private static final Histogram CUT_TIME = MetricsRegistry.getDefault().histogram("incision_cut_nanos");
+
+  /**
+   * Store for the specifications of the cut out graphs (null to inline them).
+   */
+  private final BlobStore blobStore;
+
+  /**
+   * Minimal data size (in bytes) of a cut communication node passed by
+   * reference.
+   */
+  private final long referenceThreshold;
+
+  /**
+   * Codec of the specification constant and the values passed by reference.
+   */
+  private final PayloadCodec codec;
+
+  /**
+   * Registry of the distributed engines the cuts are placed on.
+   */
+  private final DistributedEngineRegistry registry;
+
+  /**
+   * Default constructor (the specifications of the cut out graphs are inlined
+   * into the specification constants).
+   */
+  public Incision() {
+    this(null);
+  }
+
+  /**
+   * Constructor storing the specifications of the cut out graphs in a blob
+   * store. The specification constants only contain a reference to the blob
+   * (see {@link Utility#resolveSpecification}).
+   *
+   * @param blobStore the store for the specifications of the cut out graphs.
+   */
+  public Incision(final BlobStore blobStore) {
+    this(blobStore, Long.MAX_VALUE);
+  }
+
+  /**
+   * Constructor additionally marking the cut communication nodes with a data
+   * size of at least the given threshold as by-reference (see
+   * {@link at.uibk.dps.di.storage.BoundaryDataPlane}). Their values cross the
+   * distributed engine node as handles to the blob store.
+   *
+   * @param blobStore the store for the specifications of the cut out graphs
+   *        and the values passed by reference.
+   * @param referenceThreshold the minimal data size (in bytes) of a cut
+   *        communication node passed by reference.
+   */
+  public Incision(final BlobStore blobStore, final long referenceThreshold) {
+    this(blobStore, referenceThreshold, PayloadCodec.IDENTITY);
+  }
+
+  /**
+   * Constructor additionally encoding the specification constant (and the
+   * values passed by reference) with the given codec. The codec is
+   * negotiated through the configuration constant (see
+   * {@link Utility#codecOf}).
+   *
+   * @param blobStore the store for the specifications of the cut out graphs
+   *        and the values passed by reference (null to inline them).
+   * @param referenceThreshold the minimal data size (in bytes) of a cut
+   *        communication node passed by reference.
+   * @param codec the codec of the payloads.
+   */
+  public Incision(final BlobStore blobStore, final long referenceThreshold, final PayloadCodec codec) {
+    this(blobStore, referenceThreshold, codec, new DistributedEngineRegistry());
+  }
+
+  /**
+   * Constructor placing the cuts on the distributed engines of the given
+   * registry (see {@link DistributedEngineRegistry#select}).
+   *
+   * @param blobStore the store for the specifications of the cut out graphs
+   *        and the values passed by reference (null to inline them).
+   * @param referenceThreshold the minimal data size (in bytes) of a cut
+   *        communication node passed by reference.
+   * @param codec the codec of the payloads.
+   * @param registry the registry of the distributed engines.
+   */
+  public Incision(final BlobStore blobStore, final long referenceThreshold, final PayloadCodec codec,
+      final DistributedEngineRegistry registry) {
+    if (referenceThreshold != Long.MAX_VALUE && blobStore == null) {
+      throw new IllegalArgumentException("Passing data by reference requires a blob store!");
+    }
+    this.blobStore = blobStore;
+    this.referenceThreshold = referenceThreshold;
+    this.codec = codec;
+    this.registry = registry;
+  }
+
   /**
    * Cut the {@link EnactmentGraph} at a specific position (two given cuts)
    * and adapt the {@link EnactmentSpecification}.
@@ -39,17 +143,96 @@ public class Incision {
    */
   public EnactmentSpecification cut(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
       final Set<Task> bottomCut) {
+    return cut(enactmentSpecification, topCut, bottomCut, new IncisionJournal());
+  }
+
+  /**
+   * Cut the {@link EnactmentGraph} at a specific position (two given cuts)
+   * and record the changes of the {@link EnactmentSpecification}, so the cut
+   * can be reverted with {@link IncisionJournal#rollback()}. A cut failing
+   * halfway is reverted before the exception is rethrown.
+   *
+   * @param enactmentSpecification the reference to the original
+   *        input {@link EnactmentSpecification} (adapted in place).
+   * @param topCut communication nodes representing the top cut of the
+   *        {@link EnactmentGraph}.
+   * @param bottomCut communication nodes representing the bottom cut of the
+   *        {@link EnactmentGraph}.
+   * @param journal the journal recording the changes.
+   *
+   * @return the resulting cut out {@link EnactmentGraph} in the adapted
+   *         {@link EnactmentSpecification}.
+   *
+   * @throws IllegalArgumentException if the cut is invalid.
+   */
+  public EnactmentSpecification cut(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
+      final Set<Task> bottomCut, final IncisionJournal journal) {
+    return cut(enactmentSpecification, topCut, bottomCut, null, journal);
+  }
+
+  /**
+   * Cut a region of the {@link EnactmentGraph} whose cut nodes may be shared
+   * with other regions (e.g. a shard of a fan-out region, see
+   * {@link ShardedIncision}). Only the edges of the cut nodes leading into
+   * the region are rewired to the distributed engine node, the edges to the
+   * other regions stay in place.
+   *
+   * @param enactmentSpecification the reference to the original
+   *        input {@link EnactmentSpecification} (adapted in place).
+   * @param topCut communication nodes representing the top cut of the
+   *        region.
+   * @param bottomCut communication nodes representing the bottom cut of the
+   *        region.
+   * @param region the inner nodes of the region (null for all nodes between
+   *        the top and bottom cut).
+   * @param journal the journal recording the changes.
+   *
+   * @return the resulting cut out {@link EnactmentGraph} in the adapted
+   *         {@link EnactmentSpecification}.
+   *
+   * @throws IllegalArgumentException if the cut is invalid.
+   */
+  public EnactmentSpecification cut(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
+      final Set<Task> bottomCut, final Set<Task> region, final IncisionJournal journal) {
+    final int mark = journal.size();
+    try {
+      return applyCut(enactmentSpecification, topCut, bottomCut, region, journal);
+    } catch (RuntimeException e) {
+      journal.rollbackTo(mark);
+      throw e;
+    }
+  }
 
+  /**
+   * Apply a cut and record the changes in the journal.
+   *
+   * @param enactmentSpecification the specification to cut.
+   * @param topCut the top cut.
+   * @param bottomCut the bottom cut.
+   * @param region the inner nodes of the region (null for all).
+   * @param journal the journal recording the changes.
+   *
+   * @return the specification of the cut out graph.
+   */
+  private EnactmentSpecification applyCut(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
+      final Set<Task> bottomCut, final Set<Task> region, final IncisionJournal journal) {
+
+    final long start = MetricsRegistry.getDefault().start();
     final EnactmentGraph eGraph = enactmentSpecification.getEnactmentGraph();
 
-    // Validate the top and bottom cuts
-    validateInput(eGraph, topCut, bottomCut);
+    // Validate the top and bottom cuts (restricted to the region and its cut
+    // nodes)
+    final Set<Task> scope = scopeOf(topCut, bottomCut, region);
+    validateInput(eGraph, topCut, bottomCut, scope);
 
     // Create the cut out graph
-    final EnactmentGraph cutOutGraph = cutGraph(eGraph, topCut, bottomCut);
+    final EnactmentGraph cutOutGraph = cutGraph(eGraph, topCut, bottomCut, scope);
 
-    // Insert new distributed engine node
-    final String functionNodeId = insertFunctionNode(enactmentSpecification, topCut, bottomCut);
+    // Select the distributed engine and insert the distributed engine node
+    final DistributedEngineEndpoint endpoint = registry.select(regions(enactmentSpecification.getMappings(), cutOutGraph));
+    journal.record(() -> registry.release(endpoint));
+    final String functionNodeId = insertFunctionNode(enactmentSpecification, topCut, bottomCut, region, endpoint,
+        journal);
 
     // Remove outsourced edges, vertices and mappings from the
     // initial graph and add mappings of the cut out graph.
@@ -58,16 +241,16 @@ public class Incision {
     cutOutGraph.getEdges().forEach((edge) -> {
 
       // Check if already deleted
-      try { eGraph.removeEdge(eGraph.getEdge(edge.getId())); } catch(IllegalArgumentException ignore) {}
+      journal.removeEdge(eGraph, eGraph.getEdge(edge.getId()));
     });
     cutOutGraph.getVertices().forEach((vertice) -> {
       if(!(topCut.contains(vertice) || bottomCut.contains(vertice))) {
         if(!(vertice instanceof Communication)) {
           Set<Mapping<Task, Resource>> map = mappings.getMappings(vertice);
           map.forEach(mappingsCutOutGraph::addMapping);
-          map.forEach(mappings::removeMapping);
+          new ArrayList<>(map).forEach((mapping) -> journal.removeMapping(mappings, mapping));
         }
-        eGraph.removeVertex(eGraph.getVertex(vertice.getId()));
+        journal.removeVertex(eGraph, eGraph.getVertex(vertice.getId()));
       }
     });
 
@@ -77,29 +260,34 @@ public class Incision {
       final Dependency edge = eGraph.getEdge(tTask.getId() + "--" + functionNodeId);
       PropertyServiceDependency.setJsonKey(edge, PropertyServiceDependency.getJsonKey(edge)/* + "_" + tTask.getId()*/);
       PropertyServiceData.setJsonKey(cutOutGraph.getVertex(tTask.getId()), PropertyServiceDependency.getJsonKey(edge));
+      markByReference(tTask, cutOutGraph.getVertex(tTask.getId()), journal);
     });
     bottomCut.forEach((bTask) -> {
       PropertyServiceData.makeLeaf(cutOutGraph.getVertex(bTask.getId()));
       final Dependency edge = eGraph.getEdge(functionNodeId + "--" + bTask.getId());
       PropertyServiceDependency.setJsonKey(edge, PropertyServiceDependency.getJsonKey(edge)/* + "_" + bTask.getId()*/);
       PropertyServiceData.setJsonKey(cutOutGraph.getVertex(bTask.getId()), PropertyServiceDependency.getJsonKey(edge));
+      markByReference(bTask, cutOutGraph.getVertex(bTask.getId()), journal);
     });
 
-    // Create the enactment specification of the cut out graph
+    // Create the enactment specification of the cut out graph (the id is
+    // derived from the cut, so equal cuts result in equal specifications)
     final EnactmentSpecification resultEnactmentSpecification = new EnactmentSpecification(
         cutOutGraph,
         enactmentSpecification.getResourceGraph(),
         mappingsCutOutGraph,
-        UUID.randomUUID().toString());
+        UUID.nameUUIDFromBytes(functionNodeId.getBytes(StandardCharsets.UTF_8)).toString());
 
-    // Create new communication nodes for specification and configuration
+    // Create new communication nodes for specification and configuration (the
+    // distributed engine is a remote serverless function without docker)
+    final String specification = Utility.fromEnactmentSpecificationToString(resultEnactmentSpecification);
     addCommunicationNode(eGraph, "Constant/" + Utility.SPECIFICATION + "_" + functionNodeId,
-        prepareNodeConstantString(Utility.fromEnactmentSpecificationToString(resultEnactmentSpecification)),
-        eGraph.getVertex(functionNodeId), Utility.SPECIFICATION);
+        specificationConstant(specification), eGraph.getVertex(functionNodeId), Utility.SPECIFICATION, journal);
     addCommunicationNode(eGraph, "Constant/" + Utility.CONFIGURATION + "_" + functionNodeId,
-        prepareNodeConstantString(Utility.DE_CONFIGURATION_NO_DOCKER),
-        eGraph.getVertex(functionNodeId), Utility.CONFIGURATION);
+        prepareNodeConstantString(Utility.withCodec(Utility.configuration(mappingsCutOutGraph, true), codec)),
+        eGraph.getVertex(functionNodeId), Utility.CONFIGURATION, journal);
 
+    CUT_TIME.recordSince(start);
     return resultEnactmentSpecification;
   }
 
@@ -114,43 +302,45 @@ public class Incision {
    *        {@link EnactmentGraph}.
    * @param bottomCut communication nodes representing the bottom cut
    *        of the {@link EnactmentGraph}.
+   * @param region the inner nodes of the region (null for all).
+   * @param endpoint the distributed engine executing the cut.
+   * @param journal the journal recording the changes.
    *
    * @return the identifier of the newly created function node.
    */
-  private String insertFunctionNode(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut, final Set<Task> bottomCut) {
+  private String insertFunctionNode(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
+      final Set<Task> bottomCut, final Set<Task> region, final DistributedEngineEndpoint endpoint,
+      final IncisionJournal journal) {
     final EnactmentGraph eGraph = enactmentSpecification.getEnactmentGraph();
 
-    // Create and insert the function node for the distributed engine
-    final String functionNodeId = topCut.toString() + bottomCut.toString();
+    // Create and insert the function node for the distributed engine (regions
+    // sharing their cut nodes are told apart by their tasks)
+    String functionNodeId = topCut.toString() + bottomCut.toString();
+    if (region != null) {
+      functionNodeId += region.stream().filter(task -> !(task instanceof Communication)).map(Task::getId)
+          .sorted().collect(Collectors.toList()).toString();
+    }
     final Task functionNode = PropertyServiceFunctionUser.createUserTask(functionNodeId, Utility.DE_TYPE_ID);
     PropertyServiceFunction.setUsageType(PropertyServiceFunction.UsageType.User, functionNode);
-    eGraph.addVertex(functionNode);
+    journal.addVertex(eGraph, functionNode);
 
     // Add the distributed engine resource
-    final Resource distributedEngineResource = PropertyServiceResourceServerless.createServerlessResource(Utility.DE_AWS_US_EAST_1,  Utility.DE_AWS_US_EAST_1);
+    final String uri = endpoint.getUri();
+    final Resource distributedEngineResource = PropertyServiceResourceServerless.createServerlessResource(uri, uri);
+    PropertyServiceScheduler.setResourceKind(distributedEngineResource, ResourceKind.DISTRIBUTED_ENGINE);
     final ResourceGraph rGraph = enactmentSpecification.getResourceGraph();
-    rGraph.addVertex(distributedEngineResource);
+    journal.addVertex(rGraph, distributedEngineResource);
     final Resource engineResource = rGraph.getVertex(Utility.ENGINE);
-    if(engineResource != null && !rGraph.containsEdge(Utility.ENGINE + "--" + Utility.DE_AWS_US_EAST_1)) {
-        rGraph.addEdge(new Link(Utility.ENGINE + "--" + Utility.DE_AWS_US_EAST_1),
-            rGraph.getVertex(Utility.ENGINE), distributedEngineResource,
-            EdgeType.DIRECTED);
+    if(engineResource != null && !rGraph.containsEdge(Utility.ENGINE + "--" + uri)) {
+        journal.addEdge(rGraph, new Link(Utility.ENGINE + "--" + uri),
+            rGraph.getVertex(Utility.ENGINE), distributedEngineResource);
     }
 
     // Add mapping for the distributed engine
-    enactmentSpecification.getMappings().addMapping(PropertyServiceMapping.createMapping(eGraph.getVertex(functionNodeId), distributedEngineResource, PropertyServiceMapping.EnactmentMode.Serverless, Utility.DE_AWS_US_EAST_1));
+    journal.addMapping(enactmentSpecification.getMappings(), PropertyServiceMapping.createMapping(eGraph.getVertex(functionNodeId), distributedEngineResource, PropertyServiceMapping.EnactmentMode.Serverless, uri));
 
-    // Substitute the edges before the bottom cut
-    for (final Task bTask : bottomCut) {
-      eGraph.getInEdges(bTask).forEach(
-          dependency -> remapDependency(eGraph, dependency, functionNode, bTask));
-    }
-
-    // Substitute the edges after the top cut
-    for (final Task tTask : topCut) {
-      eGraph.getOutEdges(tTask).forEach(
-          dependency -> remapDependency(eGraph, dependency, tTask, functionNode));
-    }
+    // Substitute the edges before the bottom cut and after the top cut
+    rewireBoundary(eGraph, topCut, bottomCut, region, functionNode, journal);
 
     return functionNodeId;
   }
@@ -163,9 +353,10 @@ public class Incision {
    * @param content the content of the constant communication node.
    * @param toNode the node to connect the communication node with.
    * @param jsonKey the jsonKey of the communication node.
+   * @param journal the journal recording the changes.
    */
   private void addCommunicationNode(final EnactmentGraph eGraph, final String communicationId,
-      final String content, final Task toNode, final String jsonKey) {
+      final String content, final Task toNode, final String jsonKey, final IncisionJournal journal) {
 
     // Create communication node
     final Communication communication = new Communication(communicationId);
@@ -179,8 +370,59 @@ public class Incision {
     PropertyServiceDependency.setType(dependency, PropertyServiceDependency.TypeDependency.Data);
 
     // Add dependency
-    PropertyServiceDependency.addDataDependency(communication, toNode,
-        PropertyServiceDependency.getJsonKey(dependency), eGraph);
+    journal.addDataDependency(eGraph, communication, toNode, PropertyServiceDependency.getJsonKey(dependency));
+  }
+
+  /**
+   * Count the mappings of the tasks of a cut per region of their resources.
+   *
+   * @param mappings the mappings of the initial graph.
+   * @param cutOutGraph the cut out graph.
+   *
+   * @return the number of mappings per region (null for resources without
+   *         region).
+   */
+  private Map<String, Integer> regions(final MappingsConcurrent mappings, final EnactmentGraph cutOutGraph) {
+    final Map<String, Integer> regions = new HashMap<>();
+    for (final Task task : cutOutGraph.getVertices()) {
+      if (!(task instanceof Communication)) {
+        mappings.getMappings(task).forEach((mapping) -> regions.merge(
+            DistributedEngineEndpoint.regionOf(mapping.getTarget().getId()), 1, Integer::sum));
+      }
+    }
+    return regions;
+  }
+
+  /**
+   * Get the content of the specification constant.
+   *
+   * @param specification the specification of the cut out graph.
+   *
+   * @return the (encoded) specification or a reference to it.
+   */
+  private String specificationConstant(final String specification) {
+    if (blobStore != null) {
+      return BlobStore.reference(blobStore.put(codec.encodeBlob(specification)));
+    }
+    return codec == PayloadCodec.IDENTITY ? prepareNodeConstantString(specification) : codec.encodeString(specification);
+  }
+
+  /**
+   * Mark a cut communication node (and its copy in the cut out graph) as
+   * by-reference if its data size reaches the reference threshold.
+   *
+   * @param cutTask the cut communication node of the initial graph.
+   * @param cutOutTask the copy of the node in the cut out graph.
+   * @param journal the journal recording the changes.
+   */
+  private void markByReference(final Task cutTask, final Task cutOutTask, final IncisionJournal journal) {
+    if (PropertyServiceScheduler.isDataSizeSet(cutTask)
+        && PropertyServiceScheduler.getDataSize(cutTask) >= referenceThreshold) {
+      final boolean byReference = PropertyServiceScheduler.isByReference(cutTask);
+      journal.record(() -> PropertyServiceScheduler.setByReference(cutTask, byReference));
+      PropertyServiceScheduler.setByReference(cutTask, true);
+      PropertyServiceScheduler.setByReference(cutOutTask, true);
+    }
   }
 
   /**
@@ -193,8 +435,10 @@ public class Incision {
    *        {@link EnactmentGraph}.
    * @param bottomCut communication nodes representing the bottom cut of
    *        the {@link EnactmentGraph}.
+   * @param scope the nodes of the cut (null for all).
    */
-  private void validateInput(final EnactmentGraph eGraph, final Set<Task> topCut, final Set<Task> bottomCut){
+  private void validateInput(final EnactmentGraph eGraph, final Set<Task> topCut, final Set<Task> bottomCut,
+      final Set<Task> scope){
     // Check if top and bottom cut is specified
     if (topCut == null || topCut.isEmpty() || bottomCut == null || bottomCut.isEmpty()) {
       throw new IllegalArgumentException("Both, top and bottom cut must be specified!");
@@ -205,7 +449,8 @@ public class Incision {
     bottomCut.forEach((task) -> {if(!(task instanceof Communication)) { throw new IllegalArgumentException("Bottom cut must be a set of communication nodes!");}} );
 
     // Check if the cut is valid
-    if(!isCutValid(eGraph, topCut, bottomCut)) {
+    if(!(checkDirection(eGraph, topCut, bottomCut, true, scope)
+        && checkDirection(eGraph, bottomCut, topCut, false, scope))) {
       throw new IllegalArgumentException("The cut is invalid!");
     }
   }
@@ -223,8 +468,8 @@ public class Incision {
    */
   public boolean isCutValid(final EnactmentGraph eGraph, final Set<Task> topCut, final Set<Task> bottomCut) {
     // Check both directions for validity
-    return checkDirection(eGraph, topCut, bottomCut, true)
-        && checkDirection(eGraph, bottomCut, topCut, false);
+    return checkDirection(eGraph, topCut, bottomCut, true, null)
+        && checkDirection(eGraph, bottomCut, topCut, false, null);
   }
 
   /**
@@ -238,11 +483,12 @@ public class Incision {
    *                 validity.
    * @param topBottom specifies the direction to check: from top to
    *                  bottom or bottom to top.
+   * @param scope the nodes to check (null for all).
    *
    * @return true if cut is valid for the specified direction.
    */
   private boolean checkDirection(final EnactmentGraph eGraph, final Set<Task> startTasks, final Set<Task> endTasks,
-      final boolean topBottom) {
+      final boolean topBottom, final Set<Task> scope) {
     Set<Task> currentTasks = new HashSet<>(startTasks);
     while (!currentTasks.isEmpty()) {
 
@@ -251,6 +497,7 @@ public class Incision {
           .flatMap(curTask -> (topBottom ? eGraph.getSuccessors(curTask)
               : eGraph.getPredecessors(curTask)).stream())
           .filter(newTask -> !endTasks.contains(newTask))
+          .filter(newTask -> inScope(scope, newTask))
           .filter(newTask -> !(TaskPropertyService.isCommunication(newTask)
               && PropertyServiceData.isConstantNode(newTask)))
           .collect(Collectors.toSet());
@@ -267,19 +514,46 @@ public class Incision {
   }
 
   /**
-   * Remaps the edges of the cut to the node representing the
-   * distributed engine.
+   * Remaps the boundary edges of the cut to the node representing the
+   * distributed engine. The boundary edges are collected once and rewired in
+   * a batch; the new edges keep the attributes of the replaced ones.
    *
    * @param eGraph the full {@link EnactmentGraph}.
-   * @param dependency the dependency edge to remap.
-   * @param taskFrom new source of the edge.
-   * @param taskTo new destination of the edge.
+   * @param topCut communication nodes representing the top cut.
+   * @param bottomCut communication nodes representing the bottom cut.
+   * @param region the inner nodes of the region (null for all), only
+   *        boundary edges leading into the region are rewired.
+   * @param functionNode the node representing the distributed engine.
+   * @param journal the journal recording the changes.
    */
-  private void remapDependency(final EnactmentGraph eGraph, final Dependency dependency,
-      final Task taskFrom, final Task taskTo) {
-    final Dependency tmp = UtilsCopy.deepCopyDependency(dependency);
-    eGraph.removeEdge(dependency);
-    PropertyServiceDependency.addDataDependency(taskFrom, taskTo, PropertyServiceDependency.getJsonKey(tmp), eGraph);
+  private void rewireBoundary(final EnactmentGraph eGraph, final Set<Task> topCut, final Set<Task> bottomCut,
+      final Set<Task> region, final Task functionNode, final IncisionJournal journal) {
+
+    // Snapshot the boundary edges with their new source and destination
+    final Map<Dependency, AbstractMap.SimpleEntry<Task, Task>> boundary = new LinkedHashMap<>();
+    for (final Task bTask : bottomCut) {
+      for (final Dependency dependency : eGraph.getInEdges(bTask)) {
+        if (inScope(region, eGraph.getSource(dependency))) {
+          boundary.put(dependency, new AbstractMap.SimpleEntry<>(functionNode, bTask));
+        }
+      }
+    }
+    for (final Task tTask : topCut) {
+      for (final Dependency dependency : eGraph.getOutEdges(tTask)) {
+        if (inScope(region, eGraph.getDest(dependency))) {
+          boundary.put(dependency, new AbstractMap.SimpleEntry<>(tTask, functionNode));
+        }
+      }
+    }
+
+    // Replace the edges (parallel edges to the same end points are merged,
+    // the first one is kept)
+    boundary.keySet().forEach((dependency) -> journal.removeEdge(eGraph, dependency));
+    boundary.forEach((dependency, ends) -> {
+      final Dependency rewired = new Dependency(ends.getKey().getId() + "--" + ends.getValue().getId());
+      dependency.getAttributeNames().forEach(name -> rewired.setAttribute(name, dependency.getAttribute(name)));
+      journal.addEdge(eGraph, rewired, ends.getKey(), ends.getValue());
+    });
   }
 
   /**
@@ -290,13 +564,14 @@ public class Incision {
    *                    to add tasks and edges to.
    * @param currentTasks the current tasks to check.
    * @param task the current task.
+   * @param scope the nodes to copy (null for all).
    */
   private void copyBelow(final EnactmentGraph eGraph, final EnactmentGraph cutOutGraph,
       final Stack<AbstractMap.SimpleEntry<Task, Dependency>> currentTasks,
-      final AbstractMap.SimpleEntry<Task, Dependency> task){
+      final AbstractMap.SimpleEntry<Task, Dependency> task, final Set<Task> scope){
 
     for (final Dependency edge : eGraph.getOutEdges(task.getKey())) {
-      if (task.getValue() == null || !task.getValue().equals(edge)) {
+      if ((task.getValue() == null || !task.getValue().equals(edge)) && inScope(scope, eGraph.getDest(edge))) {
         copyEdge(cutOutGraph, edge, currentTasks, task.getKey(), eGraph.getDest(edge));
       }
     }
@@ -310,13 +585,14 @@ public class Incision {
    *                    to add tasks and edges to.
    * @param currentTasks the current tasks to check.
    * @param task the current task.
+   * @param scope the nodes to copy (null for all).
    */
   private void copyAbove(final EnactmentGraph eGraph, final EnactmentGraph cutOutGraph,
       final Stack<AbstractMap.SimpleEntry<Task, Dependency>> currentTasks,
-      final AbstractMap.SimpleEntry<Task, Dependency> task){
+      final AbstractMap.SimpleEntry<Task, Dependency> task, final Set<Task> scope){
 
     for (final Dependency edge : eGraph.getInEdges(task.getKey())) {
-      if (task.getValue() == null || !task.getValue().equals(edge)) {
+      if ((task.getValue() == null || !task.getValue().equals(edge)) && inScope(scope, eGraph.getSource(edge))) {
         copyEdge(cutOutGraph, edge, currentTasks, task.getKey(), eGraph.getSource(edge));
       }
     }
@@ -358,8 +634,10 @@ public class Incision {
    * @param eGraph the {@link EnactmentGraph} to cut.
    * @param startCut the start nodes representing the cut.
    * @param endCut the end node representing the cut.
+   * @param scope the nodes to copy (null for all nodes between the cuts).
    */
-  private EnactmentGraph  cutGraph(final EnactmentGraph eGraph, final Set<Task> startCut, final Set<Task> endCut) {
+  private EnactmentGraph  cutGraph(final EnactmentGraph eGraph, final Set<Task> startCut, final Set<Task> endCut,
+      final Set<Task> scope) {
     // Begin with the start tasks
     final Stack<AbstractMap.SimpleEntry<Task, Dependency>> currentTasks = new Stack<>();
     startCut.forEach(node -> currentTasks.push(new AbstractMap.SimpleEntry<>(node, null)));
@@ -381,12 +659,12 @@ public class Incision {
       if(isEndTask || !isStartTask) {
 
         // Continue with the tasks above
-        copyAbove(eGraph, cutOutGraph, currentTasks, currentTask);
+        copyAbove(eGraph, cutOutGraph, currentTasks, currentTask, scope);
       }
       if(isStartTask || !isEndTask) {
 
         // Continue with the tasks below
-        copyBelow(eGraph, cutOutGraph, currentTasks, currentTask);
+        copyBelow(eGraph, cutOutGraph, currentTasks, currentTask, scope);
       }
 
       handled.add(currentTask);
@@ -396,6 +674,44 @@ public class Incision {
     return cutOutGraph;
   }
 
+  /**
+   * Get the nodes of a region and its cut nodes.
+   *
+   * @param topCut the top cut of the region.
+   * @param bottomCut the bottom cut of the region.
+   * @param region the inner nodes of the region (null for all).
+   *
+   * @return the nodes of the region and its cut nodes (null for all).
+   */
+  private static Set<Task> scopeOf(final Set<Task> topCut, final Set<Task> bottomCut, final Set<Task> region) {
+    if (region == null) {
+      return null;
+    }
+    if (region.isEmpty()) {
+      throw new IllegalArgumentException("The region of the cut must not be empty!");
+    }
+    final Set<Task> scope = new HashSet<>(region);
+    if (topCut != null) {
+      scope.addAll(topCut);
+    }
+    if (bottomCut != null) {
+      scope.addAll(bottomCut);
+    }
+    return scope;
+  }
+
+  /**
+   * Check if a node is within the given nodes.
+   *
+   * @param nodes the nodes (null for all nodes).
+   * @param task the node to check.
+   *
+   * @return true if the node is within the nodes.
+   */
+  private static boolean inScope(final Set<Task> nodes, final Task task) {
+    return nodes == null || nodes.contains(task);
+  }
+
   /**
    * Prepare the string for the enactment node constants.
    *
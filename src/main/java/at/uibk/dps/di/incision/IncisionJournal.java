@@ -0,0 +1,220 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import net.sf.opendse.model.Dependency;
+import net.sf.opendse.model.Edge;
+import net.sf.opendse.model.Graph;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Node;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+/**
+ * Undo journal of the changes an {@link Incision} applies to an
+ * {@link at.uibk.dps.ee.model.graph.EnactmentSpecification}.
+ *
+ * <p>Every change is applied through the journal, which records how to revert
+ * it. A cut can therefore be applied, evaluated and rolled back in
+ * O(changed elements) instead of copying the whole specification first. The
+ * journal may span several cuts; {@link #rollback()} reverts all of them in
+ * reverse order, {@link #rollbackTo(int)} only the changes after a mark.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class IncisionJournal {
+
+    /**
+     * The actions reverting the recorded changes (most recent first).
+     */
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+
+    /**
+     * Add a vertex to a graph.
+     *
+     * @param graph the graph.
+     * @param vertex the vertex to add.
+     *
+     * @return true if the vertex was added (false if it was already present).
+     */
+    public <V extends Node, E extends Edge> boolean addVertex(final Graph<V, E> graph, final V vertex) {
+        if (!graph.addVertex(vertex)) {
+            return false;
+        }
+        undo.push(() -> graph.removeVertex(vertex));
+        return true;
+    }
+
+    /**
+     * Remove a vertex and its incident edges from a graph.
+     *
+     * @param graph the graph.
+     * @param vertex the vertex to remove (null is ignored).
+     *
+     * @return true if the vertex was removed.
+     */
+    public <V extends Node, E extends Edge> boolean removeVertex(final Graph<V, E> graph, final V vertex) {
+        if (vertex == null || !graph.containsVertex(vertex)) {
+            return false;
+        }
+        for (E edge : new ArrayList<>(graph.getIncidentEdges(vertex))) {
+            removeEdge(graph, edge);
+        }
+        graph.removeVertex(vertex);
+        undo.push(() -> graph.addVertex(vertex));
+        return true;
+    }
+
+    /**
+     * Add a directed edge to a graph.
+     *
+     * @param graph the graph.
+     * @param edge the edge to add.
+     * @param source the source of the edge.
+     * @param dest the destination of the edge.
+     *
+     * @return true if the edge was added.
+     */
+    public <V extends Node, E extends Edge> boolean addEdge(final Graph<V, E> graph, final E edge, final V source,
+        final V dest) {
+        final boolean newSource = !graph.containsVertex(source);
+        final boolean newDest = !graph.containsVertex(dest);
+        if (!graph.addEdge(edge, source, dest, EdgeType.DIRECTED)) {
+            return false;
+        }
+        undo.push(() -> {
+            graph.removeEdge(edge);
+            if (newSource) {
+                graph.removeVertex(source);
+            }
+            if (newDest) {
+                graph.removeVertex(dest);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Remove an edge from a graph.
+     *
+     * @param graph the graph.
+     * @param edge the edge to remove (null is ignored).
+     *
+     * @return true if the edge was removed.
+     */
+    public <V extends Node, E extends Edge> boolean removeEdge(final Graph<V, E> graph, final E edge) {
+        if (edge == null || !graph.containsEdge(edge)) {
+            return false;
+        }
+        final V source = graph.getSource(edge);
+        final V dest = graph.getDest(edge);
+        final EdgeType edgeType = graph.getEdgeType(edge);
+        graph.removeEdge(edge);
+        undo.push(() -> graph.addEdge(edge, source, dest, edgeType));
+        return true;
+    }
+
+    /**
+     * Add a data dependency (and its missing end points) to an enactment
+     * graph.
+     *
+     * @param eGraph the enactment graph.
+     * @param taskFrom the source of the dependency.
+     * @param taskTo the destination of the dependency.
+     * @param jsonKey the json key of the dependency.
+     *
+     * @return the added dependency.
+     */
+    public Dependency addDataDependency(final EnactmentGraph eGraph, final Task taskFrom, final Task taskTo,
+        final String jsonKey) {
+        final boolean newSource = !eGraph.containsVertex(taskFrom);
+        final boolean newDest = !eGraph.containsVertex(taskTo);
+        final Dependency dependency = PropertyServiceDependency.addDataDependency(taskFrom, taskTo, jsonKey, eGraph);
+        undo.push(() -> {
+            eGraph.removeEdge(dependency);
+            if (newSource) {
+                eGraph.removeVertex(taskFrom);
+            }
+            if (newDest) {
+                eGraph.removeVertex(taskTo);
+            }
+        });
+        return dependency;
+    }
+
+    /**
+     * Add a mapping.
+     *
+     * @param mappings the mappings to add to.
+     * @param mapping the mapping to add.
+     */
+    public void addMapping(final MappingsConcurrent mappings, final Mapping<Task, Resource> mapping) {
+        mappings.addMapping(mapping);
+        undo.push(() -> mappings.removeMapping(mapping));
+    }
+
+    /**
+     * Remove a mapping.
+     *
+     * @param mappings the mappings to remove from.
+     * @param mapping the mapping to remove.
+     */
+    public void removeMapping(final MappingsConcurrent mappings, final Mapping<Task, Resource> mapping) {
+        mappings.removeMapping(mapping);
+        undo.push(() -> mappings.addMapping(mapping));
+    }
+
+    /**
+     * Record a change applied outside of the journal (e.g. an attribute or an
+     * endpoint assignment).
+     *
+     * @param revert the action reverting the change.
+     */
+    public void record(final Runnable revert) {
+        undo.push(revert);
+    }
+
+    /**
+     * Revert all recorded changes (most recent first) and clear the journal.
+     */
+    public void rollback() {
+        rollbackTo(0);
+    }
+
+    /**
+     * Revert the changes recorded after a mark (most recent first).
+     *
+     * @param mark the mark, i.e. the {@link #size()} before the changes.
+     */
+    public void rollbackTo(final int mark) {
+        if (mark < 0 || mark > undo.size()) {
+            throw new IllegalArgumentException("Invalid journal mark " + mark + "!");
+        }
+        while (undo.size() > mark) {
+            undo.pop().run();
+        }
+    }
+
+    /**
+     * Keep the recorded changes and clear the journal.
+     */
+    public void clear() {
+        undo.clear();
+    }
+
+    /**
+     * Get the number of recorded changes (usable as mark for
+     * {@link #rollbackTo(int)}).
+     *
+     * @return the number of recorded changes.
+     */
+    public int size() {
+        return undo.size();
+    }
+}
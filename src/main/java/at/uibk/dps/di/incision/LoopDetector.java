@@ -0,0 +1,226 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.scheduler.Cut;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Dependency;
+import net.sf.opendse.model.Task;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Detects the loops of an {@link EnactmentGraph} and proposes cuts enclosing
+ * a whole loop, so all iterations are enacted by a single distributed engine.
+ *
+ * <p>The nodes of a loop are recognized by the ids the AFCL reader derives
+ * from the name of the loop compound ({@code X}, {@code X/counter},
+ * {@code X/<data>}, {@code X--<condition>} and the combined ids
+ * {@code [X/counter, ...]}) together with the body nodes between them;
+ * loops are found by their counter nodes and by while annotation
+ * dependencies. The proposed top cut consists of the communication nodes
+ * entering the loop and the bottom cut of the ones leaving it. Only valid
+ * cuts are proposed.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class LoopDetector {
+
+    /**
+     * Suffix of the iteration counter of a loop.
+     */
+    private static final String COUNTER_SUFFIX = "/counter";
+
+    /**
+     * The incision used to validate the proposed cuts.
+     */
+    private final Incision incision;
+
+    /**
+     * Default constructor.
+     */
+    public LoopDetector() {
+        this.incision = new Incision();
+    }
+
+    /**
+     * Detect the loops of an enactment graph and propose a cut for each.
+     *
+     * @param eGraph the enactment graph.
+     *
+     * @return the cut enclosing each loop by the name of the loop (loops
+     *         without valid cut are omitted).
+     */
+    public Map<String, Cut> detect(final EnactmentGraph eGraph) {
+        final Map<String, Cut> cuts = new LinkedHashMap<>();
+        for (String name : loopNames(eGraph)) {
+            final Cut cut = propose(eGraph, name);
+            if (cut != null) {
+                cuts.put(name, cut);
+            }
+        }
+        return cuts;
+    }
+
+    /**
+     * Propose a cut enclosing a loop.
+     *
+     * @param eGraph the enactment graph.
+     * @param name the name of the loop.
+     *
+     * @return the valid cut enclosing the loop or null if there is none.
+     */
+    public Cut propose(final EnactmentGraph eGraph, final String name) {
+        final Set<Task> named = new HashSet<>();
+        for (Task task : eGraph.getVertices()) {
+            if (belongsTo(task.getId(), name)) {
+                named.add(task);
+            }
+        }
+        if (named.isEmpty()) {
+            return null;
+        }
+
+        // The loop consists of the named nodes and the body between them
+        final Set<Task> loop = reachable(eGraph, named, true);
+        loop.retainAll(reachable(eGraph, named, false));
+        loop.addAll(named);
+
+        // Communication nodes entering and leaving the loop
+        final Set<Task> topCut = new HashSet<>();
+        final Set<Task> bottomCut = new HashSet<>();
+        for (Task task : loop) {
+            if (task instanceof Communication && !PropertyServiceData.isConstantNode(task)) {
+                if (eGraph.getPredecessors(task).stream().noneMatch(loop::contains)) {
+                    topCut.add(task);
+                } else if (eGraph.getSuccessors(task).stream().noneMatch(loop::contains)) {
+                    bottomCut.add(task);
+                }
+            }
+        }
+        if (isValid(eGraph, topCut, bottomCut)) {
+            return new Cut(topCut, bottomCut);
+        }
+
+        // Fall back to the inputs of the loop nodes outside the loop
+        final Set<Task> inputs = new HashSet<>(topCut);
+        for (Task task : loop) {
+            if (!(task instanceof Communication)) {
+                for (Task predecessor : eGraph.getPredecessors(task)) {
+                    if (!loop.contains(predecessor) && !PropertyServiceData.isConstantNode(predecessor)) {
+                        inputs.add(predecessor);
+                    }
+                }
+            }
+        }
+        return isValid(eGraph, inputs, bottomCut) ? new Cut(inputs, bottomCut) : null;
+    }
+
+    /**
+     * Get the names of the loops of an enactment graph.
+     *
+     * @param eGraph the enactment graph.
+     *
+     * @return the names of the loops.
+     */
+    public static Set<String> loopNames(final EnactmentGraph eGraph) {
+        final Set<String> names = new TreeSet<>();
+        for (Task task : eGraph.getVertices()) {
+            final String id = task.getId();
+            if (id.endsWith(COUNTER_SUFFIX) && !id.startsWith("[")) {
+                names.add(id.substring(0, id.length() - COUNTER_SUFFIX.length()));
+            }
+        }
+        for (Dependency edge : eGraph.getEdges()) {
+            if (PropertyServiceDependency.getType(edge) == PropertyServiceDependency.TypeDependency.WhileAnnotation) {
+                names.add(compoundName(eGraph.getSource(edge).getId()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Check if a node belongs to a loop by its id.
+     *
+     * @param id the id of the node.
+     * @param name the name of the loop.
+     *
+     * @return true if the node belongs to the loop.
+     */
+    public static boolean belongsTo(final String id, final String name) {
+        if (id.startsWith("[") && id.endsWith("]")) {
+            for (String part : id.substring(1, id.length() - 1).split(",\\s*")) {
+                if (belongsTo(part, name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return id.equals(name) || id.startsWith(name + "/") || id.startsWith(name + "--");
+    }
+
+    /**
+     * Get the name of the compound a node id is derived from.
+     *
+     * @param id the id of the node.
+     *
+     * @return the name of the compound.
+     */
+    private static String compoundName(final String id) {
+        final String base = id.startsWith("[") ? id.substring(1).split(",")[0].replace("]", "").trim() : id;
+        int end = base.length();
+        final int slash = base.indexOf('/');
+        final int dashes = base.indexOf("--");
+        if (slash >= 0) {
+            end = slash;
+        }
+        if (dashes >= 0 && dashes < end) {
+            end = dashes;
+        }
+        return base.substring(0, end);
+    }
+
+    /**
+     * Get the nodes reachable from the given nodes.
+     *
+     * @param eGraph the enactment graph.
+     * @param start the nodes to start from.
+     * @param down true to follow successors, false to follow predecessors.
+     *
+     * @return the reachable nodes (without the start nodes unless they are
+     *         reachable from another start node).
+     */
+    private static Set<Task> reachable(final EnactmentGraph eGraph, final Set<Task> start, final boolean down) {
+        final Set<Task> reached = new HashSet<>();
+        final Deque<Task> stack = new ArrayDeque<>(start);
+        while (!stack.isEmpty()) {
+            final Task task = stack.pop();
+            for (Task next : down ? eGraph.getSuccessors(task) : eGraph.getPredecessors(task)) {
+                if (reached.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Check if a proposed cut is valid.
+     *
+     * @param eGraph the enactment graph.
+     * @param topCut the proposed top cut.
+     * @param bottomCut the proposed bottom cut.
+     *
+     * @return true if the cut is valid.
+     */
+    private boolean isValid(final EnactmentGraph eGraph, final Set<Task> topCut, final Set<Task> bottomCut) {
+        return !topCut.isEmpty() && !bottomCut.isEmpty() && incision.isCutValid(eGraph, topCut, bottomCut);
+    }
+}
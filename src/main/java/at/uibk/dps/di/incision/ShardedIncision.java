@@ -0,0 +1,301 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.scheduler.Cut;
+import at.uibk.dps.di.scheduler.CutCostModel;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import net.sf.opendse.model.properties.TaskPropertyService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class to cut a fan-out region of the {@link EnactmentGraph} into several
+ * shards, each enacted by its own distributed engine.
+ *
+ * <p>The independent branches of the region are the connected components of
+ * the inner nodes of the region (the top and bottom cut nodes do not connect
+ * branches, so the branches of a parallel for fed by a single distribution
+ * node are independent; branches sharing a constant stay together). The
+ * number of shards is chosen by {@link CutCostModel#shardCount} and the
+ * branches are assigned to the shards longest first. Each shard is cut with
+ * {@link Incision#cut(EnactmentSpecification, Set, Set, Set, IncisionJournal)}
+ * restricted to its branches, which results in one {@code dEE} node per shard
+ * wired to the shared top and bottom cut nodes.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class ShardedIncision {
+
+    /**
+     * The incision applying the shard cuts.
+     */
+    private final Incision incision;
+
+    /**
+     * The cost model choosing the number of shards.
+     */
+    private final CutCostModel costModel;
+
+    /**
+     * The number of branches a distributed engine executes concurrently.
+     */
+    private final int concurrency;
+
+    /**
+     * Default constructor.
+     *
+     * @param concurrency the number of branches a distributed engine executes
+     *        concurrently.
+     */
+    public ShardedIncision(final int concurrency) {
+        this(new Incision(), new CutCostModel(), concurrency);
+    }
+
+    /**
+     * Constructor applying the shard cuts with the given incision.
+     *
+     * @param incision the incision applying the shard cuts.
+     * @param costModel the cost model choosing the number of shards.
+     * @param concurrency the number of branches a distributed engine executes
+     *        concurrently.
+     */
+    public ShardedIncision(final Incision incision, final CutCostModel costModel, final int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive!");
+        }
+        this.incision = incision;
+        this.costModel = costModel;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Cut a fan-out region into shards.
+     *
+     * @param enactmentSpecification the specification to cut (adapted in
+     *        place).
+     * @param topCut communication nodes representing the top cut of the
+     *        region.
+     * @param bottomCut communication nodes representing the bottom cut of
+     *        the region.
+     *
+     * @return the sub-specification of each shard.
+     *
+     * @throws IllegalArgumentException if the cut is invalid.
+     */
+    public List<EnactmentSpecification> cut(final EnactmentSpecification enactmentSpecification,
+        final Set<Task> topCut, final Set<Task> bottomCut) {
+        final EnactmentGraph eGraph = enactmentSpecification.getEnactmentGraph();
+        final IncisionJournal journal = new IncisionJournal();
+        final List<EnactmentSpecification> result = new ArrayList<>();
+        try {
+            for (Set<Task> shard : shardRegions(enactmentSpecification, topCut, bottomCut)) {
+                final Cut cut = cutOf(eGraph, shard, topCut, bottomCut);
+                result.add(incision.cut(enactmentSpecification, cut.getTopCut(), cut.getBottomCut(), shard, journal));
+            }
+        } catch (RuntimeException e) {
+            journal.rollback();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Split a fan-out region into shards.
+     *
+     * @param enactmentSpecification the specification containing the region.
+     * @param topCut communication nodes representing the top cut of the
+     *        region.
+     * @param bottomCut communication nodes representing the bottom cut of
+     *        the region.
+     *
+     * @return the cuts of the shards.
+     *
+     * @throws IllegalArgumentException if the cut is invalid.
+     */
+    public List<Cut> shards(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
+        final Set<Task> bottomCut) {
+        final EnactmentGraph eGraph = enactmentSpecification.getEnactmentGraph();
+        final List<Cut> cuts = new ArrayList<>();
+        for (Set<Task> shard : shardRegions(enactmentSpecification, topCut, bottomCut)) {
+            cuts.add(cutOf(eGraph, shard, topCut, bottomCut));
+        }
+        return cuts;
+    }
+
+    /**
+     * Split a fan-out region into the inner nodes of its shards.
+     *
+     * @param enactmentSpecification the specification containing the region.
+     * @param topCut the top cut of the region.
+     * @param bottomCut the bottom cut of the region.
+     *
+     * @return the inner nodes of each shard.
+     */
+    private List<Set<Task>> shardRegions(final EnactmentSpecification enactmentSpecification, final Set<Task> topCut,
+        final Set<Task> bottomCut) {
+        final EnactmentGraph eGraph = enactmentSpecification.getEnactmentGraph();
+        if (topCut == null || topCut.isEmpty() || bottomCut == null || bottomCut.isEmpty()
+            || !incision.isCutValid(eGraph, topCut, bottomCut)) {
+            throw new IllegalArgumentException("The cut is invalid!");
+        }
+
+        // Branches of the region and their durations
+        final List<Set<Task>> branches = branches(eGraph, topCut, bottomCut);
+        final Map<Set<Task>, Double> durations = new HashMap<>();
+        double longest = 0.0;
+        for (Set<Task> branch : branches) {
+            final double duration = duration(enactmentSpecification.getMappings(), branch);
+            durations.put(branch, duration);
+            longest = Math.max(longest, duration);
+        }
+        branches.sort(Comparator.comparing((Set<Task> branch) -> durations.get(branch)).reversed());
+
+        // Assign the branches to the shards (longest first to the least loaded
+        // shard, the number of branches breaks ties)
+        final int shardCount = costModel.shardCount(branches.size(), concurrency, longest);
+        final List<Set<Task>> shards = new ArrayList<>();
+        final double[] load = new double[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new HashSet<>());
+        }
+        final int[] count = new int[shardCount];
+        for (Set<Task> branch : branches) {
+            int target = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (load[i] < load[target] || (load[i] == load[target] && count[i] < count[target])) {
+                    target = i;
+                }
+            }
+            shards.get(target).addAll(branch);
+            load[target] += durations.get(branch);
+            count[target]++;
+        }
+
+        shards.removeIf(Set::isEmpty);
+        return shards;
+    }
+
+    /**
+     * Get the cut of a shard, i.e. the top cut nodes feeding its inner nodes
+     * and the bottom cut nodes fed by them.
+     *
+     * @param eGraph the enactment graph.
+     * @param shard the inner nodes of the shard.
+     * @param topCut the top cut of the region.
+     * @param bottomCut the bottom cut of the region.
+     *
+     * @return the cut of the shard.
+     */
+    private static Cut cutOf(final EnactmentGraph eGraph, final Set<Task> shard, final Set<Task> topCut,
+        final Set<Task> bottomCut) {
+        final Set<Task> shardTop = new HashSet<>();
+        final Set<Task> shardBottom = new HashSet<>();
+        for (Task task : shard) {
+            eGraph.getPredecessors(task).stream().filter(topCut::contains).forEach(shardTop::add);
+            eGraph.getSuccessors(task).stream().filter(bottomCut::contains).forEach(shardBottom::add);
+        }
+        return new Cut(shardTop, shardBottom);
+    }
+
+    /**
+     * Get the independent branches of a region.
+     *
+     * @param eGraph the enactment graph.
+     * @param topCut the top cut of the region.
+     * @param bottomCut the bottom cut of the region.
+     *
+     * @return the branches (their inner nodes).
+     */
+    private List<Set<Task>> branches(final EnactmentGraph eGraph, final Set<Task> topCut, final Set<Task> bottomCut) {
+
+        // Inner nodes of the region (and the constants used within it)
+        final Set<Task> region = new HashSet<>();
+        final Deque<Task> stack = new ArrayDeque<>(topCut);
+        while (!stack.isEmpty()) {
+            for (Task successor : eGraph.getSuccessors(stack.pop())) {
+                if (!bottomCut.contains(successor) && !topCut.contains(successor) && region.add(successor)) {
+                    stack.push(successor);
+                }
+            }
+        }
+        for (Task task : new ArrayList<>(region)) {
+            for (Task predecessor : eGraph.getPredecessors(task)) {
+                if (TaskPropertyService.isCommunication(predecessor) && PropertyServiceData.isConstantNode(predecessor)) {
+                    region.add(predecessor);
+                }
+            }
+        }
+
+        // Connected components of the inner nodes (the shared cut nodes do not
+        // connect the branches)
+        final Map<Task, Task> parent = new HashMap<>();
+        region.forEach(task -> parent.put(task, task));
+        for (Task task : region) {
+            for (Task successor : eGraph.getSuccessors(task)) {
+                if (region.contains(successor)) {
+                    parent.put(find(parent, task), find(parent, successor));
+                }
+            }
+        }
+        final Map<Task, Set<Task>> components = new LinkedHashMap<>();
+        for (Task task : region) {
+            components.computeIfAbsent(find(parent, task), root -> new HashSet<>()).add(task);
+        }
+        return new ArrayList<>(components.values());
+    }
+
+    /**
+     * Estimate the duration of a branch (sum of the longest mapping duration
+     * of each task).
+     *
+     * @param mappings the mappings of the specification.
+     * @param branch the tasks of the branch.
+     *
+     * @return the duration of the branch in milliseconds.
+     */
+    private double duration(final MappingsConcurrent mappings, final Set<Task> branch) {
+        double duration = 0.0;
+        for (Task task : branch) {
+            if (!(task instanceof Communication)) {
+                double longest = 0.0;
+                for (Mapping<Task, Resource> mapping : mappings.getMappings(task)) {
+                    if (PropertyServiceScheduler.isDurationSet(mapping)) {
+                        longest = Math.max(longest, PropertyServiceScheduler.getDuration(mapping));
+                    }
+                }
+                duration += longest;
+            }
+        }
+        return duration;
+    }
+
+    private static Task find(final Map<Task, Task> parent, final Task task) {
+        Task root = task;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        Task current = task;
+        while (parent.get(current) != root) {
+            final Task next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+}
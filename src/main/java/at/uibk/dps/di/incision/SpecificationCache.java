@@ -0,0 +1,232 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
+import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import edu.uci.ics.jung.graph.util.Pair;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Element;
+import net.sf.opendse.model.Link;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache for the resource graphs and mappings of type mapping files.
+ *
+ * <p>The resource graph of a type mapping file is parsed once (per path,
+ * modification time and size) and kept as template. The mappings of tasks are
+ * recorded as templates as well (keyed by the attributes of the task), so
+ * further specifications of the same workflow family are created by copying the
+ * templates without reading the type mapping file again. Each specification gets
+ * its own copies, the templates are never handed out.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class SpecificationCache {
+
+    /**
+     * The cache entries by absolute path of the type mapping file.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Cached content of a single type mapping file.
+     */
+    private static class Entry {
+
+        /**
+         * The modification time of the file when it was read.
+         */
+        private final long modified;
+
+        /**
+         * The size of the file when it was read.
+         */
+        private final long size;
+
+        /**
+         * The resource graph template.
+         */
+        private final ResourceGraph resourceGraph;
+
+        /**
+         * The mapping templates by task signature.
+         */
+        private final Map<String, List<Mapping<Task, Resource>>> mappings;
+
+        private Entry(final long modified, final long size, final ResourceGraph resourceGraph) {
+            this.modified = modified;
+            this.size = size;
+            this.resourceGraph = resourceGraph;
+            this.mappings = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Default constructor.
+     */
+    public SpecificationCache() {
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Create a specification for the given enactment graph and type mapping file.
+     *
+     * @param eGraph the enactment graph of the specification.
+     * @param filePathTypeMappings path to the type mapping file.
+     *
+     * @return the created specification.
+     */
+    public EnactmentSpecification getSpecification(final EnactmentGraph eGraph, final String filePathTypeMappings) {
+        final Entry entry = getEntry(filePathTypeMappings);
+        final ResourceGraph rGraph = copy(entry.resourceGraph);
+
+        // Check if all task mappings are known
+        final List<Task> tasks = new ArrayList<>();
+        final List<String> signatures = new ArrayList<>();
+        boolean known = true;
+        for (Task task : eGraph.getVertices()) {
+            if (!(task instanceof Communication)) {
+                final String signature = signature(task);
+                tasks.add(task);
+                signatures.add(signature);
+                known &= entry.mappings.containsKey(signature);
+            }
+        }
+
+        // Create the specification from the file and remember the mappings
+        if (!known) {
+            final EnactmentSpecification specification =
+                new SpecificationProviderFile(() -> eGraph, () -> rGraph, filePathTypeMappings).getSpecification();
+            for (int i = 0; i < tasks.size(); i++) {
+                final List<Mapping<Task, Resource>> templates = new ArrayList<>();
+                for (Mapping<Task, Resource> mapping : specification.getMappings().getMappings(tasks.get(i))) {
+                    templates.add(copy(mapping, new Task(mapping.getSource().getId()),
+                        new Resource(mapping.getTarget().getId())));
+                }
+                entry.mappings.putIfAbsent(signatures.get(i), templates);
+            }
+            return specification;
+        }
+
+        // Create the specification from the templates
+        final MappingsConcurrent mappings = new MappingsConcurrent();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (Mapping<Task, Resource> template : entry.mappings.get(signatures.get(i))) {
+                mappings.addMapping(copy(template, tasks.get(i), rGraph.getVertex(template.getTarget().getId())));
+            }
+        }
+        return new EnactmentSpecification(eGraph, rGraph, mappings, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Get a copy of the resource graph of the given type mapping file.
+     *
+     * @param filePathTypeMappings path to the type mapping file.
+     *
+     * @return the resource graph.
+     */
+    public ResourceGraph getResourceGraph(final String filePathTypeMappings) {
+        return copy(getEntry(filePathTypeMappings).resourceGraph);
+    }
+
+    /**
+     * Remove all cached type mapping files.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Get the cache entry of a type mapping file (reads the file if it was
+     * not read yet or changed since).
+     *
+     * @param filePathTypeMappings path to the type mapping file.
+     *
+     * @return the cache entry.
+     */
+    private Entry getEntry(final String filePathTypeMappings) {
+        final File file = new File(filePathTypeMappings);
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("Type mapping file " + filePathTypeMappings + " does not exist");
+        }
+        final long modified = file.lastModified();
+        final long size = file.length();
+        return entries.compute(file.getAbsolutePath(), (path, entry) ->
+            entry != null && entry.modified == modified && entry.size == size
+                ? entry
+                : new Entry(modified, size, new ResourceGraphProviderFile(filePathTypeMappings).getResourceGraph()));
+    }
+
+    /**
+     * Create the signature of a task (its id and attributes).
+     *
+     * @param task the task to create the signature for.
+     *
+     * @return the signature of the task.
+     */
+    private static String signature(final Task task) {
+        final Map<String, String> attributes = new TreeMap<>();
+        task.getAttributeNames().forEach(name -> attributes.put(name, String.valueOf((Object) task.getAttribute(name))));
+        return task.getId() + attributes;
+    }
+
+    /**
+     * Copy a resource graph.
+     *
+     * @param rGraph the resource graph to copy.
+     *
+     * @return the copied resource graph.
+     */
+    private static ResourceGraph copy(final ResourceGraph rGraph) {
+        final ResourceGraph result = new ResourceGraph();
+        for (Resource resource : rGraph.getVertices()) {
+            result.addVertex(copyAttributes(resource, new Resource(resource.getId())));
+        }
+        for (Link link : rGraph.getEdges()) {
+            final Pair<Resource> endpoints = rGraph.getEndpoints(link);
+            result.addEdge(copyAttributes(link, new Link(link.getId())), result.getVertex(endpoints.getFirst().getId()),
+                result.getVertex(endpoints.getSecond().getId()), rGraph.getEdgeType(link));
+        }
+        return result;
+    }
+
+    /**
+     * Copy a mapping.
+     *
+     * @param mapping the mapping to copy.
+     * @param task the source of the copied mapping.
+     * @param resource the target of the copied mapping.
+     *
+     * @return the copied mapping.
+     */
+    private static Mapping<Task, Resource> copy(final Mapping<Task, Resource> mapping, final Task task,
+        final Resource resource) {
+        return copyAttributes(mapping, new Mapping<>(mapping.getId(), task, resource));
+    }
+
+    /**
+     * Copy the attributes of an element.
+     *
+     * @param from the element to copy the attributes from.
+     * @param to the element to copy the attributes to.
+     *
+     * @return the element the attributes were copied to.
+     */
+    private static <E extends Element> E copyAttributes(final Element from, final E to) {
+        from.getAttributeNames().forEach(name -> to.setAttribute(name, from.getAttribute(name)));
+        return to;
+    }
+}
@@ -1,8 +1,10 @@
 package at.uibk.dps.di.incision;
 
+import at.uibk.dps.di.metrics.Histogram;
+import at.uibk.dps.di.metrics.MetricsRegistry;
+import at.uibk.dps.di.storage.BlobStore;
+import at.uibk.dps.di.storage.PayloadCodec;
 import at.uibk.dps.ee.io.afcl.AfclReader;
-import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
-import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
 import at.uibk.dps.ee.model.graph.*;
 import at.uibk.dps.ee.model.persistance.EnactmentSpecTransformer;
 import net.sf.opendse.io.SpecificationReader;
@@ -14,6 +16,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class containing several utility functions and
@@ -91,6 +95,32 @@ public final class Utility {
         + "    <property name=\"mappingsToPick\">1</property>\n" + "  </module>\n"
         + "</configuration>\n";
 
+    /**
+     * Represents the attribute of the configuration negotiating the payload codec.
+     */
+    public static final String CODEC = "codec";
+
+    /**
+     * Pattern of the codec attribute (also with the quotes of constants).
+     */
+    private static final Pattern CODEC_ATTRIBUTE = Pattern.compile("<configuration\\s+" + CODEC + "=[\"']([a-z]+)[\"']");
+
+    /**
+     * Metrics of the parsing and serialization of specifications.
+     */
+    private static final Histogram PARSE_TIME = MetricsRegistry.getDefault().histogram("utility_parse_nanos");
+    private static final Histogram SERIALIZED_BYTES = MetricsRegistry.getDefault().histogram("utility_serialized_spec_bytes");
+
+    /**
+     * Cache for the resource graphs and mappings of the type mapping files.
+     */
+    private static final SpecificationCache SPECIFICATION_CACHE = new SpecificationCache();
+
+    /**
+     * Cache for the configurations of the distributed engines per cut shape.
+     */
+    private static final ConfigurationCache CONFIGURATION_CACHE = new ConfigurationCache();
+
     /**
      * Private constructor to avoid unnecessary instantiation of the class.
      */
@@ -108,6 +138,7 @@ public final class Utility {
      */
     public static EnactmentSpecification fromStringToEnactmentSpecification(final String specification)
         throws ParsingException, IOException {
+        final long start = MetricsRegistry.getDefault().start();
         final nu.xom.Builder parser = new nu.xom.Builder();
         final nu.xom.Document doc = parser.build(specification, null);
         final nu.xom.Element eSpec = doc.getRootElement();
@@ -120,9 +151,62 @@ public final class Utility {
         final EnactmentSpecification result = new EnactmentSpecification(eGraph, rGraph, mappings, UUID.randomUUID().toString());
         spec.getAttributeNames()
             .forEach(attrName -> result.setAttribute(attrName, spec.getAttribute(attrName)));
+        PARSE_TIME.recordSince(start);
         return result;
     }
 
+    /**
+     * Get the specification of a specification constant, which contains
+     * either the (possibly encoded) specification itself or a reference to it.
+     *
+     * @param content the content of the specification constant.
+     * @param blobStore the store to resolve references with (may be null if
+     *                  the specification is not referenced).
+     *
+     * @return the specification as string.
+     *
+     * @throws IllegalArgumentException if the specification is referenced but
+     *                                  no blob store is given.
+     */
+    public static String resolveSpecification(final String content, final BlobStore blobStore) {
+        if (!BlobStore.isReference(content)) {
+            return PayloadCodec.decodeString(content);
+        }
+        if (blobStore == null) {
+            throw new IllegalArgumentException("Resolving " + content + " requires a blob store!");
+        }
+        return PayloadCodec.decodeBlob(blobStore.get(BlobStore.keyOf(content)));
+    }
+
+    /**
+     * Negotiate a codec in a configuration (as attribute of the
+     * configuration element).
+     *
+     * @param configuration the configuration.
+     * @param codec the codec of the payloads.
+     *
+     * @return the configuration with the codec.
+     */
+    public static String withCodec(final String configuration, final PayloadCodec codec) {
+        final String stripped = CODEC_ATTRIBUTE.matcher(configuration).replaceFirst("<configuration");
+        if (codec == PayloadCodec.IDENTITY) {
+            return stripped;
+        }
+        return stripped.replaceFirst("<configuration", "<configuration " + CODEC + "=\"" + codec.getName() + "\"");
+    }
+
+    /**
+     * Get the codec negotiated in a configuration.
+     *
+     * @param configuration the configuration.
+     *
+     * @return the negotiated codec ({@link PayloadCodec#IDENTITY} if none).
+     */
+    public static PayloadCodec codecOf(final String configuration) {
+        final Matcher matcher = CODEC_ATTRIBUTE.matcher(configuration);
+        return matcher.find() ? PayloadCodec.fromName(matcher.group(1)) : PayloadCodec.IDENTITY;
+    }
+
     /**
      * Transforms an {@link EnactmentSpecification} to a string.
      *
@@ -135,6 +219,7 @@ public final class Utility {
         final SpecificationWriter writer = new SpecificationWriter();
         final ByteArrayOutputStream stream = new ByteArrayOutputStream();
         writer.write(specification, stream);
+        SERIALIZED_BYTES.record(stream.size());
         return stream.toString(StandardCharsets.UTF_8);
     }
 
@@ -147,16 +232,39 @@ public final class Utility {
      * @return the string specification.
      */
     public static String specFromAFCL(final String filePathAfcl, final String filePathTypeMappings){
-        final EnactmentGraphProvider eGraphProv = new AfclReader(filePathAfcl);
-        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(filePathTypeMappings);
-        final SpecificationProviderFile specProv =
-            new SpecificationProviderFile(eGraphProv, rGraphProv, filePathTypeMappings);
-
-        final EnactmentSpecification spec = specProv.getSpecification();
+        final EnactmentSpecification spec =
+            specification(new AfclReader(filePathAfcl).getEnactmentGraph(), filePathTypeMappings);
         Specification specification = EnactmentSpecTransformer.toOdse(spec);
         final SpecificationWriter writer = new SpecificationWriter();
         final ByteArrayOutputStream stream = new ByteArrayOutputStream();
         writer.write(specification, stream);
+        SERIALIZED_BYTES.record(stream.size());
         return stream.toString(StandardCharsets.UTF_8);
     }
+
+    /**
+     * Create the specification of an enactment graph. The resource graph and
+     * the mappings of the type mapping file are cached between calls.
+     *
+     * @param eGraph the enactment graph of the specification.
+     * @param filePathTypeMappings path to the mapping file
+     *
+     * @return the created specification.
+     */
+    public static EnactmentSpecification specification(final EnactmentGraph eGraph, final String filePathTypeMappings) {
+        return SPECIFICATION_CACHE.getSpecification(eGraph, filePathTypeMappings);
+    }
+
+    /**
+     * Get the minimal configuration of the distributed engine enacting a cut.
+     *
+     * @param mappings the mappings of the cut out graph.
+     * @param remote true if the engine runs remotely and cannot enact local
+     *        (docker) mappings.
+     *
+     * @return the configuration.
+     */
+    public static String configuration(final MappingsConcurrent mappings, final boolean remote) {
+        return CONFIGURATION_CACHE.getConfiguration(mappings, remote);
+    }
 }
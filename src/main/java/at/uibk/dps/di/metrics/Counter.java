@@ -0,0 +1,68 @@
+package at.uibk.dps.di.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter of a {@link MetricsRegistry}. Increments are ignored
+ * while the registry is disabled.
+ *
+ * @author Stefan Pedratscher
+ */
+public class Counter {
+
+    /**
+     * The registry the counter belongs to.
+     */
+    private final MetricsRegistry registry;
+
+    /**
+     * The current value of the counter.
+     */
+    private final LongAdder value;
+
+    /**
+     * Default constructor.
+     *
+     * @param registry the registry the counter belongs to.
+     */
+    Counter(final MetricsRegistry registry) {
+        this.registry = registry;
+        this.value = new LongAdder();
+    }
+
+    /**
+     * Increment the counter by one.
+     */
+    public void increment() {
+        if (registry.isEnabled()) {
+            value.increment();
+        }
+    }
+
+    /**
+     * Increment the counter by the given amount.
+     *
+     * @param amount the amount to add.
+     */
+    public void add(final long amount) {
+        if (registry.isEnabled()) {
+            value.add(amount);
+        }
+    }
+
+    /**
+     * Get the current value of the counter.
+     *
+     * @return the current value.
+     */
+    public long get() {
+        return value.sum();
+    }
+
+    /**
+     * Reset the counter to zero.
+     */
+    void reset() {
+        value.reset();
+    }
+}
@@ -0,0 +1,180 @@
+package at.uibk.dps.di.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values of a {@link MetricsRegistry}. Values are
+ * recorded into logarithmic buckets with 16 linear sub-buckets each (similar to
+ * an HDR histogram), so percentiles have a relative error below 7% while
+ * recording is a single atomic increment. Values below 32 are recorded exactly.
+ * Values are ignored while the registry is disabled.
+ *
+ * @author Stefan Pedratscher
+ */
+public class Histogram {
+
+    /**
+     * Number of values recorded exactly.
+     */
+    private static final int EXACT = 32;
+
+    /**
+     * Number of linear sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 16;
+
+    /**
+     * Total number of buckets (up to {@link Long#MAX_VALUE}).
+     */
+    private static final int BUCKETS = EXACT + (63 - 5) * SUB_BUCKETS;
+
+    /**
+     * The registry the histogram belongs to.
+     */
+    private final MetricsRegistry registry;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator min;
+    private final LongAccumulator max;
+
+    /**
+     * Default constructor.
+     *
+     * @param registry the registry the histogram belongs to.
+     */
+    Histogram(final MetricsRegistry registry) {
+        this.registry = registry;
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Record a value (negative values are recorded as zero).
+     *
+     * @param value the value to record.
+     */
+    public void record(final long value) {
+        if (!registry.isEnabled()) {
+            return;
+        }
+        final long v = Math.max(0L, value);
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Record the time passed since the given start time.
+     *
+     * @param startNanos the start time returned by {@link MetricsRegistry#start()}.
+     */
+    public void recordSince(final long startNanos) {
+        if (registry.isEnabled() && startNanos != 0L) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Get the value at the given percentile.
+     *
+     * @param percentile the percentile (0 - 100).
+     *
+     * @return the (approximated) value at the percentile or 0 if empty.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long total = getCount();
+        if (total == 0) {
+            return 0L;
+        }
+        final long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(Math.max(value(i), getMin()), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get the bucket of a value.
+     *
+     * @param value the non-negative value.
+     *
+     * @return the index of the bucket.
+     */
+    static int index(final long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - 4;
+        final int mantissa = (int) (value >>> shift);
+        return EXACT + (exponent - 5) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    /**
+     * Get the representative value (middle) of a bucket.
+     *
+     * @param index the index of the bucket.
+     *
+     * @return the value of the bucket.
+     */
+    static long value(final int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        final int exponent = (index - EXACT) / SUB_BUCKETS + 5;
+        final int shift = exponent - 4;
+        final long mantissa = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        return (mantissa << shift) + ((1L << shift) >>> 1);
+    }
+
+    /**
+     * Reset the histogram.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+
+    /**
+     * Getter
+     */
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0L : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long total = getCount();
+        return total == 0 ? 0.0 : (double) getSum() / total;
+    }
+}
@@ -0,0 +1,156 @@
+package at.uibk.dps.di.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of named {@link Counter}s and {@link Histogram}s. The metrics are
+ * created once (e.g. as static fields of the instrumented classes) and only
+ * check a volatile flag per call while the registry is disabled.
+ *
+ * @author Stefan Pedratscher
+ */
+public class MetricsRegistry {
+
+    /**
+     * The percentiles exported for histograms.
+     */
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0};
+
+    /**
+     * The shared registry (enabled with the system property di.metrics=true).
+     */
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry(Boolean.getBoolean("di.metrics"));
+
+    private final Map<String, Counter> counters;
+    private final Map<String, Histogram> histograms;
+
+    /**
+     * True if metrics are recorded.
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Default constructor.
+     *
+     * @param enabled true if metrics should be recorded.
+     */
+    public MetricsRegistry(final boolean enabled) {
+        this.counters = new ConcurrentHashMap<>();
+        this.histograms = new ConcurrentHashMap<>();
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the shared registry.
+     *
+     * @return the shared registry.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get or create the counter with the given name.
+     *
+     * @param name the name of the counter.
+     *
+     * @return the counter.
+     */
+    public Counter counter(final String name) {
+        return counters.computeIfAbsent(name, n -> new Counter(this));
+    }
+
+    /**
+     * Get or create the histogram with the given name.
+     *
+     * @param name the name of the histogram.
+     *
+     * @return the histogram.
+     */
+    public Histogram histogram(final String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram(this));
+    }
+
+    /**
+     * Get the start time of a measurement.
+     *
+     * @return the current time in nanoseconds or 0 if the registry is disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Reset all metrics.
+     */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Export the metrics in the Prometheus text format (histograms as summaries).
+     *
+     * @return the metrics in the Prometheus text format.
+     */
+    public String toPrometheus() {
+        final StringBuilder builder = new StringBuilder();
+        new TreeMap<>(counters).forEach((name, counter) -> builder
+            .append("# TYPE ").append(name).append(" counter\n")
+            .append(name).append(' ').append(counter.get()).append('\n'));
+        new TreeMap<>(histograms).forEach((name, histogram) -> {
+            builder.append("# TYPE ").append(name).append(" summary\n");
+            for (double percentile : PERCENTILES) {
+                builder.append(name).append("{quantile=\"").append(percentile / 100.0).append("\"} ")
+                    .append(histogram.getValueAtPercentile(percentile)).append('\n');
+            }
+            builder.append(name).append("_sum ").append(histogram.getSum()).append('\n')
+                .append(name).append("_count ").append(histogram.getCount()).append('\n');
+        });
+        return builder.toString();
+    }
+
+    /**
+     * Export a snapshot of the metrics as JSON.
+     *
+     * @return the metrics as JSON.
+     */
+    public String toJson() {
+        final JsonObject json = new JsonObject();
+        final JsonObject counterJson = new JsonObject();
+        new TreeMap<>(counters).forEach((name, counter) -> counterJson.addProperty(name, counter.get()));
+        final JsonObject histogramJson = new JsonObject();
+        new TreeMap<>(histograms).forEach((name, histogram) -> {
+            final JsonObject h = new JsonObject();
+            h.addProperty("count", histogram.getCount());
+            h.addProperty("sum", histogram.getSum());
+            h.addProperty("min", histogram.getMin());
+            h.addProperty("max", histogram.getMax());
+            h.addProperty("mean", histogram.getMean());
+            for (double percentile : PERCENTILES) {
+                h.addProperty("p" + (int) percentile, histogram.getValueAtPercentile(percentile));
+            }
+            histogramJson.add(name, h);
+        });
+        json.add("counters", counterJson);
+        json.add("histograms", histogramJson);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+
+    /**
+     * Getter and Setter
+     */
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+}
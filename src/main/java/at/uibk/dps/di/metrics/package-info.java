@@ -0,0 +1,4 @@
+/**
+ * Package for metrics.
+ */
+package at.uibk.dps.di.metrics;
@@ -0,0 +1,113 @@
+package at.uibk.dps.di.profile;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Observed durations of a function type on a resource: the number of samples,
+ * an exponentially weighted moving average and a {@link TDigest} for the
+ * percentiles.
+ *
+ * @author Stefan Pedratscher
+ */
+public class DurationProfile {
+
+    /**
+     * The smoothing factor of the moving average.
+     */
+    private final double alpha;
+
+    private final TDigest digest;
+    private long count;
+    private double ewma;
+
+    /**
+     * Default constructor.
+     *
+     * @param alpha the smoothing factor of the moving average (0 - 1).
+     * @param compression the compression of the t-digest.
+     */
+    public DurationProfile(final double alpha, final double compression) {
+        this(alpha, new TDigest(compression), 0, 0.0);
+    }
+
+    private DurationProfile(final double alpha, final TDigest digest, final long count, final double ewma) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1]");
+        }
+        this.alpha = alpha;
+        this.digest = digest;
+        this.count = count;
+        this.ewma = ewma;
+    }
+
+    /**
+     * Record an observed duration.
+     *
+     * @param duration the duration in milliseconds.
+     */
+    public void record(final double duration) {
+        ewma = count == 0 ? duration : ewma + alpha * (duration - ewma);
+        count++;
+        digest.add(duration);
+    }
+
+    /**
+     * Get the estimated duration.
+     *
+     * @param estimate the kind of estimate.
+     *
+     * @return the estimated duration in milliseconds.
+     */
+    public double get(final Estimate estimate) {
+        switch (estimate) {
+            case EWMA:
+                return ewma;
+            case P50:
+                return digest.quantile(0.5);
+            case P95:
+                return digest.quantile(0.95);
+            default:
+                throw new IllegalArgumentException("Unknown estimate " + estimate);
+        }
+    }
+
+    /**
+     * Write the profile.
+     *
+     * @param out the output to write to.
+     *
+     * @throws IOException if the profile can not be written.
+     */
+    void write(final DataOutput out) throws IOException {
+        out.writeDouble(alpha);
+        out.writeLong(count);
+        out.writeDouble(ewma);
+        digest.write(out);
+    }
+
+    /**
+     * Read a profile.
+     *
+     * @param in the input to read from.
+     *
+     * @return the profile.
+     *
+     * @throws IOException if the profile can not be read.
+     */
+    static DurationProfile read(final DataInput in) throws IOException {
+        final double alpha = in.readDouble();
+        final long count = in.readLong();
+        final double ewma = in.readDouble();
+        return new DurationProfile(alpha, TDigest.read(in), count, ewma);
+    }
+
+    /**
+     * Getter
+     */
+
+    public long getCount() {
+        return count;
+    }
+}
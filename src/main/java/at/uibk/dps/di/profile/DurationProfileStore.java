@@ -0,0 +1,195 @@
+package at.uibk.dps.di.profile;
+
+import at.uibk.dps.di.analytics.LogAnalyzer;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunction;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Store of the observed durations of each function type on each resource.
+ * The durations are learned from execution logs (or recorded directly) and
+ * applied to the mappings of a specification before scheduling, so the
+ * schedulers plan with observed instead of guessed durations. The store is
+ * persisted in a compact binary format.
+ *
+ * @author Stefan Pedratscher
+ */
+public class DurationProfileStore {
+
+    /**
+     * Identifies the file format.
+     */
+    private static final int MAGIC = 0x44495053;
+    private static final int VERSION = 1;
+
+    /**
+     * The smoothing factor of the moving averages.
+     */
+    private final double alpha;
+
+    /**
+     * The compression of the t-digests.
+     */
+    private final double compression;
+
+    /**
+     * The profiles by function type and resource id.
+     */
+    private final Map<String, Map<String, DurationProfile>> profiles;
+
+    /**
+     * Default constructor.
+     */
+    public DurationProfileStore() {
+        this(0.2, 100);
+    }
+
+    /**
+     * Constructor with given parameters of the profiles.
+     *
+     * @param alpha the smoothing factor of the moving averages (0 - 1).
+     * @param compression the compression of the t-digests.
+     */
+    public DurationProfileStore(final double alpha, final double compression) {
+        if (alpha <= 0 || alpha > 1 || compression < 10) {
+            throw new IllegalArgumentException("Invalid profile configuration");
+        }
+        this.alpha = alpha;
+        this.compression = compression;
+        this.profiles = new HashMap<>();
+    }
+
+    /**
+     * Record an observed duration.
+     *
+     * @param functionType the function type.
+     * @param resourceId the id of the resource the function was executed on.
+     * @param duration the duration in milliseconds.
+     */
+    public synchronized void record(final String functionType, final String resourceId, final double duration) {
+        profiles.computeIfAbsent(functionType, k -> new HashMap<>())
+            .computeIfAbsent(resourceId, k -> new DurationProfile(alpha, compression))
+            .record(duration);
+    }
+
+    /**
+     * Learn the durations of the functions of an execution log. The resources
+     * are identified by the function URIs.
+     *
+     * @param log the path to the execution log.
+     * @param functionTypes the function type of each function URI.
+     *
+     * @throws IOException if the log can not be read.
+     */
+    public void ingest(final Path log, final Map<String, String> functionTypes) throws IOException {
+        new LogAnalyzer(functionTypes, this::record).analyze(log);
+    }
+
+    /**
+     * Set the durations of the mappings with an observed profile. The other
+     * mappings keep their durations.
+     *
+     * @param mappings the mappings to update.
+     * @param estimate the kind of estimate to use as duration.
+     *
+     * @return the number of updated mappings.
+     */
+    public synchronized int apply(final MappingsConcurrent mappings, final Estimate estimate) {
+        int updated = 0;
+        for (Mapping<Task, Resource> mapping : mappings) {
+            final DurationProfile profile = getProfile(PropertyServiceFunction.getTypeId(mapping.getSource()),
+                mapping.getTarget().getId());
+            if (profile != null && profile.getCount() > 0) {
+                PropertyServiceScheduler.setDuration(mapping, profile.get(estimate));
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Get the profile of a function type on a resource.
+     *
+     * @param functionType the function type.
+     * @param resourceId the id of the resource.
+     *
+     * @return the profile or null if no duration was observed.
+     */
+    public synchronized DurationProfile getProfile(final String functionType, final String resourceId) {
+        final Map<String, DurationProfile> resources = profiles.get(functionType);
+        return resources == null ? null : resources.get(resourceId);
+    }
+
+    /**
+     * Write the store to a file. The file is replaced atomically.
+     *
+     * @param path the path of the file.
+     *
+     * @throws IOException if the file can not be written.
+     */
+    public synchronized void save(final Path path) throws IOException {
+        final Path absolute = path.toAbsolutePath();
+        final Path tmp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(alpha);
+            out.writeDouble(compression);
+            out.writeInt(profiles.size());
+            for (Map.Entry<String, Map<String, DurationProfile>> function : profiles.entrySet()) {
+                out.writeUTF(function.getKey());
+                out.writeInt(function.getValue().size());
+                for (Map.Entry<String, DurationProfile> resource : function.getValue().entrySet()) {
+                    out.writeUTF(resource.getKey());
+                    resource.getValue().write(out);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a store from a file.
+     *
+     * @param path the path of the file.
+     *
+     * @return the store.
+     *
+     * @throws IOException if the file can not be read or has an invalid format.
+     */
+    public static DurationProfileStore load(final Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported duration profile file " + path);
+            }
+            final DurationProfileStore store = new DurationProfileStore(in.readDouble(), in.readDouble());
+            final int functions = in.readInt();
+            for (int i = 0; i < functions; i++) {
+                final Map<String, DurationProfile> resources = new HashMap<>();
+                store.profiles.put(in.readUTF(), resources);
+                final int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    resources.put(in.readUTF(), DurationProfile.read(in));
+                }
+            }
+            return store;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package at.uibk.dps.di.profile;
+
+/**
+ * The estimates of a {@link DurationProfile}.
+ *
+ * @author Stefan Pedratscher
+ */
+public enum Estimate {
+    /**
+     * Exponentially weighted moving average (follows recent changes).
+     */
+    EWMA,
+    /**
+     * Median of the observed durations.
+     */
+    P50,
+    /**
+     * 95th percentile of the observed durations (pessimistic planning).
+     */
+    P95
+}
@@ -0,0 +1,548 @@
+package at.uibk.dps.di.profile;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunction;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent store of scheduling profiles (function durations per function
+ * type and resource, latencies and instances per resource) in a memory-mapped
+ * file. The file consists of a header and fixed-size records addressed by open
+ * addressing, so readers in any number of processes access the profiles
+ * without copying or parsing the file. A single writer (guarded by a file
+ * lock) updates the records; each record is protected by a sequence lock, so
+ * readers never see partially written records.
+ *
+ * <p>A record left locked by a crashed writer is skipped by the readers after
+ * {@link #MAX_RETRIES} attempts (so the lookup falls back to the caller's
+ * defaults) and unlocked when the next writer opens the store.</p>
+ *
+ * <p>Resource profiles are stored with an empty function type.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class MappedProfileStore implements Closeable {
+
+    /**
+     * Consistent snapshot of a record.
+     */
+    public static final class Profile {
+
+        private final int flags;
+        private final double duration;
+        private final double latencyLocal;
+        private final double latencyGlobal;
+        private final int instances;
+
+        private Profile(final int flags, final double duration, final double latencyLocal,
+                        final double latencyGlobal, final int instances) {
+            this.flags = flags;
+            this.duration = duration;
+            this.latencyLocal = latencyLocal;
+            this.latencyGlobal = latencyGlobal;
+            this.instances = instances;
+        }
+
+        public boolean isDurationSet() {
+            return (flags & DURATION) != 0;
+        }
+
+        public double getDuration() {
+            return duration;
+        }
+
+        public boolean isLatencyLocalSet() {
+            return (flags & LATENCY_LOCAL) != 0;
+        }
+
+        public double getLatencyLocal() {
+            return latencyLocal;
+        }
+
+        public boolean isLatencyGlobalSet() {
+            return (flags & LATENCY_GLOBAL) != 0;
+        }
+
+        public double getLatencyGlobal() {
+            return latencyGlobal;
+        }
+
+        public boolean isInstancesSet() {
+            return (flags & INSTANCES) != 0;
+        }
+
+        public int getInstances() {
+            return instances;
+        }
+    }
+
+    /**
+     * Identifies the file format.
+     */
+    private static final int MAGIC = 0x4449504D;
+    private static final int VERSION = 1;
+
+    /**
+     * Header layout.
+     */
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_RECORD_SIZE = 12;
+    private static final int H_SIZE = 16;
+
+    /**
+     * Record layout.
+     */
+    private static final int RECORD_SIZE = 512;
+    private static final int R_SEQUENCE = 0;
+    private static final int R_FLAGS = 4;
+    private static final int R_HASH = 8;
+    private static final int R_DURATION = 16;
+    private static final int R_LATENCY_LOCAL = 24;
+    private static final int R_LATENCY_GLOBAL = 32;
+    private static final int R_INSTANCES = 40;
+    private static final int R_FUNCTION_LENGTH = 44;
+    private static final int R_RESOURCE_LENGTH = 46;
+    private static final int R_KEY = 48;
+    private static final int MAX_KEY_LENGTH = RECORD_SIZE - R_KEY;
+
+    /**
+     * Maximal number of records (the mapping is limited to 2 GB).
+     */
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    /**
+     * Record flags.
+     */
+    private static final int USED = 1;
+    private static final int DURATION = 2;
+    private static final int LATENCY_LOCAL = 4;
+    private static final int LATENCY_GLOBAL = 8;
+    private static final int INSTANCES = 16;
+
+    /**
+     * Maximal fraction of used records.
+     */
+    private static final double MAX_LOAD = 0.75;
+
+    /**
+     * Maximal number of attempts to read a record before it is skipped (a
+     * writer only keeps a record locked for a few stores, so exceeding the
+     * limit means the writer crashed while writing it).
+     */
+    private static final int MAX_RETRIES = 1 << 16;
+
+    /**
+     * Volatile access to the sequence numbers and the size.
+     */
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private MappedProfileStore(final FileChannel channel, final FileLock lock, final MappedByteBuffer buffer,
+                               final int capacity) {
+        this.channel = channel;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Open a store for writing (creating it if it does not exist). Only one
+     * writer may open a store at a time.
+     *
+     * @param path the path of the file.
+     * @param capacity the number of records of a new store.
+     *
+     * @return the writable store.
+     *
+     * @throws IOException if the file can not be opened.
+     */
+    public static MappedProfileStore openWriter(final Path path, final int capacity) throws IOException {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IllegalStateException("Profile store " + path + " is already opened by a writer");
+            }
+            final boolean created = channel.size() == 0;
+            final int records = created ? capacity : readCapacity(channel, path);
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) records * RECORD_SIZE);
+            if (created) {
+                buffer.putInt(H_VERSION, VERSION);
+                buffer.putInt(H_CAPACITY, records);
+                buffer.putInt(H_RECORD_SIZE, RECORD_SIZE);
+                buffer.putInt(H_MAGIC, MAGIC);
+                buffer.force();
+            } else {
+                recover(buffer, records);
+            }
+            return new MappedProfileStore(channel, lock, buffer, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open an existing store for reading.
+     *
+     * @param path the path of the file.
+     *
+     * @return the read-only store.
+     *
+     * @throws IOException if the file can not be opened.
+     */
+    public static MappedProfileStore openReader(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final int records = readCapacity(channel, path);
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                HEADER_SIZE + (long) records * RECORD_SIZE);
+            return new MappedProfileStore(channel, null, buffer, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read and validate the header of an existing store.
+     *
+     * @param channel the channel of the file.
+     * @param path the path of the file.
+     *
+     * @return the number of records.
+     *
+     * @throws IOException if the header can not be read.
+     */
+    private static int readCapacity(final FileChannel channel, final Path path) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid profile store " + path);
+        }
+        final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        final int records = header.getInt(H_CAPACITY);
+        if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION
+            || header.getInt(H_RECORD_SIZE) != RECORD_SIZE || records <= 0 || records > MAX_CAPACITY
+            || channel.size() < HEADER_SIZE + (long) records * RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid profile store " + path);
+        }
+        return records;
+    }
+
+    /**
+     * Unlock the records left locked by a crashed writer and recount the used
+     * records. The flags of a record are written last, so an interrupted
+     * insert leaves an unused record and an interrupted update keeps the key.
+     *
+     * @param buffer the mapped file.
+     * @param records the number of records.
+     */
+    private static void recover(final MappedByteBuffer buffer, final int records) {
+        int size = 0;
+        for (int record = 0; record < records; record++) {
+            final int offset = HEADER_SIZE + record * RECORD_SIZE;
+            final int sequence = buffer.getInt(offset + R_SEQUENCE);
+            if ((sequence & 1) != 0) {
+                INT.setRelease(buffer, offset + R_SEQUENCE, sequence + 1);
+            }
+            if ((buffer.getInt(offset + R_FLAGS) & USED) != 0) {
+                size++;
+            }
+        }
+        INT.setRelease(buffer, H_SIZE, size);
+        buffer.force();
+    }
+
+    /**
+     * Store the duration of a function type on a resource.
+     *
+     * @param functionType the function type.
+     * @param resourceId the id of the resource.
+     * @param duration the duration in milliseconds.
+     */
+    public void putDuration(final String functionType, final String resourceId, final double duration) {
+        write(functionType, resourceId, DURATION, duration, 0, 0, 0);
+    }
+
+    /**
+     * Store the latencies and instances of a resource.
+     *
+     * @param resourceId the id of the resource.
+     * @param latencyLocal the local latency in milliseconds.
+     * @param latencyGlobal the global latency in milliseconds.
+     * @param instances the number of instances.
+     */
+    public void putResource(final String resourceId, final double latencyLocal, final double latencyGlobal,
+                            final int instances) {
+        write("", resourceId, LATENCY_LOCAL | LATENCY_GLOBAL | INSTANCES, 0, latencyLocal, latencyGlobal, instances);
+    }
+
+    /**
+     * Store all scheduling properties of a specification.
+     *
+     * @param specification the specification.
+     */
+    public void store(final EnactmentSpecification specification) {
+        for (Mapping<Task, Resource> mapping : specification.getMappings()) {
+            if (PropertyServiceScheduler.isDurationSet(mapping)) {
+                putDuration(PropertyServiceFunction.getTypeId(mapping.getSource()), mapping.getTarget().getId(),
+                    PropertyServiceScheduler.getDuration(mapping));
+            }
+        }
+        for (Resource resource : specification.getResourceGraph().getVertices()) {
+            final int flags = (PropertyServiceScheduler.isLatencyLocalSet(resource) ? LATENCY_LOCAL : 0)
+                | (PropertyServiceScheduler.isLatencyGlobalSet(resource) ? LATENCY_GLOBAL : 0)
+                | (PropertyServiceScheduler.isInstancesSet(resource) ? INSTANCES : 0);
+            if (flags != 0) {
+                write("", resource.getId(), flags, 0,
+                    (flags & LATENCY_LOCAL) != 0 ? PropertyServiceScheduler.getLatencyLocal(resource) : 0,
+                    (flags & LATENCY_GLOBAL) != 0 ? PropertyServiceScheduler.getLatencyGlobal(resource) : 0,
+                    (flags & INSTANCES) != 0 ? PropertyServiceScheduler.getInstances(resource) : 0);
+            }
+        }
+        buffer.force();
+    }
+
+    /**
+     * Set the stored scheduling properties on a specification. Properties which
+     * are not stored are left unchanged.
+     *
+     * @param specification the specification.
+     *
+     * @return the number of updated mappings and resources.
+     */
+    public int apply(final EnactmentSpecification specification) {
+        int updated = 0;
+        for (Mapping<Task, Resource> mapping : specification.getMappings()) {
+            final Profile profile = get(PropertyServiceFunction.getTypeId(mapping.getSource()),
+                mapping.getTarget().getId());
+            if (profile != null && profile.isDurationSet()) {
+                PropertyServiceScheduler.setDuration(mapping, profile.getDuration());
+                updated++;
+            }
+        }
+        for (Resource resource : specification.getResourceGraph().getVertices()) {
+            final Profile profile = get("", resource.getId());
+            if (profile != null) {
+                if (profile.isLatencyLocalSet()) {
+                    PropertyServiceScheduler.setLatencyLocal(resource, profile.getLatencyLocal());
+                }
+                if (profile.isLatencyGlobalSet()) {
+                    PropertyServiceScheduler.setLatencyGlobal(resource, profile.getLatencyGlobal());
+                }
+                if (profile.isInstancesSet()) {
+                    PropertyServiceScheduler.setInstances(resource, profile.getInstances());
+                }
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Get the profile of a function type on a resource.
+     *
+     * @param functionType the function type (empty for the resource profile).
+     * @param resourceId the id of the resource.
+     *
+     * @return a consistent snapshot of the profile or null if there is none
+     * (or its record is locked by a crashed writer).
+     */
+    public Profile get(final String functionType, final String resourceId) {
+        final byte[] function = functionType.getBytes(StandardCharsets.UTF_8);
+        final byte[] resource = resourceId.getBytes(StandardCharsets.UTF_8);
+        final long hash = hash(function, resource);
+        for (int probe = 0; probe < capacity; probe++) {
+            final int offset = offset(hash, probe);
+            for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+                final int sequence = (int) INT.getAcquire(buffer, offset + R_SEQUENCE);
+                if ((sequence & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                final int flags = buffer.getInt(offset + R_FLAGS);
+                final boolean matches = (flags & USED) != 0 && buffer.getLong(offset + R_HASH) == hash
+                    && keyEquals(offset, function, resource);
+                final Profile profile = matches ? new Profile(flags, buffer.getDouble(offset + R_DURATION),
+                    buffer.getDouble(offset + R_LATENCY_LOCAL), buffer.getDouble(offset + R_LATENCY_GLOBAL),
+                    buffer.getInt(offset + R_INSTANCES)) : null;
+                VarHandle.acquireFence();
+                if ((int) INT.getVolatile(buffer, offset + R_SEQUENCE) != sequence) {
+                    continue;
+                }
+                if ((flags & USED) == 0) {
+                    return null;
+                }
+                if (matches) {
+                    return profile;
+                }
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write (or merge into) the record of a key.
+     */
+    private synchronized void write(final String functionType, final String resourceId, final int flags,
+                                    final double duration, final double latencyLocal, final double latencyGlobal,
+                                    final int instances) {
+        if (lock == null) {
+            throw new IllegalStateException("Profile store is opened read-only");
+        }
+        final byte[] function = functionType.getBytes(StandardCharsets.UTF_8);
+        final byte[] resource = resourceId.getBytes(StandardCharsets.UTF_8);
+        if (function.length + resource.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key too long: " + functionType + "@" + resourceId);
+        }
+        final long hash = hash(function, resource);
+        for (int probe = 0; probe < capacity; probe++) {
+            final int offset = offset(hash, probe);
+            final int existing = buffer.getInt(offset + R_FLAGS);
+            final boolean used = (existing & USED) != 0;
+            if (used && (buffer.getLong(offset + R_HASH) != hash || !keyEquals(offset, function, resource))) {
+                continue;
+            }
+            final int size = buffer.getInt(H_SIZE);
+            if (!used && size + 1 > capacity * MAX_LOAD) {
+                throw new IllegalStateException("Profile store is full");
+            }
+
+            // Odd sequence numbers mark records being written
+            final int sequence = buffer.getInt(offset + R_SEQUENCE);
+            INT.setVolatile(buffer, offset + R_SEQUENCE, sequence + 1);
+            VarHandle.storeStoreFence();
+            if (!used) {
+                buffer.putLong(offset + R_HASH, hash);
+                buffer.putShort(offset + R_FUNCTION_LENGTH, (short) function.length);
+                buffer.putShort(offset + R_RESOURCE_LENGTH, (short) resource.length);
+                for (int i = 0; i < function.length; i++) {
+                    buffer.put(offset + R_KEY + i, function[i]);
+                }
+                for (int i = 0; i < resource.length; i++) {
+                    buffer.put(offset + R_KEY + function.length + i, resource[i]);
+                }
+            }
+            if ((flags & DURATION) != 0) {
+                buffer.putDouble(offset + R_DURATION, duration);
+            }
+            if ((flags & LATENCY_LOCAL) != 0) {
+                buffer.putDouble(offset + R_LATENCY_LOCAL, latencyLocal);
+            }
+            if ((flags & LATENCY_GLOBAL) != 0) {
+                buffer.putDouble(offset + R_LATENCY_GLOBAL, latencyGlobal);
+            }
+            if ((flags & INSTANCES) != 0) {
+                buffer.putInt(offset + R_INSTANCES, instances);
+            }
+            buffer.putInt(offset + R_FLAGS, existing | flags | USED);
+            INT.setRelease(buffer, offset + R_SEQUENCE, sequence + 2);
+            if (!used) {
+                INT.setRelease(buffer, H_SIZE, size + 1);
+            }
+            return;
+        }
+        throw new IllegalStateException("Profile store is full");
+    }
+
+    /**
+     * Check if the record at the given offset has the given key.
+     */
+    private boolean keyEquals(final int offset, final byte[] function, final byte[] resource) {
+        if (buffer.getShort(offset + R_FUNCTION_LENGTH) != function.length
+            || buffer.getShort(offset + R_RESOURCE_LENGTH) != resource.length) {
+            return false;
+        }
+        for (int i = 0; i < function.length; i++) {
+            if (buffer.get(offset + R_KEY + i) != function[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < resource.length; i++) {
+            if (buffer.get(offset + R_KEY + function.length + i) != resource[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the offset of a record (linear probing).
+     */
+    private int offset(final long hash, final int probe) {
+        return (int) (HEADER_SIZE + (Long.remainderUnsigned(hash, capacity) + probe) % capacity * RECORD_SIZE);
+    }
+
+    /**
+     * FNV-1a hash of a key.
+     */
+    private static long hash(final byte[] function, final byte[] resource) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : function) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash = (hash ^ 0xff) * 0x100000001b3L;
+        for (byte b : resource) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (lock != null) {
+            buffer.force();
+            lock.release();
+        }
+        channel.close();
+    }
+
+    /**
+     * Getter
+     */
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return (int) INT.getAcquire(buffer, H_SIZE);
+    }
+
+    public boolean isWritable() {
+        return lock != null;
+    }
+}
@@ -0,0 +1,244 @@
+package at.uibk.dps.di.profile;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for streaming quantile estimation. Samples are buffered and
+ * periodically merged into a sorted list of centroids whose sizes are bounded
+ * by the arcsine scale function, so the tails (e.g. P95) stay accurate while
+ * the digest needs at most about {@code compression} centroids.
+ *
+ * @author Stefan Pedratscher
+ */
+public class TDigest {
+
+    /**
+     * Bounds the number of centroids (higher values are more accurate).
+     */
+    private final double compression;
+
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    private final double[] buffer;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Default constructor.
+     *
+     * @param compression bounds the number of centroids (e.g. 100).
+     */
+    public TDigest(final double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+        final int capacity = (int) Math.ceil(compression) + 1;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[5 * capacity];
+    }
+
+    /**
+     * Add a sample.
+     *
+     * @param value the sample to add.
+     */
+    public void add(final double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN");
+        }
+        if (buffered == buffer.length) {
+            merge();
+        }
+        buffer[buffered++] = value;
+        totalWeight++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Estimate the value at the given quantile.
+     *
+     * @param quantile the quantile (0 - 1).
+     *
+     * @return the estimated value or NaN if the digest is empty.
+     */
+    public double quantile(final double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        merge();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+
+        // Interpolate between the centers of the centroids
+        final double target = quantile * totalWeight;
+        double center = weights[0] / 2;
+        if (target <= center) {
+            return min + (means[0] - min) * (center == 0 ? 0 : target / center);
+        }
+        for (int i = 0; i < centroids - 1; i++) {
+            final double nextCenter = center + (weights[i] + weights[i + 1]) / 2;
+            if (target <= nextCenter) {
+                return means[i] + (means[i + 1] - means[i]) * (target - center) / (nextCenter - center);
+            }
+            center = nextCenter;
+        }
+        final double remaining = totalWeight - center;
+        return means[centroids - 1]
+            + (max - means[centroids - 1]) * (remaining == 0 ? 0 : (target - center) / remaining);
+    }
+
+    /**
+     * Merge the buffered samples into the centroids.
+     */
+    private void merge() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        final double[] newMeans = new double[Math.max(means.length, centroids + buffered)];
+        final double[] newWeights = new double[newMeans.length];
+        int count = 0;
+
+        // Merge the sorted centroids and samples
+        double weightSoFar = 0;
+        double currentMean = 0;
+        double currentWeight = 0;
+        double limit = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroids || j < buffered) {
+            final double mean;
+            final double weight;
+            if (j >= buffered || (i < centroids && means[i] <= buffer[j])) {
+                mean = means[i];
+                weight = weights[i++];
+            } else {
+                mean = buffer[j++];
+                weight = 1;
+            }
+            if (currentWeight == 0) {
+                currentMean = mean;
+                currentWeight = weight;
+                limit = nextLimit(weightSoFar);
+            } else if (weightSoFar + currentWeight + weight <= limit) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                newMeans[count] = currentMean;
+                newWeights[count++] = currentWeight;
+                weightSoFar += currentWeight;
+                currentMean = mean;
+                currentWeight = weight;
+                limit = nextLimit(weightSoFar);
+            }
+        }
+        newMeans[count] = currentMean;
+        newWeights[count++] = currentWeight;
+
+        means = newMeans;
+        weights = newWeights;
+        centroids = count;
+        buffered = 0;
+    }
+
+    /**
+     * Get the maximal cumulative weight of a centroid starting at the given
+     * cumulative weight (arcsine scale function).
+     *
+     * @param weightSoFar the cumulative weight before the centroid.
+     *
+     * @return the maximal cumulative weight after the centroid.
+     */
+    private double nextLimit(final double weightSoFar) {
+        final double k = compression / (2 * Math.PI) * Math.asin(2 * weightSoFar / totalWeight - 1) + 1;
+        if (k >= compression / 4) {
+            return totalWeight;
+        }
+        return totalWeight * (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    /**
+     * Write the digest.
+     *
+     * @param out the output to write to.
+     *
+     * @throws IOException if the digest can not be written.
+     */
+    public void write(final DataOutput out) throws IOException {
+        merge();
+        out.writeDouble(compression);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(centroids);
+        for (int i = 0; i < centroids; i++) {
+            out.writeDouble(means[i]);
+            out.writeDouble(weights[i]);
+        }
+    }
+
+    /**
+     * Read a digest.
+     *
+     * @param in the input to read from.
+     *
+     * @return the digest.
+     *
+     * @throws IOException if the digest can not be read.
+     */
+    public static TDigest read(final DataInput in) throws IOException {
+        final TDigest digest = new TDigest(in.readDouble());
+        digest.min = in.readDouble();
+        digest.max = in.readDouble();
+        final int count = in.readInt();
+        if (count < 0 || count > 100 * digest.means.length) {
+            throw new IOException("Invalid number of centroids " + count);
+        }
+        if (count > digest.means.length) {
+            digest.means = new double[count];
+            digest.weights = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            digest.means[i] = in.readDouble();
+            digest.weights[i] = in.readDouble();
+            digest.totalWeight += digest.weights[i];
+        }
+        digest.centroids = count;
+        return digest;
+    }
+
+    /**
+     * Getter
+     */
+
+    public double getCount() {
+        return totalWeight;
+    }
+
+    public double getMin() {
+        return totalWeight == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return totalWeight == 0 ? Double.NaN : max;
+    }
+
+    public int getCentroids() {
+        merge();
+        return centroids;
+    }
+}
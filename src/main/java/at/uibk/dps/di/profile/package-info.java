@@ -0,0 +1,4 @@
+/**
+ * Package for function duration profiles.
+ */
+package at.uibk.dps.di.profile;
@@ -0,0 +1,163 @@
+package at.uibk.dps.di.properties;
+
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.properties.AbstractPropertyService;
+
+/**
+ * Static container with methods offering convenient access to the attributes of
+ * billing properties of resources.
+ *
+ * @author Stefan Pedratscher
+ */
+public final class PropertyServiceBilling extends AbstractPropertyService {
+
+  private static final String propNameBillingType = Property.BillingType.name();
+  private static final String propNamePrice = Property.Price.name();
+  private static final String propNameBillingInterval = Property.BillingInterval.name();
+  private static final String propNameMemory = Property.Memory.name();
+
+  /**
+   * No constructor.
+   */
+  private PropertyServiceBilling() {}
+
+  /**
+   * The supported billing types
+   */
+  public enum BillingType {
+    /**
+     * Billed per started interval (e.g. VMs billed per hour)
+     */
+    Interval,
+    /**
+     * Billed per started second
+     */
+    Second,
+    /**
+     * Billed per GB-second of execution (serverless functions)
+     */
+    Serverless
+  }
+
+  /**
+   * Defines the billing properties
+   */
+  protected enum Property {
+    /**
+     * The billing type of the resource
+     */
+    BillingType,
+    /**
+     * The price per interval, per second or per GB-second
+     */
+    Price,
+    /**
+     * The length of the billing interval
+     */
+    BillingInterval,
+    /**
+     * The memory (in GB) of the resource
+     */
+    Memory
+  }
+
+  /**
+   * Sets the billing type of the given resource
+   *
+   * @param res the given resource
+   * @param billingType the billing type to set
+   */
+  public static void setBillingType(final Resource res, final BillingType billingType) {
+    res.setAttribute(propNameBillingType, billingType.name());
+  }
+
+  /**
+   * Returns the billing type of the given resource
+   *
+   * @param res the given resource
+   * @return the billing type of the given resource
+   */
+  public static BillingType getBillingType(final Resource res) {
+    return BillingType.valueOf((String) getAttribute(res, propNameBillingType));
+  }
+
+  /**
+   * Checks whether the billing type of the given resource is set
+   *
+   * @param res the given resource
+   * @return true if the billing type is set
+   */
+  public static boolean isBillingTypeSet(final Resource res) {
+    return res.getAttribute(propNameBillingType) != null;
+  }
+
+  /**
+   * Sets the price of the given resource
+   *
+   * @param res the given resource
+   * @param price the price to set
+   */
+  public static void setPrice(final Resource res, final double price) {
+    res.setAttribute(propNamePrice, price);
+  }
+
+  /**
+   * Returns the price of the given resource
+   *
+   * @param res the given resource
+   * @return the price of the given resource
+   */
+  public static double getPrice(final Resource res) {
+    return (double) getAttribute(res, propNamePrice);
+  }
+
+  /**
+   * Sets the billing interval of the given resource
+   *
+   * @param res the given resource
+   * @param billingInterval the billing interval to set
+   */
+  public static void setBillingInterval(final Resource res, final double billingInterval) {
+    res.setAttribute(propNameBillingInterval, billingInterval);
+  }
+
+  /**
+   * Returns the billing interval of the given resource
+   *
+   * @param res the given resource
+   * @return the billing interval of the given resource
+   */
+  public static double getBillingInterval(final Resource res) {
+    return (double) getAttribute(res, propNameBillingInterval);
+  }
+
+  /**
+   * Checks whether the billing interval of the given resource is set
+   *
+   * @param res the given resource
+   * @return true if the billing interval is set
+   */
+  public static boolean isBillingIntervalSet(final Resource res) {
+    return res.getAttribute(propNameBillingInterval) != null;
+  }
+
+  /**
+   * Sets the memory (in GB) of the given resource
+   *
+   * @param res the given resource
+   * @param memory the memory to set
+   */
+  public static void setMemory(final Resource res, final double memory) {
+    res.setAttribute(propNameMemory, memory);
+  }
+
+  /**
+   * Returns the memory (in GB) of the given resource
+   *
+   * @param res the given resource
+   * @return the memory of the given resource
+   */
+  public static double getMemory(final Resource res) {
+    return (double) getAttribute(res, propNameMemory);
+  }
+}
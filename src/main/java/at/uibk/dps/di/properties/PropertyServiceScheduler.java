@@ -1,5 +1,6 @@
 package at.uibk.dps.di.properties;
 
+import net.sf.opendse.model.Dependency;
 import net.sf.opendse.model.Mapping;
 import net.sf.opendse.model.Resource;
 import net.sf.opendse.model.Task;
@@ -17,6 +18,11 @@ public final class PropertyServiceScheduler extends AbstractPropertyService {
   private static final String propNameInstances = Property.Instances.name();
   private static final String propNameLatencyGlobal = Property.LatencyGlobal.name();
   private static final String propNameLatencyLocal = Property.LatencyLocal.name();
+  private static final String propNameTransferTime = Property.TransferTime.name();
+  private static final String propNameDataSize = Property.DataSize.name();
+  private static final String propNameResourceKind = Property.ResourceKind.name();
+  private static final String propNameByReference = Property.ByReference.name();
+  private static final String propNameCost = Property.Cost.name();
 
   /**
    * No constructor.
@@ -44,7 +50,27 @@ public final class PropertyServiceScheduler extends AbstractPropertyService {
     /**
      * Tha latency to a function in the same region / on the same device
      */
-    LatencyLocal
+    LatencyLocal,
+    /**
+     * The time to transfer the data of a dependency
+     */
+    TransferTime,
+    /**
+     * The size (in bytes) of the data of a communication node
+     */
+    DataSize,
+    /**
+     * The kind of the resource (overrides the kind derived from the resource)
+     */
+    ResourceKind,
+    /**
+     * Whether the data of a cut communication node is passed by reference
+     */
+    ByReference,
+    /**
+     * The cost of the function on the mapping
+     */
+    Cost
   }
 
   /**
@@ -66,6 +92,45 @@ public final class PropertyServiceScheduler extends AbstractPropertyService {
     return mapping.getAttribute(propNameDuration);
   }
 
+  /**
+   * Checks whether the duration of the given mapping is set
+   *
+   * @param mapping the given mapping
+   * @return true if the duration is set
+   */
+  public static boolean isDurationSet(final Mapping<Task, Resource> mapping) {
+    return mapping.getAttribute(propNameDuration) != null;
+  }
+
+  /**
+   * Sets the cost of a function resource mapping pair
+   *
+   * @param mapping the given mapping
+   * @param cost the cost to set
+   */
+  public static void setCost(final Mapping<Task, Resource> mapping, final double cost) {
+    mapping.setAttribute(propNameCost, cost);
+  }
+
+  /**
+   * Get the cost of a function resource mapping pair
+   *
+   * @param mapping the given mapping
+   */
+  public static double getCost(final Mapping<Task, Resource> mapping) {
+    return ((Number) mapping.getAttribute(propNameCost)).doubleValue();
+  }
+
+  /**
+   * Checks whether the cost of the given mapping is set
+   *
+   * @param mapping the given mapping
+   * @return true if the cost is set
+   */
+  public static boolean isCostSet(final Mapping<Task, Resource> mapping) {
+    return mapping.getAttribute(propNameCost) != null;
+  }
+
   /**
    * Sets the instances of the given resource
    *
@@ -106,6 +171,16 @@ public final class PropertyServiceScheduler extends AbstractPropertyService {
     return (int) getAttribute(res, propNameInstances);
   }
 
+  /**
+   * Checks whether the number of instances of the given resource is set
+   *
+   * @param res the given resource
+   * @return true if the number of instances is set
+   */
+  public static boolean isInstancesSet(final Resource res) {
+    return res.getAttribute(propNameInstances) != null;
+  }
+
   /**
    * Returns the global latency of the given resource
    *
@@ -116,6 +191,16 @@ public final class PropertyServiceScheduler extends AbstractPropertyService {
     return (double) getAttribute(res, propNameLatencyGlobal);
   }
 
+  /**
+   * Checks whether the global latency of the given resource is set
+   *
+   * @param res the given resource
+   * @return true if the global latency is set
+   */
+  public static boolean isLatencyGlobalSet(final Resource res) {
+    return res.getAttribute(propNameLatencyGlobal) != null;
+  }
+
   /**
    * Returns the local latency of the given resource
    *
@@ -125,4 +210,124 @@ public final class PropertyServiceScheduler extends AbstractPropertyService {
   public static double getLatencyLocal(final Resource res) {
     return (double) getAttribute(res, propNameLatencyLocal);
   }
+
+  /**
+   * Checks whether the local latency of the given resource is set
+   *
+   * @param res the given resource
+   * @return true if the local latency is set
+   */
+  public static boolean isLatencyLocalSet(final Resource res) {
+    return res.getAttribute(propNameLatencyLocal) != null;
+  }
+
+  /**
+   * Sets the transfer time of the given dependency
+   *
+   * @param dependency the given dependency
+   * @param transferTime the transfer time to set
+   */
+  public static void setTransferTime(final Dependency dependency, final double transferTime) {
+    dependency.setAttribute(propNameTransferTime, transferTime);
+  }
+
+  /**
+   * Returns the transfer time of the given dependency
+   *
+   * @param dependency the given dependency
+   * @return the transfer time of the given dependency
+   */
+  public static double getTransferTime(final Dependency dependency) {
+    return (double) getAttribute(dependency, propNameTransferTime);
+  }
+
+  /**
+   * Checks whether the transfer time of the given dependency is set
+   *
+   * @param dependency the given dependency
+   * @return true if the transfer time is set
+   */
+  public static boolean isTransferTimeSet(final Dependency dependency) {
+    return dependency.getAttribute(propNameTransferTime) != null;
+  }
+
+  /**
+   * Sets the data size (in bytes) of the given communication node
+   *
+   * @param comm the given communication node
+   * @param dataSize the data size to set
+   */
+  public static void setDataSize(final Task comm, final long dataSize) {
+    comm.setAttribute(propNameDataSize, dataSize);
+  }
+
+  /**
+   * Returns the data size (in bytes) of the given communication node
+   *
+   * @param comm the given communication node
+   * @return the data size of the given communication node
+   */
+  public static long getDataSize(final Task comm) {
+    return (long) getAttribute(comm, propNameDataSize);
+  }
+
+  /**
+   * Checks whether the data size of the given communication node is set
+   *
+   * @param comm the given communication node
+   * @return true if the data size is set
+   */
+  public static boolean isDataSizeSet(final Task comm) {
+    return comm.getAttribute(propNameDataSize) != null;
+  }
+
+  /**
+   * Sets the kind of the given resource
+   *
+   * @param res the given resource
+   * @param kind the kind to set
+   */
+  public static void setResourceKind(final Resource res, final ResourceKind kind) {
+    res.setAttribute(propNameResourceKind, kind.name());
+  }
+
+  /**
+   * Returns the kind of the given resource
+   *
+   * @param res the given resource
+   * @return the kind of the given resource
+   */
+  public static ResourceKind getResourceKind(final Resource res) {
+    return ResourceKind.valueOf((String) getAttribute(res, propNameResourceKind));
+  }
+
+  /**
+   * Checks whether the kind of the given resource is set
+   *
+   * @param res the given resource
+   * @return true if the kind is set
+   */
+  public static boolean isResourceKindSet(final Resource res) {
+    return res.getAttribute(propNameResourceKind) != null;
+  }
+
+  /**
+   * Sets whether the data of the given communication node is passed by reference
+   *
+   * @param comm the given communication node
+   * @param byReference true if the data is passed by reference
+   */
+  public static void setByReference(final Task comm, final boolean byReference) {
+    comm.setAttribute(propNameByReference, byReference);
+  }
+
+  /**
+   * Returns whether the data of the given communication node is passed by reference
+   *
+   * @param comm the given communication node
+   * @return true if the data is passed by reference (false if not set)
+   */
+  public static boolean isByReference(final Task comm) {
+    return comm.getAttribute(propNameByReference) != null && (boolean) getAttribute(comm, propNameByReference);
+  }
 }
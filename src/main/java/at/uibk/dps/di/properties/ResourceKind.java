@@ -0,0 +1,145 @@
+package at.uibk.dps.di.properties;
+
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping.EnactmentMode;
+import at.uibk.dps.ee.model.properties.PropertyServiceResourceServerless;
+import net.sf.opendse.model.Resource;
+
+/**
+ * The role of a resource during scheduling. The kind is resolved once per
+ * resource and the scheduling policies (gap filling, latencies) are keyed by it
+ * instead of matching substrings of the resource id.
+ *
+ * @author Stefan Pedratscher
+ */
+public enum ResourceKind {
+  /**
+   * The enactment engine running on the local machine
+   */
+  LOCAL_ENGINE(true, 0.0),
+  /**
+   * A serverless function (e.g. AWS Lambda)
+   */
+  SERVERLESS(false, ResourceKind.REMOTE_ENTRY_LATENCY),
+  /**
+   * A virtual machine
+   */
+  VM(false, 0.0),
+  /**
+   * A distributed enactment engine executing a cut of the workflow
+   */
+  DISTRIBUTED_ENGINE(false, ResourceKind.REMOTE_ENTRY_LATENCY);
+
+  /**
+   * The latency (in ms) until a task without predecessors starts on a remote
+   * resource, i.e. the HTTP round trip (including a possible cold start) of
+   * invoking a serverless function or a distributed engine from the local
+   * engine. Overridden per resource by the global latency of the scheduler
+   * properties where these are set.
+   */
+  public static final double REMOTE_ENTRY_LATENCY = 500.0;
+
+  /**
+   * Whether idle gaps between tasks can be filled.
+   */
+  private final boolean fillsGaps;
+
+  /**
+   * The latency of a task without predecessors.
+   */
+  private final double entryLatency;
+
+  ResourceKind(final boolean fillsGaps, final double entryLatency) {
+    this.fillsGaps = fillsGaps;
+    this.entryLatency = entryLatency;
+  }
+
+  /**
+   * Returns true if the resource is the local enactment engine
+   *
+   * @return true for the local enactment engine
+   */
+  public boolean isLocal() {
+    return this == LOCAL_ENGINE;
+  }
+
+  /**
+   * Returns true if idle gaps on the resource can be filled with later tasks
+   *
+   * @return true if gaps can be filled
+   */
+  public boolean fillsGaps() {
+    return fillsGaps;
+  }
+
+  /**
+   * Returns the latency of a task without predecessors on the resource
+   *
+   * @return the entry latency
+   */
+  public double getEntryLatency() {
+    return entryLatency;
+  }
+
+  /**
+   * Resolves the kind of the given resource. An explicitly set kind
+   * ({@link PropertyServiceScheduler#setResourceKind}) has precedence, then the
+   * reserved engine ids and the serverless uri
+   * ({@link PropertyServiceResourceServerless#getUri}).
+   *
+   * @param resource the given resource
+   * @return the kind of the resource
+   */
+  public static ResourceKind of(final Resource resource) {
+    return of(resource, null);
+  }
+
+  /**
+   * Resolves the kind of the given resource, taking the enactment mode of the
+   * mappings onto the resource ({@link
+   * at.uibk.dps.ee.model.properties.PropertyServiceMapping#getEnactmentMode})
+   * into account. Resources the tasks are enacted on locally are local
+   * engines, resources they are enacted on as functions are serverless (or
+   * distributed engines). An explicitly set kind has precedence.
+   *
+   * @param resource the given resource
+   * @param mode the enactment mode of the mappings onto the resource (null if
+   *        unknown)
+   * @return the kind of the resource
+   */
+  public static ResourceKind of(final Resource resource, final EnactmentMode mode) {
+    if (PropertyServiceScheduler.isResourceKindSet(resource)) {
+      return PropertyServiceScheduler.getResourceKind(resource);
+    }
+    final ResourceKind kind = fromId(resource.getId());
+    if (kind != VM) {
+      return kind;
+    }
+    if (mode == EnactmentMode.Local) {
+      return LOCAL_ENGINE;
+    }
+    if (mode == EnactmentMode.Serverless || PropertyServiceResourceServerless.getUri(resource) != null) {
+      return SERVERLESS;
+    }
+    return VM;
+  }
+
+  /**
+   * Resolves the kind of a resource from its id only (for resources which are
+   * not part of a resource graph). Only the reserved ids of the local and the
+   * distributed engine are recognized, all other resources are VMs unless
+   * their kind is passed explicitly.
+   *
+   * @param id the id of the resource
+   * @return the kind of the resource
+   */
+  public static ResourceKind fromId(final String id) {
+    if (id.equals(Utility.ENGINE)) {
+      return LOCAL_ENGINE;
+    }
+    if (id.equals(Utility.DE_AWS_US_EAST_1)) {
+      return DISTRIBUTED_ENGINE;
+    }
+    return VM;
+  }
+}
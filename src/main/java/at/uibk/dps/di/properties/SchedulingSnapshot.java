@@ -0,0 +1,271 @@
+package at.uibk.dps.di.properties;
+
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping.EnactmentMode;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the scheduling attributes ({@link PropertyServiceScheduler}) of an
+ * {@link EnactmentSpecification}. The attributes are read once into primitive
+ * arrays indexed by task and resource, so that the schedulers do not access the
+ * string-keyed attributes on their hot paths. The snapshot does not observe
+ * changes of the attributes, {@link #refresh()} has to be called explicitly.
+ *
+ * @author Stefan Pedratscher
+ */
+public final class SchedulingSnapshot {
+
+  /**
+   * The specification the snapshot is taken of.
+   */
+  private final EnactmentSpecification specification;
+
+  private Map<String, Integer> resourceIndex;
+  private String[] resourceIds;
+  private double[] instances;
+  private double[] latencyLocal;
+  private double[] latencyGlobal;
+  private ResourceKind[] kinds;
+
+  private Map<Task, Integer> taskIndex;
+
+  /**
+   * Durations by task and resource index (NaN if there is no duration).
+   */
+  private double[][] durations;
+
+  /**
+   * Resource indices of the mappings of each task (in mapping order).
+   */
+  private int[][] mappedResources;
+
+  /**
+   * Average duration over all mappings by task index (NaN if not available).
+   */
+  private double[] averageDurations;
+
+  /**
+   * Resolved resource indices by (sub)string of the resource id.
+   */
+  private Map<String, boolean[]> resourcesContaining;
+
+  /**
+   * Take a snapshot of the given specification.
+   *
+   * @param specification the specification to take the snapshot of
+   */
+  public SchedulingSnapshot(final EnactmentSpecification specification) {
+    this.specification = specification;
+    refresh();
+  }
+
+  /**
+   * Read all scheduling attributes of the specification again.
+   */
+  public void refresh() {
+    final int numResources = specification.getResourceGraph().getVertexCount();
+    resourceIndex = new HashMap<>();
+    resourceIds = new String[numResources];
+    instances = new double[numResources];
+    latencyLocal = new double[numResources];
+    latencyGlobal = new double[numResources];
+    kinds = new ResourceKind[numResources];
+    final Map<String, EnactmentMode> modes = new HashMap<>();
+    for (final Mapping<Task, Resource> mapping : specification.getMappings()) {
+      modes.putIfAbsent(mapping.getTarget().getId(), PropertyServiceMapping.getEnactmentMode(mapping));
+    }
+    for (final Resource res : specification.getResourceGraph().getVertices()) {
+      final int r = resourceIndex.size();
+      resourceIndex.put(res.getId(), r);
+      resourceIds[r] = res.getId();
+      instances[r] = PropertyServiceScheduler.isInstancesSet(res)
+          ? PropertyServiceScheduler.getInstances(res) : Double.NaN;
+      latencyLocal[r] = PropertyServiceScheduler.isLatencyLocalSet(res)
+          ? PropertyServiceScheduler.getLatencyLocal(res) : Double.NaN;
+      latencyGlobal[r] = PropertyServiceScheduler.isLatencyGlobalSet(res)
+          ? PropertyServiceScheduler.getLatencyGlobal(res) : Double.NaN;
+      kinds[r] = ResourceKind.of(res, modes.get(res.getId()));
+    }
+
+    taskIndex = new HashMap<>();
+    final int numTasks = specification.getEnactmentGraph().getVertexCount();
+    durations = new double[numTasks][];
+    mappedResources = new int[numTasks][];
+    averageDurations = new double[numTasks];
+    for (final Task task : specification.getEnactmentGraph().getVertices()) {
+      if (task instanceof Communication) {
+        continue;
+      }
+      final int t = taskIndex.size();
+      taskIndex.put(task, t);
+      readTask(task, t);
+    }
+    resourcesContaining = new HashMap<>();
+  }
+
+  /**
+   * Read the mappings of the given task again (e.g., after mappings of the task
+   * were removed).
+   *
+   * @param task the task to refresh
+   */
+  public void refresh(final Task task) {
+    final Integer t = taskIndex.get(task);
+    if (t == null) {
+      throw new IllegalArgumentException("Task " + task.getId() + " is not part of the snapshot");
+    }
+    readTask(task, t);
+  }
+
+  /**
+   * Read the durations of the mappings of the given task.
+   *
+   * @param task the given task
+   * @param t the index of the task
+   */
+  private void readTask(final Task task, final int t) {
+    final double[] taskDurations = new double[resourceIds.length];
+    Arrays.fill(taskDurations, Double.NaN);
+    final int[] taskResources = new int[specification.getMappings().getMappings(task).size()];
+    int m = 0;
+    double sum = 0.0;
+    for (final Mapping<Task, Resource> mapping : specification.getMappings().getMappings(task)) {
+      final double duration = PropertyServiceScheduler.isDurationSet(mapping)
+          ? PropertyServiceScheduler.getDuration(mapping) : Double.NaN;
+      final Integer r = resourceIndex.get(mapping.getTarget().getId());
+      taskResources[m++] = r == null ? -1 : r;
+      if (r != null && Double.isNaN(taskDurations[r])) {
+        taskDurations[r] = duration;
+      }
+      sum += duration;
+    }
+    durations[t] = taskDurations;
+    mappedResources[t] = taskResources;
+    averageDurations[t] = m == 0 ? Double.NaN : sum / m;
+  }
+
+  /**
+   * Returns the specification of the snapshot
+   *
+   * @return the specification of the snapshot
+   */
+  public EnactmentSpecification getSpecification() {
+    return specification;
+  }
+
+  /**
+   * Returns the average duration of the given task over all its mappings
+   *
+   * @param task the given task
+   * @return the average duration of the task
+   */
+  public double getAverageDuration(final Task task) {
+    final Integer t = taskIndex.get(task);
+    if (t == null || Double.isNaN(averageDurations[t])) {
+      throw new IllegalArgumentException("Node " + task.getId() + " has no function duration");
+    }
+    return averageDurations[t];
+  }
+
+  /**
+   * Returns the duration of the given task on the resource with the given id
+   *
+   * @param task the given task
+   * @param resourceId the id of the resource
+   * @return the duration of the task on the resource
+   */
+  public double getDuration(final Task task, final String resourceId) {
+    final Integer t = taskIndex.get(task);
+    final Integer r = resourceIndex.get(resourceId);
+    if (t == null || r == null || Double.isNaN(durations[t][r])) {
+      throw new IllegalArgumentException(
+          "Could not find duration for " + task.getId() + " on resource " + resourceId);
+    }
+    return durations[t][r];
+  }
+
+  /**
+   * Returns the duration of the first mapping of the given task whose resource id
+   * contains the given type
+   *
+   * @param task the given task
+   * @param type the (sub)string of the resource id
+   * @return the duration of the task on the first matching resource
+   */
+  public double getDurationOnType(final Task task, final String type) {
+    final Integer t = taskIndex.get(task);
+    if (t != null) {
+      final boolean[] matching = resourcesContaining.computeIfAbsent(type, k -> {
+        final boolean[] result = new boolean[resourceIds.length];
+        for (int r = 0; r < resourceIds.length; r++) {
+          result[r] = resourceIds[r].contains(k);
+        }
+        return result;
+      });
+      for (final int r : mappedResources[t]) {
+        if (r >= 0 && matching[r] && !Double.isNaN(durations[t][r])) {
+          return durations[t][r];
+        }
+      }
+    }
+    throw new IllegalArgumentException(
+        "Node " + task.getId() + " has no function duration on resource " + type);
+  }
+
+  /**
+   * Returns the number of instances of the resource with the given id
+   *
+   * @param resourceId the id of the resource
+   * @return the number of instances of the resource
+   */
+  public int getInstances(final String resourceId) {
+    return (int) get(instances, resourceId, "instances");
+  }
+
+  /**
+   * Returns the local latency of the resource with the given id
+   *
+   * @param resourceId the id of the resource
+   * @return the local latency of the resource
+   */
+  public double getLatencyLocal(final String resourceId) {
+    return get(latencyLocal, resourceId, "local latency");
+  }
+
+  /**
+   * Returns the global latency of the resource with the given id
+   *
+   * @param resourceId the id of the resource
+   * @return the global latency of the resource
+   */
+  public double getLatencyGlobal(final String resourceId) {
+    return get(latencyGlobal, resourceId, "global latency");
+  }
+
+  /**
+   * Returns the kind of the resource with the given id
+   *
+   * @param resourceId the id of the resource
+   * @return the kind of the resource
+   */
+  public ResourceKind getKind(final String resourceId) {
+    final Integer r = resourceIndex.get(resourceId);
+    return r == null ? ResourceKind.fromId(resourceId) : kinds[r];
+  }
+
+  private double get(final double[] values, final String resourceId, final String name) {
+    final Integer r = resourceIndex.get(resourceId);
+    if (r == null || Double.isNaN(values[r])) {
+      throw new IllegalArgumentException("Resource " + resourceId + " has no " + name);
+    }
+    return values[r];
+  }
+}
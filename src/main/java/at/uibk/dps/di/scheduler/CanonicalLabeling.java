@@ -0,0 +1,161 @@
+package at.uibk.dps.di.scheduler;
+
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunction;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical labeling of the nodes of an {@link EnactmentGraph} based on its
+ * structure (topology and function types) only. The labels are refined
+ * iteratively with the labels of the predecessors and successors
+ * (Weisfeiler-Lehman), so structurally equal graphs get the same labels
+ * independent of the node ids.
+ *
+ * @author Stefan Pedratscher
+ */
+public class CanonicalLabeling {
+
+    /**
+     * The canonical label of each node.
+     */
+    private final Map<Task, String> labels;
+
+    /**
+     * The node of each canonical label.
+     */
+    private final Map<String, Task> nodes;
+
+    /**
+     * The hash of the structure of the graph.
+     */
+    private final String hash;
+
+    /**
+     * True if structurally indistinguishable nodes exist.
+     */
+    private final boolean ambiguous;
+
+    /**
+     * Default constructor.
+     *
+     * @param eGraph the graph to label.
+     */
+    public CanonicalLabeling(final EnactmentGraph eGraph) {
+        Map<Task, String> refined = new HashMap<>();
+        for (Task task : eGraph.getVertices()) {
+            refined.put(task, initialLabel(task));
+        }
+
+        // Refine until the number of distinct labels does not change anymore
+        int distinct = new HashSet<>(refined.values()).size();
+        for (int i = 0; i < eGraph.getVertexCount(); i++) {
+            final Map<Task, String> next = new HashMap<>();
+            for (Task task : eGraph.getVertices()) {
+                final List<String> predecessors = new ArrayList<>();
+                for (Task predecessor : eGraph.getPredecessors(task)) {
+                    predecessors.add(refined.get(predecessor));
+                }
+                final List<String> successors = new ArrayList<>();
+                for (Task successor : eGraph.getSuccessors(task)) {
+                    successors.add(refined.get(successor));
+                }
+                Collections.sort(predecessors);
+                Collections.sort(successors);
+                next.put(task, hash(refined.get(task) + predecessors + successors));
+            }
+            refined = next;
+            final int nextDistinct = new HashSet<>(refined.values()).size();
+            if (nextDistinct == distinct) {
+                break;
+            }
+            distinct = nextDistinct;
+        }
+
+        // Order equally labeled nodes by id to get unique labels
+        final Map<Task, String> finalLabels = refined;
+        final List<Task> sorted = new ArrayList<>(eGraph.getVertices());
+        sorted.sort(Comparator.comparing((Task t) -> finalLabels.get(t)).thenComparing(Task::getId));
+        labels = new HashMap<>();
+        nodes = new HashMap<>();
+        final StringBuilder structure = new StringBuilder();
+        int index = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            final String label = finalLabels.get(sorted.get(i));
+            index = i > 0 && label.equals(finalLabels.get(sorted.get(i - 1))) ? index + 1 : 0;
+            final String canonical = label + "#" + index;
+            labels.put(sorted.get(i), canonical);
+            nodes.put(canonical, sorted.get(i));
+            structure.append(canonical).append(';');
+        }
+        ambiguous = distinct < sorted.size();
+        hash = hash(structure.toString());
+    }
+
+    /**
+     * Create the label of a node without considering its neighbors.
+     *
+     * @param task the node to label.
+     *
+     * @return the label of the node.
+     */
+    private static String initialLabel(final Task task) {
+        if (task instanceof Communication) {
+            return "C" + (PropertyServiceData.isRoot(task) ? "r" : "") + (PropertyServiceData.isLeaf(task) ? "l" : "")
+                + (PropertyServiceData.isConstantNode(task) ? "c" + PropertyServiceData.getContent(task) : "");
+        }
+        return "T" + PropertyServiceFunction.getTypeId(task);
+    }
+
+    /**
+     * Calculate the SHA-256 hash of a string.
+     *
+     * @param value the string to hash.
+     *
+     * @return the hex encoded hash.
+     */
+    static String hash(final String value) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Getter
+     */
+
+    public String getLabel(final Task task) {
+        return labels.get(task);
+    }
+
+    public Task getNode(final String label) {
+        return nodes.get(label);
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public boolean isAmbiguous() {
+        return ambiguous;
+    }
+}
@@ -0,0 +1,106 @@
+package at.uibk.dps.di.scheduler;
+
+import at.uibk.dps.di.properties.ResourceKind;
+
+/**
+ * Cost model deciding which regions of tasks are cut out into a distributed
+ * engine. Cutting a region costs one invocation of a distributed engine but
+ * replaces the global latency of each task of the region by its local latency.
+ * Merging two independent regions saves an invocation but the merged region
+ * can only start when the inputs of both regions are available. The size of
+ * a region is only weighed when a fan-out is sharded ({@link #shardCount}),
+ * the {@link CutPlanner} does not split regions.
+ *
+ * @author Stefan Pedratscher
+ */
+public class CutCostModel {
+
+    /**
+     * The overhead of invoking a distributed engine in milliseconds.
+     */
+    private final double invocationOverhead;
+
+    /**
+     * Default constructor (the overhead is the entry latency of a distributed
+     * engine).
+     */
+    public CutCostModel() {
+        this(ResourceKind.DISTRIBUTED_ENGINE.getEntryLatency());
+    }
+
+    /**
+     * Constructor with a given invocation overhead.
+     *
+     * @param invocationOverhead the overhead of invoking a distributed engine in milliseconds.
+     */
+    public CutCostModel(final double invocationOverhead) {
+        if (invocationOverhead < 0) {
+            throw new IllegalArgumentException("Invocation overhead must not be negative");
+        }
+        this.invocationOverhead = invocationOverhead;
+    }
+
+    /**
+     * Get the time saved by cutting out a region.
+     *
+     * @param resource the resource the tasks of the region are executed on.
+     * @param tasks the number of tasks of the region.
+     *
+     * @return the saved time in milliseconds (negative if the cut is not worth it).
+     */
+    public double gain(final Resource resource, final int tasks) {
+        return tasks * (resource.getLatencyGlobal() - resource.getLatencyLocal()) - invocationOverhead;
+    }
+
+    /**
+     * Check if two independent regions should be merged into one cut.
+     *
+     * @param readyTime the time the inputs of the first region are available.
+     * @param otherReadyTime the time the inputs of the second region are available.
+     *
+     * @return true if the saved invocation outweighs the lost parallelism.
+     */
+    public boolean shouldMerge(final double readyTime, final double otherReadyTime) {
+        return invocationOverhead > Math.abs(readyTime - otherReadyTime);
+    }
+
+    /**
+     * Get the number of shards a fan-out is split into. The branches of a
+     * shard are executed in waves of the concurrency of the distributed
+     * engine, while each shard costs one invocation of a distributed engine
+     * (dispatched by the same orchestrator).
+     *
+     * @param branches the number of independent branches of the fan-out.
+     * @param concurrency the number of branches a distributed engine executes
+     *        concurrently.
+     * @param branchDuration the duration of a branch in milliseconds.
+     *
+     * @return the number of shards minimizing the makespan (between 1 and the
+     *         number of branches).
+     */
+    public int shardCount(final int branches, final int concurrency, final double branchDuration) {
+        if (branches < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Branches and concurrency must be positive");
+        }
+        int best = 1;
+        double bestMakespan = Double.MAX_VALUE;
+        for (int shards = 1; shards <= branches; shards++) {
+            final int perShard = (branches + shards - 1) / shards;
+            final int waves = (perShard + concurrency - 1) / concurrency;
+            final double makespan = shards * invocationOverhead + waves * branchDuration;
+            if (makespan < bestMakespan) {
+                best = shards;
+                bestMakespan = makespan;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Getter
+     */
+
+    public double getInvocationOverhead() {
+        return invocationOverhead;
+    }
+}
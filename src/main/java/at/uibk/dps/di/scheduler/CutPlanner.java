@@ -0,0 +1,294 @@
+package at.uibk.dps.di.scheduler;
+
+import at.uibk.dps.di.incision.Incision;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans the cuts of a scheduled enactment graph. Adjacent tasks on the same
+ * (non-local) resource are joined into maximal regions in one union-find pass
+ * over the data dependencies, as long as the region stays convex (no path
+ * leaves the region and enters it again). Independent regions on the same
+ * resource which share an input are merged afterwards if the
+ * {@link CutCostModel} prefers one invocation over the lost parallelism, and
+ * only regions with a positive gain are cut out.
+ *
+ * <p>Regions are only merged or dropped, never split: a region is cut out as
+ * a whole however many tasks it contains, even if a single distributed engine
+ * can not execute its independent branches concurrently. Such a cut can be
+ * split into shards afterwards with
+ * {@link at.uibk.dps.di.incision.ShardedIncision}.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class CutPlanner {
+
+    /**
+     * A region of tasks executed on the same resource.
+     */
+    private static final class Region {
+
+        private final Set<Task> tasks = new LinkedHashSet<>();
+        private final Set<Task> topCut = new HashSet<>();
+        private final Set<Task> bottomCut = new HashSet<>();
+        private Resource resource;
+        private double readyTime;
+        private String firstId;
+    }
+
+    /**
+     * Decides which regions are merged and cut out.
+     */
+    private final CutCostModel costModel;
+
+    /**
+     * Default constructor.
+     *
+     * @param costModel decides which regions are merged and cut out.
+     */
+    public CutPlanner(final CutCostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * Plan the cuts of a scheduled graph.
+     *
+     * @param eGraph the enactment graph.
+     * @param mapResource the resource of each task.
+     * @param mapFinishTime the scheduled finish time of each task.
+     *
+     * @return the cuts ordered by the time their inputs are available.
+     */
+    public List<Cut> plan(final EnactmentGraph eGraph, final Map<Task, Resource> mapResource,
+                          final Map<Task, Double> mapFinishTime) {
+
+        // Join adjacent tasks on the same resource
+        final List<Task> tasks = new ArrayList<>();
+        for (Task task : eGraph.getVertices()) {
+            if (!(task instanceof Communication) && mapResource.containsKey(task)) {
+                tasks.add(task);
+            }
+        }
+        tasks.sort(Comparator.comparing(Task::getId));
+        final Map<Task, Task> parent = new HashMap<>();
+        final Map<Task, Set<Task>> members = new HashMap<>();
+        for (Task task : tasks) {
+            parent.put(task, task);
+            final Set<Task> region = new LinkedHashSet<>();
+            region.add(task);
+            members.put(task, region);
+        }
+        for (Task task : tasks) {
+            final Resource resource = mapResource.get(task);
+            if (resource.getKind().isLocal()) {
+                continue;
+            }
+            for (Task data : eGraph.getSuccessors(task)) {
+                for (Task successor : eGraph.getSuccessors(data)) {
+                    final Resource successorResource = mapResource.get(successor);
+                    if (successorResource == null || !successorResource.getType().equals(resource.getType())) {
+                        continue;
+                    }
+                    final Task root = find(parent, task);
+                    final Task successorRoot = find(parent, successor);
+                    if (root != successorRoot && isConvex(eGraph, members.get(root), members.get(successorRoot))) {
+                        union(parent, members, root, successorRoot);
+                    }
+                }
+            }
+        }
+
+        // Create the regions
+        final List<Region> regions = new ArrayList<>();
+        for (Task task : tasks) {
+            if (parent.get(task) == task && !mapResource.get(task).getKind().isLocal()) {
+                regions.add(createRegion(eGraph, members.get(task), mapResource, mapFinishTime));
+            }
+        }
+
+        // Merge independent regions on the same resource sharing an input
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < regions.size() && !merged; i++) {
+                for (int j = i + 1; j < regions.size() && !merged; j++) {
+                    final Region first = regions.get(i);
+                    final Region second = regions.get(j);
+                    if (first.resource.getType().equals(second.resource.getType())
+                        && shareInput(first, second)
+                        && costModel.shouldMerge(first.readyTime, second.readyTime)
+                        && isConvex(eGraph, first.tasks, second.tasks)) {
+                        final Set<Task> union = new LinkedHashSet<>(first.tasks);
+                        union.addAll(second.tasks);
+                        regions.set(i, createRegion(eGraph, union, mapResource, mapFinishTime));
+                        regions.remove(j);
+                        merged = true;
+                    }
+                }
+            }
+        }
+
+        // Cut out the regions with a positive gain
+        regions.sort(Comparator.comparingDouble((Region r) -> r.readyTime).thenComparing(r -> r.firstId));
+        final Incision incision = new Incision();
+        final List<Cut> cuts = new ArrayList<>();
+        for (Region region : regions) {
+            if (!region.topCut.isEmpty() && !region.bottomCut.isEmpty()
+                && costModel.gain(region.resource, region.tasks.size()) > 0
+                && incision.isCutValid(eGraph, region.topCut, region.bottomCut)) {
+                cuts.add(new Cut(region.topCut, region.bottomCut));
+            }
+        }
+        return cuts;
+    }
+
+    /**
+     * Create a region with its top and bottom cut.
+     *
+     * @param eGraph the enactment graph.
+     * @param tasks the tasks of the region.
+     * @param mapResource the resource of each task.
+     * @param mapFinishTime the scheduled finish time of each task.
+     *
+     * @return the region.
+     */
+    private Region createRegion(final EnactmentGraph eGraph, final Set<Task> tasks,
+                                final Map<Task, Resource> mapResource, final Map<Task, Double> mapFinishTime) {
+        final Region region = new Region();
+        region.tasks.addAll(tasks);
+        for (Task task : tasks) {
+            region.resource = mapResource.get(task);
+            if (region.firstId == null || task.getId().compareTo(region.firstId) < 0) {
+                region.firstId = task.getId();
+            }
+
+            // Inputs produced outside of the region
+            for (Task data : eGraph.getPredecessors(task)) {
+                if (PropertyServiceData.isConstantNode(data)) {
+                    continue;
+                }
+                boolean external = true;
+                for (Task producer : eGraph.getPredecessors(data)) {
+                    if (tasks.contains(producer)) {
+                        external = false;
+                    } else {
+                        region.readyTime = Math.max(region.readyTime, mapFinishTime.getOrDefault(producer, 0.0));
+                    }
+                }
+                if (external) {
+                    region.topCut.add(data);
+                }
+            }
+
+            // Outputs consumed outside of the region
+            for (Task data : eGraph.getSuccessors(task)) {
+                boolean external = eGraph.getSuccessorCount(data) == 0;
+                for (Task consumer : eGraph.getSuccessors(data)) {
+                    external |= !tasks.contains(consumer);
+                }
+                if (external) {
+                    region.bottomCut.add(data);
+                }
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Check if two regions share an input.
+     */
+    private static boolean shareInput(final Region first, final Region second) {
+        for (Task data : first.topCut) {
+            if (second.topCut.contains(data)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the union of two regions is convex, i.e., no path leaves the
+     * union and enters it again.
+     *
+     * @param eGraph the enactment graph.
+     * @param first the tasks of the first region.
+     * @param second the tasks of the second region.
+     *
+     * @return true if the union is convex.
+     */
+    private static boolean isConvex(final EnactmentGraph eGraph, final Set<Task> first, final Set<Task> second) {
+        final Set<Task> union = new HashSet<>(first);
+        union.addAll(second);
+
+        // Visit all nodes below the union which are outside of it
+        final Deque<Task> open = new ArrayDeque<>();
+        final Set<Task> visited = new HashSet<>();
+        for (Task task : union) {
+            for (Task data : eGraph.getSuccessors(task)) {
+                for (Task successor : eGraph.getSuccessors(data)) {
+                    if (!union.contains(successor) && visited.add(successor)) {
+                        open.push(successor);
+                    }
+                }
+            }
+        }
+        while (!open.isEmpty()) {
+            for (Task next : eGraph.getSuccessors(open.pop())) {
+                if (union.contains(next)) {
+                    return false;
+                }
+                if (visited.add(next)) {
+                    open.push(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Task find(final Map<Task, Task> parent, final Task task) {
+        Task root = task;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+
+        // Path compression
+        Task current = task;
+        while (parent.get(current) != root) {
+            final Task next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    private static void union(final Map<Task, Task> parent, final Map<Task, Set<Task>> members,
+                              final Task root, final Task otherRoot) {
+        final Set<Task> larger = members.get(root).size() >= members.get(otherRoot).size()
+            ? members.get(root) : members.get(otherRoot);
+        final Task largerRoot = larger == members.get(root) ? root : otherRoot;
+        final Task smallerRoot = largerRoot == root ? otherRoot : root;
+        larger.addAll(members.remove(smallerRoot));
+        parent.put(smallerRoot, largerRoot);
+    }
+
+    /**
+     * Getter
+     */
+
+    public CutCostModel getCostModel() {
+        return costModel;
+    }
+}
@@ -0,0 +1,385 @@
+package at.uibk.dps.di.scheduler;
+
+import at.uibk.dps.di.incision.Incision;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache for the plans (cuts and selected mappings) of a scheduler. Plans are
+ * keyed by the canonical structure of the enactment graph
+ * ({@link CanonicalLabeling}) and a profile of every attribute the schedulers
+ * read (instances, latencies and kind of the resources, duration and cost of
+ * the mappings; latencies and durations are quantized), so a structurally equal workflow with a similar
+ * profile reuses the plan of a previous submission. The cache evicts the least recently
+ * used plans and plans older than the time to live.
+ *
+ * @author Stefan Pedratscher
+ */
+public class PlanCache {
+
+    /**
+     * Profile token of an attribute which is not set.
+     */
+    private static final String NOT_SET = "-";
+
+    /**
+     * Profile token of a non-positive latency or duration.
+     */
+    private static final String NON_POSITIVE = "<=0";
+
+    /**
+     * Key of a plan, including the canonical labeling of the specification it
+     * was created for.
+     */
+    public static final class Key {
+
+        private final String key;
+        private final CanonicalLabeling labeling;
+
+        private Key(final String key, final CanonicalLabeling labeling) {
+            this.key = key;
+            this.labeling = labeling;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * The placement of a task by a scheduler which does not (only) output
+     * cuts, i.e. the selected resource and the finish time of the task.
+     */
+    public static final class Placement {
+
+        private final String resourceId;
+        private final double finishTime;
+
+        public Placement(final String resourceId, final double finishTime) {
+            this.resourceId = resourceId;
+            this.finishTime = finishTime;
+        }
+
+        public String getResourceId() {
+            return resourceId;
+        }
+
+        public double getFinishTime() {
+            return finishTime;
+        }
+    }
+
+    /**
+     * A cached plan in terms of canonical labels.
+     */
+    private static final class Plan {
+
+        private final List<List<String>> topCuts;
+        private final List<List<String>> bottomCuts;
+        private final Map<String, Set<String>> targets;
+        private final Map<String, Placement> placements;
+        private final long created;
+
+        private Plan(final List<List<String>> topCuts, final List<List<String>> bottomCuts,
+                     final Map<String, Set<String>> targets, final Map<String, Placement> placements,
+                     final long created) {
+            this.topCuts = topCuts;
+            this.bottomCuts = bottomCuts;
+            this.targets = targets;
+            this.placements = placements;
+            this.created = created;
+        }
+    }
+
+    /**
+     * The maximal number of cached plans.
+     */
+    private final int maxEntries;
+
+    /**
+     * The time to live of a plan in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * The relative resolution of the quantized profile.
+     */
+    private final double resolution;
+
+    /**
+     * Supplies the current time in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The cached plans in access order.
+     */
+    private final LinkedHashMap<String, Plan> plans;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Default constructor.
+     *
+     * @param maxEntries the maximal number of cached plans.
+     * @param ttlMillis the time to live of a plan in milliseconds.
+     * @param resolution the relative resolution of durations and latencies (e.g. 0.05).
+     */
+    public PlanCache(final int maxEntries, final long ttlMillis, final double resolution) {
+        this(maxEntries, ttlMillis, resolution, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with a given clock.
+     *
+     * @param maxEntries the maximal number of cached plans.
+     * @param ttlMillis the time to live of a plan in milliseconds.
+     * @param resolution the relative resolution of durations and latencies (e.g. 0.05).
+     * @param clock supplies the current time in milliseconds.
+     */
+    PlanCache(final int maxEntries, final long ttlMillis, final double resolution, final LongSupplier clock) {
+        if (maxEntries <= 0 || ttlMillis <= 0 || resolution <= 0) {
+            throw new IllegalArgumentException("Invalid plan cache configuration");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.resolution = resolution;
+        this.clock = clock;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Create the key of the given specification. Has to be called before the
+     * specification is scheduled (scheduling removes mappings).
+     *
+     * @param specification the specification to schedule.
+     * @param parameters further parameters of the scheduler affecting the plan.
+     *
+     * @return the key of the plan.
+     */
+    public Key key(final EnactmentSpecification specification, final String parameters) {
+        final CanonicalLabeling labeling = new CanonicalLabeling(specification.getEnactmentGraph());
+        final StringBuilder profile = new StringBuilder(labeling.getHash()).append('|').append(parameters);
+
+        // Resources
+        final List<Resource> resources = new ArrayList<>(specification.getResourceGraph().getVertices());
+        resources.sort(Comparator.comparing(Resource::getId));
+        for (Resource r : resources) {
+            profile.append('|').append(r.getId())
+                .append(',').append(PropertyServiceScheduler.isInstancesSet(r) ? String.valueOf(PropertyServiceScheduler.getInstances(r)) : NOT_SET)
+                .append(',').append(PropertyServiceScheduler.isLatencyLocalSet(r) ? quantize(PropertyServiceScheduler.getLatencyLocal(r)) : NOT_SET)
+                .append(',').append(PropertyServiceScheduler.isLatencyGlobalSet(r) ? quantize(PropertyServiceScheduler.getLatencyGlobal(r)) : NOT_SET)
+                .append(',').append(PropertyServiceScheduler.isResourceKindSet(r) ? PropertyServiceScheduler.getResourceKind(r).name() : NOT_SET);
+        }
+
+        // Function durations and (exact, since they are checked against the
+        // budget) costs
+        final List<String> durations = new ArrayList<>();
+        for (Mapping<Task, Resource> mapping : specification.getMappings()) {
+            durations.add(labeling.getLabel(mapping.getSource()) + "@" + mapping.getTarget().getId() + "="
+                + (PropertyServiceScheduler.isDurationSet(mapping) ? quantize(PropertyServiceScheduler.getDuration(mapping)) : NOT_SET)
+                + "$" + (PropertyServiceScheduler.isCostSet(mapping) ? String.valueOf(PropertyServiceScheduler.getCost(mapping)) : NOT_SET));
+        }
+        durations.sort(String::compareTo);
+        durations.forEach(d -> profile.append('|').append(d));
+
+        return new Key(CanonicalLabeling.hash(profile.toString()), labeling);
+    }
+
+    /**
+     * Get the plan for the given specification. On a hit the mappings of the
+     * specification are reduced to the mappings selected by the plan.
+     *
+     * @param key the key of the specification.
+     * @param specification the specification to schedule.
+     *
+     * @return the cuts of the plan or null if there is no (valid) plan.
+     */
+    public List<Cut> get(final Key key, final EnactmentSpecification specification) {
+        return get(key, specification, new HashMap<>());
+    }
+
+    /**
+     * Get the plan for the given specification including the placements of
+     * the tasks. On a hit the mappings of the specification are reduced to
+     * the mappings selected by the plan.
+     *
+     * @param key the key of the specification.
+     * @param specification the specification to schedule.
+     * @param placements filled with the placements of the plan by task of the
+     *        specification on a hit.
+     *
+     * @return the cuts of the plan or null if there is no (valid) plan.
+     */
+    public synchronized List<Cut> get(final Key key, final EnactmentSpecification specification,
+                                      final Map<Task, Placement> placements) {
+        final Plan plan = plans.get(key.key);
+        if (plan == null) {
+            misses++;
+            return null;
+        }
+        if (clock.getAsLong() - plan.created > ttlMillis) {
+            plans.remove(key.key);
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        // Map the cuts to the nodes of the specification
+        final List<Cut> cuts = new ArrayList<>();
+        for (int i = 0; i < plan.topCuts.size(); i++) {
+            cuts.add(new Cut(toNodes(key.labeling, plan.topCuts.get(i)), toNodes(key.labeling, plan.bottomCuts.get(i))));
+        }
+        if (key.labeling.isAmbiguous()) {
+            final Incision incision = new Incision();
+            for (Cut cut : cuts) {
+                if (!incision.isCutValid(specification.getEnactmentGraph(), cut.getTopCut(), cut.getBottomCut())) {
+                    misses++;
+                    return null;
+                }
+            }
+        }
+
+        // Apply the selected mappings
+        for (Task task : specification.getEnactmentGraph().getVertices()) {
+            final Set<String> targets = plan.targets.get(key.labeling.getLabel(task));
+            if (targets != null) {
+                final List<Mapping<Task, Resource>> toRemove = new ArrayList<>();
+                for (Mapping<Task, Resource> mapping : specification.getMappings().getMappings(task)) {
+                    if (!targets.contains(mapping.getTarget().getId())) {
+                        toRemove.add(mapping);
+                    }
+                }
+                toRemove.forEach(specification.getMappings()::removeMapping);
+            }
+            final Placement placement = plan.placements.get(key.labeling.getLabel(task));
+            if (placement != null) {
+                placements.put(task, placement);
+            }
+        }
+        hits++;
+        return cuts;
+    }
+
+    /**
+     * Store the plan of a scheduled specification.
+     *
+     * @param key the key created before scheduling.
+     * @param specification the scheduled specification.
+     * @param cuts the resulting cuts.
+     */
+    public void put(final Key key, final EnactmentSpecification specification, final List<Cut> cuts) {
+        put(key, specification, cuts, new HashMap<>());
+    }
+
+    /**
+     * Store the plan of a scheduled specification including the placements
+     * of the tasks.
+     *
+     * @param key the key created before scheduling.
+     * @param specification the scheduled specification.
+     * @param cuts the resulting cuts.
+     * @param placements the placements of the tasks.
+     */
+    public synchronized void put(final Key key, final EnactmentSpecification specification, final List<Cut> cuts,
+                                 final Map<Task, Placement> placements) {
+        final List<List<String>> topCuts = new ArrayList<>();
+        final List<List<String>> bottomCuts = new ArrayList<>();
+        for (Cut cut : cuts) {
+            topCuts.add(toLabels(key.labeling, cut.getTopCut()));
+            bottomCuts.add(toLabels(key.labeling, cut.getBottomCut()));
+        }
+        final Map<String, Set<String>> targets = new HashMap<>();
+        for (Task task : specification.getEnactmentGraph().getVertices()) {
+            if (!(task instanceof Communication)) {
+                final Set<String> taskTargets = new HashSet<>();
+                specification.getMappings().getMappings(task).forEach(m -> taskTargets.add(m.getTarget().getId()));
+                targets.put(key.labeling.getLabel(task), taskTargets);
+            }
+        }
+        final Map<String, Placement> labeledPlacements = new HashMap<>();
+        placements.forEach((task, placement) -> labeledPlacements.put(key.labeling.getLabel(task), placement));
+        plans.put(key.key, new Plan(topCuts, bottomCuts, targets, labeledPlacements, clock.getAsLong()));
+
+        // Evict the least recently used plans
+        final Iterator<String> iterator = plans.keySet().iterator();
+        while (plans.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Remove all plans.
+     */
+    public synchronized void clear() {
+        plans.clear();
+    }
+
+    /**
+     * Quantize a value relative to the resolution. Positive values are
+     * mapped to the (possibly negative) index of their logarithmic bucket,
+     * non-positive values to {@link #NON_POSITIVE}.
+     *
+     * @param value the value to quantize.
+     *
+     * @return the quantized value.
+     */
+    private String quantize(final double value) {
+        return value <= 0 ? NON_POSITIVE : String.valueOf(Math.round(Math.log(value) / Math.log1p(resolution)));
+    }
+
+    private static List<String> toLabels(final CanonicalLabeling labeling, final Set<Task> tasks) {
+        final List<String> result = new ArrayList<>();
+        tasks.forEach(t -> result.add(labeling.getLabel(t)));
+        return result;
+    }
+
+    private static Set<Task> toNodes(final CanonicalLabeling labeling, final List<String> labels) {
+        final Set<Task> result = new HashSet<>();
+        labels.forEach(l -> result.add(labeling.getNode(l)));
+        return result;
+    }
+
+    /**
+     * Getter
+     */
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
@@ -1,5 +1,7 @@
 package at.uibk.dps.di.scheduler;
 
+import at.uibk.dps.di.properties.ResourceKind;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -42,6 +44,11 @@ public class Resource {
      */
     private String type;
 
+    /**
+     * The kind of the resource.
+     */
+    private ResourceKind kind;
+
     /**
      * The number of instances available for this resource.
      */
@@ -78,6 +85,7 @@ public class Resource {
      */
     public Resource(final String type, final int totalNumInstances) {
         this.type = type;
+        this.kind = ResourceKind.fromId(type);
         this.totalNumInstances = totalNumInstances;
         latencyGlobal = 0.0;
         latencyLocal = 0.0;
@@ -99,6 +107,21 @@ public class Resource {
         this.latencyGlobal = latencyGlobal;
     }
 
+    /**
+     * Constructor with an already resolved resource kind.
+     *
+     * @param type the type of the resource.
+     * @param totalNumInstances total number of available instances.
+     * @param latencyLocal  the latency from a resource of the same type.
+     * @param latencyGlobal the latency from a resource of a different type.
+     * @param kind the kind of the resource.
+     */
+    public Resource(final String type, final int totalNumInstances, final double latencyLocal, final double latencyGlobal,
+                    final ResourceKind kind) {
+        this(type, totalNumInstances, latencyLocal, latencyGlobal);
+        this.kind = kind;
+    }
+
     /**
      * Set the resource usage.
      *
@@ -110,8 +133,7 @@ public class Resource {
      */
     public Double setResource(final double possibleStart, final double taskDuration, final boolean prevOnSameResource) {
 
-        // TODO
-        if(getType().contains("Local")) {
+        if(kind.fillsGaps()) {
             for (int i = 0; i < spaces.size(); i++) {
                 final Double finishTime = prevOnSameResource ? possibleStart + latencyLocal + taskDuration : possibleStart + taskDuration + latencyGlobal + latencyLocal;
                 if (spaces.get(i).getStart() <= possibleStart && spaces.get(i).getEnd() >= finishTime) {
@@ -135,8 +157,7 @@ public class Resource {
             // Check if resource is available at the optimal start time
             if(available.get(i) <= possibleStart) {
 
-                // TODO
-                if(getType().contains("Local")) {
+                if(kind.fillsGaps()) {
                     if (available.get(i) != possibleStart) {
 
                         System.out.println(" ... Adding space for " + getType() + ": " + available.get(i) + " to " + possibleStart);
@@ -182,7 +203,7 @@ public class Resource {
             return prevOnSameResource ? possibleStart + latencyLocal + duration : possibleStart + latencyGlobal + latencyLocal+ duration;
         }
 
-        if(getType().contains("Local")) {
+        if(kind.fillsGaps()) {
             for (int i = 0; i < spaces.size(); i++) {
                 final Double finishTime = prevOnSameResource ? possibleStart + latencyLocal + duration : possibleStart + duration + latencyGlobal + latencyLocal;
                 if (spaces.get(i).getStart() <= possibleStart && spaces.get(i).getEnd() >= finishTime) {
@@ -226,6 +247,14 @@ public class Resource {
         this.type = type;
     }
 
+    public ResourceKind getKind() {
+        return kind;
+    }
+
+    public void setKind(final ResourceKind kind) {
+        this.kind = kind;
+    }
+
     public int getTotalNumInstances() {
         return totalNumInstances;
     }
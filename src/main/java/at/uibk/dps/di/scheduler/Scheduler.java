@@ -1,7 +1,9 @@
 package at.uibk.dps.di.scheduler;
 
-import at.uibk.dps.di.incision.Utility;
-import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.metrics.Counter;
+import at.uibk.dps.di.metrics.Histogram;
+import at.uibk.dps.di.metrics.MetricsRegistry;
+import at.uibk.dps.di.properties.SchedulingSnapshot;
 import at.uibk.dps.ee.model.graph.EnactmentGraph;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
 import at.uibk.dps.ee.model.graph.MappingsConcurrent;
@@ -17,6 +19,15 @@ import java.util.stream.Collectors;
 
 public class Scheduler {
 
+    /**
+     * Metrics of the scheduler.
+     */
+    private static final Histogram PLANNING_TIME = MetricsRegistry.getDefault().histogram("scheduler_planning_nanos");
+    private static final Counter LOOKAHEADS = MetricsRegistry.getDefault().counter("scheduler_heft_lookaheads_total");
+    private static final Counter RERANKS = MetricsRegistry.getDefault().counter("scheduler_reranks_total");
+    private static final Histogram CUTS = MetricsRegistry.getDefault().histogram("scheduler_cuts");
+    private static final Histogram CUT_SIZE = MetricsRegistry.getDefault().histogram("scheduler_cut_size");
+
     boolean dynRank = true;
 
     /**
@@ -34,13 +45,63 @@ public class Scheduler {
      */
     private final Map<Task, Resource> mapResource;
 
+    /**
+     * Scheduling attributes of the specification currently scheduled.
+     */
+    private SchedulingSnapshot snapshot;
+
+    /**
+     * Cache for the plans of previously scheduled workflows (optional).
+     */
+    private final PlanCache planCache;
+
+    /**
+     * Plans the cuts with a cost model (optional, otherwise {@link #extractCuts} is used).
+     */
+    private final CutPlanner cutPlanner;
+
     /**
      * Default constructor
      */
     public Scheduler(){
+        this(null);
+    }
+
+    /**
+     * Constructor reusing the plans of structurally equal workflows.
+     *
+     * @param planCache the cache for the plans (null to disable caching).
+     */
+    public Scheduler(PlanCache planCache){
+        this(planCache, null);
+    }
+
+    /**
+     * Constructor planning the cuts with a cost model.
+     *
+     * @param planCache the cache for the plans (null to disable caching).
+     * @param costModel the cost model for merging regions into cuts (null to use {@link #extractCuts}).
+     */
+    public Scheduler(PlanCache planCache, CutCostModel costModel){
         mapRank = new HashMap<>();
         mapFinishTime = new HashMap<>();
         mapResource = new HashMap<>();
+        this.planCache = planCache;
+        this.cutPlanner = costModel == null ? null : new CutPlanner(costModel);
+    }
+
+    /**
+     * Get the scheduling attributes of the given specification.
+     *
+     * @param specification the enactment specification.
+     *
+     * @return the snapshot of the specification.
+     */
+    private SchedulingSnapshot getSnapshot(EnactmentSpecification specification) {
+        if(snapshot == null || snapshot.getSpecification() != specification) {
+            snapshot = new SchedulingSnapshot(specification);
+        }
+        return snapshot;
     }
 
     /**
@@ -113,29 +174,20 @@ public class Scheduler {
      *
      * @param currentTaskRank the rank of the current task.
      * @param predecessor the predecessor task for which the rank should be calculated.
-     * @param mappings the s mappings.
+     * @param snapshot the scheduling attributes.
      * @param rankedTasks resulting list of ranked tasks.
      * @param toConsider contains all tasks that should be ranked.
      *
      * @return the rank of the predecessor.
      */
-    private double calcRank(double currentTaskRank, Task predecessor, MappingsConcurrent mappings,
+    private double calcRank(double currentTaskRank, Task predecessor, SchedulingSnapshot snapshot,
                              ArrayList<Task> rankedTasks, List<Task> toConsider, boolean override){
 
         // Check if predecessor node is not communication node (i.e. a task node)
         if (!(predecessor instanceof Communication)) {
 
-            Set<Mapping<Task, net.sf.opendse.model.Resource>> predecessorMappings = mappings.getMappings(predecessor);
-
-            // Check if duration attribute is specified
-            if (predecessorMappings.isEmpty()) {
-                throw new IllegalArgumentException(
-                        "Node " + predecessor.getId() + " has no function duration");
-            }
-
             // Get the average duration of the predecessor task node
-            double duration = predecessorMappings.stream()
-                    .mapToDouble(PropertyServiceScheduler::getDuration).sum() / predecessorMappings.size();
+            double duration = snapshot.getAverageDuration(predecessor);
 
             // Represents the rank of the predecessor task node
             double rank = duration + currentTaskRank;
@@ -171,7 +223,7 @@ public class Scheduler {
     public ArrayList<Task> rank(List<Task> tasks, EnactmentSpecification specification) {
 
         EnactmentGraph eGraph = specification.getEnactmentGraph();
-        MappingsConcurrent mappings = specification.getMappings();
+        SchedulingSnapshot snapshot = getSnapshot(specification);
 
         ArrayList<Task> rankedTasks = new ArrayList<>();
 
@@ -190,7 +242,7 @@ public class Scheduler {
             // Iterate over all predecessor nodes
             for(Task predecessor: predecessorNodes) {
 
-                double currentTaskRank = calcRank(current.getValue(), predecessor, mappings, rankedTasks, tasks, false);
+                double currentTaskRank = calcRank(current.getValue(), predecessor, snapshot, rankedTasks, tasks, false);
 
                 // Add predecessor and its rank to the stack
                 nodeStack.add(new AbstractMap.SimpleEntry<>(predecessor, currentTaskRank));
@@ -202,10 +254,11 @@ public class Scheduler {
     }
 
     public ArrayList<Task> rankDownWards(List<Task> tasks, EnactmentSpecification specification, boolean override) {
+        RERANKS.increment();
 
         // Get eGraph and task-resource mappings
         EnactmentGraph eGraph = specification.getEnactmentGraph();
-        MappingsConcurrent mappings = specification.getMappings();
+        SchedulingSnapshot snapshot = getSnapshot(specification);
 
         // Resulting ranked tasks
         ArrayList<Task> rankedTasks = new ArrayList<>();
@@ -228,7 +281,7 @@ public class Scheduler {
             // Iterate over all successor nodes (task nodes)
             for (Task successor : successorNodes) {
 
-                double currentTaskRank = calcRank(current.getValue(), successor, mappings, rankedTasks, tasks, override);
+                double currentTaskRank = calcRank(current.getValue(), successor, snapshot, rankedTasks, tasks, override);
 
                 // Add successor and its rank to the stack
                 nodeStack.add(new AbstractMap.SimpleEntry<>(successor, currentTaskRank));
@@ -313,17 +366,23 @@ public class Scheduler {
         Stack<Task> taskStack = new Stack<>();
         taskStack.addAll(rankedTasks);
 
+        // Tasks already assigned to a cut
+        Set<Task> checked = new HashSet<>();
+
         // Iterate over all tasks
         while(!taskStack.isEmpty()) {
 
             // Get a task node from the stack
             Task current = taskStack.pop();
+            if(!checked.add(current)) {
+                continue;
+            }
 
             // Determine resource on which task node will be executed
             Resource currentResource = mapResource.get(current);
 
             // Check if it is the local resource
-            if (!currentResource.getType().equals(Utility.ENGINE)) {
+            if (!currentResource.getKind().isLocal()) {
                 boolean singleTaskInCut = true;
                 Set<Task> topCut = new HashSet<>();
                 Set<Task> bottomCut = new HashSet<>();
@@ -345,8 +404,8 @@ public class Scheduler {
                         // Get other predecessors to check if they are on same resource
                         stackPredecessor.addAll(getPredecessorTaskNodes(eGraph, pre));
 
-                        // Remove predecessor from nodes to check since it is already checked
-                        taskStack.remove(pre);
+                        // Skip predecessor in the nodes to check since it is already checked
+                        checked.add(pre);
 
                         // Remember previous node
                         prev = pre;
@@ -374,8 +433,8 @@ public class Scheduler {
                         // Get other successors to check if they are on same resource
                         stackSuccessors.addAll(getSuccessorTaskNodes(eGraph, suc));
 
-                        // Remove successor from nodes to check since it is already checked
-                        taskStack.remove(suc);
+                        // Skip successor in the nodes to check since it is already checked
+                        checked.add(suc);
 
                         // Remember previous node
                         prev = suc;
@@ -438,19 +497,13 @@ public class Scheduler {
      * Get the duration of a task.
      *
      * @param rankedTask the task to get the duration for.
-     * @param mappingsRankedTask the mappings of the ranked task.
+     * @param snapshot the scheduling attributes.
      * @param resource the resource of the task to get the duration for.
      *
      * @return the duration of the task on the specified resource.
      */
-    private double getDuration(Task rankedTask, Set<Mapping<Task, net.sf.opendse.model.Resource>> mappingsRankedTask, Resource resource) {
-        for(Mapping<Task, net.sf.opendse.model.Resource> mR: mappingsRankedTask){
-            if(mR.getTarget().getId().contains(resource.getType())) {
-                return PropertyServiceScheduler.getDuration(mR);
-            }
-        }
-        throw new IllegalArgumentException(
-                "Node " + rankedTask.getId() + " has no function duration on resource " + resource.getType());
+    private double getDuration(Task rankedTask, SchedulingSnapshot snapshot, Resource resource) {
+        return snapshot.getDurationOnType(rankedTask, resource.getType());
     }
 
     /**
@@ -472,9 +525,11 @@ public class Scheduler {
                        double eftOfCurrentTask, EnactmentSpecification specification, List<Resource> resources,
                        double earliestStartTimeOfCurrentTask, double durationCurrentTask, boolean prevTaskOnSameResourceCurrentTask, int rec,
                        Map<Task, Double> mapFinishTimeGiven) {
+        LOOKAHEADS.increment();
+
         // Get specification, mappings and resource
         EnactmentGraph eGraph = specification.getEnactmentGraph();
-        MappingsConcurrent mappings = specification.getMappings();
+        SchedulingSnapshot snapshot = getSnapshot(specification);
         Resource resource2 = getResource(resources, resourceOfCurrentTask.getType());
 
         // Create temporary hashmaps for finish time and resource assignment
@@ -537,9 +592,6 @@ public class Scheduler {
             // Earliest finish time
             double eft = Double.MAX_VALUE;
 
-            // The mappings of the ranked task
-            Set<Mapping<Task, net.sf.opendse.model.Resource>> mappingsRankedTask = mappings.getMappings(rankedTask);
-
             // Iterate over all available resources
             for(Resource resource: resources) {
 
@@ -563,7 +615,7 @@ public class Scheduler {
 
                 double ll = resource.getLatencyLocal();
 
-                if(!resource.getType().contains("Local")) {
+                if(!resource.getKind().isLocal()) {
                     if (!tmpPrevTaskOnSameResource) {
                         resource.setLatencyLocal(0);
                     }
@@ -573,7 +625,7 @@ public class Scheduler {
                 }
 
                 // Get the duration of the ranked task on resource r
-                double duration = getDuration(rankedTask, mappingsRankedTask, resource);
+                double duration = getDuration(rankedTask, snapshot, resource);
 
                 double rankTMP = earliestStartTime + duration + resource.getLatencyLocal();
                 if(!tmpPrevTaskOnSameResource) {
@@ -615,7 +667,7 @@ public class Scheduler {
                     double recallEst = resource.earliestStartTime(earliestStartTime, tmpPrevTaskOnSameResource, duration);
                     ArrayList<Resource> recallResources = new ArrayList<>();
                     for(Resource res: resources){
-                        Resource recallRes = new Resource(res.getType(), res.getTotalNumInstances(), res.getLatencyLocal(), res.getLatencyGlobal());
+                        Resource recallRes = new Resource(res.getType(), res.getTotalNumInstances(), res.getLatencyLocal(), res.getLatencyGlobal(), res.getKind());
                         List<Double> avail = new ArrayList<>(res.getAvailable());
                         recallRes.setAvailable(avail);
                         recallResources.add(recallRes);
@@ -677,7 +729,7 @@ public class Scheduler {
             assert bestResource != null;
 
             double ll = bestResource.getLatencyLocal();
-            if(!bestResource.getType().contains("Local")) {
+            if(!bestResource.getKind().isLocal()) {
                 if(!bestPrevTaskOnSameResource) {
                     bestResource.setLatencyLocal(0);
                 }
@@ -688,7 +740,7 @@ public class Scheduler {
 
             Double actualFt = bestResource.setResource(earliestStartTime, bestDuration, bestPrevTaskOnSameResource);
             mapResourceTmp.put(rankedTask, bestResource);
-            rankedTask.setAttribute("tmpHeft-" + currentTask.getId() + "-r-" + resourceOfCurrentTask.getType(), bestResource.getType().contains("Local") ? "L" : "Cloud");
+            rankedTask.setAttribute("tmpHeft-" + currentTask.getId() + "-r-" + resourceOfCurrentTask.getType(), bestResource.getKind().isLocal() ? "L" : "Cloud");
             //System.out.println("-----" + currentTask.getId() + " on " + resourceOfCurrentTask.getType() + ": best " + bestResource.getType() + " for " + rankedTask.getId() + ", bc est=" +earliestStartTime + " and eft=" + bestEft + ", actual FT: " + actualFt);
             //rankedTask.setAttribute("rankHeft" + runn, mapRank.get(rankedTask));
 
@@ -713,6 +765,21 @@ public class Scheduler {
      * @param specification the {@link EnactmentSpecification}.
      */
     public List<Cut> schedule(EnactmentSpecification specification) {
+        long start = MetricsRegistry.getDefault().start();
+
+        // Reuse the plan of a structurally equal workflow
+        PlanCache.Key planKey = null;
+        if(planCache != null) {
+            planKey = planCache.key(specification, "heft:" + dynRank
+                + (cutPlanner == null ? "" : ":" + cutPlanner.getCostModel().getInvocationOverhead()));
+            List<Cut> cachedCuts = planCache.get(planKey, specification);
+            if(cachedCuts != null) {
+                return recordPlan(start, cachedCuts);
+            }
+        }
+
+        // Read the scheduling attributes once
+        snapshot = new SchedulingSnapshot(specification);
 
         // Get the resource graph and the vertices from the specification
         ResourceGraph rGraph = specification.getResourceGraph();
@@ -721,9 +788,9 @@ public class Scheduler {
         // Transform to an internal representation for the resources
         List<Resource> resources = new ArrayList<>();
         for(net.sf.opendse.model.Resource r: rVertices){
-            resources.add(new Resource(r.getId(), PropertyServiceScheduler.getInstances(r),
-                    PropertyServiceScheduler.getLatencyLocal(r),
-                    PropertyServiceScheduler.getLatencyGlobal(r))
+            resources.add(new Resource(r.getId(), snapshot.getInstances(r.getId()),
+                    snapshot.getLatencyLocal(r.getId()),
+                    snapshot.getLatencyGlobal(r.getId()), snapshot.getKind(r.getId()))
             );
         }
 
@@ -795,7 +862,7 @@ public class Scheduler {
                 }
 
                 double ll = resource.getLatencyLocal();
-                if(!resource.getType().contains("Local")) {
+                if(!resource.getKind().isLocal()) {
                     if (!tmpPrevTaskOnSameResource) {
                         resource.setLatencyLocal(0);
                     }
@@ -805,7 +872,7 @@ public class Scheduler {
                 }
 
                 // Get the duration of the ranked task on resource r
-                double duration = getDuration(rankedTask, mappingsRankedTask, resource);
+                double duration = getDuration(rankedTask, snapshot, resource);
 
                 double rankTMP = earliestStartTime + duration + resource.getLatencyLocal();
                 if(!tmpPrevTaskOnSameResource) {
@@ -841,7 +908,7 @@ public class Scheduler {
                 // Create a copy of the current resource state
                 ArrayList<Resource> recallResources = new ArrayList<>();
                 for(Resource res: resources){
-                    Resource recallRes = new Resource(res.getType(), res.getTotalNumInstances(), res.getLatencyLocal(), res.getLatencyGlobal());
+                    Resource recallRes = new Resource(res.getType(), res.getTotalNumInstances(), res.getLatencyLocal(), res.getLatencyGlobal(), res.getKind());
                     List<Double> avail = new ArrayList<>(res.getAvailable());
                     recallRes.setAvailable(avail);
                     recallRes.spaces = new ArrayList<>(res.spaces);
@@ -888,7 +955,7 @@ public class Scheduler {
             assert bestResource != null;
             double ll = bestResource.getLatencyLocal();
 
-            if(!bestResource.getType().contains("Local")) {
+            if(!bestResource.getKind().isLocal()) {
                 if (!bestPrevTaskOnSameResource) {
                     bestResource.setLatencyLocal(0);
                 }
@@ -898,7 +965,7 @@ public class Scheduler {
             }
             Double fTime = bestResource.setResource(earliestStartTime, bestDuration, bestPrevTaskOnSameResource);
             mapResource.put(rankedTask, bestResource);
-            rankedTask.setAttribute("resource", bestResource.getType().contains("http") ? "Cloud" : "L");
+            rankedTask.setAttribute("resource", bestResource.getKind().isLocal() ? "L" : "Cloud");
             /*rankedTask.setAttribute("est", earliestStartTime);
             rankedTask.setAttribute("duration", bestDuration);
             rankedTask.setAttribute("preOnSame", bestPrevTaskOnSameResource);
@@ -942,7 +1009,7 @@ public class Scheduler {
             mapFinishTime.put(rankedTask, bestEft);
             //rankedTask.setAttribute("ft", bestEft);
 
-            String some = bestResource.getType().contains("http") ? "Cloud" : "L";
+            String some = bestResource.getKind().isLocal() ? "L" : "Cloud";
             some += "; est: " + earliestStartTime + "; ft: " + bestEft + "; id: " + rankedTask.getId();
             //rankedTask.setAttribute("some", some);
 
@@ -952,6 +1019,7 @@ public class Scheduler {
                     mappings.removeMapping(mR);
                 }
             }
+            snapshot.refresh(rankedTask);
 
             bestResource.setLatencyLocal(ll);
         }
@@ -964,7 +1032,7 @@ public class Scheduler {
         System.out.println();
 
         for(Resource r: resources) {
-            String pref = r.getType().contains("Local") ? "L" : "C";
+            String pref = r.getKind().isLocal() ? "L" : "C";
             for(String s: r.view){
                 System.out.println(pref + ": " + s);
             }
@@ -977,6 +1045,28 @@ public class Scheduler {
 
 
         // Extract the cuts from the new resource mappings
-        return extractCuts(eGraph, sortOther(rankDownWards(new ArrayList<>(eGraph.getVertices()), specification, false)));
+        List<Cut> cuts = cutPlanner != null ? cutPlanner.plan(eGraph, mapResource, mapFinishTime)
+            : extractCuts(eGraph, sortOther(rankDownWards(new ArrayList<>(eGraph.getVertices()), specification, false)));
+        if(planCache != null) {
+            planCache.put(planKey, specification, cuts);
+        }
+        return recordPlan(start, cuts);
+    }
+
+    /**
+     * Record the metrics of a plan.
+     *
+     * @param start the start time of the planning.
+     * @param cuts the resulting cuts.
+     *
+     * @return the resulting cuts.
+     */
+    private List<Cut> recordPlan(long start, List<Cut> cuts) {
+        if(MetricsRegistry.getDefault().isEnabled()) {
+            PLANNING_TIME.recordSince(start);
+            CUTS.record(cuts.size());
+            cuts.forEach(cut -> CUT_SIZE.record(cut.getTopCut().size() + cut.getBottomCut().size()));
+        }
+        return cuts;
     }
 }
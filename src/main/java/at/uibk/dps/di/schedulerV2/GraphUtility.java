@@ -1,6 +1,7 @@
 package at.uibk.dps.di.schedulerV2;
 
 import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.properties.SchedulingSnapshot;
 import at.uibk.dps.ee.model.graph.EnactmentGraph;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
 import at.uibk.dps.ee.model.graph.MappingsConcurrent;
@@ -104,4 +105,12 @@ public class GraphUtility {
 
         throw new IllegalArgumentException("Could not find duration for " + task.getId() + " on resource " + resource.getId());
     }
+
+    public static double getAvgDurationOnAllResources(SchedulingSnapshot snapshot, Task task) {
+        return snapshot.getAverageDuration(task);
+    }
+
+    public static double getTaskDurationOnResource(SchedulingSnapshot snapshot, Task task, ResourceV2 resource) {
+        return snapshot.getDuration(task, resource.getId());
+    }
 }
@@ -1,5 +1,7 @@
 package at.uibk.dps.di.schedulerV2;
 
+import at.uibk.dps.di.properties.ResourceKind;
+import at.uibk.dps.di.properties.SchedulingSnapshot;
 import at.uibk.dps.di.scheduler.Resource;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
 import net.sf.opendse.model.Task;
@@ -19,6 +21,8 @@ public class ResourceV2 {
     private double latencyLocal;
     private double latencyGlobal;
     private EnactmentSpecification enactmentSpecification;
+    private SchedulingSnapshot snapshot;
+    private ResourceKind kind;
 
     /**
      * Time when resource instances are available.
@@ -29,21 +33,30 @@ public class ResourceV2 {
 
 
     ResourceV2(String id, int instances, double latencyLocal, double latencyGlobal,
-        EnactmentSpecification enactmentSpecification,  List<LatencyMapping> latencyMappings) {
+        SchedulingSnapshot snapshot,  List<LatencyMapping> latencyMappings) {
         this.id = id;
         this.instances = instances;
         this.latencyLocal = latencyLocal;
         this.latencyGlobal = latencyGlobal;
-        this.enactmentSpecification = enactmentSpecification;
+        this.enactmentSpecification = snapshot.getSpecification();
+        this.snapshot = snapshot;
+        this.kind = snapshot.getKind(id);
         this.available = new ArrayList<>();
         this.latencyMappings = latencyMappings;
     }
 
     public ResourceV2(String id, int instances, EnactmentSpecification enactmentSpecification,
+        List<LatencyMapping> latencyMappings) {
+        this(id, instances, new SchedulingSnapshot(enactmentSpecification), latencyMappings);
+    }
+
+    public ResourceV2(String id, int instances, SchedulingSnapshot snapshot,
         List<LatencyMapping> latencyMappings) {
         this.id = id;
         this.instances = instances;
-        this.enactmentSpecification = enactmentSpecification;
+        this.enactmentSpecification = snapshot.getSpecification();
+        this.snapshot = snapshot;
+        this.kind = snapshot.getKind(id);
         this.available = new ArrayList<>();
         this.latencyMappings = latencyMappings;
     }
@@ -51,7 +64,7 @@ public class ResourceV2 {
     double ftTask(Task task, double possibleStart, boolean fix, Map<Task, ResourceV2> mapResource, boolean longTerm) {
 
         // Get duration of function on specific resource
-        double duration = GraphUtility.getTaskDurationOnResource(enactmentSpecification, task, this);
+        double duration = GraphUtility.getTaskDurationOnResource(snapshot, task, this);
 
         // Finish time of the task
         double ft = possibleStart + duration;
@@ -82,9 +95,7 @@ public class ResourceV2 {
             }
         }
         if(predecessors.size() == 0) {
-            if(this.getId().contains("aws")) {
-                maxLatency = 500.0;
-            }
+            maxLatency = kind.getEntryLatency();
         }
 
         ft+=maxLatency;
@@ -136,11 +147,15 @@ public class ResourceV2 {
     }
 
     public ResourceV2 copy() {
-        ResourceV2 copy = new ResourceV2(this.id, this.instances, this.latencyLocal, this.latencyGlobal, this.enactmentSpecification, this.latencyMappings);
+        ResourceV2 copy = new ResourceV2(this.id, this.instances, this.latencyLocal, this.latencyGlobal, this.snapshot, this.latencyMappings);
         copy.available = new ArrayList<>(this.available);
         return copy;
     }
 
+    public ResourceKind getKind() {
+        return kind;
+    }
+
     public String getId() {
         return id;
     }
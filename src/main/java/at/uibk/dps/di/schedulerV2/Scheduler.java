@@ -1,6 +1,11 @@
 package at.uibk.dps.di.schedulerV2;
 
+import at.uibk.dps.di.metrics.Counter;
+import at.uibk.dps.di.metrics.Histogram;
+import at.uibk.dps.di.metrics.MetricsRegistry;
 import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.properties.SchedulingSnapshot;
+import at.uibk.dps.di.scheduler.PlanCache;
 import at.uibk.dps.ee.model.graph.EnactmentGraph;
 import at.uibk.dps.ee.model.graph.EnactmentSpecification;
 import at.uibk.dps.ee.model.graph.MappingsConcurrent;
@@ -17,6 +22,13 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class Scheduler {
 
+    /**
+     * Metrics of the scheduler.
+     */
+    private static final Histogram PLANNING_TIME = MetricsRegistry.getDefault().histogram("scheduler_v2_planning_nanos");
+    private static final Counter LOOKAHEADS = MetricsRegistry.getDefault().counter("scheduler_v2_heft_lookaheads_total");
+    private static final Counter RERANKS = MetricsRegistry.getDefault().counter("scheduler_v2_reranks_total");
+
     /**
      * Keeps track of the calculated ranks.
      */
@@ -33,6 +45,16 @@ public class Scheduler {
 
     private List<LatencyMapping> latencyMappings;
 
+    /**
+     * Scheduling attributes of the specification currently scheduled.
+     */
+    private SchedulingSnapshot snapshot;
+
+    /**
+     * Cache for the plans of previously scheduled workflows (optional).
+     */
+    private PlanCache planCache;
+
     /**
      * Default constructor.
      */
@@ -45,12 +67,23 @@ public class Scheduler {
     }
 
     public Scheduler(List<LatencyMapping> latencyMappings) {
+        this(latencyMappings, null);
+    }
+
+    /**
+     * Constructor reusing the plans of structurally equal workflows.
+     *
+     * @param latencyMappings the latencies between the resources.
+     * @param planCache the cache for the plans (null to disable caching).
+     */
+    public Scheduler(List<LatencyMapping> latencyMappings, PlanCache planCache) {
         this.mapRank = new ConcurrentHashMap<>();
         this.mapResource = new ConcurrentHashMap<>();
         this.mapFT = new ConcurrentHashMap<>();
         this.mapRankInit = new ConcurrentHashMap<>();
         this.latencyMappings = new ArrayList<>();
         this.latencyMappings.addAll(latencyMappings);
+        this.planCache = planCache;
     }
 
     /**
@@ -86,7 +119,7 @@ public class Scheduler {
                 }
 
                 // Calculate and set rank
-                double rank = successorRank + GraphUtility.getAvgDurationOnAllResources(specification, node);
+                double rank = successorRank + GraphUtility.getAvgDurationOnAllResources(snapshot, node);
                 ranks.put(node, rank);
                 node.setAttribute("rankUpwards", node.getId() + ": " + rank);
             }
@@ -182,6 +215,7 @@ public class Scheduler {
      * @return sorted ranks.
      */
     public Stack<Task> sort(Map<Task, Double> ranks, ArrayList<Task> rankedTasks, EnactmentSpecification specification, Map<Task, ResourceV2> resources){
+        RERANKS.increment();
 
         // Sort the given ranks
         rankedTasks.sort((o1, o2) -> {
@@ -246,6 +280,7 @@ public class Scheduler {
         List<ResourceV2> inputResources, ResourceV2 inputResource,
         Stack<Task> rankedTaskStack, Task rankedTask,
         double pStart) {
+        LOOKAHEADS.increment();
 
         // Temporary resource mappings, task stack, function finish time mappings
         Map<Task, ResourceV2> tmpMapResource = new ConcurrentHashMap<>(mapResource);
@@ -362,7 +397,7 @@ public class Scheduler {
                 double min = Double.MAX_VALUE;
                 double max = 0.0;
                 for(Mapping<Task, Resource> map: specification.getMappings().getMappings(t)) {
-                    double cost = map.getAttribute("Cost");
+                    double cost = PropertyServiceScheduler.getCost(map);
                     if(cost < min) {
                         min = cost;
                     }
@@ -387,7 +422,7 @@ public class Scheduler {
     private Double getCost(Task task, ResourceV2 resource, EnactmentSpecification specification){
         for(Mapping<Task, Resource> map: specification.getMappings().getMappings(task)) {
             if(map.getTarget().getId().equals(resource.getId())) {
-                return map.getAttribute("Cost");
+                return PropertyServiceScheduler.getCost(map);
             }
         }
         //throw new Exception("Could not find cost for resource " + resource.getId());
@@ -401,17 +436,26 @@ public class Scheduler {
      * @param specification of the workflow to schedule.
      */
     public void schedule(EnactmentSpecification specification, double budget) {
+        long start = MetricsRegistry.getDefault().start();
+
+        // Reuse the plan of a structurally equal workflow
+        PlanCache.Key planKey = null;
+        if(planCache != null) {
+            StringBuilder parameters = new StringBuilder("v2:" + budget);
+            latencyMappings.forEach(l -> parameters.append(';').append(l.getNode1()).append(',')
+                .append(l.getNode2()).append(',').append(l.getLatency()));
+            planKey = planCache.key(specification, parameters.toString());
+            Map<Task, PlanCache.Placement> placements = new HashMap<>();
+            if(planCache.get(planKey, specification, placements) != null) {
+                replay(specification, placements);
+                PLANNING_TIME.recordSince(start);
+                return;
+            }
+        }
 
         setupCost(specification, budget);
 
-        // Get the resource and enactment graph and the vertices from the specification
-        ResourceGraph rGraph = specification.getResourceGraph();
-
-        // Transform to an internal representation for the resources
-        List<ResourceV2> resources = new ArrayList<>();
-        for(net.sf.opendse.model.Resource r: rGraph.getVertices()){
-            resources.add(new ResourceV2(r.getId(), PropertyServiceScheduler.getInstances(r), specification, latencyMappings));
-        }
+        List<ResourceV2> resources = createResources(specification);
 
         // Rank tasks initially with upwards rank
         Collection<Task> leafNodes = GraphUtility.getLeafNodes(specification.getEnactmentGraph());
@@ -482,10 +526,8 @@ public class Scheduler {
                 rankedTaskStack.push(rankedTask);
             } else {
                 double ft = bestResource.ftTask(rankedTask, possStart, true, mapResource, false);
-                mapResource.put(rankedTask, bestResource);
-                mapFT.put(rankedTask, ft);
+                place(rankedTask, bestResource, ft);
                 System.out.println("Fixed task " + rankedTask + " on " + bestResource.getId() + " with FT=" + ft);
-                rankedTask.setAttribute("FINAL_FT", ft + "_" + (bestResource.getId().contains("Local") ? "L" : "CLOUD"));
 
                 updateRank(mapRank, mapResource, specification, rankedTask, mapRank.get(rankedTask));
                 mapRank.remove(rankedTask);
@@ -496,6 +538,64 @@ public class Scheduler {
                 taskCost.put(rankedTask, cost);
             }
         }
+
+        if(planCache != null) {
+            Map<Task, PlanCache.Placement> placements = new HashMap<>();
+            mapResource.forEach((task, resource) -> placements.put(task,
+                new PlanCache.Placement(resource.getId(), mapFT.get(task))));
+            planCache.put(planKey, specification, new ArrayList<>(), placements);
+        }
+        PLANNING_TIME.recordSince(start);
+    }
+
+    /**
+     * Read the scheduling attributes of the specification and transform its
+     * resources to the internal representation.
+     *
+     * @param specification the specification to schedule.
+     *
+     * @return the resources of the specification.
+     */
+    private List<ResourceV2> createResources(EnactmentSpecification specification) {
+
+        // Read the scheduling attributes once
+        snapshot = new SchedulingSnapshot(specification);
+
+        // Get the resource and enactment graph and the vertices from the specification
+        ResourceGraph rGraph = specification.getResourceGraph();
+
+        // Transform to an internal representation for the resources
+        List<ResourceV2> resources = new ArrayList<>();
+        for(net.sf.opendse.model.Resource r: rGraph.getVertices()){
+            resources.add(new ResourceV2(r.getId(), snapshot.getInstances(r.getId()), snapshot, latencyMappings));
+        }
+        return resources;
+    }
+
+    /**
+     * Fix the placement of a task.
+     *
+     * @param task the placed task.
+     * @param resource the resource the task is placed on.
+     * @param ft the finish time of the task.
+     */
+    private void place(Task task, ResourceV2 resource, double ft) {
+        mapResource.put(task, resource);
+        mapFT.put(task, ft);
+        task.setAttribute("FINAL_FT", ft + "_" + (resource.getId().contains("Local") ? "L" : "CLOUD"));
+    }
+
+    /**
+     * Restore the placements of a cached plan.
+     *
+     * @param specification the specification to schedule.
+     * @param placements the placements of the plan by task.
+     */
+    private void replay(EnactmentSpecification specification, Map<Task, PlanCache.Placement> placements) {
+        Map<String, ResourceV2> resources = new HashMap<>();
+        createResources(specification).forEach(r -> resources.put(r.getId(), r));
+        placements.forEach((task, placement) ->
+            place(task, resources.get(placement.getResourceId()), placement.getFinishTime()));
     }
 
 
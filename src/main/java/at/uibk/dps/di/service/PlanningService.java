@@ -0,0 +1,350 @@
+package at.uibk.dps.di.service;
+
+import at.uibk.dps.di.incision.Incision;
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.di.profile.DurationProfileStore;
+import at.uibk.dps.di.profile.Estimate;
+import at.uibk.dps.di.profile.MappedProfileStore;
+import at.uibk.dps.di.scheduler.Cut;
+import at.uibk.dps.di.scheduler.Scheduler;
+import at.uibk.dps.ee.io.afcl.AfclReader;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import nu.xom.ParsingException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Scheduling and incision of workflows for the planning service. The
+ * AFCL files and type mappings of the requests are written to disk once
+ * (keyed by their content hash) and reused by later requests, so repeated
+ * planning requests for the same workflow do not pay for the setup again.
+ * The resource graphs and mappings are cached by {@link Utility#specification}.
+ * The service keeps at most a maximal number of files and deletes the least
+ * recently used files and files unused for longer than the time to live;
+ * {@link #close()} deletes all files and the (then empty) directory.
+ *
+ * @author Stefan Pedratscher
+ */
+public class PlanningService implements Closeable {
+
+    /**
+     * The default maximal number of materialized files.
+     */
+    public static final int DEFAULT_MAX_FILES = 256;
+
+    /**
+     * The default time to live of an unused file in milliseconds (one hour).
+     */
+    public static final long DEFAULT_TTL_MILLIS = 60 * 60 * 1000L;
+
+    /**
+     * A materialized file.
+     */
+    private static final class StoredFile {
+
+        private final Path path;
+        private long lastUsed;
+
+        private StoredFile(final Path path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * The directory containing the materialized AFCL and mapping files.
+     */
+    private final Path directory;
+
+    /**
+     * The maximal number of materialized files.
+     */
+    private final int maxFiles;
+
+    /**
+     * The time to live of an unused file in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * Supplies the current time in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Materialized files by the hash of their content in access order.
+     */
+    private final LinkedHashMap<String, StoredFile> files;
+
+    /**
+     * The observed function durations (or null to use the given durations).
+     */
+    private final DurationProfileStore profiles;
+
+    /**
+     * The shared scheduling profiles (or null to use the given properties).
+     */
+    private final MappedProfileStore sharedProfiles;
+
+    /**
+     * Default constructor.
+     *
+     * @param directory the directory to store the AFCL and mapping files in.
+     */
+    public PlanningService(final Path directory) {
+        this(directory, null);
+    }
+
+    /**
+     * Constructor planning with observed function durations.
+     *
+     * @param directory the directory to store the AFCL and mapping files in.
+     * @param profiles the observed function durations.
+     */
+    public PlanningService(final Path directory, final DurationProfileStore profiles) {
+        this(directory, profiles, null);
+    }
+
+    /**
+     * Constructor planning with observed function durations and the
+     * scheduling profiles shared by several planners.
+     *
+     * @param directory the directory to store the AFCL and mapping files in.
+     * @param profiles the observed function durations (or null).
+     * @param sharedProfiles the shared scheduling profiles (or null).
+     */
+    public PlanningService(final Path directory, final DurationProfileStore profiles,
+        final MappedProfileStore sharedProfiles) {
+        this(directory, profiles, sharedProfiles, DEFAULT_MAX_FILES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructor with a given bound of the materialized files.
+     *
+     * @param directory the directory to store the AFCL and mapping files in.
+     * @param profiles the observed function durations (or null).
+     * @param sharedProfiles the shared scheduling profiles (or null).
+     * @param maxFiles the maximal number of materialized files.
+     * @param ttlMillis the time to live of an unused file in milliseconds.
+     */
+    public PlanningService(final Path directory, final DurationProfileStore profiles,
+        final MappedProfileStore sharedProfiles, final int maxFiles, final long ttlMillis) {
+        this(directory, profiles, sharedProfiles, maxFiles, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with a given clock.
+     *
+     * @param directory the directory to store the AFCL and mapping files in.
+     * @param profiles the observed function durations (or null).
+     * @param sharedProfiles the shared scheduling profiles (or null).
+     * @param maxFiles the maximal number of materialized files.
+     * @param ttlMillis the time to live of an unused file in milliseconds.
+     * @param clock supplies the current time in milliseconds.
+     */
+    PlanningService(final Path directory, final DurationProfileStore profiles,
+        final MappedProfileStore sharedProfiles, final int maxFiles, final long ttlMillis, final LongSupplier clock) {
+        // A request materializes its AFCL and its mapping file
+        if (maxFiles < 2 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Invalid planning service configuration");
+        }
+        this.directory = directory;
+        this.maxFiles = maxFiles;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.files = new LinkedHashMap<>(16, 0.75f, true);
+        this.profiles = profiles;
+        this.sharedProfiles = sharedProfiles;
+    }
+
+    /**
+     * Create the specification of a workflow from its AFCL and type mapping.
+     *
+     * @param afcl the content of the AFCL file.
+     * @param typeMappings the content of the type mapping file.
+     *
+     * @return the resulting specification.
+     */
+    public EnactmentSpecification specification(final String afcl, final String typeMappings) {
+        final String afclPath = materialize(afcl, ".yaml").toString();
+        final String mappingsPath = materialize(typeMappings, ".json").toString();
+        return Utility.specification(new AfclReader(afclPath).getEnactmentGraph(), mappingsPath);
+    }
+
+    /**
+     * Parse the specification of a workflow.
+     *
+     * @param specification the specification as xml string.
+     *
+     * @return the parsed specification.
+     */
+    public EnactmentSpecification specification(final String specification) {
+        try {
+            return Utility.fromStringToEnactmentSpecification(specification);
+        } catch (ParsingException e) {
+            throw new IllegalArgumentException("Invalid specification: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Schedule the given specification. The shared scheduling profiles
+     * replace the given properties, the observed function durations of this
+     * planner replace the durations of the corresponding mappings.
+     *
+     * @param specification the specification to schedule (including the scheduling properties).
+     *
+     * @return the resulting cuts.
+     */
+    public List<Cut> schedule(final EnactmentSpecification specification) {
+        if (sharedProfiles != null) {
+            sharedProfiles.apply(specification);
+        }
+        if (profiles != null) {
+            profiles.apply(specification.getMappings(), Estimate.EWMA);
+        }
+        return new Scheduler().schedule(specification);
+    }
+
+    /**
+     * Apply the given cuts to the specification.
+     *
+     * @param specification the specification to cut.
+     * @param cuts the cuts to apply.
+     *
+     * @return the adapted specification as xml string.
+     *
+     * @throws IllegalArgumentException if a cut is invalid.
+     */
+    public String cut(final EnactmentSpecification specification, final List<Cut> cuts) {
+        final Incision incision = new Incision();
+        for (Cut cut : cuts) {
+            incision.cut(specification, cut.getTopCut(), cut.getBottomCut());
+        }
+        return Utility.fromEnactmentSpecificationToString(specification);
+    }
+
+    /**
+     * Delete all materialized files and the directory (if it is empty).
+     *
+     * @throws IOException if a file can not be deleted.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (StoredFile file : new ArrayList<>(files.values())) {
+            Files.deleteIfExists(file.path);
+        }
+        files.clear();
+        try {
+            Files.deleteIfExists(directory);
+        } catch (DirectoryNotEmptyException e) {
+            // The directory contains files not written by this service
+        }
+    }
+
+    /**
+     * Write the given content to a file unless a file with the same content
+     * was already written. Expired and least recently used files are deleted.
+     * A request materializes its files and reads them right after, so only a
+     * file used by more than {@code maxFiles} concurrent requests could be
+     * deleted while it is read.
+     *
+     * @param content the content of the file.
+     * @param suffix the suffix of the file.
+     *
+     * @return the path of the file.
+     */
+    synchronized Path materialize(final String content, final String suffix) {
+        final long now = clock.getAsLong();
+        final Iterator<StoredFile> iterator = files.values().iterator();
+        while (iterator.hasNext()) {
+            final StoredFile file = iterator.next();
+            if (now - file.lastUsed <= ttlMillis) {
+                break;
+            }
+            delete(file.path);
+            iterator.remove();
+        }
+
+        final String name = hash(content) + suffix;
+        StoredFile file = files.get(name);
+        if (file == null || !Files.exists(file.path)) {
+            file = new StoredFile(write(directory.resolve(name), content, suffix));
+            files.put(name, file);
+        }
+        file.lastUsed = now;
+        while (files.size() > maxFiles) {
+            final Iterator<StoredFile> eldest = files.values().iterator();
+            delete(eldest.next().path);
+            eldest.remove();
+        }
+        return file.path;
+    }
+
+    /**
+     * Write the given content atomically to a file.
+     *
+     * @param path the path of the file.
+     * @param content the content of the file.
+     * @param suffix the suffix of the file.
+     *
+     * @return the path of the file.
+     */
+    private Path write(final Path path, final String content, final String suffix) {
+        try {
+            Files.createDirectories(directory);
+            final Path tmp = Files.createTempFile(directory, "tmp", suffix);
+            Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+            return Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete a materialized file.
+     *
+     * @param path the path of the file.
+     */
+    private static void delete(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calculate the SHA-256 hash of the given content.
+     *
+     * @param content the content to hash.
+     *
+     * @return the hex encoded hash.
+     */
+    private static String hash(final String content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
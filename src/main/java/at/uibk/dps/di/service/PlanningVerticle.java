@@ -0,0 +1,281 @@
+package at.uibk.dps.di.service;
+
+import at.uibk.dps.di.profile.DurationProfileStore;
+import at.uibk.dps.di.profile.MappedProfileStore;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.scheduler.Cut;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Verticle offering the scheduling and incision of workflows over HTTP.
+ *
+ * <p>{@code POST /schedule} returns the cuts of a workflow and {@code POST /cut}
+ * returns the specification adapted by the given (or scheduled) cuts. The body
+ * contains either a {@code specification} (xml) or an {@code afcl} and
+ * {@code mapping}, optionally {@code resources} with the scheduling properties
+ * ({@code instances}, {@code latencyLocal}, {@code latencyGlobal},
+ * {@code duration}) by resource id and, for {@code /cut}, the {@code cuts} as
+ * lists of {@code top} and {@code bottom} node ids.</p>
+ *
+ * <p>The work is done on the worker pool, the event loop only parses and
+ * writes the JSON. Undeploying the verticle closes the planning service,
+ * i.e. deletes its workflow files.</p>
+ *
+ * @author Stefan Pedratscher
+ */
+public class PlanningVerticle extends AbstractVerticle {
+
+    /**
+     * The port to listen on.
+     */
+    private final int port;
+
+    /**
+     * The scheduling and incision logic (keeps its state between requests).
+     */
+    private final PlanningService planningService;
+
+    /**
+     * Default constructor.
+     *
+     * @param port the port to listen on.
+     * @param planningService the scheduling and incision logic.
+     */
+    public PlanningVerticle(final int port, final PlanningService planningService) {
+        this.port = port;
+        this.planningService = planningService;
+    }
+
+    @Override
+    public void start(final Promise<Void> startPromise) {
+        final Router router = Router.router(vertx);
+        router.route().handler(BodyHandler.create());
+        router.post("/schedule").handler(context -> handle(context, body -> {
+            final EnactmentSpecification specification = readSpecification(body);
+            final JsonArray cuts = new JsonArray();
+            planningService.schedule(specification).forEach(cut -> cuts.add(new JsonObject()
+                .put("top", toIds(cut.getTopCut()))
+                .put("bottom", toIds(cut.getBottomCut()))));
+            return new JsonObject().put("cuts", cuts);
+        }));
+        router.post("/cut").handler(context -> handle(context, body -> {
+            final EnactmentSpecification specification = readSpecification(body);
+            final List<Cut> cuts = body.containsKey("cuts")
+                ? readCuts(specification, body.getJsonArray("cuts"))
+                : planningService.schedule(specification);
+            return new JsonObject().put("specification", planningService.cut(specification, cuts));
+        }));
+        vertx.createHttpServer()
+            .requestHandler(router)
+            .listen(port, result -> {
+                if (result.succeeded()) {
+                    startPromise.complete();
+                } else {
+                    startPromise.fail(result.cause());
+                }
+            });
+    }
+
+    @Override
+    public void stop(final Promise<Void> stopPromise) {
+        vertx.<Void>executeBlocking(promise -> {
+            try {
+                planningService.close();
+                promise.complete();
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, stopPromise);
+    }
+
+    /**
+     * Handle a request on the worker pool.
+     *
+     * @param context the routing context of the request.
+     * @param function the function creating the response of the request body.
+     */
+    private void handle(final RoutingContext context, final Function<JsonObject, JsonObject> function) {
+        final JsonObject body;
+        try {
+            body = context.getBodyAsJson();
+        } catch (RuntimeException e) {
+            respond(context, 400, new JsonObject().put("error", "Invalid JSON body"));
+            return;
+        }
+        if (body == null) {
+            respond(context, 400, new JsonObject().put("error", "Missing JSON body"));
+            return;
+        }
+        vertx.<JsonObject>executeBlocking(promise -> promise.complete(function.apply(body)), false, result -> {
+            if (result.succeeded()) {
+                respond(context, 200, result.result());
+            } else if (result.cause() instanceof IllegalArgumentException) {
+                respond(context, 400, new JsonObject().put("error", result.cause().getMessage()));
+            } else {
+                respond(context, 500, new JsonObject().put("error", String.valueOf(result.cause())));
+            }
+        });
+    }
+
+    /**
+     * Write the response of a request.
+     *
+     * @param context the routing context of the request.
+     * @param status the http status code.
+     * @param response the response body.
+     */
+    private void respond(final RoutingContext context, final int status, final JsonObject response) {
+        context.response()
+            .setStatusCode(status)
+            .putHeader("content-type", "application/json")
+            .end(response.encode());
+    }
+
+    /**
+     * Read the specification of a request body and set the given scheduling properties.
+     *
+     * @param body the request body.
+     *
+     * @return the specification of the request.
+     */
+    private EnactmentSpecification readSpecification(final JsonObject body) {
+        final EnactmentSpecification specification;
+        if (body.containsKey("specification")) {
+            specification = planningService.specification(body.getString("specification"));
+        } else if (body.containsKey("afcl") && body.containsKey("mapping")) {
+            specification = planningService.specification(body.getString("afcl"), body.getString("mapping"));
+        } else {
+            throw new IllegalArgumentException("Either specification or afcl and mapping required");
+        }
+
+        final JsonObject resources = body.getJsonObject("resources", new JsonObject());
+        for (String id : resources.fieldNames()) {
+            final Resource resource = specification.getResourceGraph().getVertex(id);
+            if (resource == null) {
+                throw new IllegalArgumentException("Unknown resource " + id);
+            }
+            final JsonObject properties = resources.getJsonObject(id);
+            if (properties.containsKey("instances")) {
+                PropertyServiceScheduler.setInstances(resource, properties.getInteger("instances"));
+            }
+            if (properties.containsKey("latencyLocal")) {
+                PropertyServiceScheduler.setLatencyLocal(resource, properties.getDouble("latencyLocal"));
+            }
+            if (properties.containsKey("latencyGlobal")) {
+                PropertyServiceScheduler.setLatencyGlobal(resource, properties.getDouble("latencyGlobal"));
+            }
+            if (properties.containsKey("duration")) {
+                final double duration = properties.getDouble("duration");
+                specification.getMappings().mappingStream()
+                    .filter(mapping -> mapping.getTarget().getId().equals(id))
+                    .forEach(mapping -> PropertyServiceScheduler.setDuration(mapping, duration));
+            }
+        }
+        return specification;
+    }
+
+    /**
+     * Read the cuts of a request body.
+     *
+     * @param specification the specification to cut.
+     * @param cuts the cuts of the request body.
+     *
+     * @return the resulting cuts.
+     */
+    private List<Cut> readCuts(final EnactmentSpecification specification, final JsonArray cuts) {
+        final List<Cut> result = new ArrayList<>();
+        for (int i = 0; i < cuts.size(); i++) {
+            final JsonObject cut = cuts.getJsonObject(i);
+            result.add(new Cut(toTasks(specification, cut.getJsonArray("top", new JsonArray())),
+                toTasks(specification, cut.getJsonArray("bottom", new JsonArray()))));
+        }
+        return result;
+    }
+
+    /**
+     * Find the nodes with the given ids.
+     *
+     * @param specification the specification containing the nodes.
+     * @param ids the ids of the nodes.
+     *
+     * @return the found nodes.
+     */
+    private Set<Task> toTasks(final EnactmentSpecification specification, final JsonArray ids) {
+        final Set<Task> tasks = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            final Task task = specification.getEnactmentGraph().getVertex(ids.getString(i));
+            if (task == null) {
+                throw new IllegalArgumentException("Unknown node " + ids.getString(i));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Get the ids of the given nodes.
+     *
+     * @param tasks the nodes.
+     *
+     * @return the ids of the nodes.
+     */
+    private JsonArray toIds(final Set<Task> tasks) {
+        final JsonArray ids = new JsonArray();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+
+    /**
+     * Start the planning service.
+     *
+     * @param args optional port (default 8080), directory for the workflow files
+     *             (default a new temporary directory), duration profile file
+     *             and shared profile store.
+     *
+     * @throws IOException if the temporary directory can not be created or the
+     *                     duration profile file or the shared profile store
+     *                     can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        final Path directory = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("do-incision");
+        final DurationProfileStore profiles = args.length > 2 ? DurationProfileStore.load(Paths.get(args[2])) : null;
+        final MappedProfileStore sharedProfiles = args.length > 3 ? MappedProfileStore.openReader(Paths.get(args[3])) : null;
+        final Vertx vertx = Vertx.vertx();
+        vertx.deployVerticle(new PlanningVerticle(port, new PlanningService(directory, profiles, sharedProfiles)));
+
+        // Undeploy the verticle (deleting the workflow files) on shutdown
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                System.err.println("Failed to stop the planning service: " + e);
+            }
+        }));
+    }
+}
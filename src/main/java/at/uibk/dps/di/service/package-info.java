@@ -0,0 +1,4 @@
+/**
+ * Package for the planning service.
+ */
+package at.uibk.dps.di.service;
@@ -0,0 +1,90 @@
+package at.uibk.dps.di.simulation;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import net.sf.opendse.model.Resource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class containing the {@link SimulatedResource}s of a simulation.
+ *
+ * @author Stefan Pedratscher
+ */
+public class ResourceModel {
+
+    /**
+     * The simulated resources by their identifier.
+     */
+    private final Map<String, SimulatedResource> resources;
+
+    /**
+     * The model used for resources without explicit entry (e.g.
+     * resources added during the incision).
+     */
+    private final SimulatedResource defaultResource;
+
+    /**
+     * Default constructor.
+     *
+     * @param defaultResource the model used for resources without
+     *        explicit entry.
+     */
+    public ResourceModel(final SimulatedResource defaultResource) {
+        this.resources = new HashMap<>();
+        this.defaultResource = defaultResource;
+    }
+
+    /**
+     * Create a resource model out of the scheduler properties
+     * ({@link PropertyServiceScheduler}) of a {@link ResourceGraph}.
+     * The global latency is used as invocation latency. Cold starts and
+     * bandwidth are not part of the scheduler properties and are set
+     * to the given values.
+     *
+     * @param rGraph the resource graph.
+     * @param coldStart the cold start time of all resources.
+     * @param bandwidth the bandwidth of all resources.
+     * @param defaultResource the model used for resources without
+     *        scheduler properties.
+     *
+     * @return the resulting resource model.
+     */
+    public static ResourceModel fromResourceGraph(final ResourceGraph rGraph, final double coldStart,
+        final double bandwidth, final SimulatedResource defaultResource) {
+        final ResourceModel model = new ResourceModel(defaultResource);
+        for (final Resource r : rGraph.getVertices()) {
+            try {
+                model.add(new SimulatedResource(r.getId(), PropertyServiceScheduler.getInstances(r),
+                    coldStart, PropertyServiceScheduler.getLatencyGlobal(r), bandwidth));
+            } catch (IllegalArgumentException ignore) {
+                // Resource without scheduler properties, use the default model
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Add a simulated resource.
+     *
+     * @param resource the resource to add.
+     *
+     * @return this model.
+     */
+    public ResourceModel add(final SimulatedResource resource) {
+        resources.put(resource.getId(), resource);
+        return this;
+    }
+
+    /**
+     * Get the simulated resource with the given identifier.
+     *
+     * @param id the identifier of the resource.
+     *
+     * @return the simulated resource or the default resource.
+     */
+    public SimulatedResource get(final String id) {
+        return resources.getOrDefault(id, defaultResource);
+    }
+}
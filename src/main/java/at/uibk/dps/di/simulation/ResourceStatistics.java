@@ -0,0 +1,109 @@
+package at.uibk.dps.di.simulation;
+
+/**
+ * Class containing the queueing statistics of a single resource
+ * collected during a simulation.
+ *
+ * @author Stefan Pedratscher
+ */
+public class ResourceStatistics {
+
+    /**
+     * The number of tasks executed on the resource.
+     */
+    private int tasks;
+
+    /**
+     * The number of cold starts of the resource.
+     */
+    private int coldStarts;
+
+    /**
+     * The total time tasks waited for a free slot.
+     */
+    private double totalWaitingTime;
+
+    /**
+     * The longest time a task waited for a free slot.
+     */
+    private double maxWaitingTime;
+
+    /**
+     * The maximal number of tasks waiting at the same time.
+     */
+    private int maxQueueLength;
+
+    /**
+     * The accumulated time the resource was busy.
+     */
+    private double busyTime;
+
+    /**
+     * Record the execution of a task.
+     *
+     * @param waitingTime the time the task waited for a free slot.
+     * @param executionTime the time the task occupied the slot.
+     * @param coldStart true if the task caused a cold start.
+     */
+    void recordTask(final double waitingTime, final double executionTime, final boolean coldStart) {
+        tasks++;
+        totalWaitingTime += waitingTime;
+        maxWaitingTime = Math.max(maxWaitingTime, waitingTime);
+        busyTime += executionTime;
+        if (coldStart) {
+            coldStarts++;
+        }
+    }
+
+    /**
+     * Record the current length of the queue.
+     *
+     * @param queueLength the current queue length.
+     */
+    void recordQueueLength(final int queueLength) {
+        maxQueueLength = Math.max(maxQueueLength, queueLength);
+    }
+
+    /**
+     * Get the average time a task waited for a free slot.
+     *
+     * @return the average waiting time.
+     */
+    public double getAverageWaitingTime() {
+        return tasks == 0 ? 0.0 : totalWaitingTime / tasks;
+    }
+
+    /**
+     * Getter
+     */
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public int getColdStarts() {
+        return coldStarts;
+    }
+
+    public double getTotalWaitingTime() {
+        return totalWaitingTime;
+    }
+
+    public double getMaxWaitingTime() {
+        return maxWaitingTime;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public double getBusyTime() {
+        return busyTime;
+    }
+
+    @Override
+    public String toString() {
+        return "tasks=" + tasks + ", coldStarts=" + coldStarts + ", totalWait=" + totalWaitingTime
+            + ", maxWait=" + maxWaitingTime + ", maxQueue=" + maxQueueLength + ", busy=" + busyTime;
+    }
+}
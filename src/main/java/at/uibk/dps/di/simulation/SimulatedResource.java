@@ -0,0 +1,91 @@
+package at.uibk.dps.di.simulation;
+
+/**
+ * Class representing the timing model of a resource used by the
+ * {@link Simulator}.
+ *
+ * @author Stefan Pedratscher
+ */
+public class SimulatedResource {
+
+    /**
+     * The identifier of the resource (same as in the resource graph).
+     */
+    private final String id;
+
+    /**
+     * The maximal number of tasks running concurrently on the resource.
+     */
+    private final int concurrency;
+
+    /**
+     * The time needed to start a fresh instance of the resource.
+     */
+    private final double coldStart;
+
+    /**
+     * The latency of each invocation of the resource.
+     */
+    private final double latency;
+
+    /**
+     * The bandwidth in bytes per time unit (0 represents infinite bandwidth).
+     */
+    private final double bandwidth;
+
+    /**
+     * Default constructor.
+     *
+     * @param id the identifier of the resource.
+     * @param concurrency the maximal number of concurrent tasks.
+     * @param coldStart the time needed to start a fresh instance.
+     * @param latency the latency of each invocation.
+     * @param bandwidth the bandwidth in bytes per time unit (0 for infinite).
+     */
+    public SimulatedResource(final String id, final int concurrency, final double coldStart,
+        final double latency, final double bandwidth) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Resource " + id + " needs a concurrency of at least 1.");
+        }
+        this.id = id;
+        this.concurrency = concurrency;
+        this.coldStart = coldStart;
+        this.latency = latency;
+        this.bandwidth = bandwidth;
+    }
+
+    /**
+     * Get the time needed to transfer data to the resource.
+     *
+     * @param bytes the size of the data.
+     *
+     * @return the transfer time.
+     */
+    public double transferTime(final long bytes) {
+        return bandwidth <= 0.0 ? 0.0 : bytes / bandwidth;
+    }
+
+    /**
+     * Getter
+     */
+
+    public String getId() {
+        return id;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public double getColdStart() {
+        return coldStart;
+    }
+
+    public double getLatency() {
+        return latency;
+    }
+
+    public double getBandwidth() {
+        return bandwidth;
+    }
+}
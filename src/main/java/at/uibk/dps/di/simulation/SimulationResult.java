@@ -0,0 +1,90 @@
+package at.uibk.dps.di.simulation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class representing the result of a {@link Simulator} run.
+ *
+ * @author Stefan Pedratscher
+ */
+public class SimulationResult {
+
+    /**
+     * The time when the last task finished.
+     */
+    private final double makespan;
+
+    /**
+     * The identifiers of the tasks on the critical path (first to last).
+     */
+    private final List<String> criticalPath;
+
+    /**
+     * The start times of the tasks by task identifier.
+     */
+    private final Map<String, Double> startTimes;
+
+    /**
+     * The finish times of the tasks by task identifier.
+     */
+    private final Map<String, Double> finishTimes;
+
+    /**
+     * The queueing statistics by resource identifier.
+     */
+    private final Map<String, ResourceStatistics> resourceStatistics;
+
+    /**
+     * Default constructor.
+     *
+     * @param makespan the time when the last task finished.
+     * @param criticalPath the tasks on the critical path.
+     * @param startTimes the start times of the tasks.
+     * @param finishTimes the finish times of the tasks.
+     * @param resourceStatistics the queueing statistics per resource.
+     */
+    public SimulationResult(final double makespan, final List<String> criticalPath,
+        final Map<String, Double> startTimes, final Map<String, Double> finishTimes,
+        final Map<String, ResourceStatistics> resourceStatistics) {
+        this.makespan = makespan;
+        this.criticalPath = Collections.unmodifiableList(criticalPath);
+        this.startTimes = Collections.unmodifiableMap(startTimes);
+        this.finishTimes = Collections.unmodifiableMap(finishTimes);
+        this.resourceStatistics = Collections.unmodifiableMap(resourceStatistics);
+    }
+
+    /**
+     * Getter
+     */
+
+    public double getMakespan() {
+        return makespan;
+    }
+
+    public List<String> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public Map<String, Double> getStartTimes() {
+        return startTimes;
+    }
+
+    public Map<String, Double> getFinishTimes() {
+        return finishTimes;
+    }
+
+    public Map<String, ResourceStatistics> getResourceStatistics() {
+        return resourceStatistics;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("Makespan: ").append(makespan).append('\n');
+        builder.append("Critical path: ").append(criticalPath).append('\n');
+        resourceStatistics.forEach((id, stats) -> builder.append(id).append(": ").append(stats).append('\n'));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,386 @@
+package at.uibk.dps.di.simulation;
+
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.storage.BlobStore;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import nu.xom.ParsingException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Discrete-event simulator replaying the enactment of an
+ * {@link EnactmentSpecification}. The specification may already be cut
+ * by the incision, i.e. contain distributed engine nodes. The cut out
+ * specification of such a node is read from its specification constant
+ * (resolving blob references and encoded payloads) and simulated
+ * recursively.
+ *
+ * Tasks are executed on the resource of their mapping (the mapping with
+ * the shortest duration if there are several). A resource runs at most
+ * {@link SimulatedResource#getConcurrency()} tasks at once, further tasks
+ * are queued in arrival order. Starting a new instance of a resource
+ * costs a cold start. Each invocation costs the latency of the resource
+ * and data crossing resources costs the transfer time of its size.
+ *
+ * @author Stefan Pedratscher
+ */
+public class Simulator {
+
+    /**
+     * The model of the resources.
+     */
+    private final ResourceModel resourceModel;
+
+    /**
+     * The store to resolve referenced specifications with (or null).
+     */
+    private final BlobStore blobStore;
+
+    /**
+     * Cache of the parsed cut out specifications by their content.
+     */
+    private final Map<String, EnactmentSpecification> subSpecifications;
+
+    /**
+     * Default constructor.
+     *
+     * @param resourceModel the model of the resources.
+     */
+    public Simulator(final ResourceModel resourceModel) {
+        this(resourceModel, null);
+    }
+
+    /**
+     * Constructor for specifications cut with a blob store.
+     *
+     * @param resourceModel the model of the resources.
+     * @param blobStore the store the cut out specifications are referenced in.
+     */
+    public Simulator(final ResourceModel resourceModel, final BlobStore blobStore) {
+        this.resourceModel = resourceModel;
+        this.blobStore = blobStore;
+        this.subSpecifications = new HashMap<>();
+    }
+
+    /**
+     * Event of the simulation.
+     */
+    private static class Event {
+        private static final int FINISH = 0;
+        private static final int ARRIVAL = 1;
+
+        private final double time;
+        private final int kind;
+        private final long sequence;
+        private final Task task;
+
+        Event(final double time, final int kind, final long sequence, final Task task) {
+            this.time = time;
+            this.kind = kind;
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+
+    /**
+     * State of a resource during the simulation.
+     */
+    private static class ResourceState {
+        private final SimulatedResource model;
+        private final Deque<Task> queue = new ArrayDeque<>();
+        private final ResourceStatistics statistics = new ResourceStatistics();
+        private int busy;
+        private int warm;
+
+        ResourceState(final SimulatedResource model) {
+            this.model = model;
+        }
+    }
+
+    /**
+     * State of a single simulation run.
+     */
+    private class Run {
+        private final EnactmentGraph eGraph;
+        private final Map<String, Long> inputSizes;
+        private final PriorityQueue<Event> events = new PriorityQueue<>(
+            Comparator.<Event>comparingDouble(e -> e.time).thenComparingInt(e -> e.kind)
+                .thenComparingLong(e -> e.sequence));
+        private final Map<String, ResourceState> resources = new HashMap<>();
+        private final Map<Task, String> resourceOfTask = new HashMap<>();
+        private final Map<Task, Double> durationOfTask = new HashMap<>();
+        private final Map<Task, Integer> remainingInputs = new HashMap<>();
+        private final Map<Task, Double> readyTimes = new HashMap<>();
+        private final Map<Task, Task> criticalPredecessor = new HashMap<>();
+        private final Map<Task, Long> dataSizes = new HashMap<>();
+        private final Map<Task, Double> dataAvailable = new HashMap<>();
+        private final Map<String, Double> startTimes = new HashMap<>();
+        private final Map<String, Double> finishTimes = new HashMap<>();
+        private long sequence;
+
+        Run(final EnactmentSpecification specification, final Map<String, Long> inputSizes) {
+            this.eGraph = specification.getEnactmentGraph();
+            this.inputSizes = inputSizes;
+
+            for (final Task task : eGraph.getVertices()) {
+                if (task instanceof Communication) {
+                    if (eGraph.getPredecessorCount(task) == 0) {
+                        dataSizes.put(task, PropertyServiceData.isConstantNode(task)
+                            ? constantSize(task) : inputSizes.getOrDefault(task.getId(), 0L));
+                        dataAvailable.put(task, 0.0);
+                    }
+                } else {
+                    final Mapping<Task, Resource> mapping = selectMapping(specification, task);
+                    resourceOfTask.put(task, mapping.getTarget().getId());
+                    durationOfTask.put(task, duration(task, mapping));
+                    remainingInputs.put(task, (int) eGraph.getPredecessors(task).stream()
+                        .filter(comm -> eGraph.getPredecessorCount(comm) > 0).count());
+                }
+            }
+        }
+
+        /**
+         * Calculate the duration of a task. The duration of a distributed
+         * engine node is the makespan of its cut out specification.
+         */
+        private double duration(final Task task, final Mapping<Task, Resource> mapping) {
+            final Task specificationNode = getSpecificationNode(eGraph, task);
+            if (specificationNode == null) {
+                return PropertyServiceScheduler.getDuration(mapping);
+            }
+            final Map<String, Long> subInputSizes = new HashMap<>();
+            eGraph.getPredecessors(task).stream()
+                .filter(comm -> !PropertyServiceData.isConstantNode(comm))
+                .forEach(comm -> subInputSizes.put(comm.getId(),
+                    inputSizes.getOrDefault(comm.getId(), 0L)));
+            return simulate(parseSubSpecification(specificationNode), subInputSizes).getMakespan();
+        }
+
+        private ResourceState stateOf(final Task task) {
+            return resources.computeIfAbsent(resourceOfTask.get(task),
+                id -> new ResourceState(resourceModel.get(id)));
+        }
+
+        private void push(final double time, final int kind, final Task task) {
+            events.add(new Event(time, kind, sequence++, task));
+        }
+
+        /**
+         * Calculate the time when all inputs of a task are available
+         * at the resource of the task.
+         */
+        private double readyTime(final Task task) {
+            final SimulatedResource model = stateOf(task).model;
+            double ready = 0.0;
+            Task critical = null;
+            for (final Task comm : eGraph.getPredecessors(task)) {
+                final Task producer = eGraph.getPredecessorCount(comm) > 0
+                    ? eGraph.getPredecessors(comm).iterator().next() : null;
+                double available = dataAvailable.getOrDefault(comm, 0.0);
+                if (producer == null || !resourceOfTask.get(producer).equals(resourceOfTask.get(task))) {
+                    available += model.transferTime(dataSizes.getOrDefault(comm, 0L));
+                }
+                if (available > ready || critical == null && producer != null && available == ready) {
+                    ready = available;
+                    critical = producer;
+                }
+            }
+            if (critical != null) {
+                criticalPredecessor.put(task, critical);
+            }
+            return ready;
+        }
+
+        private void arrive(final Task task, final double time) {
+            final ResourceState state = stateOf(task);
+            readyTimes.put(task, time);
+            if (state.busy < state.model.getConcurrency()) {
+                start(task, time);
+            } else {
+                state.queue.add(task);
+                state.statistics.recordQueueLength(state.queue.size());
+            }
+        }
+
+        private void start(final Task task, final double time) {
+            final ResourceState state = stateOf(task);
+            final boolean coldStart = state.busy >= state.warm;
+            if (coldStart) {
+                state.warm++;
+            }
+            state.busy++;
+            final double executionTime = (coldStart ? state.model.getColdStart() : 0.0)
+                + state.model.getLatency() + durationOfTask.get(task);
+            state.statistics.recordTask(time - readyTimes.get(task), executionTime, coldStart);
+            startTimes.put(task.getId(), time);
+            push(time + executionTime, Event.FINISH, task);
+        }
+
+        private void finish(final Task task, final double time) {
+            final ResourceState state = stateOf(task);
+            state.busy--;
+            finishTimes.put(task.getId(), time);
+
+            // Make the outputs available and release the consumers
+            final long outputSize = eGraph.getPredecessors(task).stream()
+                .filter(comm -> !PropertyServiceData.isConstantNode(comm))
+                .mapToLong(comm -> dataSizes.getOrDefault(comm, 0L)).max().orElse(0L);
+            for (final Task comm : eGraph.getSuccessors(task)) {
+                dataAvailable.put(comm, time);
+                dataSizes.put(comm, inputSizes.getOrDefault(comm.getId(), outputSize));
+                for (final Task consumer : eGraph.getSuccessors(comm)) {
+                    if (remainingInputs.merge(consumer, -1, Integer::sum) == 0) {
+                        push(readyTime(consumer), Event.ARRIVAL, consumer);
+                    }
+                }
+            }
+
+            // Start the next queued task on the freed slot
+            final Task next = state.queue.poll();
+            if (next != null) {
+                criticalPredecessor.put(next, task);
+                start(next, time);
+            }
+        }
+
+        SimulationResult run() {
+            remainingInputs.forEach((task, remaining) -> {
+                if (remaining == 0) {
+                    push(readyTime(task), Event.ARRIVAL, task);
+                }
+            });
+
+            while (!events.isEmpty()) {
+                final Event event = events.poll();
+                if (event.kind == Event.FINISH) {
+                    finish(event.task, event.time);
+                } else {
+                    arrive(event.task, event.time);
+                }
+            }
+
+            // Check for tasks which never became ready (e.g. cyclic dependencies)
+            final List<String> unfinished = remainingInputs.keySet().stream()
+                .map(Task::getId)
+                .filter(id -> !finishTimes.containsKey(id))
+                .collect(Collectors.toList());
+            if (!unfinished.isEmpty()) {
+                throw new IllegalStateException("Could not simulate the tasks " + unfinished);
+            }
+
+            // Follow the critical predecessors starting at the last task
+            Task last = null;
+            double makespan = 0.0;
+            for (final Task task : remainingInputs.keySet()) {
+                if (last == null || finishTimes.get(task.getId()) > makespan) {
+                    last = task;
+                    makespan = finishTimes.get(task.getId());
+                }
+            }
+            final LinkedList<String> criticalPath = new LinkedList<>();
+            for (Task current = last; current != null; current = criticalPredecessor.get(current)) {
+                criticalPath.addFirst(current.getId());
+            }
+
+            final Map<String, ResourceStatistics> statistics = new HashMap<>();
+            resources.forEach((id, state) -> statistics.put(id, state.statistics));
+            return new SimulationResult(makespan, criticalPath, startTimes, finishTimes, statistics);
+        }
+    }
+
+    /**
+     * Simulate the enactment of the given specification.
+     *
+     * @param specification the specification to simulate.
+     * @param inputSizes the sizes (in bytes) of the data of communication
+     *        nodes by their identifier. Communication nodes without entry
+     *        inherit the largest input size of the producing task.
+     *
+     * @return the result of the simulation.
+     *
+     * @throws IllegalArgumentException if a task has no mapping.
+     * @throws IllegalStateException if not all tasks could be executed.
+     */
+    public SimulationResult simulate(final EnactmentSpecification specification, final Map<String, Long> inputSizes) {
+        return new Run(specification, inputSizes).run();
+    }
+
+    /**
+     * Select the mapping of a task used during simulation.
+     *
+     * @param specification the specification containing the task.
+     * @param task the task to get the mapping for.
+     *
+     * @return the mapping with the shortest duration.
+     */
+    private Mapping<Task, Resource> selectMapping(final EnactmentSpecification specification, final Task task) {
+        final Set<Mapping<Task, Resource>> mappings = specification.getMappings().getMappings(task);
+        if (mappings.isEmpty()) {
+            throw new IllegalArgumentException("Node " + task.getId() + " has no mapping");
+        }
+        if (mappings.size() == 1 || getSpecificationNode(specification.getEnactmentGraph(), task) != null) {
+            return mappings.iterator().next();
+        }
+        return mappings.stream()
+            .min(Comparator.comparingDouble(PropertyServiceScheduler::getDuration))
+            .get();
+    }
+
+    /**
+     * Get the specification constant of a distributed engine node.
+     *
+     * @param eGraph the graph containing the task.
+     * @param task the task to check.
+     *
+     * @return the specification constant or null if the task is no
+     *         distributed engine node.
+     */
+    private Task getSpecificationNode(final EnactmentGraph eGraph, final Task task) {
+        final String specificationId = "Constant/" + Utility.SPECIFICATION + "_" + task.getId();
+        for (final Task comm : eGraph.getPredecessors(task)) {
+            if (comm.getId().equals(specificationId) && PropertyServiceData.isConstantNode(comm)) {
+                return comm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse the cut out specification of a specification constant.
+     *
+     * @param specificationNode the specification constant.
+     *
+     * @return the parsed specification.
+     */
+    private EnactmentSpecification parseSubSpecification(final Task specificationNode) {
+        final String content = PropertyServiceData.getContent(specificationNode).getAsString();
+        return subSpecifications.computeIfAbsent(content, key -> {
+            try {
+                return Utility.fromStringToEnactmentSpecification(Utility.resolveSpecification(key, blobStore));
+            } catch (ParsingException | IOException e) {
+                throw new IllegalArgumentException("Could not parse specification of " + specificationNode.getId(), e);
+            }
+        });
+    }
+
+    /**
+     * Get the size (in bytes) of the content of a constant node.
+     *
+     * @param constant the constant node.
+     *
+     * @return the size of the content.
+     */
+    private static long constantSize(final Task constant) {
+        return PropertyServiceData.getContent(constant).toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Package for the simulation of (cut) workflows.
+ */
+package at.uibk.dps.di.simulation;
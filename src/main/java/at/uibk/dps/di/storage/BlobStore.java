@@ -0,0 +1,116 @@
+package at.uibk.dps.di.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content-addressed store of immutable blobs. Blobs are stored under the
+ * SHA-256 hash of their content, so equal blobs are stored once and a key
+ * always refers to the same content.
+ *
+ * @author Stefan Pedratscher
+ */
+public interface BlobStore {
+
+    /**
+     * Prefix of the references to blobs (e.g. in constant nodes).
+     */
+    String REFERENCE_PREFIX = "blob:sha256:";
+
+    /**
+     * Store a blob (if it is not stored yet).
+     *
+     * @param content the content of the blob.
+     *
+     * @return the key of the blob.
+     */
+    String put(byte[] content);
+
+    /**
+     * Get a blob.
+     *
+     * @param key the key of the blob.
+     *
+     * @return the content of the blob.
+     *
+     * @throws IllegalArgumentException if there is no blob with the given key.
+     */
+    byte[] get(String key);
+
+    /**
+     * Check if a blob is stored.
+     *
+     * @param key the key of the blob.
+     *
+     * @return true if the blob is stored.
+     */
+    boolean contains(String key);
+
+    /**
+     * Create the reference to a blob.
+     *
+     * @param key the key of the blob.
+     *
+     * @return the reference.
+     */
+    static String reference(final String key) {
+        return REFERENCE_PREFIX + key;
+    }
+
+    /**
+     * Check if a string is a reference to a blob.
+     *
+     * @param value the string to check.
+     *
+     * @return true if the string is a reference.
+     */
+    static boolean isReference(final String value) {
+        return value != null && value.startsWith(REFERENCE_PREFIX);
+    }
+
+    /**
+     * Get the key of a reference.
+     *
+     * @param reference the reference.
+     *
+     * @return the key of the referenced blob.
+     */
+    static String keyOf(final String reference) {
+        if (!isReference(reference)) {
+            throw new IllegalArgumentException("Not a blob reference: " + reference);
+        }
+        return reference.substring(REFERENCE_PREFIX.length());
+    }
+
+    /**
+     * Calculate the key of a content.
+     *
+     * @param content the content.
+     *
+     * @return the hex encoded SHA-256 hash of the content.
+     */
+    static String key(final byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            final StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Store a string blob (UTF-8).
+     *
+     * @param content the content of the blob.
+     *
+     * @return the key of the blob.
+     */
+    default String put(final String content) {
+        return put(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,192 @@
+package at.uibk.dps.di.storage;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.sf.opendse.model.Dependency;
+import net.sf.opendse.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data plane for the values crossing the boundary of a cut (the input and
+ * output of a distributed engine node). Values of communication nodes marked
+ * as by-reference (see {@link PropertyServiceScheduler#isByReference}) which
+ * exceed a size threshold are put into a {@link BlobStore} and replaced by a
+ * handle {@code {"$ref": "blob:sha256:<key>"}}, so large data does not pass
+ * through the orchestrator. The stored values are encoded with the
+ * negotiated {@link PayloadCodec}.
+ *
+ * @author Stefan Pedratscher
+ */
+public class BoundaryDataPlane {
+
+    /**
+     * Member name of a handle.
+     */
+    public static final String REFERENCE = "$ref";
+
+    /**
+     * The store for the values passed by reference.
+     */
+    private final BlobStore blobStore;
+
+    /**
+     * The minimal size (in bytes of the serialized value) of a value passed by
+     * reference.
+     */
+    private final int threshold;
+
+    /**
+     * The codec of the stored values.
+     */
+    private final PayloadCodec codec;
+
+    /**
+     * Default constructor (stored values are not encoded).
+     *
+     * @param blobStore the store for the values passed by reference.
+     * @param threshold the minimal size (in bytes) of a value passed by reference.
+     */
+    public BoundaryDataPlane(final BlobStore blobStore, final int threshold) {
+        this(blobStore, threshold, PayloadCodec.IDENTITY);
+    }
+
+    /**
+     * Constructor encoding the stored values with the given codec.
+     *
+     * @param blobStore the store for the values passed by reference.
+     * @param threshold the minimal size (in bytes) of a value passed by reference.
+     * @param codec the codec of the stored values.
+     */
+    public BoundaryDataPlane(final BlobStore blobStore, final int threshold, final PayloadCodec codec) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        this.blobStore = blobStore;
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    /**
+     * Get the json keys of the by-reference values entering a distributed
+     * engine node.
+     *
+     * @param eGraph the enactment graph containing the node.
+     * @param engineNode the distributed engine node.
+     *
+     * @return the json keys of the input values passed by reference.
+     */
+    public static Set<String> inputReferenceKeys(final EnactmentGraph eGraph, final Task engineNode) {
+        final Set<String> keys = new HashSet<>();
+        for (Dependency edge : eGraph.getInEdges(engineNode)) {
+            if (PropertyServiceScheduler.isByReference(eGraph.getSource(edge))) {
+                keys.add(PropertyServiceDependency.getJsonKey(edge));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Get the json keys of the by-reference values leaving a distributed
+     * engine node.
+     *
+     * @param eGraph the enactment graph containing the node.
+     * @param engineNode the distributed engine node.
+     *
+     * @return the json keys of the output values passed by reference.
+     */
+    public static Set<String> outputReferenceKeys(final EnactmentGraph eGraph, final Task engineNode) {
+        final Set<String> keys = new HashSet<>();
+        for (Dependency edge : eGraph.getOutEdges(engineNode)) {
+            if (PropertyServiceScheduler.isByReference(eGraph.getDest(edge))) {
+                keys.add(PropertyServiceDependency.getJsonKey(edge));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Replace the large values of the given keys by handles.
+     *
+     * @param values the values (e.g. the input of a distributed engine).
+     * @param keys the keys of the values which may be passed by reference.
+     *
+     * @return the values with handles for the large values.
+     */
+    public JsonObject encode(final JsonObject values, final Set<String> keys) {
+        final JsonObject result = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : values.entrySet()) {
+            result.add(entry.getKey(), keys.contains(entry.getKey()) ? encode(entry.getValue()) : entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Replace a value by a handle if it exceeds the threshold.
+     *
+     * @param value the value.
+     *
+     * @return the handle or the value itself.
+     */
+    public JsonElement encode(final JsonElement value) {
+        final String serialized = value.toString();
+        if (serialized.getBytes(StandardCharsets.UTF_8).length < threshold) {
+            return value;
+        }
+        final JsonObject handle = new JsonObject();
+        handle.addProperty(REFERENCE, BlobStore.reference(blobStore.put(codec.encodeBlob(serialized))));
+        return handle;
+    }
+
+    /**
+     * Resolve all handles of the given values.
+     *
+     * @param values the values possibly containing handles.
+     *
+     * @return the values with the handles resolved.
+     */
+    public JsonObject decode(final JsonObject values) {
+        final JsonObject result = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : values.entrySet()) {
+            result.add(entry.getKey(), decode(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Resolve a handle.
+     *
+     * @param value the handle or a plain value.
+     *
+     * @return the referenced value or the value itself.
+     */
+    public JsonElement decode(final JsonElement value) {
+        if (!isHandle(value)) {
+            return value;
+        }
+        final String key = BlobStore.keyOf(value.getAsJsonObject().get(REFERENCE).getAsString());
+        return JsonParser.parseString(PayloadCodec.decodeBlob(blobStore.get(key)));
+    }
+
+    /**
+     * Check if a value is a handle.
+     *
+     * @param value the value to check.
+     *
+     * @return true if the value is a handle.
+     */
+    public static boolean isHandle(final JsonElement value) {
+        if (!value.isJsonObject() || value.getAsJsonObject().size() != 1) {
+            return false;
+        }
+        final JsonElement reference = value.getAsJsonObject().get(REFERENCE);
+        return reference != null && reference.isJsonPrimitive() && BlobStore.isReference(reference.getAsString());
+    }
+}
@@ -0,0 +1,95 @@
+package at.uibk.dps.di.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} in a local directory (e.g. a shared file system or a
+ * stand-in for an object store). Each blob is written once to
+ * {@code <directory>/<first two hex digits>/<key>}; blobs are written to a
+ * temporary file first and moved into place atomically, so readers never see
+ * partial blobs.
+ *
+ * @author Stefan Pedratscher
+ */
+public class LocalFileBlobStore implements BlobStore {
+
+    /**
+     * Valid keys (hex encoded SHA-256 hashes).
+     */
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * The directory of the blobs.
+     */
+    private final Path directory;
+
+    /**
+     * Default constructor.
+     *
+     * @param directory the directory of the blobs.
+     */
+    public LocalFileBlobStore(final Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String put(final byte[] content) {
+        final String key = BlobStore.key(content);
+        final Path path = path(key);
+        if (Files.exists(path)) {
+            return key;
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            final Path tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+            try {
+                Files.write(tmp, content);
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Written concurrently with the same content
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return key;
+    }
+
+    @Override
+    public byte[] get(final String key) {
+        try {
+            return Files.readAllBytes(path(key));
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Unknown blob " + key, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean contains(final String key) {
+        return Files.exists(path(key));
+    }
+
+    /**
+     * Get the path of a blob.
+     *
+     * @param key the key of the blob.
+     *
+     * @return the path of the blob.
+     */
+    private Path path(final String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key " + key);
+        }
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+}
@@ -0,0 +1,247 @@
+package at.uibk.dps.di.storage;
+
+import at.uibk.dps.di.metrics.Histogram;
+import at.uibk.dps.di.metrics.MetricsRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codecs for the payloads crossing the distributed engine node (the
+ * specification constant and the boundary values). Encoded payloads are
+ * self-describing: they start with {@code codec:<name>:} followed by the
+ * encoded content, so they can be decoded without knowing the negotiated
+ * codec. Payloads embedded in constants and json values carry the content
+ * base64 encoded ({@link #encodeString}), payloads stored in a
+ * {@link BlobStore} carry the raw bytes ({@link #encodeBlob}).
+ *
+ * @author Stefan Pedratscher
+ */
+public enum PayloadCodec {
+
+    /**
+     * Payloads are sent as they are.
+     */
+    IDENTITY {
+        @Override
+        public byte[] encode(final byte[] content) {
+            return content;
+        }
+
+        @Override
+        public byte[] decode(final byte[] content) {
+            return content;
+        }
+
+        @Override
+        public String encodeString(final String content) {
+            return content;
+        }
+    },
+
+    /**
+     * Payloads are compressed with deflate (best compression).
+     */
+    DEFLATE {
+        @Override
+        public byte[] encode(final byte[] content) {
+            final long start = MetricsRegistry.getDefault().start();
+            final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setInput(content);
+                deflater.finish();
+                final ByteArrayOutputStream stream = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                while (!deflater.finished()) {
+                    stream.write(buffer, 0, deflater.deflate(buffer));
+                }
+                ENCODE_TIME.recordSince(start);
+                RAW_BYTES.record(content.length);
+                ENCODED_BYTES.record(stream.size());
+                return stream.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decode(final byte[] content) {
+            final long start = MetricsRegistry.getDefault().start();
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(content);
+                final ByteArrayOutputStream stream = new ByteArrayOutputStream(content.length * 4);
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                while (!inflater.finished()) {
+                    final int length = inflater.inflate(buffer);
+                    if (length == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalArgumentException("Truncated deflate payload");
+                    }
+                    stream.write(buffer, 0, length);
+                }
+                DECODE_TIME.recordSince(start);
+                return stream.toByteArray();
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Invalid deflate payload", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    /**
+     * Prefix of encoded payloads.
+     */
+    public static final String PREFIX = "codec:";
+
+    /**
+     * Size of the buffers used for (de-)compression.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Metrics of the encoding and decoding.
+     */
+    private static final Histogram ENCODE_TIME = MetricsRegistry.getDefault().histogram("codec_encode_nanos");
+    private static final Histogram DECODE_TIME = MetricsRegistry.getDefault().histogram("codec_decode_nanos");
+    private static final Histogram RAW_BYTES = MetricsRegistry.getDefault().histogram("codec_raw_bytes");
+    private static final Histogram ENCODED_BYTES = MetricsRegistry.getDefault().histogram("codec_encoded_bytes");
+
+    /**
+     * Encode a payload.
+     *
+     * @param content the payload.
+     *
+     * @return the encoded payload.
+     */
+    public abstract byte[] encode(byte[] content);
+
+    /**
+     * Decode a payload.
+     *
+     * @param content the encoded payload.
+     *
+     * @return the payload.
+     *
+     * @throws IllegalArgumentException if the payload is malformed.
+     */
+    public abstract byte[] decode(byte[] content);
+
+    /**
+     * Get the name of the codec (as used in the configuration and in the
+     * prefix of encoded payloads).
+     *
+     * @return the name of the codec.
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Encode a string payload to a self-describing string.
+     *
+     * @param content the payload.
+     *
+     * @return the encoded payload.
+     */
+    public String encodeString(final String content) {
+        return PREFIX + getName() + ":"
+            + Base64.getEncoder().encodeToString(encode(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Encode a string payload to self-describing bytes (for a
+     * {@link BlobStore}).
+     *
+     * @param content the payload.
+     *
+     * @return the encoded payload.
+     */
+    public byte[] encodeBlob(final String content) {
+        final byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (this == IDENTITY) {
+            return raw;
+        }
+        final byte[] header = (PREFIX + getName() + ":").getBytes(StandardCharsets.US_ASCII);
+        final byte[] encoded = encode(raw);
+        final byte[] result = Arrays.copyOf(header, header.length + encoded.length);
+        System.arraycopy(encoded, 0, result, header.length, encoded.length);
+        return result;
+    }
+
+    /**
+     * Decode a payload of a {@link BlobStore} encoded with any codec.
+     * Payloads without prefix are returned as they are.
+     *
+     * @param content the (possibly) encoded payload.
+     *
+     * @return the payload.
+     *
+     * @throws IllegalArgumentException if the payload is malformed.
+     */
+    public static String decodeBlob(final byte[] content) {
+        final byte[] prefix = PREFIX.getBytes(StandardCharsets.US_ASCII);
+        if (content.length < prefix.length
+            || !Arrays.equals(content, 0, prefix.length, prefix, 0, prefix.length)) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+        int separator = prefix.length;
+        while (separator < content.length && content[separator] != ':') {
+            separator++;
+        }
+        if (separator == content.length) {
+            throw new IllegalArgumentException("Missing codec name in payload");
+        }
+        final PayloadCodec codec = fromName(new String(content, prefix.length, separator - prefix.length,
+            StandardCharsets.US_ASCII));
+        final byte[] decoded = codec.decode(Arrays.copyOfRange(content, separator + 1, content.length));
+        return new String(decoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode a string payload encoded with any codec. Payloads without
+     * prefix are returned as they are.
+     *
+     * @param content the (possibly) encoded payload.
+     *
+     * @return the payload.
+     *
+     * @throws IllegalArgumentException if the payload is malformed.
+     */
+    public static String decodeString(final String content) {
+        if (!content.startsWith(PREFIX)) {
+            return content;
+        }
+        final int separator = content.indexOf(':', PREFIX.length());
+        if (separator < 0) {
+            throw new IllegalArgumentException("Missing codec name in payload");
+        }
+        final PayloadCodec codec = fromName(content.substring(PREFIX.length(), separator));
+        final byte[] encoded = Base64.getDecoder().decode(content.substring(separator + 1));
+        return new String(codec.decode(encoded), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get a codec by its name.
+     *
+     * @param name the name of the codec.
+     *
+     * @return the codec.
+     *
+     * @throws IllegalArgumentException if there is no codec with the given name.
+     */
+    public static PayloadCodec fromName(final String name) {
+        for (PayloadCodec codec : values()) {
+            if (codec.getName().equals(name)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown codec " + name);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Package for content-addressed storage.
+ */
+package at.uibk.dps.di.storage;
@@ -0,0 +1,73 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test the execution time model of JIT-C.
+ *
+ * @author Stefan Pedratscher
+ */
+public class ExecutionTimeModelTest {
+
+    private void map(MappingsConcurrent mappings, Task task, Resource resource, double duration) {
+        Mapping<Task, Resource> mapping = PropertyServiceMapping.createMapping(task, resource,
+            PropertyServiceMapping.EnactmentMode.Serverless, resource.getId());
+        PropertyServiceScheduler.setDuration(mapping, duration);
+        mappings.addMapping(mapping);
+    }
+
+    /**
+     * Check the execution times read from the mappings and the execution
+     * times of a merged task.
+     */
+    @Test
+    void testExecutionTimes() {
+        EnactmentGraph eGraph = new EnactmentGraph();
+        Task t1 = PropertyServiceFunctionUser.createUserTask("t1", "noop");
+        Task t2 = PropertyServiceFunctionUser.createUserTask("t2", "noop");
+        PropertyServiceDependency.addDataDependency(t1, new Communication("c"), "out", eGraph);
+        PropertyServiceDependency.addDataDependency(eGraph.getVertex("c"), t2, "in", eGraph);
+        Resource fast = new Resource("fast");
+        Resource slow = new Resource("slow");
+        ResourceGraph rGraph = new ResourceGraph();
+        rGraph.addVertex(fast);
+        rGraph.addVertex(slow);
+        MappingsConcurrent mappings = new MappingsConcurrent();
+        map(mappings, t1, fast, 100.0);
+        map(mappings, t1, slow, 300.0);
+        map(mappings, t2, slow, 50.0);
+
+        ExecutionTimeModel model = new ExecutionTimeModel(new EnactmentSpecification(eGraph, rGraph, mappings,
+            UUID.randomUUID().toString()));
+        assertEquals(100.0, model.get(t1, fast), 1e-9);
+        assertEquals(300.0, model.get(t1, slow), 1e-9);
+        assertEquals(0.0, model.get(t2, fast), 1e-9);
+        assertEquals(0.0, model.get(t1, new Resource("unknown")), 1e-9);
+        assertEquals(100.0, model.getMinimum(t1), 1e-9);
+        assertEquals(50.0, model.getMinimum(t2), 1e-9);
+        assertEquals(Double.MAX_VALUE, model.getMinimum(new Task("unknown")));
+
+        Task merged = new Task("t1+t2");
+        model.merge(merged, t1, t2);
+        assertEquals(100.0, model.get(merged, fast), 1e-9);
+        assertEquals(350.0, model.get(merged, slow), 1e-9);
+        assertEquals(150.0, model.getMinimum(merged), 1e-9);
+        assertEquals(100.0, model.get(t1, fast), 1e-9);
+    }
+}
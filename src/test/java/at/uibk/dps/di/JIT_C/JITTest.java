@@ -0,0 +1,153 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceBilling;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the event-driven scheduling mode of JIT-C.
+ *
+ * @author Stefan Pedratscher
+ */
+public class JITTest {
+
+    /**
+     * Create a diamond shaped workflow t1 -> (t2, t3) -> t4 which can be
+     * executed on a small and a medium VM.
+     *
+     * @return the specification of the workflow.
+     */
+    private EnactmentSpecification createSpecification() {
+        EnactmentGraph eGraph = new EnactmentGraph();
+        Task input = new Communication("input");
+        Task output = new Communication("output");
+        Task t1 = PropertyServiceFunctionUser.createUserTask("t1", "noop");
+        Task t2 = PropertyServiceFunctionUser.createUserTask("t2", "noop");
+        Task t3 = PropertyServiceFunctionUser.createUserTask("t3", "noop");
+        Task t4 = PropertyServiceFunctionUser.createUserTask("t4", "noop");
+        Task c1 = new Communication("c1");
+        Task c2 = new Communication("c2");
+        Task c3 = new Communication("c3");
+        PropertyServiceDependency.addDataDependency(input, t1, "in", eGraph);
+        PropertyServiceDependency.addDataDependency(t1, c1, "out", eGraph);
+        PropertyServiceDependency.addDataDependency(c1, t2, "in", eGraph);
+        PropertyServiceDependency.addDataDependency(c1, t3, "in", eGraph);
+        PropertyServiceDependency.addDataDependency(t2, c2, "out", eGraph);
+        PropertyServiceDependency.addDataDependency(t3, c3, "out", eGraph);
+        PropertyServiceDependency.addDataDependency(c2, t4, "in2", eGraph);
+        PropertyServiceDependency.addDataDependency(c3, t4, "in3", eGraph);
+        PropertyServiceDependency.addDataDependency(t4, output, "out", eGraph);
+        PropertyServiceData.makeRoot(input);
+        PropertyServiceData.makeLeaf(output);
+
+        ResourceGraph rGraph = new ResourceGraph();
+        Resource small = createResource("Vs", 0.01);
+        Resource medium = createResource("Vm", 0.02);
+        rGraph.addVertex(small);
+        rGraph.addVertex(medium);
+        MappingsConcurrent mappings = new MappingsConcurrent();
+        for (Task task : Arrays.asList(t1, t2, t3, t4)) {
+            map(mappings, task, small, 2.0);
+            map(mappings, task, medium, 1.0);
+        }
+        return new EnactmentSpecification(eGraph, rGraph, mappings, UUID.randomUUID().toString());
+    }
+
+    private Resource createResource(String id, double price) {
+        Resource resource = new Resource(id);
+        PropertyServiceBilling.setBillingType(resource, PropertyServiceBilling.BillingType.Interval);
+        PropertyServiceBilling.setPrice(resource, price);
+        return resource;
+    }
+
+    private void map(MappingsConcurrent mappings, Task task, Resource resource, double duration) {
+        Mapping<Task, Resource> mapping = PropertyServiceMapping.createMapping(task, resource,
+            PropertyServiceMapping.EnactmentMode.Local, resource.getId());
+        PropertyServiceScheduler.setDuration(mapping, duration);
+        mappings.addMapping(mapping);
+    }
+
+    private Set<String> ids(List<Schedule> schedules) {
+        return schedules.stream().map(schedule -> schedule.getTask().getId()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Check the payload of a published schedule.
+     */
+    private void checkSchedule(Schedule schedule, double notBefore) {
+        assertNotNull(schedule.getVm());
+        assertNotNull(schedule.getInstance());
+        assertTrue(schedule.getXst() >= notBefore);
+        assertTrue(schedule.getXft() > schedule.getXst());
+    }
+
+    /**
+     * Check that tasks are published once all their parents completed and
+     * that the actual finish times are used for the published schedules.
+     */
+    @Test
+    void testPublicationOrder() {
+        JIT jit = new JIT();
+
+        List<Schedule> entry = jit.start(createSpecification(), 100.0);
+        assertEquals(new HashSet<>(Arrays.asList("t1")), ids(entry));
+        checkSchedule(entry.get(0), 1.0);
+        assertFalse(jit.isFinished());
+
+        // t1 finishes later than expected, its children start after it
+        List<Schedule> children = jit.onTaskFinished(entry.get(0).getTask(), 10.0);
+        assertEquals(new HashSet<>(Arrays.asList("t2", "t3")), ids(children));
+        children.forEach(schedule -> checkSchedule(schedule, 10.0));
+
+        // t4 is published once both parents completed
+        Schedule t2 = children.stream().filter(s -> s.getTask().getId().equals("t2")).findFirst().get();
+        Schedule t3 = children.stream().filter(s -> s.getTask().getId().equals("t3")).findFirst().get();
+        assertTrue(jit.onTaskFinished(t2.getTask(), 12.0).isEmpty());
+        List<Schedule> exit = jit.onTaskFinished(t3.getTask(), 15.0);
+        assertEquals(new HashSet<>(Arrays.asList("t4")), ids(exit));
+        checkSchedule(exit.get(0), 15.0);
+
+        // Repeated completions publish nothing
+        assertTrue(jit.onTaskFinished(t3.getTask(), 16.0).isEmpty());
+        assertFalse(jit.isFinished());
+
+        assertTrue(jit.onTaskFinished(exit.get(0).getTask(), 18.0).isEmpty());
+        assertTrue(jit.isFinished());
+    }
+
+    /**
+     * Check that nothing is published for a deadline below the minimum
+     * execution time of the workflow or for unknown tasks.
+     */
+    @Test
+    void testNothingPublished() {
+        JIT jit = new JIT();
+        assertTrue(jit.start(createSpecification(), 0.5).isEmpty());
+        assertFalse(jit.isFinished());
+        assertTrue(new JIT().onTaskFinished(new Task("t1"), 1.0).isEmpty());
+    }
+}
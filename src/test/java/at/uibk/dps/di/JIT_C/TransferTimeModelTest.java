@@ -0,0 +1,111 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test the transfer time model of JIT-C.
+ *
+ * @author Stefan Pedratscher
+ */
+public class TransferTimeModelTest {
+
+    /**
+     * Check the transfer times derived from the data sizes and the transfer
+     * times of the dependencies.
+     *
+     * Graphical representation of the {@link EnactmentGraph}:
+     *
+     *    t1
+     *    |
+     *   c1 (100 bytes)
+     *    |
+     *    t2
+     *    |
+     *   c2 (transfer time 3 on the outgoing dependency)
+     *    |
+     *    t3
+     */
+    @Test
+    void testFromGraph() {
+        EnactmentGraph eGraph = new EnactmentGraph();
+        Task t1 = PropertyServiceFunctionUser.createUserTask("t1", "noop");
+        Task t2 = PropertyServiceFunctionUser.createUserTask("t2", "noop");
+        Task t3 = PropertyServiceFunctionUser.createUserTask("t3", "noop");
+        Task c1 = new Communication("c1");
+        Task c2 = new Communication("c2");
+        PropertyServiceScheduler.setDataSize(c1, 100L);
+        PropertyServiceScheduler.setDataSize(c2, 100L);
+        PropertyServiceDependency.addDataDependency(t1, c1, "out", eGraph);
+        PropertyServiceDependency.addDataDependency(c1, t2, "in", eGraph);
+        PropertyServiceDependency.addDataDependency(t2, c2, "out", eGraph);
+        PropertyServiceScheduler.setTransferTime(PropertyServiceDependency.addDataDependency(c2, t3, "in", eGraph), 3.0);
+
+        TransferTimeModel model = new TransferTimeModel(eGraph, 10.0);
+        assertEquals(10.0, model.get(t1, t2), 1e-9);
+        assertEquals(10.0, model.get(t2, t1), 1e-9);
+        assertEquals(3.0, model.get(t2, t3), 1e-9);
+        assertEquals(0.0, model.get(t1, t3), 1e-9);
+
+        // Data sizes are ignored without bandwidth
+        TransferTimeModel noBandwidth = new TransferTimeModel(eGraph, 0.0);
+        assertEquals(0.0, noBandwidth.get(t1, t2), 1e-9);
+        assertEquals(3.0, noBandwidth.get(t2, t3), 1e-9);
+    }
+
+    /**
+     * Check the transfer times before and after setting and merging tasks.
+     */
+    @Test
+    void testSetAndMerge() {
+        TransferTimeModel model = new TransferTimeModel(new EnactmentGraph(), 1.0);
+        Task tp = new Task("tp");
+        Task tc = new Task("tc");
+        Task before = new Task("before");
+        Task after = new Task("after");
+        assertEquals(0.0, model.get(tp, tc), 1e-9);
+
+        model.set(before, tp, 2.0);
+        model.set(tp, tc, 4.0);
+        model.set(tc, after, 5.0);
+        model.set(tc, before, 1.0);
+        assertEquals(4.0, model.get(tc, tp), 1e-9);
+        model.set(tc, tp, 6.0);
+        assertEquals(6.0, model.get(tp, tc), 1e-9);
+
+        Task merged = new Task("tp+tc");
+        model.merge(merged, tp, tc, Arrays.asList(before, after));
+        assertEquals(3.0, model.get(before, merged), 1e-9);
+        assertEquals(5.0, model.get(merged, after), 1e-9);
+        assertEquals(0.0, model.get(merged, new Task("other")), 1e-9);
+    }
+
+    /**
+     * Check a task with many partners.
+     */
+    @Test
+    void testManyPartners() {
+        TransferTimeModel model = new TransferTimeModel(new EnactmentGraph(), 1.0);
+        Task hub = new Task("hub");
+        List<Task> partners = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            Task partner = new Task("p" + i);
+            partners.add(partner);
+            model.set(partner, hub, i);
+        }
+        for (int i = 0; i < partners.size(); i++) {
+            assertEquals(i, model.get(hub, partners.get(i)), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceBilling;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the billing models and the VM lifecycle manager of JIT-C.
+ *
+ * @author Stefan Pedratscher
+ */
+public class VMLifecycleManagerTest {
+
+    private Resource createResource(String id, PropertyServiceBilling.BillingType type, double price) {
+        Resource resource = new Resource(id);
+        PropertyServiceBilling.setBillingType(resource, type);
+        PropertyServiceBilling.setPrice(resource, price);
+        return resource;
+    }
+
+    @Test
+    void testIntervalBilling() {
+        Resource vm = createResource("Vm", PropertyServiceBilling.BillingType.Interval, 0.02);
+        BillingModel billing = BillingModel.of(vm, 10.0, 60.0);
+
+        assertEquals(10.0, billing.getChargingLimit(0.0));
+        assertEquals(20.0, billing.getChargingLimit(12.0));
+        assertEquals(0.04, billing.cost(12.0, 5.0), 1e-9);
+        assertEquals(0.02, billing.cost(10.0, 5.0), 1e-9);
+        assertEquals(0.01, billing.estimate(5.0), 1e-9);
+    }
+
+    @Test
+    void testSecondAndServerlessBilling() {
+        BillingModel second = BillingModel.of(
+            createResource("s", PropertyServiceBilling.BillingType.Second, 0.001), 10.0, 60.0);
+        assertEquals(0.06, second.cost(1.0, 0.5), 1e-9);
+
+        Resource function = createResource("f", PropertyServiceBilling.BillingType.Serverless, 0.0000166667);
+        PropertyServiceBilling.setMemory(function, 2.0);
+        BillingModel serverless = BillingModel.of(function, 10.0, 60.0);
+        assertEquals(Double.MAX_VALUE, serverless.getChargingLimit(100.0));
+        assertEquals(2.0 * 60.0 * 0.0000166667, serverless.cost(100.0, 1.0), 1e-12);
+    }
+
+    @Test
+    void testMissingBillingType() {
+        assertThrows(IllegalArgumentException.class, () -> BillingModel.of(new Resource("Vx"), 10.0, 60.0));
+    }
+
+    @Test
+    void testDeprovisionIdleTimeout() {
+        Resource vm = createResource("Vs", PropertyServiceBilling.BillingType.Interval, 0.01);
+        VMPool pool = new VMPool();
+        VMLifecycleManager lifecycle = new VMLifecycleManager(pool, new IdleTimeoutPolicy(5.0), 10.0, 60.0);
+        lifecycle.provision(new VMPoolEntry("v1", vm, 0.0, 8.0, null));
+        lifecycle.provision(new VMPoolEntry("v2", vm, 0.0, 20.0, null));
+        lifecycle.assign("v1", new Task("t1"), 8.0, 7.0);
+        lifecycle.assign("v2", new Task("t2"), 20.0, 19.0);
+
+        // The timeout of v1 expires at 13, the paid interval ends at 20
+        assertTrue(lifecycle.deprovisionIdle(13.0).isEmpty());
+        List<VMPoolEntry> released = lifecycle.deprovisionIdle(20.0);
+        assertEquals(1, released.size());
+        assertEquals("v1", released.get(0).getId());
+        assertEquals(20.0, released.get(0).getEndTime());
+        assertEquals(1, pool.size());
+
+        List<InstanceMetrics> metrics = lifecycle.getMetrics();
+        assertEquals(2, metrics.size());
+        assertEquals(0.02, metrics.get(0).getCost(), 1e-9);
+        assertEquals(7.0 / 20.0, metrics.get(0).getUtilisation(), 1e-9);
+        assertEquals(1, metrics.get(0).getTasks());
+    }
+
+    @Test
+    void testIdleTimeoutRoundedToBilling() {
+        IdleTimeoutPolicy policy = new IdleTimeoutPolicy(5.0);
+        VMPoolEntry entry = new VMPoolEntry("v1", new Resource("Vs"), 2.0, 8.0, null);
+
+        Resource interval = createResource("Vi", PropertyServiceBilling.BillingType.Interval, 0.01);
+        assertEquals(22.0, policy.getReleaseTime(entry, BillingModel.of(interval, 10.0, 60.0)), 1e-9);
+        assertEquals(13.0, policy.getReleaseTime(entry, BillingModel.of(interval, 1.0, 60.0)), 1e-9);
+
+        Resource second = createResource("Vsec", PropertyServiceBilling.BillingType.Second, 0.001);
+        assertEquals(13.0, policy.getReleaseTime(entry, BillingModel.of(second, 10.0, 60.0)), 1e-9);
+        VMPoolEntry fraction = new VMPoolEntry("v2", new Resource("Vs"), 2.0, 8.005, null);
+        assertEquals(13.0 + 1.0 / 60.0, policy.getReleaseTime(fraction, BillingModel.of(second, 10.0, 60.0)), 1e-9);
+
+        Resource function = createResource("f", PropertyServiceBilling.BillingType.Serverless, 0.0000166667);
+        PropertyServiceBilling.setMemory(function, 1.0);
+        assertEquals(13.0, policy.getReleaseTime(entry, BillingModel.of(function, 10.0, 60.0)), 1e-9);
+
+        assertEquals(Double.POSITIVE_INFINITY, new IdleTimeoutPolicy(Double.POSITIVE_INFINITY)
+            .getReleaseTime(entry, BillingModel.of(interval, 10.0, 60.0)));
+    }
+}
@@ -0,0 +1,125 @@
+package at.uibk.dps.di.JIT_C;
+
+import at.uibk.dps.di.properties.PropertyServiceBilling;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the indexed VM pool of JIT-C.
+ *
+ * @author Stefan Pedratscher
+ */
+public class VMPoolTest {
+
+    private Resource createResource(String id) {
+        Resource resource = new Resource(id);
+        PropertyServiceBilling.setBillingType(resource, PropertyServiceBilling.BillingType.Interval);
+        PropertyServiceBilling.setPrice(resource, 0.01);
+        return resource;
+    }
+
+    @Test
+    void testIndexes() {
+        Resource small = new Resource("Vs");
+        Resource large = new Resource("Vl");
+        VMPool pool = new VMPool();
+        VMPoolEntry v1 = new VMPoolEntry("v1", small, 0.0, 8.0, null);
+        VMPoolEntry v2 = new VMPoolEntry("v2", large, 0.0, 4.0, null);
+        VMPoolEntry v3 = new VMPoolEntry("v3", small, 0.0, null, null);
+        pool.add(v1);
+        pool.add(v2);
+        pool.add(v3);
+
+        assertEquals(3, pool.size());
+        assertSame(v2, pool.get("v2"));
+        assertNull(pool.get("v4"));
+        assertEquals(Arrays.asList(v1, v2, v3), Arrays.asList(pool.getEntries().toArray()));
+        assertEquals(Arrays.asList(v1, v3), pool.getEntries(small));
+        assertEquals(Collections.singletonList(v2), pool.getEntries(large));
+
+        // Ordered by expected idle start time, unknown idle start times are never idle
+        assertEquals(Arrays.asList(v2, v1), pool.getIdleEntries(10.0));
+        assertEquals(Collections.singletonList(v2), pool.getIdleEntries(5.0));
+        pool.setExpectedIdleStartTime(v2, 12.0);
+        assertEquals(Collections.singletonList(v1), pool.getIdleEntries(10.0));
+
+        pool.remove(v1);
+        assertNull(pool.get("v1"));
+        assertEquals(Collections.singletonList(v3), pool.getEntries(small));
+        assertTrue(pool.getIdleEntries(10.0).isEmpty());
+    }
+
+    @Test
+    void testLastTask() {
+        VMPool pool = new VMPool();
+        VMPoolEntry entry = new VMPoolEntry("v1", new Resource("Vs"), 0.0, 8.0, null);
+        pool.add(entry);
+        Task first = new Task("t1");
+        Task second = new Task("t2");
+
+        pool.assign("v1", first, 8.0);
+        pool.assign("v1", second, 6.0);
+        assertSame(first, entry.getLastTask());
+        assertEquals(8.0, entry.getLastTaskFinishTime());
+        pool.assign("v1", second, 9.0);
+        assertSame(second, entry.getLastTask());
+        pool.assign("v2", first, 10.0);
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testReuseWithinIdleWindow() {
+        Resource vm = createResource("Vs");
+        VMPool pool = new VMPool();
+        VMLifecycleManager lifecycle = new VMLifecycleManager(pool, new IdleTimeoutPolicy(5.0), 10.0, 60.0);
+        VMPoolEntry entry = new VMPoolEntry("v1", vm, 0.0, 8.0, null);
+        lifecycle.provision(entry);
+        lifecycle.assign("v1", new Task("t1"), 8.0, 8.0);
+
+        // A task arriving within the idle window reuses the idle VM
+        assertTrue(lifecycle.deprovisionIdle(12.0).isEmpty());
+        List<VMPoolEntry> idle = pool.getIdleEntries(12.0);
+        assertEquals(Collections.singletonList(entry), idle);
+        lifecycle.assign("v1", new Task("t2"), 15.0, 3.0);
+        pool.setExpectedIdleStartTime(entry, 15.0);
+
+        assertTrue(pool.getIdleEntries(14.0).isEmpty());
+        assertTrue(lifecycle.deprovisionIdle(19.0).isEmpty());
+        assertSame(entry, pool.get("v1"));
+        assertEquals(2, entry.getTasks());
+        assertEquals(11.0, entry.getBusyTime());
+        assertEquals("t2", entry.getLastTask().getId());
+    }
+
+    @Test
+    void testEvictionAfterIdleWindow() {
+        Resource vm = createResource("Vs");
+        VMPool pool = new VMPool();
+        VMLifecycleManager lifecycle = new VMLifecycleManager(pool, new IdleTimeoutPolicy(5.0), 10.0, 60.0);
+        VMPoolEntry entry = new VMPoolEntry("v1", vm, 0.0, 8.0, null);
+        lifecycle.provision(entry);
+        lifecycle.assign("v1", new Task("t1"), 8.0, 8.0);
+
+        assertTrue(lifecycle.deprovisionIdle(19.0).isEmpty());
+        assertEquals(Collections.singletonList(entry), lifecycle.deprovisionIdle(20.0));
+        assertEquals(20.0, entry.getEndTime());
+        assertNull(pool.get("v1"));
+        assertTrue(pool.getEntries(vm).isEmpty());
+        assertTrue(pool.getIdleEntries(100.0).isEmpty());
+        assertEquals(Collections.singletonList(entry), lifecycle.getAllEntries());
+
+        // A later task can not reuse the evicted VM
+        lifecycle.assign("v1", new Task("t2"), 20.0, 3.0);
+        assertEquals(1, entry.getTasks());
+    }
+}
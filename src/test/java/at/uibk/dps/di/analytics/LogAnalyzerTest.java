@@ -0,0 +1,59 @@
+package at.uibk.dps.di.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the analysis of enactment logs.
+ *
+ * @author Stefan Pedratscher
+ */
+public class LogAnalyzerTest {
+
+    /**
+     * Check the durations reported by the serverless functions.
+     */
+    @Test
+    void checkFunctionStatistics() throws IOException {
+        Map<String, String> functionTypes = LogAnalyzer.indexTypeMappings(Paths.get("src/test/resources/logs/typemappings.json"));
+        assertEquals(14, functionTypes.size());
+
+        LogAnalyzer analyzer = new LogAnalyzer(functionTypes);
+        analyzer.analyze(Paths.get("src/test/resources/logs/execution.log"));
+
+        long count = analyzer.getFunctionStatistics().values().stream().mapToLong(DurationStatistics::getCount).sum();
+        assertEquals(40, count);
+        analyzer.getFunctionStatistics().keySet().forEach(name -> assertTrue(functionTypes.containsValue(name)));
+
+        DurationStatistics alignment = analyzer.getFunctionStatistics().get("soykb_alignment_to_reference");
+        assertNotNull(alignment);
+        assertTrue(alignment.getMin() >= 3000.0);
+        assertTrue(alignment.getMin() <= alignment.getMean() && alignment.getMean() <= alignment.getMax());
+    }
+
+    /**
+     * Check the durations between scheduling and finishing a task.
+     */
+    @Test
+    void checkTaskStatistics() {
+        LogAnalyzer analyzer = new LogAnalyzer(Collections.emptyMap());
+        analyzer.accept("11:27:57.598 [vert.x-eventloop-thread-13] DEBUG at.uibk.dps.ee.control.scheduling.WorkerScheduling - Thread 31; Task taskNode0 scheduled.");
+        analyzer.accept("11:27:58.553 [vert.x-eventloop-thread-3] DEBUG at.uibk.dps.ee.control.enactment.WorkerEnactment - Enactment finished for task taskNode0.");
+        analyzer.accept("23:59:59.900 [vert.x-eventloop-thread-9] DEBUG at.uibk.dps.ee.control.scheduling.WorkerScheduling - Thread 27; Task taskNode0 scheduled.");
+        analyzer.accept("00:00:00.045 [vert.x-eventloop-thread-2] DEBUG at.uibk.dps.ee.control.enactment.WorkerEnactment - Enactment finished for task taskNode0.");
+        analyzer.accept("00:00:00.050 [vert.x-eventloop-thread-2] DEBUG at.uibk.dps.ee.control.enactment.WorkerEnactment - Enactment finished for task taskNode1.");
+
+        DurationStatistics statistics = analyzer.getTaskStatistics().get("taskNode0");
+        assertEquals(1, analyzer.getTaskStatistics().size());
+        assertEquals(2, statistics.getCount());
+        assertEquals(145.0, statistics.getMin(), 0.001);
+        assertEquals(955.0, statistics.getMax(), 0.001);
+        assertEquals(550.0, statistics.getMean(), 0.001);
+    }
+}
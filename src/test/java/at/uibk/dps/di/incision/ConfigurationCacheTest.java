@@ -0,0 +1,117 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.storage.PayloadCodec;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping.EnactmentMode;
+import nu.xom.Builder;
+import nu.xom.Document;
+import nu.xom.Elements;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the generation of minimal distributed engine configurations.
+ *
+ * @author Stefan Pedratscher
+ */
+public class ConfigurationCacheTest {
+
+    private final String mappingsPath = "src/test/resources/mapping.json";
+
+    /**
+     * Check that the generated configurations only contain the required
+     * modules and are valid xml.
+     */
+    @Test
+    void checkGenerate() throws Exception {
+        String serverless = ConfigurationCache.generate(EnumSet.of(EnactmentMode.Serverless));
+        String local = ConfigurationCache.generate(EnumSet.of(EnactmentMode.Serverless, EnactmentMode.Local));
+
+        Document document = new Builder().build(serverless, null);
+        assertEquals(4, document.getRootElement().getChildElements("module").size());
+        assertEquals(5, new Builder().build(local, null).getRootElement().getChildElements("module").size());
+        assertFalse(serverless.contains("LocalDockerModule"));
+        assertTrue(local.contains("LocalDockerModule"));
+        for (String module : new String[]{"EnactmentViewerModule", "InputReaderFileModule", "SpecificationInputModule"}) {
+            assertFalse(local.contains(module));
+        }
+        assertTrue(local.length() < Utility.DE_CONFIGURATION_NO_DOCKER.length());
+
+        assertEquals(PayloadCodec.DEFLATE, Utility.codecOf(Utility.withCodec(serverless, PayloadCodec.DEFLATE)));
+    }
+
+    /**
+     * Check that the configuration of a serverless-only cut keeps the modules
+     * and properties of the previously shipped configuration, except for the
+     * input file, specification file and viewer modules.
+     */
+    @Test
+    void checkServerlessMatchesBaseline() throws Exception {
+        Map<String, Map<String, String>> baseline = modules(Utility.DE_CONFIGURATION_NO_DOCKER);
+        Map<String, Map<String, String>> generated = modules(ConfigurationCache.generate(EnumSet.of(EnactmentMode.Serverless)));
+
+        baseline.remove("at.uibk.dps.ee.io.modules.InputReaderFileModule");
+        baseline.remove("at.uibk.dps.ee.io.modules.SpecificationInputModule");
+        baseline.remove("at.uibk.dps.ee.visualization.modules.EnactmentViewerModule");
+        assertEquals(baseline, generated);
+    }
+
+    /**
+     * Check that remote engines never get the docker module, even if the cut
+     * still contains local mappings.
+     */
+    @Test
+    void checkRemoteWithoutDocker() {
+        EnactmentSpecification specification = Utility.specification(EnactmentGraphs.getMediumSizedEnactmentGraph(), mappingsPath);
+        assertTrue(ConfigurationCache.shapeOf(specification.getMappings()).contains(EnactmentMode.Local));
+
+        ConfigurationCache cache = new ConfigurationCache();
+        assertFalse(cache.getConfiguration(specification.getMappings(), true).contains("LocalDockerModule"));
+        assertTrue(cache.getConfiguration(specification.getMappings(), false).contains("LocalDockerModule"));
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Check that configurations are cached per shape of the cut.
+     */
+    @Test
+    void checkCachedConfiguration() {
+        ConfigurationCache cache = new ConfigurationCache();
+        EnactmentSpecification first = Utility.specification(EnactmentGraphs.getMediumSizedEnactmentGraph(), mappingsPath);
+        EnactmentSpecification second = Utility.specification(EnactmentGraphs.getComplexEnactmentGraph(), mappingsPath);
+
+        String configuration = cache.getConfiguration(first.getMappings(), false);
+        assertEquals(ConfigurationCache.generate(ConfigurationCache.shapeOf(first.getMappings())), configuration);
+        assertSame(configuration, cache.getConfiguration(first.getMappings(), false));
+        cache.getConfiguration(second.getMappings(), false);
+        assertEquals(ConfigurationCache.shapeOf(first.getMappings()).equals(ConfigurationCache.shapeOf(second.getMappings())) ? 1 : 2,
+            cache.size());
+    }
+
+    /**
+     * Get the modules of a configuration with their properties.
+     *
+     * @param configuration the configuration.
+     *
+     * @return the properties by module class.
+     */
+    private Map<String, Map<String, String>> modules(final String configuration) throws Exception {
+        Map<String, Map<String, String>> modules = new HashMap<>();
+        Elements elements = new Builder().build(configuration, null).getRootElement().getChildElements("module");
+        for (int i = 0; i < elements.size(); i++) {
+            Map<String, String> properties = new HashMap<>();
+            Elements children = elements.get(i).getChildElements("property");
+            for (int j = 0; j < children.size(); j++) {
+                properties.put(children.get(j).getAttributeValue("name"), children.get(j).getValue());
+            }
+            modules.put(elements.get(i).getAttributeValue("class"), properties);
+        }
+        return modules;
+    }
+}
@@ -0,0 +1,123 @@
+package at.uibk.dps.di.incision;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the placement of cuts on distributed engines.
+ *
+ * @author Stefan Pedratscher
+ */
+public class DistributedEngineRegistryTest {
+
+    private static final String US = "https://us.lambda-url.us-east-1.on.aws/";
+    private static final String EU = "https://eu.lambda-url.eu-central-1.on.aws/";
+
+    /**
+     * Check that regions are derived from uris.
+     */
+    @Test
+    void checkRegion() {
+        assertEquals("us-east-1", DistributedEngineEndpoint.regionOf(Utility.DE_AWS_US_EAST_1));
+        assertEquals("eu-central-1", DistributedEngineEndpoint.regionOf("arn:aws:lambda:eu-central-1:123:function:f"));
+        assertNull(DistributedEngineEndpoint.regionOf(Utility.ENGINE));
+        assertEquals(Utility.DE_AWS_US_EAST_1, new DistributedEngineRegistry().select(Collections.emptyMap()).getUri());
+    }
+
+    /**
+     * Check that cuts are placed close to their resources and spread across
+     * endpoints once an endpoint is busy.
+     */
+    @Test
+    void checkSelect() {
+        DistributedEngineRegistry registry = new DistributedEngineRegistry(Arrays.asList(
+            new DistributedEngineEndpoint(US, 500.0, 10.0, 1),
+            new DistributedEngineEndpoint(EU, 500.0, 10.0, 1)), 100.0);
+
+        Map<String, Integer> regions = new HashMap<>();
+        regions.put("eu-central-1", 3);
+        regions.put(null, 2);
+        DistributedEngineEndpoint first = registry.select(regions);
+        assertEquals(EU, first.getUri());
+        assertEquals(1, registry.getAssigned(first));
+
+        // The endpoint in the region reached its concurrency limit, so the
+        // cross region hops are cheaper than queueing the cut
+        DistributedEngineEndpoint second = registry.select(regions);
+        assertEquals(US, second.getUri());
+
+        registry.release(first);
+        registry.release(first);
+        assertEquals(0, registry.getAssigned(first));
+        assertEquals(1, registry.getAssigned(second));
+        assertEquals(EU, registry.select(Collections.emptyMap()).getUri());
+    }
+
+    /**
+     * Check that the queue penalty of a busy endpoint ends once its cuts are
+     * released after their enactment or the registry is reset for the next
+     * plan.
+     */
+    @Test
+    void checkReleaseAfterCompletion() {
+        DistributedEngineRegistry registry = new DistributedEngineRegistry(Arrays.asList(
+            new DistributedEngineEndpoint(US, 500.0, 10.0, 1),
+            new DistributedEngineEndpoint(EU, 500.0, 10.0, 1)), 100.0);
+        Map<String, Integer> regions = Collections.singletonMap("eu-central-1", 3);
+
+        // Select past the concurrency limits of both endpoints
+        List<DistributedEngineEndpoint> selected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            selected.add(registry.select(regions));
+        }
+        assertEquals(Arrays.asList(EU, US, EU), selected.stream().map(DistributedEngineEndpoint::getUri)
+            .collect(Collectors.toList()));
+        assertEquals(2, registry.getAssigned(registry.getEndpoint(EU)));
+
+        // The enactment of the cuts finished
+        selected.forEach(registry::release);
+        assertEquals(0, registry.getAssigned(registry.getEndpoint(EU)));
+        assertEquals(0, registry.getAssigned(registry.getEndpoint(US)));
+        assertEquals(EU, registry.select(regions).getUri());
+        assertEquals(US, registry.select(regions).getUri());
+
+        // A new planning pass starts without assignments
+        registry.reset();
+        assertEquals(0, registry.getAssigned(registry.getEndpoint(US)));
+        assertEquals(EU, registry.select(regions).getUri());
+    }
+
+    /**
+     * Check the registry configuration file.
+     */
+    @Test
+    void checkLoad(@TempDir Path directory) throws IOException {
+        Path config = directory.resolve("engines.json");
+        Files.write(config, ("{\"crossRegionLatency\": 50, \"endpoints\": ["
+            + "{\"uri\": \"" + US + "\", \"latency\": 20},"
+            + "{\"uri\": \"http://engine.local:8080\", \"region\": \"on-premise\", \"concurrencyLimit\": 4}]}")
+            .getBytes(StandardCharsets.UTF_8));
+
+        DistributedEngineRegistry registry = DistributedEngineRegistry.load(config);
+        assertEquals(2, registry.getEndpoints().size());
+        assertEquals(50.0, registry.getCrossRegionLatency());
+        assertEquals("us-east-1", registry.getEndpoint(US).getRegion());
+        assertEquals(20.0, registry.getEndpoint(US).getLatency());
+        assertEquals(4, registry.getEndpoint("http://engine.local:8080").getConcurrencyLimit());
+        assertEquals("on-premise", registry.getEndpoint("http://engine.local:8080").getRegion());
+    }
+}
@@ -0,0 +1,164 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunction;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the cutting of an {@link EnactmentGraph} at nested cuts.
+ *
+ * @author Stefan Pedratscher
+ */
+public class HierarchicalIncisionTest {
+
+    /**
+     * Check nested cuts of the medium sized {@link EnactmentGraph}.
+     *
+     * Cut @ c2 c3 and c6 c7, with the nested cuts c2 and c4 and c5 and c7
+     *
+     * Graphical representation of the medium sized {@link EnactmentGraph}:
+     *
+     *      c1
+     *      |
+     *      t1
+     *     /  \
+     *   c2    c3
+     *   |     |
+     *   t2    t3
+     *   |     |
+     *   c4    c5
+     *   |     |
+     *   t4    t5
+     *   |     |
+     *   c6    c7
+     *     \  /
+     *      t6
+     *      |
+     *      c8
+     */
+    @Test
+    void checkNestedCut() {
+        EnactmentGraph eGraph = EnactmentGraphs.getMediumSizedEnactmentGraph();
+        EnactmentSpecification specification = new EnactmentSpecification(eGraph, new ResourceGraph(),
+            new MappingsConcurrent(), UUID.randomUUID().toString());
+
+        CutTree left = new CutTree(nodes(eGraph, "commNode2"), nodes(eGraph, "commNode4"));
+        CutTree right = new CutTree(nodes(eGraph, "commNode5"), nodes(eGraph, "commNode7"));
+        CutTree root = new CutTree(nodes(eGraph, "commNode2", "commNode3"), nodes(eGraph, "commNode6", "commNode7"))
+            .addChild(left).addChild(right);
+
+        Map<CutTree, EnactmentSpecification> result = new HierarchicalIncision().cut(specification, root);
+        assertEquals(Arrays.asList(left, right, root), Arrays.asList(result.keySet().toArray()));
+
+        // The nested cuts only contain their own tasks
+        assertNotNull(result.get(left).getEnactmentGraph().getVertex("taskNode2"));
+        assertNull(result.get(left).getEnactmentGraph().getVertex("taskNode4"));
+        assertNotNull(result.get(right).getEnactmentGraph().getVertex("taskNode5"));
+
+        // The parent cut contains the remaining tasks and the engines of the nested cuts
+        EnactmentGraph parent = result.get(root).getEnactmentGraph();
+        assertNotNull(parent.getVertex("taskNode3"));
+        assertNotNull(parent.getVertex("taskNode4"));
+        assertNull(parent.getVertex("taskNode2"));
+        assertEquals(2, parent.getVertices().stream().filter(this::isEngine).count());
+
+        // The root graph only contains the engine of the parent cut
+        assertEquals(1, eGraph.getVertices().stream().filter(this::isEngine).count());
+        assertNotNull(eGraph.getVertex("taskNode1"));
+        assertNotNull(eGraph.getVertex("taskNode6"));
+        assertNull(eGraph.getVertex("taskNode4"));
+    }
+
+    /**
+     * Check that invalid cut trees are rejected before the graph is changed
+     * and that a cut failing while it is applied leaves the graph unchanged.
+     */
+    @Test
+    void checkInvalidCutTree() {
+        EnactmentGraph eGraph = EnactmentGraphs.getMediumSizedEnactmentGraph();
+        EnactmentSpecification specification = new EnactmentSpecification(eGraph, new ResourceGraph(),
+            new MappingsConcurrent(), UUID.randomUUID().toString());
+        int vertices = eGraph.getVertexCount();
+
+        // Nested cut outside of its parent
+        CutTree outside = new CutTree(nodes(eGraph, "commNode2"), nodes(eGraph, "commNode4"))
+            .addChild(new CutTree(nodes(eGraph, "commNode5"), nodes(eGraph, "commNode7")));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalIncision().cut(specification, outside));
+
+        // Overlapping siblings
+        CutTree overlapping = new CutTree(nodes(eGraph, "commNode2", "commNode3"), nodes(eGraph, "commNode6", "commNode7"))
+            .addChild(new CutTree(nodes(eGraph, "commNode2"), nodes(eGraph, "commNode6")))
+            .addChild(new CutTree(nodes(eGraph, "commNode4"), nodes(eGraph, "commNode6")));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalIncision().cut(specification, overlapping));
+
+        assertEquals(vertices, eGraph.getVertexCount());
+
+        // A cut failing while it is applied reverts the nested cuts applied before
+        int edges = eGraph.getEdgeCount();
+        int resources = specification.getResourceGraph().getVertexCount();
+        Set<Task> failingTop = nodes(eGraph, "commNode2", "commNode3");
+        Incision failing = new Incision() {
+            @Override
+            public EnactmentSpecification cut(final EnactmentSpecification enactmentSpecification,
+                final Set<Task> topCut, final Set<Task> bottomCut, final IncisionJournal journal) {
+                if (topCut.equals(failingTop)) {
+                    throw new IllegalStateException("No distributed engine available");
+                }
+                return super.cut(enactmentSpecification, topCut, bottomCut, journal);
+            }
+        };
+        CutTree root = new CutTree(failingTop, nodes(eGraph, "commNode6", "commNode7"))
+            .addChild(new CutTree(nodes(eGraph, "commNode2"), nodes(eGraph, "commNode4")))
+            .addChild(new CutTree(nodes(eGraph, "commNode5"), nodes(eGraph, "commNode7")));
+        assertThrows(IllegalStateException.class, () -> new HierarchicalIncision(failing).cut(specification, root));
+
+        assertEquals(vertices, eGraph.getVertexCount());
+        assertEquals(edges, eGraph.getEdgeCount());
+        assertEquals(resources, specification.getResourceGraph().getVertexCount());
+        assertNotNull(eGraph.getVertex("taskNode2"));
+        assertNotNull(eGraph.getVertex("taskNode5"));
+        assertEquals(0, eGraph.getVertices().stream().filter(this::isEngine).count());
+    }
+
+    /**
+     * Get the nodes with the given ids.
+     *
+     * @param eGraph the enactment graph.
+     * @param ids the ids of the nodes.
+     *
+     * @return the nodes.
+     */
+    private Set<Task> nodes(final EnactmentGraph eGraph, final String... ids) {
+        Set<Task> nodes = new HashSet<>();
+        for (String id : ids) {
+            nodes.add(eGraph.getVertex(id));
+        }
+        return nodes;
+    }
+
+    /**
+     * Check if a node is a distributed engine node.
+     *
+     * @param task the node to check.
+     *
+     * @return true for distributed engine nodes.
+     */
+    private boolean isEngine(final Task task) {
+        return !(task instanceof Communication)
+            && Utility.DE_TYPE_ID.equals(PropertyServiceFunction.getTypeId(task));
+    }
+}
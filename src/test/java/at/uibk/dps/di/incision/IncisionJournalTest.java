@@ -0,0 +1,66 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Dependency;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the undo journal of the incision.
+ *
+ * @author Stefan Pedratscher
+ */
+public class IncisionJournalTest {
+
+    /**
+     * Check that recorded changes are reverted in reverse order.
+     */
+    @Test
+    void checkRollback() {
+        EnactmentGraph eGraph = new EnactmentGraph();
+        Task input = new Communication("input");
+        Task task = new Task("task");
+        Task output = new Communication("output");
+        Dependency in = new Dependency("input--task");
+        Dependency out = new Dependency("task--output");
+        eGraph.addEdge(in, input, task, EdgeType.DIRECTED);
+        eGraph.addEdge(out, task, output, EdgeType.DIRECTED);
+
+        IncisionJournal journal = new IncisionJournal();
+        Task engine = new Task("engine");
+        assertTrue(journal.addVertex(eGraph, engine));
+        assertFalse(journal.addVertex(eGraph, engine));
+        assertTrue(journal.removeVertex(eGraph, task));
+        assertFalse(journal.removeEdge(eGraph, in));
+        assertTrue(journal.addEdge(eGraph, new Dependency("input--engine"), input, engine));
+        assertTrue(journal.addEdge(eGraph, new Dependency("engine--output"), engine, output));
+        Set<Boolean> reverted = new HashSet<>();
+        journal.record(() -> reverted.add(true));
+        assertEquals(3, eGraph.getVertexCount());
+        assertEquals(2, eGraph.getEdgeCount());
+
+        // Revert the last two changes only
+        int mark = journal.size() - 2;
+        journal.rollbackTo(mark);
+        assertTrue(reverted.contains(true));
+        assertEquals(1, eGraph.getEdgeCount());
+        assertEquals(mark, journal.size());
+        assertThrows(IllegalArgumentException.class, () -> journal.rollbackTo(mark + 1));
+
+        journal.rollback();
+        assertEquals(0, journal.size());
+        assertEquals(3, eGraph.getVertexCount());
+        assertEquals(2, eGraph.getEdgeCount());
+        assertFalse(eGraph.containsVertex(engine));
+        assertSame(input, eGraph.getSource(in));
+        assertSame(task, eGraph.getDest(in));
+        assertSame(output, eGraph.getDest(out));
+    }
+}
@@ -1,19 +1,28 @@
 package at.uibk.dps.di.incision;
 
 import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.storage.BlobStore;
+import at.uibk.dps.di.storage.LocalFileBlobStore;
 import at.uibk.dps.ee.deploy.run.ImplementationRunBare;
 import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
 import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
 import at.uibk.dps.ee.model.graph.*;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Dependency;
 import net.sf.opendse.model.Task;
 import nu.xom.ParsingException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.xmlunit.builder.DiffBuilder;
 import org.xmlunit.diff.DefaultNodeMatcher;
 import org.xmlunit.diff.Diff;
 import org.xmlunit.diff.ElementSelectors;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -436,4 +445,132 @@ class IncisionTest {
         assertEquals("result_noop3/result", eGraph.getEdge("[noop2/result, noop1/result][noop4/result, noop3/result]--noop3/result").getAttribute("JsonKey"));
         assertEquals("result_noop4/result", eGraph.getEdge("[noop2/result, noop1/result][noop4/result, noop3/result]--noop4/result").getAttribute("JsonKey"));
     }
+
+    /**
+     * Check that the specification of the cut out graph is stored in the blob
+     * store and only referenced by the specification constant.
+     */
+    @Test
+    void cutWithBlobStore(@TempDir Path directory) throws ParsingException, IOException {
+        BlobStore blobStore = new LocalFileBlobStore(directory);
+        EnactmentGraph eGraph = EnactmentGraphs.getMediumSizedEnactmentGraph();
+        Set<Task> topCut = new HashSet<>();
+        Set<Task> bottomCut = new HashSet<>();
+        topCut.add(eGraph.getVertex("commNode2"));
+        topCut.add(eGraph.getVertex("commNode3"));
+        bottomCut.add(eGraph.getVertex("commNode6"));
+        bottomCut.add(eGraph.getVertex("commNode7"));
+
+        final EnactmentGraphProvider eGraphProvider = () -> eGraph;
+        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(Objects.requireNonNull(getClass().getClassLoader().getResource("mapping.json")).getPath());
+        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, Objects.requireNonNull(getClass().getClassLoader().getResource("mapping.json")).getPath());
+        final EnactmentSpecification spec = specProv.getSpecification();
+        EnactmentSpecification result = new Incision(blobStore).cut(spec, topCut, bottomCut);
+
+        String content = PropertyServiceData.getContent(eGraph.getVertex("Constant/" + Utility.SPECIFICATION
+            + "_[commNode3, commNode2][commNode7, commNode6]")).getAsString();
+        assertTrue(BlobStore.isReference(content));
+        assertTrue(blobStore.contains(BlobStore.keyOf(content)));
+
+        EnactmentSpecification resolved = Utility.fromStringToEnactmentSpecification(Utility.resolveSpecification(content, blobStore));
+        assertEquals(result.getEnactmentGraph().getVertexCount(), resolved.getEnactmentGraph().getVertexCount());
+    }
+
+    /**
+     * Check that a journaled cut of the medium sized {@link EnactmentGraph} is
+     * reverted by rolling back the journal.
+     */
+    @Test
+    void cutAndRollback() throws IllegalArgumentException {
+        EnactmentGraph eGraph = EnactmentGraphs.getMediumSizedEnactmentGraph();
+        EnactmentSpecification spec = new EnactmentSpecification(eGraph, new ResourceGraph(),
+            new MappingsConcurrent(), UUID.randomUUID().toString());
+        Set<Task> topCut = new HashSet<>();
+        Set<Task> bottomCut = new HashSet<>();
+        topCut.add(eGraph.getVertex("commNode2"));
+        topCut.add(eGraph.getVertex("commNode3"));
+        bottomCut.add(eGraph.getVertex("commNode6"));
+        bottomCut.add(eGraph.getVertex("commNode7"));
+        Set<Task> vertices = new HashSet<>(eGraph.getVertices());
+        Set<String> edges = new HashSet<>();
+        eGraph.getEdges().forEach(edge -> edges.add(eGraph.getSource(edge) + "->" + eGraph.getDest(edge)));
+
+        IncisionJournal journal = new IncisionJournal();
+        new Incision().cut(spec, topCut, bottomCut, journal);
+        assertNull(eGraph.getVertex("taskNode2"));
+        assertTrue(journal.size() > 0);
+
+        journal.rollback();
+        assertEquals(0, journal.size());
+        assertEquals(vertices, new HashSet<>(eGraph.getVertices()));
+        Set<String> restored = new HashSet<>();
+        eGraph.getEdges().forEach(edge -> restored.add(eGraph.getSource(edge) + "->" + eGraph.getDest(edge)));
+        assertEquals(edges, restored);
+        assertEquals(0, spec.getResourceGraph().getVertexCount());
+
+        // The restored graph can be cut again
+        new Incision().cut(spec, topCut, bottomCut);
+        assertNull(eGraph.getVertex("taskNode2"));
+    }
+
+    /**
+     * Check the rewiring of cuts with wide boundaries. The
+     * {@link EnactmentGraph} consists of independent chains cX_in - tX - cX_out,
+     * cut at all inputs and outputs.
+     */
+    @Test
+    void cutWideBoundary() {
+        for (int width : new int[] {10, 100, 500}) {
+            EnactmentGraph eGraph = new EnactmentGraph();
+            Set<Task> topCut = new HashSet<>();
+            Set<Task> bottomCut = new HashSet<>();
+            for (int i = 0; i < width; i++) {
+                Task input = new Communication("c" + i + "_in");
+                Task output = new Communication("c" + i + "_out");
+                Task task = PropertyServiceFunctionUser.createUserTask("t" + i, "noop");
+                PropertyServiceDependency.addDataDependency(input, task, "input" + i, eGraph);
+                PropertyServiceDependency.addDataDependency(task, output, "output" + i, eGraph);
+                PropertyServiceData.makeRoot(input);
+                PropertyServiceData.makeLeaf(output);
+                topCut.add(input);
+                bottomCut.add(output);
+            }
+            EnactmentSpecification spec = new EnactmentSpecification(eGraph, new ResourceGraph(),
+                new MappingsConcurrent(), UUID.randomUUID().toString());
+
+            new Incision().cut(spec, topCut, bottomCut);
+
+            // Every cut node is connected to the engine node once, with its json key
+            Task engine = eGraph.getVertex(topCut.toString() + bottomCut.toString());
+            assertEquals(width + 2, eGraph.getInEdges(engine).size());
+            assertEquals(width, eGraph.getOutEdges(engine).size());
+            Set<Task> sources = new HashSet<>();
+            for (Dependency edge : eGraph.getInEdges(engine)) {
+                Task source = eGraph.getSource(edge);
+                assertTrue(sources.add(source));
+                if (!PropertyServiceData.isConstantNode(source)) {
+                    assertTrue(topCut.contains(source));
+                    String index = source.getId().substring(1, source.getId().indexOf('_'));
+                    assertEquals("input" + index, PropertyServiceDependency.getJsonKey(edge));
+                    assertEquals(1, eGraph.getOutEdges(source).size());
+                }
+            }
+            assertTrue(sources.containsAll(topCut));
+            Set<Task> destinations = new HashSet<>();
+            for (Dependency edge : eGraph.getOutEdges(engine)) {
+                Task destination = eGraph.getDest(edge);
+                assertTrue(destinations.add(destination));
+                String index = destination.getId().substring(1, destination.getId().indexOf('_'));
+                assertEquals("output" + index, PropertyServiceDependency.getJsonKey(edge));
+                assertEquals(1, eGraph.getInEdges(destination).size());
+            }
+            assertEquals(bottomCut, destinations);
+
+            // The cut out tasks are no longer part of the graph
+            for (int i = 0; i < width; i++) {
+                assertNull(eGraph.getVertex("t" + i));
+            }
+            assertEquals(2 * width + 3, eGraph.getVertexCount());
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.scheduler.Cut;
+import at.uibk.dps.ee.io.afcl.AfclReader;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the detection of loops and the proposed loop cuts.
+ *
+ * @author Stefan Pedratscher
+ */
+public class LoopDetectorTest {
+
+    /**
+     * Check the recognition of loop nodes by their ids.
+     */
+    @Test
+    void checkBelongsTo() {
+        assertTrue(LoopDetector.belongsTo("while", "while"));
+        assertTrue(LoopDetector.belongsTo("while/whileIt", "while"));
+        assertTrue(LoopDetector.belongsTo("while--stopCondition/3", "while"));
+        assertTrue(LoopDetector.belongsTo("[while/counter, longSeq/input, while, while--stopCondition/3]", "while"));
+        assertFalse(LoopDetector.belongsTo("whileOuter/counter", "while"));
+        assertFalse(LoopDetector.belongsTo("longSeq/input", "while"));
+        assertFalse(LoopDetector.belongsTo("[longSeq/input, dummy/out]", "while"));
+    }
+
+    /**
+     * Check the cut proposed for a loop with an unnamed body.
+     *
+     * Graphical representation of the {@link EnactmentGraph}:
+     *
+     *      wf/input
+     *         |
+     *        loop
+     *       /    \
+     *  loop/in   loop/counter
+     *     |          |
+     *    body        |
+     *     |          |
+     *  body/out      |
+     *       \       /
+     *       loop--end
+     *           |
+     *      loop/whileIt
+     *           |
+     *         after
+     *           |
+     *       wf/output
+     */
+    @Test
+    void checkDetect() {
+        EnactmentGraph eGraph = new EnactmentGraph();
+        Task input = new Communication("wf/input");
+        Task output = new Communication("wf/output");
+        Task loopIn = new Communication("loop/in");
+        Task counter = new Communication("loop/counter");
+        Task bodyOut = new Communication("body/out");
+        Task loopOut = new Communication("loop/whileIt");
+        Task loop = PropertyServiceFunctionUser.createUserTask("loop", "noop");
+        Task body = PropertyServiceFunctionUser.createUserTask("body", "noop");
+        Task end = PropertyServiceFunctionUser.createUserTask("loop--end", "noop");
+        Task after = PropertyServiceFunctionUser.createUserTask("after", "noop");
+        PropertyServiceDependency.addDataDependency(input, loop, "key1", eGraph);
+        PropertyServiceDependency.addDataDependency(loop, loopIn, "key2", eGraph);
+        PropertyServiceDependency.addDataDependency(loop, counter, "key3", eGraph);
+        PropertyServiceDependency.addDataDependency(loopIn, body, "key4", eGraph);
+        PropertyServiceDependency.addDataDependency(body, bodyOut, "key5", eGraph);
+        PropertyServiceDependency.addDataDependency(bodyOut, end, "key6", eGraph);
+        PropertyServiceDependency.addDataDependency(counter, end, "key7", eGraph);
+        PropertyServiceDependency.addDataDependency(end, loopOut, "key8", eGraph);
+        PropertyServiceDependency.addDataDependency(loopOut, after, "key9", eGraph);
+        PropertyServiceDependency.addDataDependency(after, output, "key10", eGraph);
+        PropertyServiceData.makeRoot(input);
+        PropertyServiceData.makeLeaf(output);
+
+        assertEquals(Collections.singleton("loop"), LoopDetector.loopNames(eGraph));
+        Map<String, Cut> cuts = new LoopDetector().detect(eGraph);
+        Cut cut = cuts.get("loop");
+        assertNotNull(cut);
+        assertEquals(Collections.singleton(input), cut.getTopCut());
+        assertEquals(Collections.singleton(loopOut), cut.getBottomCut());
+        assertNull(new LoopDetector().propose(eGraph, "missing"));
+    }
+
+    /**
+     * Check that the cut detected for the while loop of wf1.yaml is the cut
+     * previously written by hand in {@link at.uibk.dps.di.RNS}.
+     */
+    @Test
+    void checkDetectWf1() {
+        EnactmentGraph eGraph = new AfclReader("src/test/resources/wf1.yaml").getEnactmentGraph();
+
+        assertTrue(LoopDetector.loopNames(eGraph).contains("while"));
+        Cut cut = new LoopDetector().propose(eGraph, "while");
+        assertNotNull(cut);
+        assertEquals(Collections.singleton("[while/counter, longSeq/input, while, while--stopCondition/3]"),
+            ids(cut.getTopCut()));
+        assertEquals(Collections.singleton("while/whileIt"), ids(cut.getBottomCut()));
+    }
+
+    /**
+     * Get the ids of the given nodes.
+     *
+     * @param tasks the nodes.
+     *
+     * @return the ids of the nodes.
+     */
+    private Set<String> ids(final Set<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toSet());
+    }
+}
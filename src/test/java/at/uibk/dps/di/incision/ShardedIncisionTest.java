@@ -0,0 +1,168 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.Runner;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.scheduler.Cut;
+import at.uibk.dps.di.scheduler.CutCostModel;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import at.uibk.dps.ee.model.properties.PropertyServiceData;
+import at.uibk.dps.ee.model.properties.PropertyServiceDependency;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunction;
+import at.uibk.dps.ee.model.properties.PropertyServiceFunctionUser;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the sharding of fan-out regions.
+ *
+ * @author Stefan Pedratscher
+ */
+public class ShardedIncisionTest {
+
+    /**
+     * Check the number of shards chosen by the cost model.
+     */
+    @Test
+    void checkShardCount() {
+        CutCostModel costModel = new CutCostModel(100.0);
+
+        // Every additional shard halves the waves of long branches
+        assertEquals(4, costModel.shardCount(4, 1, 2000.0));
+        assertEquals(2, costModel.shardCount(4, 2, 2000.0));
+
+        // A single engine executes all branches at once
+        assertEquals(1, costModel.shardCount(4, 4, 2000.0));
+
+        // The invocation overhead limits the shards of short branches
+        assertEquals(1, costModel.shardCount(10, 1, 10.0));
+        assertEquals(3, costModel.shardCount(100, 1, 10.0));
+        assertThrows(IllegalArgumentException.class, () -> costModel.shardCount(0, 1, 10.0));
+    }
+
+    /**
+     * Check that the four branches of a dynamic workflow are cut into four
+     * shards, each enacted by its own distributed engine.
+     */
+    @Test
+    void checkCut() {
+        EnactmentGraph eGraph = Runner.getDynamicWf(2, 4);
+        Resource resource = new Resource("https://example.lambda-url.us-east-1.on.aws/");
+        ResourceGraph rGraph = new ResourceGraph();
+        rGraph.addVertex(resource);
+        MappingsConcurrent mappings = new MappingsConcurrent();
+        for (Task task : eGraph.getVertices()) {
+            if (!(task instanceof Communication)) {
+                Mapping<Task, Resource> mapping = PropertyServiceMapping.createMapping(task, resource,
+                    PropertyServiceMapping.EnactmentMode.Serverless, resource.getId());
+                PropertyServiceScheduler.setDuration(mapping, 1000.0);
+                mappings.addMapping(mapping);
+            }
+        }
+        EnactmentSpecification specification = new EnactmentSpecification(eGraph, rGraph, mappings,
+            UUID.randomUUID().toString());
+
+        Set<Task> topCut = nodes(eGraph, 1, 2, 3, 4);
+        Set<Task> bottomCut = nodes(eGraph, 9, 10, 11, 12);
+        ShardedIncision incision = new ShardedIncision(new Incision(), new CutCostModel(100.0), 1);
+
+        List<Cut> shards = incision.shards(specification, topCut, bottomCut);
+        assertEquals(4, shards.size());
+        shards.forEach(shard -> assertEquals(1, shard.getTopCut().size()));
+
+        List<EnactmentSpecification> result = incision.cut(specification, topCut, bottomCut);
+        assertEquals(4, result.size());
+        result.forEach(shard -> assertEquals(2, shard.getEnactmentGraph().getVertices().stream()
+            .filter(task -> !(task instanceof Communication)).count()));
+        assertEquals(4, eGraph.getVertices().stream().filter(task -> !(task instanceof Communication)
+            && Utility.DE_TYPE_ID.equals(PropertyServiceFunction.getTypeId(task))).count());
+    }
+
+    /**
+     * Check that the branches of a parallel for fed by a single distribution
+     * node are cut into one shard each, all wired to the shared top cut node.
+     *
+     *            input
+     *          /   |   \
+     *        t0    t1    t2
+     *        |     |     |
+     *       out0  out1  out2
+     */
+    @Test
+    void checkSharedTopCut() {
+        EnactmentGraph eGraph = new EnactmentGraph();
+        Resource resource = new Resource("https://example.lambda-url.us-east-1.on.aws/");
+        ResourceGraph rGraph = new ResourceGraph();
+        rGraph.addVertex(resource);
+        MappingsConcurrent mappings = new MappingsConcurrent();
+        Task input = new Communication("input");
+        PropertyServiceData.makeRoot(input);
+        Set<Task> bottomCut = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            Task task = PropertyServiceFunctionUser.createUserTask("t" + i, "noop");
+            Task output = new Communication("out" + i);
+            PropertyServiceDependency.addDataDependency(input, task, "input", eGraph);
+            PropertyServiceDependency.addDataDependency(task, output, "output", eGraph);
+            PropertyServiceData.makeLeaf(output);
+            Mapping<Task, Resource> mapping = PropertyServiceMapping.createMapping(task, resource,
+                PropertyServiceMapping.EnactmentMode.Serverless, resource.getId());
+            PropertyServiceScheduler.setDuration(mapping, 1000.0);
+            mappings.addMapping(mapping);
+            bottomCut.add(output);
+        }
+        EnactmentSpecification specification = new EnactmentSpecification(eGraph, rGraph, mappings,
+            UUID.randomUUID().toString());
+        Set<Task> topCut = Collections.singleton(input);
+        ShardedIncision incision = new ShardedIncision(new Incision(), new CutCostModel(100.0), 1);
+
+        List<Cut> shards = incision.shards(specification, topCut, bottomCut);
+        assertEquals(3, shards.size());
+        shards.forEach(shard -> assertEquals(topCut, shard.getTopCut()));
+        shards.forEach(shard -> assertEquals(1, shard.getBottomCut().size()));
+
+        List<EnactmentSpecification> result = incision.cut(specification, topCut, bottomCut);
+        assertEquals(3, result.size());
+        result.forEach(shard -> assertEquals(1, shard.getEnactmentGraph().getVertices().stream()
+            .filter(task -> !(task instanceof Communication)).count()));
+
+        // The shared top cut node feeds the three engines only
+        assertEquals(3, eGraph.getSuccessorCount(input));
+        eGraph.getSuccessors(input).forEach(engine -> {
+            assertEquals(Utility.DE_TYPE_ID, PropertyServiceFunction.getTypeId(engine));
+            assertEquals(1, eGraph.getSuccessorCount(engine));
+        });
+        for (int i = 0; i < 3; i++) {
+            assertNull(eGraph.getVertex("t" + i));
+        }
+    }
+
+    /**
+     * Get the communication nodes with the given indices.
+     *
+     * @param eGraph the enactment graph.
+     * @param indices the indices of the communication nodes.
+     *
+     * @return the communication nodes.
+     */
+    private Set<Task> nodes(final EnactmentGraph eGraph, final int... indices) {
+        Set<Task> nodes = new HashSet<>();
+        for (int index : indices) {
+            nodes.add(eGraph.getVertex("commNode" + index));
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,56 @@
+package at.uibk.dps.di.incision;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the caching of resource graphs and mappings.
+ *
+ * @author Stefan Pedratscher
+ */
+public class SpecificationCacheTest {
+
+    private final String mappingsPath = "src/test/resources/mapping.json";
+
+    /**
+     * Check that specifications created from the cache equal the uncached ones
+     * and do not share resources or mappings.
+     */
+    @Test
+    void checkCachedSpecification() {
+        SpecificationCache cache = new SpecificationCache();
+        EnactmentSpecification first = cache.getSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph(), mappingsPath);
+        first.getMappings().mappingStream().forEach(mapping -> PropertyServiceScheduler.setDuration(mapping, 1000.0));
+
+        EnactmentSpecification second = cache.getSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph(), mappingsPath);
+
+        assertEquals(first.getMappings().size(), second.getMappings().size());
+        assertEquals(first.getResourceGraph().getVertexCount(), second.getResourceGraph().getVertexCount());
+        for (Resource resource : first.getResourceGraph().getVertices()) {
+            assertNotSame(resource, second.getResourceGraph().getVertex(resource.getId()));
+        }
+        for (Task task : second.getEnactmentGraph().getVertices()) {
+            for (Mapping<Task, Resource> mapping : second.getMappings().getMappings(task)) {
+                assertSame(task, mapping.getSource());
+                assertSame(second.getResourceGraph().getVertex(mapping.getTarget().getId()), mapping.getTarget());
+                assertFalse(PropertyServiceScheduler.isDurationSet(mapping));
+            }
+        }
+    }
+
+    /**
+     * Check that unknown type mapping files are rejected.
+     */
+    @Test
+    void checkMissingFile() {
+        assertThrows(IllegalArgumentException.class, () -> new SpecificationCache()
+            .getSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph(), "src/test/resources/missing.json"));
+    }
+}
@@ -0,0 +1,78 @@
+package at.uibk.dps.di.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the metrics registry.
+ *
+ * @author Stefan Pedratscher
+ */
+public class MetricsRegistryTest {
+
+    @Test
+    void testDisabled() {
+        MetricsRegistry registry = new MetricsRegistry(false);
+        registry.counter("calls").increment();
+        registry.histogram("time").record(100);
+
+        assertEquals(0, registry.counter("calls").get());
+        assertEquals(0, registry.histogram("time").getCount());
+        assertEquals(0L, registry.start());
+    }
+
+    @Test
+    void testCounter() {
+        MetricsRegistry registry = new MetricsRegistry(true);
+        Counter counter = registry.counter("calls");
+        counter.increment();
+        counter.add(4);
+
+        assertEquals(5, registry.counter("calls").get());
+        registry.reset();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    void testHistogram() {
+        MetricsRegistry registry = new MetricsRegistry(true);
+        Histogram histogram = registry.histogram("size");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(1, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.getValueAtPercentile(50), 500 * 0.07);
+        assertEquals(990, histogram.getValueAtPercentile(99), 990 * 0.07);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testBuckets() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE}) {
+            long bucketValue = Histogram.value(Histogram.index(value));
+            assertEquals(value, bucketValue, Math.max(1.0, value * 0.035));
+        }
+    }
+
+    @Test
+    void testExport() {
+        MetricsRegistry registry = new MetricsRegistry(true);
+        registry.counter("scheduler_reranks_total").add(3);
+        registry.histogram("scheduler_cuts").record(2);
+
+        String prometheus = registry.toPrometheus();
+        assertTrue(prometheus.contains("# TYPE scheduler_reranks_total counter\nscheduler_reranks_total 3\n"));
+        assertTrue(prometheus.contains("scheduler_cuts{quantile=\"0.5\"} 2\n"));
+        assertTrue(prometheus.contains("scheduler_cuts_count 1\n"));
+
+        String json = registry.toJson();
+        assertTrue(json.contains("\"scheduler_reranks_total\": 3"));
+        assertTrue(json.contains("\"p99\": 2"));
+    }
+}
@@ -0,0 +1,93 @@
+package at.uibk.dps.di.profile;
+
+import at.uibk.dps.di.analytics.LogAnalyzer;
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the learning and persistence of function durations.
+ *
+ * @author Stefan Pedratscher
+ */
+public class DurationProfileStoreTest {
+
+    private final String uri = "https://fkwvdybi0a.execute-api.us-east-1.amazonaws.com/default/functino_noop_pub";
+
+    /**
+     * Check the accuracy of the percentiles.
+     */
+    @Test
+    void checkPercentiles() {
+        TDigest digest = new TDigest(100);
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            digest.add(random.nextDouble() * 1000.0);
+        }
+        assertEquals(500.0, digest.quantile(0.5), 10.0);
+        assertEquals(950.0, digest.quantile(0.95), 5.0);
+        assertTrue(digest.getCentroids() <= 100);
+
+        DurationProfile profile = new DurationProfile(0.5, 100);
+        profile.record(1000.0);
+        profile.record(2000.0);
+        assertEquals(1500.0, profile.get(Estimate.EWMA), 0.001);
+    }
+
+    /**
+     * Check the durations learned from an execution log and that they survive
+     * persisting the store.
+     */
+    @Test
+    void checkIngestAndPersist(@TempDir Path directory) throws IOException {
+        DurationProfileStore store = new DurationProfileStore();
+        store.ingest(Paths.get("src/test/resources/logs/execution.log"),
+            LogAnalyzer.indexTypeMappings(Paths.get("src/test/resources/logs/typemappings.json")));
+
+        DurationProfile profile = store.getProfile("soykb_alignment_to_reference",
+            "https://nvpl2u7eejdrscdll55nvomp3a0qumpv.lambda-url.us-east-1.on.aws/");
+        assertNotNull(profile);
+        assertTrue(profile.getCount() > 0);
+        assertTrue(profile.get(Estimate.P50) >= 3000.0);
+
+        Path file = directory.resolve("profiles.bin");
+        store.save(file);
+        DurationProfile loaded = DurationProfileStore.load(file).getProfile("soykb_alignment_to_reference",
+            "https://nvpl2u7eejdrscdll55nvomp3a0qumpv.lambda-url.us-east-1.on.aws/");
+        assertEquals(profile.getCount(), loaded.getCount());
+        assertEquals(profile.get(Estimate.EWMA), loaded.get(Estimate.EWMA), 0.001);
+        assertEquals(profile.get(Estimate.P95), loaded.get(Estimate.P95), 0.001);
+    }
+
+    /**
+     * Check that observed durations are applied to the matching mappings only.
+     */
+    @Test
+    void checkApply() {
+        EnactmentSpecification specification = Utility.specification(EnactmentGraphs.getMediumSizedEnactmentGraph(),
+            "src/test/resources/mapping.json");
+        DurationProfileStore store = new DurationProfileStore();
+        store.record("noop", uri, 1234.0);
+
+        int updated = store.apply(specification.getMappings(), Estimate.EWMA);
+
+        assertTrue(updated > 0);
+        specification.getMappings().mappingStream().forEach(mapping -> {
+            if (mapping.getTarget().getId().equals(uri)) {
+                assertEquals(1234.0, PropertyServiceScheduler.getDuration(mapping), 0.001);
+            } else {
+                assertFalse(PropertyServiceScheduler.isDurationSet(mapping));
+            }
+        });
+    }
+}
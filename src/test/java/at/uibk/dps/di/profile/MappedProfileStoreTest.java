@@ -0,0 +1,121 @@
+package at.uibk.dps.di.profile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the memory-mapped profile store.
+ *
+ * @author Stefan Pedratscher
+ */
+public class MappedProfileStoreTest {
+
+    /**
+     * Check that the profiles written by the writer are visible to readers and
+     * survive reopening the store.
+     */
+    @Test
+    void checkWriteAndRead(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("profiles.map");
+        try (MappedProfileStore writer = MappedProfileStore.openWriter(file, 64);
+             MappedProfileStore reader = MappedProfileStore.openReader(file)) {
+            for (int i = 0; i < 40; i++) {
+                writer.putDuration("noop", "https://function/" + i, 100.0 + i);
+            }
+            writer.putResource("https://function/1", 200.0, 500.0, 1000);
+            writer.putDuration("noop", "https://function/1", 42.0);
+
+            assertEquals(41, reader.size());
+            assertEquals(42.0, reader.get("noop", "https://function/1").getDuration(), 0.001);
+            assertEquals(139.0, reader.get("noop", "https://function/39").getDuration(), 0.001);
+            MappedProfileStore.Profile resource = reader.get("", "https://function/1");
+            assertFalse(resource.isDurationSet());
+            assertEquals(500.0, resource.getLatencyGlobal(), 0.001);
+            assertEquals(1000, resource.getInstances());
+            assertNull(reader.get("other", "https://function/1"));
+            assertThrows(IllegalStateException.class, () -> reader.putDuration("noop", "x", 1.0));
+        }
+
+        try (MappedProfileStore reader = MappedProfileStore.openReader(file)) {
+            assertEquals(64, reader.getCapacity());
+            assertEquals(200.0, reader.get("", "https://function/1").getLatencyLocal(), 0.001);
+        }
+    }
+
+    /**
+     * Check that only one writer can open a store and that full stores are
+     * rejected.
+     */
+    @Test
+    void checkSingleWriterAndCapacity(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("profiles.map");
+        try (MappedProfileStore writer = MappedProfileStore.openWriter(file, 4)) {
+            assertThrows(IllegalStateException.class, () -> MappedProfileStore.openWriter(file, 4));
+            for (int i = 0; i < 3; i++) {
+                writer.putDuration("noop", "r" + i, i);
+            }
+            assertThrows(IllegalStateException.class, () -> writer.putDuration("noop", "r3", 3.0));
+        }
+    }
+
+    /**
+     * Check that a record left locked by a crashed writer does not block the
+     * readers and is unlocked when the next writer opens the store.
+     */
+    @Test
+    void checkCrashedWriter(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("profiles.map");
+        try (MappedProfileStore writer = MappedProfileStore.openWriter(file, 4)) {
+            writer.putDuration("noop", "r0", 10.0);
+        }
+
+        // Simulate a writer crashing in the middle of a write (odd sequence number)
+        long locked = -1;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            for (int record = 0; record < 4; record++) {
+                long offset = 64 + record * 512L;
+                raf.seek(offset + 4);
+                if ((raf.readInt() & 1) != 0) {
+                    raf.seek(offset);
+                    int sequence = raf.readInt();
+                    raf.seek(offset);
+                    raf.writeInt(sequence + 1);
+                    locked = offset;
+                }
+            }
+        }
+        assertTrue(locked >= 0);
+
+        try (MappedProfileStore reader = MappedProfileStore.openReader(file)) {
+            assertNull(assertTimeoutPreemptively(Duration.ofSeconds(10), () -> reader.get("noop", "r0")));
+        }
+        try (MappedProfileStore writer = MappedProfileStore.openWriter(file, 4)) {
+            assertEquals(1, writer.size());
+            assertEquals(10.0, writer.get("noop", "r0").getDuration(), 0.001);
+            writer.putDuration("noop", "r0", 20.0);
+        }
+        try (MappedProfileStore reader = MappedProfileStore.openReader(file);
+             RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            assertEquals(20.0, reader.get("noop", "r0").getDuration(), 0.001);
+            raf.seek(locked);
+            assertEquals(0, raf.readInt() & 1);
+        }
+    }
+
+    /**
+     * Check that capacities exceeding the mappable file size are rejected.
+     */
+    @Test
+    void checkMaxCapacity(@TempDir Path directory) {
+        Path file = directory.resolve("profiles.map");
+        assertThrows(IllegalArgumentException.class, () -> MappedProfileStore.openWriter(file, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> MappedProfileStore.openWriter(file, 0));
+    }
+}
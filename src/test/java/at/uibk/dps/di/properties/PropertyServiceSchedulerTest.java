@@ -2,13 +2,17 @@ package at.uibk.dps.di.properties;
 
 import at.uibk.dps.ee.model.properties.PropertyServiceMapping;
 import at.uibk.dps.ee.model.properties.PropertyServiceResource;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Dependency;
 import net.sf.opendse.model.Mapping;
 import net.sf.opendse.model.Resource;
 import net.sf.opendse.model.Task;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PropertyServiceSchedulerTest {
 
@@ -45,4 +49,20 @@ public class PropertyServiceSchedulerTest {
         PropertyServiceScheduler.setInstances(result, 5);
         assertEquals(5, PropertyServiceScheduler.getInstances(result));
     }
+
+    @Test
+    public void testTransferTimeAndDataSize() {
+        Task comm = new Communication("comm");
+        Dependency dependency = new Dependency("dep");
+        assertFalse(PropertyServiceScheduler.isTransferTimeSet(dependency));
+        assertFalse(PropertyServiceScheduler.isDataSizeSet(comm));
+        assertThrows(IllegalArgumentException.class, () -> PropertyServiceScheduler.getTransferTime(dependency));
+        assertThrows(IllegalArgumentException.class, () -> PropertyServiceScheduler.getDataSize(comm));
+        PropertyServiceScheduler.setTransferTime(dependency, 4.0);
+        PropertyServiceScheduler.setDataSize(comm, 1024);
+        assertTrue(PropertyServiceScheduler.isTransferTimeSet(dependency));
+        assertTrue(PropertyServiceScheduler.isDataSizeSet(comm));
+        assertEquals(4.0, PropertyServiceScheduler.getTransferTime(dependency));
+        assertEquals(1024, PropertyServiceScheduler.getDataSize(comm));
+    }
 }
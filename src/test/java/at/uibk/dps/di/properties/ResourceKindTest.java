@@ -0,0 +1,58 @@
+package at.uibk.dps.di.properties;
+
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.ee.model.properties.PropertyServiceMapping.EnactmentMode;
+import at.uibk.dps.ee.model.properties.PropertyServiceResourceServerless;
+import net.sf.opendse.model.Resource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test the resolution of the resource kinds.
+ *
+ * @author Stefan Pedratscher
+ */
+public class ResourceKindTest {
+
+    @Test
+    void testExplicitKind() {
+        Resource resource = new Resource("https://example.com/function");
+        PropertyServiceScheduler.setResourceKind(resource, ResourceKind.DISTRIBUTED_ENGINE);
+        assertEquals(ResourceKind.DISTRIBUTED_ENGINE, ResourceKind.of(resource));
+        assertEquals(ResourceKind.DISTRIBUTED_ENGINE, ResourceKind.of(resource, EnactmentMode.Local));
+    }
+
+    @Test
+    void testEngines() {
+        assertEquals(ResourceKind.LOCAL_ENGINE, ResourceKind.of(new Resource(Utility.ENGINE)));
+        assertEquals(ResourceKind.DISTRIBUTED_ENGINE, ResourceKind.of(new Resource(Utility.DE_AWS_US_EAST_1),
+            EnactmentMode.Serverless));
+    }
+
+    @Test
+    void testEnactmentMode() {
+        assertEquals(ResourceKind.LOCAL_ENGINE, ResourceKind.of(new Resource("Local Machine"), EnactmentMode.Local));
+        assertEquals(ResourceKind.SERVERLESS, ResourceKind.of(new Resource("fn"), EnactmentMode.Serverless));
+        assertEquals(ResourceKind.VM, ResourceKind.of(new Resource("Vs"), null));
+
+        // No substring matching of the id
+        assertEquals(ResourceKind.VM, ResourceKind.of(new Resource("Local")));
+        assertEquals(ResourceKind.VM, ResourceKind.of(new Resource("https://example.com/function")));
+    }
+
+    @Test
+    void testServerlessUri() {
+        Resource resource = new Resource("fn");
+        PropertyServiceResourceServerless.setUri(resource, "https://example.com/function");
+        assertEquals(ResourceKind.SERVERLESS, ResourceKind.of(resource));
+    }
+
+    @Test
+    void testEntryLatency() {
+        assertEquals(ResourceKind.REMOTE_ENTRY_LATENCY, ResourceKind.SERVERLESS.getEntryLatency());
+        assertEquals(ResourceKind.REMOTE_ENTRY_LATENCY, ResourceKind.DISTRIBUTED_ENGINE.getEntryLatency());
+        assertEquals(0.0, ResourceKind.LOCAL_ENGINE.getEntryLatency());
+        assertEquals(0.0, ResourceKind.VM.getEntryLatency());
+    }
+}
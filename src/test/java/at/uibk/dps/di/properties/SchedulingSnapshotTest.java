@@ -0,0 +1,82 @@
+package at.uibk.dps.di.properties;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
+import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
+import at.uibk.dps.ee.model.graph.EnactmentGraphProvider;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.ResourceGraphProvider;
+import net.sf.opendse.model.Mapping;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test the snapshot of the scheduling attributes.
+ *
+ * @author Stefan Pedratscher
+ */
+public class SchedulingSnapshotTest {
+
+    private final String cloudResourceName = "https://fkwvdybi0a.execute-api.us-east-1.amazonaws.com/default/functino_noop_pub";
+
+    /**
+     * Setup the specification of the medium sized graph. Cloud mappings
+     * take 1000ms and all other mappings 2000ms.
+     *
+     * @return the generated specification.
+     */
+    private EnactmentSpecification setupSpecification() {
+        final EnactmentGraphProvider eGraphProvider = EnactmentGraphs::getMediumSizedEnactmentGraph;
+        String mappingsPath = "src/test/resources/mapping.json";
+        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
+        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
+        final EnactmentSpecification specification = specProv.getSpecification();
+
+        specification.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setDuration(map,
+            map.getTarget().getId().equals(cloudResourceName) ? 1000.0 : 2000.0));
+        return specification;
+    }
+
+    @Test
+    void testDurations() {
+        final EnactmentSpecification specification = setupSpecification();
+        final SchedulingSnapshot snapshot = new SchedulingSnapshot(specification);
+        final Task task = specification.getEnactmentGraph().getVertex("taskNode1");
+
+        final double expected = specification.getMappings().getMappings(task).stream()
+            .mapToDouble(PropertyServiceScheduler::getDuration).average().getAsDouble();
+        assertEquals(expected, snapshot.getAverageDuration(task), 0.001);
+        assertEquals(1000.0, snapshot.getDuration(task, cloudResourceName), 0.001);
+        assertEquals(1000.0, snapshot.getDurationOnType(task, "amazonaws"), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getDuration(task, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getDurationOnType(task, "unknown"));
+    }
+
+    @Test
+    void testRefresh() {
+        final EnactmentSpecification specification = setupSpecification();
+        final SchedulingSnapshot snapshot = new SchedulingSnapshot(specification);
+        final Task task = specification.getEnactmentGraph().getVertex("taskNode1");
+
+        // Keep only the cloud mapping of the task
+        final List<Mapping<Task, Resource>> toRemove = new ArrayList<>();
+        for (Mapping<Task, Resource> mapping : specification.getMappings().getMappings(task)) {
+            if (!mapping.getTarget().getId().equals(cloudResourceName)) {
+                toRemove.add(mapping);
+            }
+        }
+        toRemove.forEach(specification.getMappings()::removeMapping);
+
+        // Changes are only visible after an explicit refresh
+        snapshot.refresh(task);
+        assertEquals(1000.0, snapshot.getAverageDuration(task), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> snapshot.refresh(new Task("unknown")));
+    }
+}
@@ -1,5 +1,7 @@
 package at.uibk.dps.di.scheduler;
 
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.di.properties.ResourceKind;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -18,4 +20,31 @@ public class ResourceTest {
         assertEquals(1200.0, resource.earliestStartTime(0, true));
         assertEquals(1600.0, resource.earliestStartTime(0, false));*/
     }
+
+    @Test
+    public void testResourceKind() {
+        assertEquals(ResourceKind.LOCAL_ENGINE, new Resource(Utility.ENGINE, 1).getKind());
+        assertEquals(ResourceKind.DISTRIBUTED_ENGINE, new Resource(Utility.DE_AWS_US_EAST_1, 1).getKind());
+        // Resources without properties are only recognized by the reserved engine ids
+        assertEquals(ResourceKind.VM, new Resource("https://example.com/function", 1).getKind());
+        assertEquals(ResourceKind.VM, new Resource("Local", 1).getKind());
+        assertEquals(ResourceKind.SERVERLESS,
+            new Resource("https://example.com/function", 1, 0, 0, ResourceKind.SERVERLESS).getKind());
+        assertEquals(ResourceKind.VM, new Resource("type", 1).getKind());
+        assertEquals(ResourceKind.VM, new Resource("type", 1, 100, 400, ResourceKind.VM).getKind());
+    }
+
+    @Test
+    public void testGapFilling() {
+        Resource local = new Resource("type", 1, 0, 0, ResourceKind.LOCAL_ENGINE);
+        assertEquals(1000.0, local.setResource(0, 1000.0, true));
+        assertEquals(3000.0, local.setResource(2000.0, 1000.0, true));
+
+        // The gap between 1000 and 2000 is filled on the local engine only
+        assertEquals(1500.0, local.earliestStartTime(1000.0, true, 500.0));
+        Resource vm = new Resource("type", 1, 0, 0, ResourceKind.VM);
+        vm.setResource(0, 1000.0, true);
+        vm.setResource(2000.0, 1000.0, true);
+        assertEquals(3500.0, vm.earliestStartTime(1000.0, true, 500.0));
+    }
 }
@@ -1,20 +1,35 @@
 package at.uibk.dps.di.scheduler;
 
 import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.incision.Incision;
 import at.uibk.dps.di.properties.PropertyServiceScheduler;
 import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
 import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
 import at.uibk.dps.ee.model.graph.*;
 import at.uibk.dps.ee.visualization.model.EnactmentGraphViewer;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Dependency;
 import net.sf.opendse.model.Mapping;
 import net.sf.opendse.model.Resource;
 import net.sf.opendse.model.Task;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test the workflow evaluator / scheduler.
@@ -36,11 +51,7 @@ public class SchedulerTest {
     private EnactmentSpecification setupSpecification(EnactmentGraph eGraph) {
 
         // Generate the specification
-        final EnactmentGraphProvider eGraphProvider = () -> eGraph;
-        String mappingsPath = "src/test/resources/mapping.json";
-        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
-        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
-        final EnactmentSpecification specification = specProv.getSpecification();
+        final EnactmentSpecification specification = createSpecification(eGraph);
 
         // Set up resource instances and latency
         Resource local = specification.getResourceGraph().getVertex(localResourceName);
@@ -162,4 +173,189 @@ public class SchedulerTest {
         assertEquals("commNode18", bottomCut3.next().getId());
  */
    }
+
+    /**
+     * Generate the specification without scheduling properties.
+     *
+     * @param eGraph the graph to generate the specification from.
+     *
+     * @return the generated specification.
+     */
+    private EnactmentSpecification createSpecification(EnactmentGraph eGraph) {
+        final EnactmentGraphProvider eGraphProvider = () -> eGraph;
+        String mappingsPath = "src/test/resources/mapping.json";
+        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
+        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
+        return specProv.getSpecification();
+    }
+
+    @Test
+    void scheduleWithPlanCache() {
+        PlanCache planCache = new PlanCache(10, 60000, 0.05);
+
+        final EnactmentSpecification first = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        List<Cut> cuts = new Scheduler(planCache).schedule(first);
+        assertEquals(0, planCache.getHits());
+        assertEquals(1, planCache.getMisses());
+
+        // Same structure and profile reuses the plan on the new graph
+        final EnactmentSpecification second = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        List<Cut> cachedCuts = new Scheduler(planCache).schedule(second);
+        assertEquals(1, planCache.getHits());
+        assertEquals(cuts.size(), cachedCuts.size());
+        for (int i = 0; i < cuts.size(); i++) {
+            Task top = cachedCuts.get(i).getTopCut().iterator().next();
+            assertEquals(cuts.get(i).getTopCut().iterator().next().getId(), top.getId());
+            assertEquals(top, second.getEnactmentGraph().getVertex(top.getId()));
+        }
+        assertEquals(first.getMappings().size(), second.getMappings().size());
+
+        // A different duration profile is a miss
+        final EnactmentSpecification third = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        third.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setDuration(map, 4000.0));
+        new Scheduler(planCache).schedule(third);
+        assertEquals(2, planCache.getMisses());
+        assertEquals(2, planCache.size());
+        assertEquals(1.0 / 3.0, planCache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void planCacheRelabelsRenamedGraph() {
+        PlanCache planCache = new PlanCache(10, 60000, 0.05);
+        final EnactmentSpecification first = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        List<Cut> cuts = new Scheduler(planCache).schedule(first);
+
+        // An isomorphic graph with other ids reuses the plan on its own nodes
+        final EnactmentGraph renamedGraph = renamed(EnactmentGraphs.getMediumSizedEnactmentGraph(), "renamed/");
+        final EnactmentSpecification second = setupSpecification(renamedGraph);
+        List<Cut> cachedCuts = new Scheduler(planCache).schedule(second);
+        assertEquals(1, planCache.getHits());
+        assertEquals(cuts.size(), cachedCuts.size());
+        for (int i = 0; i < cuts.size(); i++) {
+            for (Task top : cachedCuts.get(i).getTopCut()) {
+                assertTrue(top.getId().startsWith("renamed/"));
+                assertSame(top, renamedGraph.getVertex(top.getId()));
+            }
+            Set<String> expected = new HashSet<>();
+            cuts.get(i).getBottomCut().forEach(task -> expected.add("renamed/" + task.getId()));
+            Set<String> actual = new HashSet<>();
+            cachedCuts.get(i).getBottomCut().forEach(task -> actual.add(task.getId()));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void planCacheMissesOnCostChange() {
+        PlanCache planCache = new PlanCache(10, 60000, 0.05);
+        final EnactmentSpecification first = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        first.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setCost(map, 0.001));
+        PlanCache.Key firstKey = planCache.key(first, "");
+        planCache.put(firstKey, first, new ArrayList<>());
+
+        // Same structure and durations, but a different price
+        final EnactmentSpecification second = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        second.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setCost(map, 0.0011));
+        PlanCache.Key secondKey = planCache.key(second, "");
+        assertNotEquals(firstKey.getKey(), secondKey.getKey());
+        assertNull(planCache.get(secondKey, second));
+        assertEquals(1, planCache.getMisses());
+
+        // The same price hits
+        final EnactmentSpecification third = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        third.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setCost(map, 0.001));
+        assertNotNull(planCache.get(planCache.key(third, ""), third));
+    }
+
+    @Test
+    void planCacheKeysSubUnitProfiles() {
+        PlanCache planCache = new PlanCache(10, 60000, 0.05);
+        Set<String> keys = new HashSet<>();
+
+        // Unset, non-positive and sub-unit values all have their own key
+        keys.add(planCache.key(createSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph()), "").getKey());
+        for (double value : new double[] {0.0, 0.9, 0.95}) {
+            final EnactmentSpecification durations = createSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+            durations.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setDuration(map, value));
+            keys.add(planCache.key(durations, "").getKey());
+
+            final EnactmentSpecification latencies = createSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+            PropertyServiceScheduler.setLatencyLocal(latencies.getResourceGraph().getVertex(cloudResourceName), value);
+            keys.add(planCache.key(latencies, "").getKey());
+        }
+        assertEquals(7, keys.size());
+
+        // Sub-unit values within the resolution share the key
+        final EnactmentSpecification first = createSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        first.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setDuration(map, 0.5));
+        final EnactmentSpecification second = createSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        second.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setDuration(map, 0.501));
+        assertEquals(planCache.key(first, "").getKey(), planCache.key(second, "").getKey());
+    }
+
+    /**
+     * Copy a graph with prefixed node and edge ids.
+     *
+     * @param eGraph the graph to copy.
+     * @param prefix the prefix of the ids.
+     *
+     * @return the copied graph.
+     */
+    private EnactmentGraph renamed(final EnactmentGraph eGraph, final String prefix) {
+        final EnactmentGraph result = new EnactmentGraph();
+        final Map<Task, Task> copies = new HashMap<>();
+        for (Task task : eGraph.getVertices()) {
+            final Task copy = task instanceof Communication ? new Communication(prefix + task.getId())
+                : new Task(prefix + task.getId());
+            task.getAttributeNames().forEach(name -> copy.setAttribute(name, task.getAttribute(name)));
+            copies.put(task, copy);
+            result.addVertex(copy);
+        }
+        for (Dependency edge : eGraph.getEdges()) {
+            final Dependency copy = new Dependency(prefix + edge.getId());
+            edge.getAttributeNames().forEach(name -> copy.setAttribute(name, edge.getAttribute(name)));
+            result.addEdge(copy, copies.get(eGraph.getSource(edge)), copies.get(eGraph.getDest(edge)),
+                EdgeType.DIRECTED);
+        }
+        return result;
+    }
+
+    @Test
+    void planCacheEviction() {
+        long[] time = {0};
+        PlanCache planCache = new PlanCache(1, 1000, 0.05, () -> time[0]);
+
+        final EnactmentSpecification first = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        PlanCache.Key firstKey = planCache.key(first, "");
+        planCache.put(firstKey, first, new ArrayList<>());
+        final EnactmentSpecification second = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph2());
+        PlanCache.Key secondKey = planCache.key(second, "");
+        planCache.put(secondKey, second, new ArrayList<>());
+
+        // Least recently used plan is evicted
+        assertEquals(1, planCache.size());
+        assertEquals(1, planCache.getEvictions());
+        assertEquals(null, planCache.get(firstKey, first));
+
+        // Expired plans are evicted
+        time[0] = 2000;
+        assertEquals(null, planCache.get(secondKey, second));
+        assertEquals(0, planCache.size());
+    }
+
+    @Test
+    void scheduleWithCutPlanner() {
+        final EnactmentSpecification specification = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        List<Cut> cuts = new Scheduler(null, new CutCostModel(100.0)).schedule(specification);
+
+        // All planned cuts are valid
+        assertFalse(cuts.isEmpty());
+        Incision incision = new Incision();
+        for (Cut cut : cuts) {
+            assertTrue(incision.isCutValid(specification.getEnactmentGraph(), cut.getTopCut(), cut.getBottomCut()));
+        }
+
+        // Invocations more expensive than the saved latencies are not cut out
+        final EnactmentSpecification expensive = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        assertTrue(new Scheduler(null, new CutCostModel(1.0e9)).schedule(expensive).isEmpty());
+    }
 }
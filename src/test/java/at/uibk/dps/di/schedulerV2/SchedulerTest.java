@@ -0,0 +1,103 @@
+package at.uibk.dps.di.schedulerV2;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.scheduler.PlanCache;
+import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
+import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentGraphProvider;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.ResourceGraphProvider;
+import net.sf.opendse.model.Communication;
+import net.sf.opendse.model.Resource;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Test the budget aware scheduler.
+ *
+ * @author Stefan Pedratscher
+ */
+public class SchedulerTest {
+
+    private final String localResourceName = "Enactment Engine (Local Machine)";
+    private final String cloudResourceName = "https://fkwvdybi0a.execute-api.us-east-1.amazonaws.com/default/functino_noop_pub";
+
+    /**
+     * Setup the specification and add function durations, costs and resource
+     * latency.
+     *
+     * @param eGraph the graph to generate the specification from.
+     *
+     * @return the generated specification.
+     */
+    private EnactmentSpecification setupSpecification(EnactmentGraph eGraph) {
+        final EnactmentGraphProvider eGraphProvider = () -> eGraph;
+        String mappingsPath = "src/test/resources/mapping.json";
+        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
+        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
+        final EnactmentSpecification specification = specProv.getSpecification();
+
+        Resource local = specification.getResourceGraph().getVertex(localResourceName);
+        PropertyServiceScheduler.setLatencyLocal(local, 0.0);
+        PropertyServiceScheduler.setLatencyGlobal(local, 0.0);
+        PropertyServiceScheduler.setInstances(local, 1);
+        Resource noop = specification.getResourceGraph().getVertex(cloudResourceName);
+        PropertyServiceScheduler.setLatencyLocal(noop, 200.0);
+        PropertyServiceScheduler.setLatencyGlobal(noop, 500.0);
+        PropertyServiceScheduler.setInstances(noop, 1000);
+
+        specification.getMappings().mappingStream().forEach((map) -> {
+            boolean isLocal = map.getTarget().getId().equals(localResourceName);
+            PropertyServiceScheduler.setDuration(map, isLocal ? 2000.0 : 1000.0);
+            PropertyServiceScheduler.setCost(map, isLocal ? 0.0 : 0.001);
+        });
+        return specification;
+    }
+
+    /**
+     * Get the placements of the tasks by task id.
+     *
+     * @param specification the scheduled specification.
+     *
+     * @return the placements.
+     */
+    private Map<String, Object> placements(EnactmentSpecification specification) {
+        Map<String, Object> placements = new HashMap<>();
+        for (Task task : specification.getEnactmentGraph().getVertices()) {
+            if (!(task instanceof Communication)) {
+                placements.put(task.getId(), task.getAttribute("FINAL_FT"));
+            }
+        }
+        return placements;
+    }
+
+    @Test
+    void scheduleWithPlanCache() {
+        final EnactmentSpecification uncached = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        new Scheduler(new ArrayList<>()).schedule(uncached, 1.0);
+        Map<String, Object> expected = placements(uncached);
+        assertFalse(expected.containsValue(null));
+
+        PlanCache planCache = new PlanCache(10, 60000, 0.05);
+        final EnactmentSpecification first = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        new Scheduler(new ArrayList<>(), planCache).schedule(first, 1.0);
+        assertEquals(0, planCache.getHits());
+        assertEquals(expected, placements(first));
+
+        // A repeated submission restores the placements of the plan
+        final EnactmentSpecification second = setupSpecification(EnactmentGraphs.getMediumSizedEnactmentGraph());
+        new Scheduler(new ArrayList<>(), planCache).schedule(second, 1.0);
+        assertEquals(1, planCache.getHits());
+        assertEquals(expected, placements(second));
+        assertEquals(first.getMappings().size(), second.getMappings().size());
+    }
+}
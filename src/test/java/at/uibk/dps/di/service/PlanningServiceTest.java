@@ -0,0 +1,107 @@
+package at.uibk.dps.di.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the storage of the workflow files of the planning service.
+ *
+ * @author Stefan Pedratscher
+ */
+public class PlanningServiceTest {
+
+    private long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Check that files with the same content are written once.
+     */
+    @Test
+    void checkReuse(@TempDir Path directory) throws IOException {
+        PlanningService service = new PlanningService(directory);
+        Path afcl = service.materialize("name: wf", ".yaml");
+        assertEquals(afcl, service.materialize("name: wf", ".yaml"));
+        assertEquals("name: wf", new String(Files.readAllBytes(afcl)));
+        assertNotEquals(afcl, service.materialize("name: other", ".yaml"));
+        assertEquals(2, countFiles(directory));
+
+        // Files deleted by others are written again
+        Files.delete(afcl);
+        assertEquals(afcl, service.materialize("name: wf", ".yaml"));
+        assertTrue(Files.exists(afcl));
+    }
+
+    /**
+     * Check that the least recently used files are deleted.
+     */
+    @Test
+    void checkMaxFiles(@TempDir Path directory) throws IOException {
+        PlanningService service = new PlanningService(directory, null, null, 2, 1000L);
+        Path first = service.materialize("first", ".json");
+        Path second = service.materialize("second", ".json");
+        service.materialize("first", ".json");
+        Path third = service.materialize("third", ".json");
+
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(third));
+        assertEquals(2, countFiles(directory));
+    }
+
+    /**
+     * Check that files unused for longer than the time to live are deleted.
+     */
+    @Test
+    void checkExpiry(@TempDir Path directory) throws IOException {
+        AtomicLong clock = new AtomicLong();
+        PlanningService service = new PlanningService(directory, null, null, 10, 100L, clock::get);
+        Path first = service.materialize("first", ".json");
+        Path second = service.materialize("second", ".json");
+        clock.set(60L);
+        service.materialize("second", ".json");
+
+        clock.set(150L);
+        Path third = service.materialize("third", ".json");
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+        assertTrue(Files.exists(third));
+        assertEquals(2, countFiles(directory));
+    }
+
+    /**
+     * Check that closing the service deletes its files and the directory.
+     */
+    @Test
+    void checkClose(@TempDir Path tmp) throws IOException {
+        Path directory = tmp.resolve("files");
+        PlanningService service = new PlanningService(directory);
+        service.materialize("first", ".json");
+        service.materialize("second", ".yaml");
+        service.close();
+        assertFalse(Files.exists(directory));
+
+        // Files not written by the service are kept
+        service.materialize("first", ".json");
+        Path foreign = Files.write(directory.resolve("foreign.txt"), new byte[] {1});
+        service.close();
+        assertTrue(Files.exists(foreign));
+        assertEquals(1, countFiles(directory));
+    }
+
+    @Test
+    void checkConfiguration(@TempDir Path directory) {
+        assertThrows(IllegalArgumentException.class, () -> new PlanningService(directory, null, null, 1, 1000L));
+        assertThrows(IllegalArgumentException.class, () -> new PlanningService(directory, null, null, 2, 0L));
+    }
+}
@@ -0,0 +1,139 @@
+package at.uibk.dps.di.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the HTTP interface of the planning service.
+ *
+ * @author Stefan Pedratscher
+ */
+public class PlanningVerticleTest {
+
+    private Vertx vertx;
+    private WebClient client;
+    private Path directory;
+    private String deploymentId;
+    private int port;
+
+    @BeforeEach
+    void setUp(@TempDir Path tmp) throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        directory = tmp.resolve("workflows");
+        vertx = Vertx.vertx();
+        client = WebClient.create(vertx);
+        deploymentId = await(vertx.deployVerticle(new PlanningVerticle(port, new PlanningService(directory))));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        await(vertx.close());
+    }
+
+    private <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    }
+
+    private HttpResponse<Buffer> post(String path, Buffer body) throws Exception {
+        return await(client.post(port, "localhost", path).sendBuffer(body));
+    }
+
+    private HttpResponse<Buffer> post(String path, JsonObject body) throws Exception {
+        return post(path, body.toBuffer());
+    }
+
+    private JsonObject workflow() throws IOException {
+        return new JsonObject()
+            .put("afcl", new String(Files.readAllBytes(Paths.get("src/test/resources/wf1.yaml")), StandardCharsets.UTF_8))
+            .put("mapping", new String(Files.readAllBytes(Paths.get("src/test/resources/wf1.json")), StandardCharsets.UTF_8));
+    }
+
+    private void assertError(HttpResponse<Buffer> response, String error) {
+        assertEquals(400, response.statusCode());
+        assertEquals("application/json", response.getHeader("content-type"));
+        assertTrue(response.bodyAsJsonObject().getString("error").startsWith(error));
+    }
+
+    /**
+     * Check scheduling a workflow, cutting it with the returned cuts and
+     * scheduling the returned specification again.
+     */
+    @Test
+    void checkRoundTrip() throws Exception {
+        HttpResponse<Buffer> scheduled = post("/schedule", workflow());
+        assertEquals(200, scheduled.statusCode());
+        JsonArray cuts = scheduled.bodyAsJsonObject().getJsonArray("cuts");
+        assertNotNull(cuts);
+        for (int i = 0; i < cuts.size(); i++) {
+            assertFalse(cuts.getJsonObject(i).getJsonArray("top").isEmpty());
+            assertFalse(cuts.getJsonObject(i).getJsonArray("bottom").isEmpty());
+        }
+
+        HttpResponse<Buffer> cut = post("/cut", workflow().put("cuts", cuts));
+        assertEquals(200, cut.statusCode());
+        String specification = cut.bodyAsJsonObject().getString("specification");
+        assertNotNull(specification);
+
+        HttpResponse<Buffer> rescheduled = post("/schedule", new JsonObject().put("specification", specification));
+        assertEquals(200, rescheduled.statusCode());
+        assertNotNull(rescheduled.bodyAsJsonObject().getJsonArray("cuts"));
+
+        // The workflow files are written once
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    /**
+     * Check the responses to invalid requests.
+     */
+    @Test
+    void checkErrors() throws Exception {
+        assertError(post("/schedule", Buffer.buffer("{invalid")), "Invalid JSON body");
+        assertError(post("/schedule", Buffer.buffer()), "Missing JSON body");
+        assertError(post("/schedule", new JsonObject().put("afcl", "name: wf")),
+            "Either specification or afcl and mapping required");
+        assertError(post("/cut", new JsonObject().put("specification", "<invalid")), "Invalid specification");
+        assertError(post("/schedule", workflow().put("resources",
+            new JsonObject().put("unknown", new JsonObject().put("instances", 1)))), "Unknown resource unknown");
+        assertError(post("/cut", workflow().put("cuts",
+            new JsonArray().add(new JsonObject().put("top", new JsonArray().add("unknown"))))), "Unknown node unknown");
+        assertEquals(404, post("/unknown", new JsonObject()).statusCode());
+    }
+
+    /**
+     * Check that undeploying the verticle deletes the workflow files.
+     */
+    @Test
+    void checkUndeploy() throws Exception {
+        // The workflow files are written before the request is validated
+        assertError(post("/cut", workflow().put("cuts",
+            new JsonArray().add(new JsonObject().put("bottom", new JsonArray().add("unknown"))))), "Unknown node unknown");
+        assertTrue(Files.exists(directory));
+        await(vertx.undeploy(deploymentId));
+        assertFalse(Files.exists(directory));
+    }
+}
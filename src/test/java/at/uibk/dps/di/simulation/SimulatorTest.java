@@ -0,0 +1,169 @@
+package at.uibk.dps.di.simulation;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.incision.Incision;
+import at.uibk.dps.di.properties.PropertyServiceScheduler;
+import at.uibk.dps.di.storage.BlobStore;
+import at.uibk.dps.di.storage.LocalFileBlobStore;
+import at.uibk.dps.di.storage.PayloadCodec;
+import at.uibk.dps.ee.io.resources.ResourceGraphProviderFile;
+import at.uibk.dps.ee.io.spec.SpecificationProviderFile;
+import at.uibk.dps.ee.model.graph.*;
+import net.sf.opendse.model.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test the discrete-event simulator.
+ *
+ * @author Stefan Pedratscher
+ */
+public class SimulatorTest {
+
+    private final String cloudResourceName = "https://fkwvdybi0a.execute-api.us-east-1.amazonaws.com/default/functino_noop_pub";
+
+    /**
+     * Setup the specification of the medium sized graph. Cloud mappings
+     * take 1000ms and all other mappings 2000ms.
+     *
+     * @return the generated specification.
+     */
+    private EnactmentSpecification setupSpecification() {
+        final EnactmentGraphProvider eGraphProvider = EnactmentGraphs::getMediumSizedEnactmentGraph;
+        String mappingsPath = "src/test/resources/mapping.json";
+        final ResourceGraphProvider rGraphProv = new ResourceGraphProviderFile(mappingsPath);
+        final SpecificationProviderFile specProv = new SpecificationProviderFile(eGraphProvider, rGraphProv, mappingsPath);
+        final EnactmentSpecification specification = specProv.getSpecification();
+
+        specification.getMappings().mappingStream().forEach((map) -> PropertyServiceScheduler.setDuration(map,
+            map.getTarget().getId().equals(cloudResourceName) ? 1000.0 : 2000.0));
+        return specification;
+    }
+
+    @Test
+    void simulateWithoutOverhead() {
+        final ResourceModel model = new ResourceModel(new SimulatedResource("default", 1000, 0.0, 0.0, 0.0));
+
+        final SimulationResult result = new Simulator(model).simulate(setupSpecification(), new HashMap<>());
+
+        assertEquals(4000.0, result.getMakespan(), 0.001);
+        assertEquals(4, result.getCriticalPath().size());
+        assertEquals("taskNode1", result.getCriticalPath().get(0));
+        assertEquals("taskNode6", result.getCriticalPath().get(3));
+        assertEquals(6, result.getResourceStatistics().get(cloudResourceName).getTasks());
+    }
+
+    @Test
+    void simulateColdStartsAndLatency() {
+        final ResourceModel model = new ResourceModel(new SimulatedResource("default", 1000, 0.0, 0.0, 0.0))
+            .add(new SimulatedResource(cloudResourceName, 1000, 100.0, 500.0, 0.0));
+
+        final SimulationResult result = new Simulator(model).simulate(setupSpecification(), new HashMap<>());
+
+        // t1 and one of t2/t3 need a cold start, all others reuse a warm instance
+        assertEquals(6200.0, result.getMakespan(), 0.001);
+        assertEquals(2, result.getResourceStatistics().get(cloudResourceName).getColdStarts());
+        assertEquals(0.0, result.getResourceStatistics().get(cloudResourceName).getTotalWaitingTime(), 0.001);
+    }
+
+    @Test
+    void simulateLimitedConcurrency() {
+        final ResourceModel model = new ResourceModel(new SimulatedResource("default", 1000, 0.0, 0.0, 0.0))
+            .add(new SimulatedResource(cloudResourceName, 1, 0.0, 0.0, 0.0));
+
+        final SimulationResult result = new Simulator(model).simulate(setupSpecification(), new HashMap<>());
+
+        // All tasks are serialized on the single instance
+        assertEquals(6000.0, result.getMakespan(), 0.001);
+        final ResourceStatistics statistics = result.getResourceStatistics().get(cloudResourceName);
+        assertEquals(1, statistics.getMaxQueueLength());
+        assertEquals(3000.0, statistics.getTotalWaitingTime(), 0.001);
+        final List<String> criticalPath = result.getCriticalPath();
+        assertEquals(6, criticalPath.size());
+    }
+
+    @Test
+    void simulateTransferTime() {
+        final ResourceModel model = new ResourceModel(new SimulatedResource("default", 1000, 0.0, 0.0, 1.0))
+            .add(new SimulatedResource(cloudResourceName, 1000, 0.0, 0.0, 1.0));
+        final HashMap<String, Long> inputSizes = new HashMap<>();
+        inputSizes.put("commNode1", 100L);
+
+        final SimulationResult result = new Simulator(model).simulate(setupSpecification(), inputSizes);
+
+        // Only the workflow input crosses resources
+        assertEquals(4100.0, result.getMakespan(), 0.001);
+    }
+
+    /**
+     * Check that a specification cut with a blob store is simulated like the
+     * specification cut with the inlined cut out specification.
+     */
+    @Test
+    void simulateCutWithBlobStore(@TempDir Path directory) {
+        final ResourceModel model = new ResourceModel(new SimulatedResource("default", 1000, 0.0, 0.0, 0.0));
+        final BlobStore blobStore = new LocalFileBlobStore(directory);
+
+        final EnactmentSpecification inlined = cut(setupSpecification(), new Incision());
+        final EnactmentSpecification referenced = cut(setupSpecification(), new Incision(blobStore));
+
+        final double expected = new Simulator(model).simulate(inlined, new HashMap<>()).getMakespan();
+        assertEquals(expected, new Simulator(model, blobStore).simulate(referenced, new HashMap<>()).getMakespan(), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(model).simulate(referenced, new HashMap<>()));
+    }
+
+    /**
+     * Check that the encoded specifications of a cut (inlined and in a blob
+     * store) are decoded by the simulator.
+     */
+    @Test
+    void simulateEncodedCut(@TempDir Path directory) {
+        final ResourceModel model = new ResourceModel(new SimulatedResource("default", 1000, 0.0, 0.0, 0.0));
+        final BlobStore blobStore = new LocalFileBlobStore(directory);
+
+        final EnactmentSpecification plain = cut(setupSpecification(), new Incision());
+        final EnactmentSpecification inlined = cut(setupSpecification(),
+            new Incision(null, Long.MAX_VALUE, PayloadCodec.DEFLATE));
+        final EnactmentSpecification referenced = cut(setupSpecification(),
+            new Incision(blobStore, Long.MAX_VALUE, PayloadCodec.DEFLATE));
+
+        final double expected = new Simulator(model).simulate(plain, new HashMap<>()).getMakespan();
+        assertEquals(expected, new Simulator(model).simulate(inlined, new HashMap<>()).getMakespan(), 0.001);
+        assertEquals(expected, new Simulator(model, blobStore).simulate(referenced, new HashMap<>()).getMakespan(), 0.001);
+    }
+
+    /**
+     * Cut the nodes between commNode2, commNode3 and commNode6, commNode7 out
+     * of the medium sized graph.
+     *
+     * @param specification the specification to cut.
+     * @param incision the incision to cut with.
+     *
+     * @return the cut specification.
+     */
+    private EnactmentSpecification cut(final EnactmentSpecification specification, final Incision incision) {
+        final EnactmentGraph eGraph = specification.getEnactmentGraph();
+        final Set<Task> topCut = new HashSet<>();
+        final Set<Task> bottomCut = new HashSet<>();
+        topCut.add(eGraph.getVertex("commNode2"));
+        topCut.add(eGraph.getVertex("commNode3"));
+        bottomCut.add(eGraph.getVertex("commNode6"));
+        bottomCut.add(eGraph.getVertex("commNode7"));
+        incision.cut(specification, topCut, bottomCut);
+        return specification;
+    }
+
+    @Test
+    void invalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new SimulatedResource("r", 0, 0.0, 0.0, 0.0));
+    }
+}
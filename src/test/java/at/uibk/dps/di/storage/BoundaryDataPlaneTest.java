@@ -0,0 +1,81 @@
+package at.uibk.dps.di.storage;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the data plane for the values crossing cut boundaries.
+ *
+ * @author Stefan Pedratscher
+ */
+public class BoundaryDataPlaneTest {
+
+    /**
+     * Check that only large by-reference values are replaced by handles and
+     * that the handles resolve to the original values.
+     */
+    @Test
+    void checkEncodeDecode(@TempDir Path directory) {
+        BlobStore store = new LocalFileBlobStore(directory);
+        BoundaryDataPlane dataPlane = new BoundaryDataPlane(store, 100);
+
+        String large = new String(new char[500]).replace('\0', 'a');
+        JsonObject values = new JsonObject();
+        values.addProperty("in", large);
+        values.addProperty("small", "b");
+        values.addProperty("other", large);
+
+        JsonObject encoded = dataPlane.encode(values, new HashSet<>(Arrays.asList("in", "small")));
+        assertTrue(BoundaryDataPlane.isHandle(encoded.get("in")));
+        assertEquals(new JsonPrimitive("b"), encoded.get("small"));
+        assertEquals(new JsonPrimitive(large), encoded.get("other"));
+        assertTrue(encoded.toString().length() < values.toString().length());
+
+        assertEquals(values, dataPlane.decode(encoded));
+        assertEquals(values, dataPlane.decode(values));
+    }
+
+    /**
+     * Check that encoded values are stored as raw bytes and decoded when the
+     * handles are resolved.
+     */
+    @Test
+    void checkEncodedValues(@TempDir Path directory) {
+        BlobStore store = new LocalFileBlobStore(directory);
+        BoundaryDataPlane dataPlane = new BoundaryDataPlane(store, 0, PayloadCodec.DEFLATE);
+
+        JsonPrimitive value = new JsonPrimitive(new String(new char[5000]).replace('\0', 'a'));
+        JsonElement handle = dataPlane.encode(value);
+        byte[] blob = store.get(BlobStore.keyOf(handle.getAsJsonObject().get(BoundaryDataPlane.REFERENCE).getAsString()));
+        assertArrayEquals(PayloadCodec.DEFLATE.encodeBlob(value.toString()), blob);
+        assertEquals(value, dataPlane.decode(handle));
+    }
+
+    /**
+     * Check that plain objects are not mistaken for handles.
+     */
+    @Test
+    void checkHandles(@TempDir Path directory) {
+        BoundaryDataPlane dataPlane = new BoundaryDataPlane(new LocalFileBlobStore(directory), 0);
+
+        JsonObject plain = new JsonObject();
+        plain.addProperty(BoundaryDataPlane.REFERENCE, "value");
+        assertFalse(BoundaryDataPlane.isHandle(plain));
+        assertEquals(plain, dataPlane.decode((JsonElement) plain));
+
+        JsonElement handle = dataPlane.encode(new JsonPrimitive(1));
+        assertTrue(BoundaryDataPlane.isHandle(handle));
+        assertEquals(new JsonPrimitive(1), dataPlane.decode(handle));
+
+        assertThrows(IllegalArgumentException.class, () -> new BoundaryDataPlane(new LocalFileBlobStore(directory), -1));
+    }
+}
@@ -0,0 +1,52 @@
+package at.uibk.dps.di.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the content-addressed blob store.
+ *
+ * @author Stefan Pedratscher
+ */
+public class LocalFileBlobStoreTest {
+
+    /**
+     * Check that blobs are stored once under their hash and can be resolved
+     * by reference.
+     */
+    @Test
+    void checkPutAndGet(@TempDir Path directory) throws Exception {
+        BlobStore store = new LocalFileBlobStore(directory);
+        String key = store.put("<specification/>");
+
+        assertEquals(64, key.length());
+        assertEquals(key, store.put("<specification/>".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(store.contains(key));
+        assertEquals("<specification/>", new String(store.get(key), StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+
+        String reference = BlobStore.reference(key);
+        assertTrue(BlobStore.isReference(reference));
+        assertEquals(key, BlobStore.keyOf(reference));
+    }
+
+    /**
+     * Check that unknown and malformed keys are rejected.
+     */
+    @Test
+    void checkInvalidKeys(@TempDir Path directory) {
+        BlobStore store = new LocalFileBlobStore(directory);
+        assertThrows(IllegalArgumentException.class, () -> store.get(BlobStore.key(new byte[]{1})));
+        assertThrows(IllegalArgumentException.class, () -> store.get("../secret"));
+        assertThrows(IllegalArgumentException.class, () -> BlobStore.keyOf("specification"));
+    }
+}
@@ -0,0 +1,142 @@
+package at.uibk.dps.di.storage;
+
+import at.uibk.dps.di.constants.EnactmentGraphs;
+import at.uibk.dps.di.incision.Utility;
+import at.uibk.dps.ee.model.graph.EnactmentGraph;
+import at.uibk.dps.ee.model.graph.EnactmentSpecification;
+import at.uibk.dps.ee.model.graph.MappingsConcurrent;
+import at.uibk.dps.ee.model.graph.ResourceGraph;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the codecs of the payloads crossing the distributed engine node.
+ *
+ * @author Stefan Pedratscher
+ */
+public class PayloadCodecTest {
+
+    /**
+     * Check the round trip of both codecs and the self-describing strings.
+     */
+    @Test
+    void checkRoundTrip() {
+        String payload = "{\"in\": \"" + new String(new char[10000]).replace('\0', 'x') + "\"}";
+
+        assertEquals(payload, PayloadCodec.IDENTITY.encodeString(payload));
+        assertEquals(payload, PayloadCodec.decodeString(payload));
+
+        String encoded = PayloadCodec.DEFLATE.encodeString(payload);
+        assertTrue(encoded.startsWith(PayloadCodec.PREFIX + "deflate:"));
+        assertTrue(encoded.length() < payload.length() / 10);
+        assertFalse(encoded.contains("\"") || encoded.contains("\n"));
+        assertEquals(payload, PayloadCodec.decodeString(encoded));
+
+        byte[] empty = new byte[0];
+        assertArrayEquals(empty, PayloadCodec.DEFLATE.decode(PayloadCodec.DEFLATE.encode(empty)));
+    }
+
+    /**
+     * Check that malformed payloads and unknown codecs are rejected.
+     */
+    @Test
+    void checkMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> PayloadCodec.decodeString("codec:zstd:AAAA"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadCodec.decodeString("codec:deflate"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadCodec.DEFLATE.decode(new byte[]{1, 2, 3}));
+    }
+
+    /**
+     * Check the negotiation of the codec through the configuration.
+     */
+    @Test
+    void checkNegotiation() {
+        String configuration = Utility.withCodec(Utility.DE_CONFIGURATION_NO_DOCKER, PayloadCodec.DEFLATE);
+        assertEquals(PayloadCodec.DEFLATE, Utility.codecOf(configuration));
+        assertEquals(PayloadCodec.DEFLATE, Utility.codecOf(configuration.replace("\"", "'")));
+        assertEquals(PayloadCodec.IDENTITY, Utility.codecOf(Utility.DE_CONFIGURATION_NO_DOCKER));
+        assertEquals(Utility.DE_CONFIGURATION_NO_DOCKER, Utility.withCodec(configuration, PayloadCodec.IDENTITY));
+    }
+
+    /**
+     * Check that the specifications of the test graphs and of a generated
+     * large specification are compressed and restored by both encodings.
+     */
+    @Test
+    void checkSpecifications() {
+        List<EnactmentGraph> graphs = Arrays.asList(
+            EnactmentGraphs.getMediumSizedEnactmentGraph(),
+            EnactmentGraphs.getMediumSizedEnactmentGraph2(),
+            EnactmentGraphs.getMediumSizedEnactmentGraph3(),
+            EnactmentGraphs.getComplexEnactmentGraph());
+        for (EnactmentGraph eGraph : graphs) {
+            checkSpecification(Utility.fromEnactmentSpecificationToString(new EnactmentSpecification(eGraph,
+                new ResourceGraph(), new MappingsConcurrent(), UUID.randomUUID().toString())));
+        }
+        checkSpecification(generateSpecification(2000));
+    }
+
+    /**
+     * Check the round trip of a specification through the string and the blob
+     * encoding.
+     *
+     * @param specification the specification.
+     */
+    private void checkSpecification(final String specification) {
+        int size = specification.getBytes(StandardCharsets.UTF_8).length;
+        String encoded = PayloadCodec.DEFLATE.encodeString(specification);
+        byte[] blob = PayloadCodec.DEFLATE.encodeBlob(specification);
+        assertEquals(specification, PayloadCodec.decodeString(encoded));
+        assertEquals(specification, PayloadCodec.decodeBlob(blob));
+        assertTrue(encoded.length() < size);
+        assertTrue(blob.length < encoded.length());
+    }
+
+    /**
+     * Check that blobs carry the raw encoded bytes behind the prefix.
+     */
+    @Test
+    void checkBlob() {
+        String payload = "{\"in\": \"" + new String(new char[10000]).replace('\0', 'x') + "\"}";
+
+        assertArrayEquals(payload.getBytes(StandardCharsets.UTF_8), PayloadCodec.IDENTITY.encodeBlob(payload));
+        assertEquals(payload, PayloadCodec.decodeBlob(payload.getBytes(StandardCharsets.UTF_8)));
+
+        byte[] blob = PayloadCodec.DEFLATE.encodeBlob(payload);
+        byte[] prefix = (PayloadCodec.PREFIX + "deflate:").getBytes(StandardCharsets.US_ASCII);
+        assertArrayEquals(prefix, Arrays.copyOf(blob, prefix.length));
+        assertArrayEquals(PayloadCodec.DEFLATE.encode(payload.getBytes(StandardCharsets.UTF_8)),
+            Arrays.copyOfRange(blob, prefix.length, blob.length));
+        assertEquals(payload, PayloadCodec.decodeBlob(blob));
+        assertThrows(IllegalArgumentException.class,
+            () -> PayloadCodec.decodeBlob("codec:deflate".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Generate a large specification with repeated OpenDSE attributes.
+     *
+     * @param tasks the number of tasks.
+     *
+     * @return the specification.
+     */
+    private String generateSpecification(final int tasks) {
+        StringBuilder builder = new StringBuilder("<specification xmlns=\"http://opendse.sourceforge.net\">\n<application>\n");
+        for (int i = 0; i < tasks; i++) {
+            builder.append("<task class=\"net.sf.opendse.model.Task\" id=\"function").append(i).append("\">\n")
+                .append("<attributes>\n")
+                .append("<attribute name=\"FunctionType\" type=\"java.lang.String\">function").append(i % 7).append("</attribute>\n")
+                .append("<attribute name=\"UsageType\" type=\"java.lang.String\">User</attribute>\n")
+                .append("</attributes>\n</task>\n")
+                .append("<communication class=\"net.sf.opendse.model.Communication\" id=\"data").append(i).append("\">\n")
+                .append("<attributes>\n<attribute name=\"DataType\" type=\"java.lang.String\">Number</attribute>\n")
+                .append("</attributes>\n</communication>\n");
+        }
+        return builder.append("</application>\n</specification>\n").toString();
+    }
+}